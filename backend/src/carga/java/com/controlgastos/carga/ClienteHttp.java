@@ -0,0 +1,106 @@
+package com.controlgastos.carga;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cliente HTTP mínimo sobre {@link HttpURLConnection}, que reutiliza las
+ * conexiones (keep-alive) si se lee la respuesta completa.
+ */
+final class ClienteHttp {
+
+    private static final int TIEMPO_ESPERA_MS = 30_000;
+
+    private final String base;
+    private volatile String token;
+
+    /**
+     * @param base URL del servidor, p. ej. {@code http://localhost:8080}.
+     */
+    ClienteHttp(String base) {
+        this.base = base;
+    }
+
+    /**
+     * @param token token JWT que se envía en {@code Authorization} a partir de
+     *              ahora.
+     */
+    void usarToken(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Envía una petición y descarta la respuesta.
+     *
+     * @return código de estado HTTP.
+     * @throws IOException si falla la conexión.
+     */
+    int enviar(String metodo, String ruta, byte[] cuerpo) throws IOException {
+        return enviar(metodo, ruta, cuerpo, null);
+    }
+
+    /**
+     * Envía una petición.
+     *
+     * @param metodo    método HTTP.
+     * @param ruta      ruta con parámetros, relativa a la base.
+     * @param cuerpo    cuerpo JSON, o {@code null}.
+     * @param respuesta destino del cuerpo de la respuesta, o {@code null} para
+     *                  descartarlo.
+     * @return código de estado HTTP.
+     * @throws IOException si falla la conexión.
+     */
+    int enviar(String metodo, String ruta, byte[] cuerpo, ByteArrayOutputStream respuesta) throws IOException {
+        HttpURLConnection conexion = (HttpURLConnection) new URL(base + ruta).openConnection();
+        conexion.setConnectTimeout(TIEMPO_ESPERA_MS);
+        conexion.setReadTimeout(TIEMPO_ESPERA_MS);
+        conexion.setRequestMethod(metodo);
+        String actual = token;
+        if (actual != null) {
+            conexion.setRequestProperty("Authorization", "Bearer " + actual);
+        }
+        if (cuerpo != null) {
+            conexion.setDoOutput(true);
+            conexion.setRequestProperty("Content-Type", "application/json");
+            conexion.setFixedLengthStreamingMode(cuerpo.length);
+            try (OutputStream salida = conexion.getOutputStream()) {
+                salida.write(cuerpo);
+            }
+        }
+        int estado = conexion.getResponseCode();
+        InputStream entrada = estado < 400 ? conexion.getInputStream() : conexion.getErrorStream();
+        if (entrada != null) {
+            // Leer hasta el final devuelve la conexión al pool de keep-alive
+            try (InputStream e = entrada) {
+                byte[] buffer = new byte[8192];
+                int leidos;
+                while ((leidos = e.read(buffer)) > 0) {
+                    if (respuesta != null) {
+                        respuesta.write(buffer, 0, leidos);
+                    }
+                }
+            }
+        }
+        return estado;
+    }
+
+    /**
+     * Envía una petición y devuelve el cuerpo como texto.
+     *
+     * @throws IOException si falla la conexión o el estado no es 2xx.
+     */
+    String enviarYLeer(String metodo, String ruta, byte[] cuerpo) throws IOException {
+        ByteArrayOutputStream respuesta = new ByteArrayOutputStream();
+        int estado = enviar(metodo, ruta, cuerpo, respuesta);
+        String texto = new String(respuesta.toByteArray(), StandardCharsets.UTF_8);
+        if (estado / 100 != 2) {
+            throw new IOException(metodo + " " + ruta + " respondió " + estado + ": " + texto);
+        }
+        return texto;
+    }
+}
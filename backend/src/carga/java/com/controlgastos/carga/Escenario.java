@@ -0,0 +1,84 @@
+package com.controlgastos.carga;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Peticiones que genera la prueba de carga.
+ *
+ * <p>
+ * {@code GET /api/gasto} se pide paginado ({@code limite=50}), como lo hace el
+ * frontend: sin límite responde todos los gastos y el tiempo crecería con
+ * los que insertan los demás escenarios.
+ * </p>
+ */
+enum Escenario {
+
+    LOGIN("login", "POST", "/auth/login"),
+    POST_GASTO("post-gasto", "POST", "/api/gasto"),
+    POST_INGRESO("post-ingreso", "POST", "/api/ingreso"),
+    GET_CAPITAL("get-capital", "GET", "/api/capital"),
+    GET_GASTO("get-gasto", "GET", "/api/gasto?limite=50");
+
+    private final String nombre;
+    private final String metodo;
+    private final String ruta;
+
+    Escenario(String nombre, String metodo, String ruta) {
+        this.nombre = nombre;
+        this.metodo = metodo;
+        this.ruta = ruta;
+    }
+
+    /**
+     * @param nombre nombre del escenario, p. ej. {@code post-gasto}.
+     * @return el escenario con ese nombre.
+     * @throws IllegalArgumentException si no existe.
+     */
+    static Escenario deNombre(String nombre) {
+        for (Escenario escenario : values()) {
+            if (escenario.nombre.equals(nombre)) {
+                return escenario;
+            }
+        }
+        throw new IllegalArgumentException("Escenario desconocido: " + nombre);
+    }
+
+    /**
+     * Cuerpo JSON de la petición número {@code n}; los conceptos rotan para no
+     * repetir siempre el mismo.
+     *
+     * @param n        número de petición.
+     * @param usuario  usuario de la prueba.
+     * @param password contraseña del usuario.
+     * @return cuerpo en UTF-8, o {@code null} si la petición no lleva cuerpo.
+     */
+    byte[] cuerpo(long n, String usuario, String password) {
+        String json;
+        switch (this) {
+            case LOGIN:
+                json = "{\"username\":\"" + usuario + "\",\"password\":\"" + password + "\"}";
+                break;
+            case POST_GASTO:
+                json = "{\"concepto\":\"gasto " + (n % 1000) + "\",\"monto\":" + (100 + n % 10000) / 100.0 + "}";
+                break;
+            case POST_INGRESO:
+                json = "{\"concepto\":\"ingreso " + (n % 1000) + "\",\"monto\":" + (1000 + n % 10000) / 100.0 + "}";
+                break;
+            default:
+                return null;
+        }
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    String getNombre() {
+        return nombre;
+    }
+
+    String getMetodo() {
+        return metodo;
+    }
+
+    String getRuta() {
+        return ruta;
+    }
+}
@@ -0,0 +1,165 @@
+package com.controlgastos.carga;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Genera carga sobre un escenario con un modelo abierto o cerrado.
+ *
+ * <p>
+ * <strong>Modelo abierto</strong> (tasa de llegada constante): un hilo
+ * despachador programa la petición i en {@code inicio + i / tasa} y la entrega
+ * a un pool fijo; si el servidor se atrasa, las peticiones esperan en la cola
+ * del pool y esa espera cuenta en la latencia corregida. Así se comportan
+ * muchos clientes independientes. Las que no terminan dentro de
+ * {@value #ESPERA_FINAL_SEGUNDOS} s después del fin se cuentan como
+ * {@link Resultado#SIN_TERMINAR} en lugar de descartarse.
+ * </p>
+ *
+ * <p>
+ * <strong>Modelo cerrado</strong>: cada usuario envía la siguiente petición
+ * sólo cuando recibió la anterior. Con tasa objetivo, cada usuario sigue su
+ * propio calendario ({@code usuarios / tasa} entre peticiones) y la latencia
+ * corregida se mide desde el instante programado, como hace wrk2; con
+ * {@code tasa=0} envía a máxima velocidad, mide el rendimiento máximo y la
+ * latencia corregida coincide con la de servicio.
+ * </p>
+ */
+final class Generador {
+
+    /** Espera por las peticiones en curso al terminar el modelo abierto. */
+    private static final long ESPERA_FINAL_SEGUNDOS = 60;
+
+    private final ClienteHttp cliente;
+    private final String usuario;
+    private final String password;
+    private final AtomicLong secuencia = new AtomicLong();
+
+    /**
+     * @param cliente  cliente HTTP ya autenticado.
+     * @param usuario  usuario de la prueba, para el escenario de login.
+     * @param password contraseña del usuario.
+     */
+    Generador(ClienteHttp cliente, String usuario, String password) {
+        this.cliente = cliente;
+        this.usuario = usuario;
+        this.password = password;
+    }
+
+    /**
+     * Ejecuta el modelo abierto.
+     *
+     * @param escenario    escenario a medir.
+     * @param tasa         peticiones por segundo (mayor que 0).
+     * @param hilos        hilos que envían las peticiones.
+     * @param calentamiento nanosegundos iniciales que no se miden.
+     * @param duracion     nanosegundos medidos.
+     * @return mediciones.
+     * @throws InterruptedException si se interrumpe la espera.
+     */
+    Resultado abierto(Escenario escenario, double tasa, int hilos, long calentamiento, long duracion)
+            throws InterruptedException {
+        if (tasa <= 0) {
+            throw new IllegalArgumentException("El modelo abierto requiere una tasa positiva: " + escenario.getNombre());
+        }
+        Resultado resultado = new Resultado(escenario, "abierto", tasa, hilos);
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        double intervalo = 1e9 / tasa;
+        long inicio = System.nanoTime();
+        long medirDesde = inicio + calentamiento;
+        long fin = medirDesde + duracion;
+        for (long i = 0;; i++) {
+            long programado = inicio + (long) (i * intervalo);
+            if (programado >= fin) {
+                break;
+            }
+            esperarHasta(programado);
+            // Se mide según el instante programado, no el de la respuesta
+            long turno = programado >= medirDesde ? resultado.iniciar(programado) : 0;
+            pool.execute(() -> ejecutar(escenario, resultado, turno));
+        }
+        pool.shutdown();
+        pool.awaitTermination(ESPERA_FINAL_SEGUNDOS, TimeUnit.SECONDS);
+        // Lo que siga en cola o en curso cuenta como sin terminar; las
+        // respuestas que lleguen después se ignoran
+        resultado.terminar(medirDesde, System.nanoTime());
+        pool.shutdownNow();
+        return resultado;
+    }
+
+    /**
+     * Ejecuta el modelo cerrado.
+     *
+     * @param escenario    escenario a medir.
+     * @param tasa         peticiones por segundo entre todos los usuarios, o
+     *                     0 para enviar sin pausa.
+     * @param usuarios     usuarios simultáneos.
+     * @param calentamiento nanosegundos iniciales que no se miden.
+     * @param duracion     nanosegundos medidos.
+     * @return mediciones.
+     * @throws InterruptedException si se interrumpe la espera.
+     */
+    Resultado cerrado(Escenario escenario, double tasa, int usuarios, long calentamiento, long duracion)
+            throws InterruptedException {
+        Resultado resultado = new Resultado(escenario, "cerrado", tasa, usuarios);
+        long inicio = System.nanoTime();
+        long medirDesde = inicio + calentamiento;
+        long fin = medirDesde + duracion;
+        double intervalo = tasa > 0 ? 1e9 * usuarios / tasa : 0;
+        Thread[] hilos = new Thread[usuarios];
+        for (int u = 0; u < usuarios; u++) {
+            // Escalonados para no enviar todos en el mismo instante
+            double desfase = intervalo * u / usuarios;
+            hilos[u] = new Thread(() -> {
+                for (long i = 0;; i++) {
+                    long programado;
+                    if (intervalo > 0) {
+                        programado = inicio + (long) (desfase + i * intervalo);
+                        esperarHasta(programado);
+                    } else {
+                        programado = System.nanoTime();
+                    }
+                    if (programado >= fin) {
+                        break;
+                    }
+                    ejecutar(escenario, resultado, programado >= medirDesde ? resultado.iniciar(programado) : 0);
+                }
+            }, "carga-" + escenario.getNombre() + "-" + u);
+            hilos[u].start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        resultado.terminar(medirDesde, System.nanoTime());
+        return resultado;
+    }
+
+    /**
+     * Envía una petición y, si está anotada ({@code turno > 0}), registra su
+     * respuesta.
+     */
+    private void ejecutar(Escenario escenario, Resultado resultado, long turno) {
+        byte[] cuerpo = escenario.cuerpo(secuencia.getAndIncrement(), usuario, password);
+        long enviado = System.nanoTime();
+        int estado;
+        try {
+            estado = cliente.enviar(escenario.getMetodo(), escenario.getRuta(), cuerpo);
+        } catch (IOException e) {
+            estado = Resultado.SIN_RESPUESTA;
+        }
+        if (turno > 0) {
+            resultado.registrar(turno, estado, enviado, System.nanoTime());
+        }
+    }
+
+    private static void esperarHasta(long instante) {
+        long restante;
+        while ((restante = instante - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(restante);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.controlgastos.carga;
+
+import com.controlgastos.DemoApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de carga de la API REST dentro del mismo proceso.
+ *
+ * <p>
+ * <strong>Uso:</strong>
+ * </p>
+ *
+ * <pre>
+ * mvn -Pcarga -DskipTests verify -Dcarga.argumentos="--carga.modelo=cerrado --carga.usuarios=32"
+ * </pre>
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>Levanta {@link DemoApplication} con el perfil {@code carga} (H2 en
+ * memoria, puerto libre, sin log de SQL).</li>
+ * <li>Registra un usuario e inicia sesión para obtener su token; las
+ * peticiones a {@code /api/**} lo envían.</li>
+ * <li>Ejecuta los escenarios de {@code carga.escenarios} uno tras otro, cada
+ * uno con su calentamiento, con el modelo de {@code carga.modelo}
+ * ({@link Generador}).</li>
+ * <li>Escribe el reporte de la corrida ({@link Reporte}) y lo compara con
+ * {@code carga.base} si se indicó.</li>
+ * </ol>
+ *
+ * <p>
+ * Los parámetros son propiedades de Spring ({@code --carga.clave=valor}) con
+ * valores por defecto en {@code application-carga.properties}; con
+ * {@code --propiedad=valor} también se cambia la configuración de la
+ * aplicación, p. ej. {@code --escrituras.grupo.habilitado=false}. Cliente y
+ * servidor comparten la CPU: los resultados sirven para comparar corridas en
+ * la misma máquina, no como capacidad absoluta.
+ * </p>
+ */
+public class PruebaCarga {
+
+    private static final String USUARIO = "carga";
+    private static final String PASSWORD = "carga-password";
+
+    /**
+     * Ejecuta la prueba.
+     *
+     * @param args propiedades de Spring ({@code --clave=valor}).
+     * @throws Exception si la prueba no puede completarse.
+     */
+    public static void main(String[] args) throws Exception {
+        // Sin el reinicio de devtools: la aplicación corre en un solo classloader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("carga")
+                .run(args)) {
+            Environment entorno = contexto.getEnvironment();
+            String modelo = entorno.getProperty("carga.modelo", "abierto");
+            if (!modelo.equals("abierto") && !modelo.equals("cerrado")) {
+                throw new IllegalArgumentException("carga.modelo debe ser abierto o cerrado: " + modelo);
+            }
+            Map<Escenario, Double> escenarios = escenarios(entorno.getRequiredProperty("carga.escenarios"));
+            int hilos = entorno.getProperty("carga.hilos", Integer.class, 64);
+            int usuarios = entorno.getProperty("carga.usuarios", Integer.class, 16);
+            long calentamiento = TimeUnit.SECONDS.toNanos(entorno.getProperty("carga.calentamiento-s", Long.class, 10L));
+            long duracion = TimeUnit.SECONDS.toNanos(entorno.getProperty("carga.duracion-s", Long.class, 30L));
+            String base = entorno.getProperty("carga.base", "");
+
+            // Conexiones keep-alive que conserva HttpURLConnection por servidor
+            System.setProperty("http.maxConnections", String.valueOf(Math.max(hilos, usuarios)));
+            int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            ClienteHttp cliente = new ClienteHttp("http://localhost:" + puerto);
+            autenticar(cliente);
+
+            Generador generador = new Generador(cliente, USUARIO, PASSWORD);
+            List<Resultado> resultados = new ArrayList<>();
+            for (Map.Entry<Escenario, Double> escenario : escenarios.entrySet()) {
+                System.out.println("Escenario " + escenario.getKey().getNombre() + " (" + modelo + ", "
+                        + escenario.getValue() + " req/s)");
+                resultados.add(modelo.equals("abierto")
+                        ? generador.abierto(escenario.getKey(), escenario.getValue(), hilos, calentamiento, duracion)
+                        : generador.cerrado(escenario.getKey(), escenario.getValue(), usuarios, calentamiento,
+                                duracion));
+            }
+
+            Map<String, Object> configuracion = new LinkedHashMap<>();
+            configuracion.put("modelo", modelo);
+            configuracion.put("escenarios", entorno.getProperty("carga.escenarios"));
+            configuracion.put(modelo.equals("abierto") ? "hilos" : "usuarios",
+                    modelo.equals("abierto") ? hilos : usuarios);
+            configuracion.put("calentamientoS", TimeUnit.NANOSECONDS.toSeconds(calentamiento));
+            configuracion.put("duracionS", TimeUnit.NANOSECONDS.toSeconds(duracion));
+            configuracion.put("argumentos", String.join(" ", args));
+            new Reporte().escribir(Paths.get(entorno.getProperty("carga.salida", "target/carga")), configuracion,
+                    resultados, base.isEmpty() ? null : Paths.get(base), System.out);
+        }
+    }
+
+    /**
+     * Interpreta {@code nombre[:tasa],...}; sin tasa se usa 0 (sólo válido en
+     * el modelo cerrado).
+     */
+    private static Map<Escenario, Double> escenarios(String valor) {
+        Map<Escenario, Double> escenarios = new LinkedHashMap<>();
+        for (String parte : valor.split(",")) {
+            String[] campos = parte.trim().split(":");
+            escenarios.put(Escenario.deNombre(campos[0].trim()),
+                    campos.length > 1 ? Double.parseDouble(campos[1].trim()) : 0);
+        }
+        return escenarios;
+    }
+
+    private static void autenticar(ClienteHttp cliente) throws Exception {
+        byte[] credenciales = ("{\"username\":\"" + USUARIO + "\",\"password\":\"" + PASSWORD + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        cliente.enviarYLeer("POST", "/auth/register", credenciales);
+        String respuesta = cliente.enviarYLeer("POST", "/auth/login", credenciales);
+        cliente.usarToken(new ObjectMapper().readTree(respuesta).path("token").asText());
+    }
+}
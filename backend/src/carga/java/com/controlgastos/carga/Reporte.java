@@ -0,0 +1,116 @@
+package com.controlgastos.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reporte de una corrida de la prueba de carga.
+ *
+ * <p>
+ * Cada corrida escribe en su propio directorio ({@code <salida>/<fecha>}):
+ * </p>
+ * <ol>
+ * <li>{@code reporte.json}: configuración, entorno y, por escenario,
+ * solicitudes, errores por código, rendimiento y percentiles de latencia.
+ * Tiene siempre la misma forma, así que dos corridas se comparan
+ * directamente o con {@code carga.base}.</li>
+ * <li>{@code <escenario>.hgrm}: distribución completa de la latencia
+ * corregida en el formato de HdrHistogram, que se puede graficar con su
+ * plotter.</li>
+ * </ol>
+ */
+final class Reporte {
+
+    private static final DateTimeFormatter FORMATO_DIRECTORIO = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * Escribe el reporte e imprime un resumen.
+     *
+     * @param salida        directorio base de los reportes.
+     * @param configuracion parámetros de la corrida.
+     * @param resultados    mediciones por escenario.
+     * @param base          {@code reporte.json} de una corrida anterior con
+     *                      que comparar, o {@code null}.
+     * @param consola       destino del resumen.
+     * @return directorio de la corrida.
+     * @throws IOException si no se puede escribir.
+     */
+    Path escribir(Path salida, Map<String, Object> configuracion, List<Resultado> resultados, Path base,
+            PrintStream consola) throws IOException {
+        LocalDateTime fecha = LocalDateTime.now();
+        Path directorio = salida.resolve(fecha.format(FORMATO_DIRECTORIO));
+        Files.createDirectories(directorio);
+
+        Map<String, Object> entorno = new LinkedHashMap<>();
+        entorno.put("java", System.getProperty("java.version"));
+        entorno.put("vm", System.getProperty("java.vm.name"));
+        entorno.put("so", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        entorno.put("procesadores", Runtime.getRuntime().availableProcessors());
+        entorno.put("memoriaMaximaMb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+
+        Map<String, Object> escenarios = new LinkedHashMap<>();
+        for (Resultado resultado : resultados) {
+            escenarios.put(resultado.getEscenario().getNombre(), resultado.aMapa());
+            try (PrintStream hgrm = new PrintStream(
+                    Files.newOutputStream(directorio.resolve(resultado.getEscenario().getNombre() + ".hgrm")))) {
+                // Microsegundos a milisegundos
+                resultado.getHistogramaCorregido().outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+
+        Map<String, Object> reporte = new LinkedHashMap<>();
+        reporte.put("fecha", fecha.toString());
+        reporte.put("configuracion", configuracion);
+        reporte.put("entorno", entorno);
+        reporte.put("escenarios", escenarios);
+        objectMapper.writeValue(directorio.resolve("reporte.json").toFile(), reporte);
+
+        imprimir(resultados, base == null ? null : objectMapper.readTree(base.toFile()).path("escenarios"), consola);
+        consola.println("Reporte: " + directorio.toAbsolutePath());
+        return directorio;
+    }
+
+    private static void imprimir(List<Resultado> resultados, JsonNode base, PrintStream consola) {
+        consola.printf("%-14s %9s %8s %10s %9s %9s %9s %9s %9s%n", "escenario", "solicitud", "errores",
+                "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "p99 serv");
+        for (Resultado resultado : resultados) {
+            Map<String, Object> mapa = resultado.aMapa();
+            @SuppressWarnings("unchecked")
+            Map<String, Double> latencia = (Map<String, Double>) mapa.get("latenciaMs");
+            @SuppressWarnings("unchecked")
+            Map<String, Double> servicio = (Map<String, Double>) mapa.get("latenciaServicioMs");
+            consola.printf("%-14s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    resultado.getEscenario().getNombre(), resultado.solicitudes(), resultado.errores(),
+                    resultado.rendimiento(), latencia.get("p50"), latencia.get("p99"), latencia.get("p999"),
+                    latencia.get("max"), servicio.get("p99"));
+            JsonNode anterior = base == null ? null : base.get(resultado.getEscenario().getNombre());
+            if (anterior != null) {
+                consola.printf("%-14s %9s %8s %10s %9s %9s %9s%n", "  vs base", "", "",
+                        variacion(resultado.rendimiento(), anterior.path("rendimiento").asDouble()),
+                        variacion(latencia.get("p50"), anterior.path("latenciaMs").path("p50").asDouble()),
+                        variacion(latencia.get("p99"), anterior.path("latenciaMs").path("p99").asDouble()),
+                        variacion(latencia.get("p999"), anterior.path("latenciaMs").path("p999").asDouble()));
+            }
+        }
+    }
+
+    private static String variacion(double actual, double anterior) {
+        if (anterior == 0) {
+            return "-";
+        }
+        return String.format("%+.1f%%", (actual - anterior) * 100 / anterior);
+    }
+}
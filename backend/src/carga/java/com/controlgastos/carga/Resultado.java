@@ -0,0 +1,236 @@
+package com.controlgastos.carga;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Mediciones de un escenario: dos histogramas de latencia en microsegundos y
+ * las respuestas por código de estado.
+ *
+ * <p>
+ * <strong>Latencias:</strong>
+ * </p>
+ * <ol>
+ * <li><em>Corregida</em>: desde el instante en que la petición debía
+ * enviarse según la tasa objetivo hasta la respuesta. Incluye la espera
+ * cuando el servidor se atrasa, así que no sufre de <em>coordinated
+ * omission</em>; es la que se compara entre corridas.</li>
+ * <li><em>De servicio</em>: desde el envío real hasta la respuesta. Es lo que
+ * mediría un cliente ingenuo; la diferencia con la corregida muestra cuánto
+ * esconde.</li>
+ * </ol>
+ *
+ * <p>
+ * Cada petición medida se anota con {@link #iniciar} antes de encolarse y se
+ * cierra con {@link #registrar}. Las que siguen pendientes en
+ * {@link #terminar} (en cola o sin respuesta) se registran como
+ * {@link #SIN_TERMINAR} con latencia corregida hasta el cierre: descartarlas
+ * escondería justo las peores, que es otra forma de <em>coordinated
+ * omission</em>. Después del cierre no se acepta ningún registro.
+ * </p>
+ *
+ * <p>
+ * Es seguro para uso concurrente: {@link Recorder} admite escritores
+ * simultáneos sin bloqueo, y el cierre excluye a los registros en curso.
+ * </p>
+ */
+final class Resultado {
+
+    /** Código usado para las peticiones que fallaron sin respuesta HTTP. */
+    static final int SIN_RESPUESTA = -1;
+
+    /** Código usado para las peticiones medidas que no terminaron antes del cierre. */
+    static final int SIN_TERMINAR = -2;
+
+    private final Escenario escenario;
+    private final String modelo;
+    private final double tasaObjetivo;
+    private final int concurrencia;
+
+    private final Recorder corregida = new Recorder(3);
+    private final Recorder servicio = new Recorder(3);
+    private final Map<Integer, LongAdder> estados = new ConcurrentHashMap<>();
+    private final AtomicLong ultimaRespuesta = new AtomicLong();
+
+    /** Instante programado de cada petición medida aún sin registrar, por turno. */
+    private final Map<Long, Long> pendientes = new ConcurrentHashMap<>();
+    private final AtomicLong turnos = new AtomicLong();
+
+    /** Los registros toman la lectura; el cierre, la escritura. */
+    private final ReentrantReadWriteLock cierre = new ReentrantReadWriteLock();
+    private boolean cerrado;
+    private long sinTerminar;
+
+    private long inicio;
+    private Histogram histogramaCorregido;
+    private Histogram histogramaServicio;
+
+    /**
+     * @param escenario    escenario medido.
+     * @param modelo       {@code abierto} o {@code cerrado}.
+     * @param tasaObjetivo peticiones por segundo buscadas (0 = sin límite).
+     * @param concurrencia hilos del generador o usuarios del modelo cerrado.
+     */
+    Resultado(Escenario escenario, String modelo, double tasaObjetivo, int concurrencia) {
+        this.escenario = escenario;
+        this.modelo = modelo;
+        this.tasaObjetivo = tasaObjetivo;
+        this.concurrencia = concurrencia;
+    }
+
+    /**
+     * Anota una petición medida antes de encolarla; las del calentamiento no
+     * se anotan.
+     *
+     * @param programado instante en que debe enviarse.
+     * @return turno para {@link #registrar}.
+     */
+    long iniciar(long programado) {
+        long turno = turnos.incrementAndGet();
+        pendientes.put(turno, programado);
+        return turno;
+    }
+
+    /**
+     * Registra la respuesta de una petición anotada.
+     *
+     * @param turno      turno de {@link #iniciar}.
+     * @param estado     código de estado o {@link #SIN_RESPUESTA}.
+     * @param enviado    instante en que se envió.
+     * @param respondido instante en que terminó.
+     * @return {@code false} si la medición ya se cerró y la petición quedó
+     *         contada como {@link #SIN_TERMINAR}.
+     */
+    boolean registrar(long turno, int estado, long enviado, long respondido) {
+        cierre.readLock().lock();
+        try {
+            Long programado = cerrado ? null : pendientes.remove(turno);
+            if (programado == null) {
+                return false;
+            }
+            corregida.recordValue(Math.max(0, respondido - programado) / 1000);
+            servicio.recordValue(Math.max(0, respondido - enviado) / 1000);
+            estados.computeIfAbsent(estado, e -> new LongAdder()).increment();
+            ultimaRespuesta.accumulateAndGet(respondido, Math::max);
+            return true;
+        } finally {
+            cierre.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cierra la medición: deja de aceptar registros y cuenta las peticiones
+     * pendientes como {@link #SIN_TERMINAR}, con latencia corregida hasta
+     * {@code corte}. No entran en la latencia de servicio, porque puede que
+     * ni se hayan enviado.
+     *
+     * @param inicio instante ({@link System#nanoTime()}) en que terminó el
+     *               calentamiento, desde el que se calcula el rendimiento.
+     * @param corte  instante en que se dejó de esperar respuestas.
+     */
+    void terminar(long inicio, long corte) {
+        cierre.writeLock().lock();
+        try {
+            cerrado = true;
+            for (Long programado : pendientes.values()) {
+                corregida.recordValue(Math.max(0, corte - programado) / 1000);
+                estados.computeIfAbsent(SIN_TERMINAR, e -> new LongAdder()).increment();
+                sinTerminar++;
+            }
+            pendientes.clear();
+            this.inicio = inicio;
+            histogramaCorregido = corregida.getIntervalHistogram();
+            histogramaServicio = servicio.getIntervalHistogram();
+        } finally {
+            cierre.writeLock().unlock();
+        }
+    }
+
+    Escenario getEscenario() {
+        return escenario;
+    }
+
+    Histogram getHistogramaCorregido() {
+        return histogramaCorregido;
+    }
+
+    Histogram getHistogramaServicio() {
+        return histogramaServicio;
+    }
+
+    long solicitudes() {
+        return histogramaCorregido.getTotalCount();
+    }
+
+    /** @return respuestas que no fueron 2xx, incluidas las fallidas y las sin terminar. */
+    long errores() {
+        long errores = 0;
+        for (Map.Entry<Integer, LongAdder> entrada : estados.entrySet()) {
+            if (entrada.getKey() / 100 != 2) {
+                errores += entrada.getValue().sum();
+            }
+        }
+        return errores;
+    }
+
+    /** @return respuestas por segundo durante la medición, sin las que no terminaron. */
+    double rendimiento() {
+        long nanos = ultimaRespuesta.get() - inicio;
+        return nanos <= 0 ? 0 : (solicitudes() - sinTerminar) * 1e9 / nanos;
+    }
+
+    /**
+     * @return resumen para el reporte JSON, con latencias en milisegundos.
+     */
+    Map<String, Object> aMapa() {
+        Map<String, Object> mapa = new LinkedHashMap<>();
+        mapa.put("modelo", modelo);
+        mapa.put("tasaObjetivo", tasaObjetivo);
+        mapa.put("concurrencia", concurrencia);
+        mapa.put("solicitudes", solicitudes());
+        mapa.put("errores", errores());
+        Map<String, Long> porEstado = new TreeMap<>();
+        for (Map.Entry<Integer, LongAdder> entrada : estados.entrySet()) {
+            porEstado.put(nombreEstado(entrada.getKey()), entrada.getValue().sum());
+        }
+        mapa.put("estados", porEstado);
+        mapa.put("rendimiento", redondear(rendimiento()));
+        mapa.put("latenciaMs", percentiles(histogramaCorregido));
+        mapa.put("latenciaServicioMs", percentiles(histogramaServicio));
+        return mapa;
+    }
+
+    private static String nombreEstado(int estado) {
+        if (estado == SIN_RESPUESTA) {
+            return "sin-respuesta";
+        }
+        return estado == SIN_TERMINAR ? "sin-terminar" : Integer.toString(estado);
+    }
+
+    private static Map<String, Double> percentiles(Histogram histograma) {
+        Map<String, Double> mapa = new LinkedHashMap<>();
+        mapa.put("p50", ms(histograma.getValueAtPercentile(50)));
+        mapa.put("p90", ms(histograma.getValueAtPercentile(90)));
+        mapa.put("p99", ms(histograma.getValueAtPercentile(99)));
+        mapa.put("p999", ms(histograma.getValueAtPercentile(99.9)));
+        mapa.put("max", ms(histograma.getMaxValue()));
+        mapa.put("media", redondear(histograma.getMean() / 1000));
+        return mapa;
+    }
+
+    private static double ms(long micros) {
+        return redondear(micros / 1000.0);
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 1000) / 1000.0;
+    }
+}
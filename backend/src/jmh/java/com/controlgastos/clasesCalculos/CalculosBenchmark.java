@@ -0,0 +1,86 @@
+package com.controlgastos.clasesCalculos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento de {@link CalcularCapital} y {@link SumaGasto}.
+ *
+ * <p>
+ * {@link SumaGasto} se mide con un hilo, con varios hilos sumando sobre el
+ * mismo acumulador y con un grupo de escritores y un lector, que es como lo
+ * usan las peticiones concurrentes.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculosBenchmark {
+
+    /** Estado propio de cada hilo. */
+    @State(Scope.Thread)
+    public static class PorHilo {
+        final CalcularCapital calcularCapital = new CalcularCapital();
+        final SumaGasto sumaGasto = new SumaGasto();
+        long capital = 1_000_000;
+        long monto = 1_250;
+    }
+
+    /** Acumulador compartido por todos los hilos. */
+    @State(Scope.Group)
+    public static class Compartido {
+        final SumaGasto sumaGasto = new SumaGasto();
+    }
+
+    /** Acumulador compartido por todos los hilos del benchmark. */
+    @State(Scope.Benchmark)
+    public static class Global {
+        final SumaGasto sumaGasto = new SumaGasto();
+    }
+
+    @Benchmark
+    public long sumarYRestarCapital(PorHilo estado) {
+        estado.calcularCapital.sumarCapital(estado.capital, estado.monto);
+        estado.calcularCapital.restarCapital(estado.calcularCapital.regresarCapital(), estado.monto);
+        return estado.calcularCapital.regresarCapital();
+    }
+
+    @Benchmark
+    public void sumarGastoUnHilo(PorHilo estado) {
+        estado.sumaGasto.sumarGastos(estado.monto);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void sumarGastoCuatroHilos(Global global, PorHilo estado) {
+        global.sumaGasto.sumarGastos(estado.monto);
+    }
+
+    @Benchmark
+    @Group("sumaConLectura")
+    @GroupThreads(3)
+    public void sumarGastoConLector(Compartido compartido, PorHilo estado) {
+        compartido.sumaGasto.sumarGastos(estado.monto);
+    }
+
+    @Benchmark
+    @Group("sumaConLectura")
+    @GroupThreads(1)
+    public long leerSumaGasto(Compartido compartido) {
+        return compartido.sumaGasto.obtenerSumaGastos();
+    }
+}
@@ -0,0 +1,99 @@
+package com.controlgastos.model;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización y deserialización JSON de listas de {@link Gasto} e
+ * {@link Ingreso} de distintos tamaños.
+ *
+ * <p>
+ * Usa un {@link ObjectMapper} de {@link Jackson2ObjectMapperBuilder}, con los
+ * mismos módulos (fechas de {@code java.time}) que registra Spring Boot.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    private static final TypeReference<List<Gasto>> LISTA_GASTOS = new TypeReference<List<Gasto>>() {
+    };
+    private static final TypeReference<List<Ingreso>> LISTA_INGRESOS = new TypeReference<List<Ingreso>>() {
+    };
+
+    /** Elementos de cada lista. */
+    @Param({ "1", "100", "10000" })
+    public int tamano;
+
+    private ObjectMapper objectMapper;
+    private List<Gasto> gastos;
+    private List<Ingreso> ingresos;
+    private byte[] gastosJson;
+    private byte[] ingresosJson;
+
+    @Setup
+    public void preparar() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime fecha = LocalDateTime.of(2024, 1, 1, 12, 0);
+        gastos = new ArrayList<>(tamano);
+        ingresos = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            Gasto gasto = new Gasto();
+            gasto.setId((long) i + 1);
+            gasto.setConcepto("gasto " + i);
+            gasto.setMonto(Dinero.deCentavos(1_000 + i));
+            gasto.setFechaRegistro(fecha.plusMinutes(i));
+            gastos.add(gasto);
+
+            Ingreso ingreso = new Ingreso();
+            ingreso.setId((long) i + 1);
+            ingreso.setConcepto("ingreso " + i);
+            ingreso.setMonto(Dinero.deCentavos(50_000 + i));
+            ingreso.setFechaRegistro(fecha.plusMinutes(i));
+            ingresos.add(ingreso);
+        }
+        gastosJson = objectMapper.writeValueAsBytes(gastos);
+        ingresosJson = objectMapper.writeValueAsBytes(ingresos);
+    }
+
+    @Benchmark
+    public byte[] serializarGastos() throws Exception {
+        return objectMapper.writeValueAsBytes(gastos);
+    }
+
+    @Benchmark
+    public List<Gasto> deserializarGastos() throws Exception {
+        return objectMapper.readValue(gastosJson, LISTA_GASTOS);
+    }
+
+    @Benchmark
+    public byte[] serializarIngresos() throws Exception {
+        return objectMapper.writeValueAsBytes(ingresos);
+    }
+
+    @Benchmark
+    public List<Ingreso> deserializarIngresos() throws Exception {
+        return objectMapper.readValue(ingresosJson, LISTA_INGRESOS);
+    }
+}
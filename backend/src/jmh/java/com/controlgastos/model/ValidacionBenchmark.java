@@ -0,0 +1,79 @@
+package com.controlgastos.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation de {@link Gasto} e {@link Ingreso}: las mismas reglas que
+ * aplican {@code @Valid} y {@code MovimientoService.validar} por cada
+ * elemento de un lote o importación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacionBenchmark {
+
+    private ValidatorFactory fabrica;
+    private Validator validator;
+    private Gasto gastoValido;
+    private Gasto gastoInvalido;
+    private Ingreso ingresoValido;
+
+    @Setup
+    public void preparar() {
+        fabrica = Validation.buildDefaultValidatorFactory();
+        validator = fabrica.getValidator();
+
+        gastoValido = new Gasto();
+        gastoValido.setConcepto("supermercado");
+        gastoValido.setMonto(Dinero.deCentavos(12_550));
+
+        // Concepto demasiado largo y monto en 0: dos violaciones
+        gastoInvalido = new Gasto();
+        gastoInvalido.setConcepto("un concepto de más de veinticinco caracteres");
+        gastoInvalido.setMonto(Dinero.deCentavos(0));
+
+        ingresoValido = new Ingreso();
+        ingresoValido.setConcepto("sueldo");
+        ingresoValido.setMonto(Dinero.deCentavos(1_500_000));
+    }
+
+    @TearDown
+    public void cerrar() {
+        fabrica.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Gasto>> validarGasto() {
+        return validator.validate(gastoValido);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Gasto>> validarGastoInvalido() {
+        return validator.validate(gastoInvalido);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Ingreso>> validarIngreso() {
+        return validator.validate(ingresoValido);
+    }
+}
@@ -0,0 +1,77 @@
+package com.controlgastos.services;
+
+import com.controlgastos.model.TipoMovimiento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Anexados por segundo en {@link DiarioMovimientos}, sin base de datos.
+ *
+ * <p>
+ * {@code cadaFsync} es la cantidad de registros por volcado al disco: 0 mide
+ * sólo la escritura en el segmento mapeado, que es lo que paga el hilo de la
+ * petición; con otros valores el volcado se hace en el mismo hilo, como cota
+ * inferior del caso con el sincronizador en otro hilo.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiarioMovimientosBenchmark {
+
+    @Param({ "0", "1000", "65536" })
+    public int cadaFsync;
+
+    private static final String[] CONCEPTOS = { "Renta", "Súper", "Luz", "Agua", "Transporte" };
+
+    private Path directorio;
+    private DiarioMovimientos diario;
+    private final LocalDateTime fecha = LocalDateTime.of(2024, 3, 1, 9, 30);
+    private long id;
+
+    @Setup(Level.Iteration)
+    public void preparar() throws IOException {
+        directorio = Files.createTempDirectory("diario-benchmark");
+        diario = new DiarioMovimientos(directorio, 1 << 20);
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrar() throws IOException {
+        diario.close();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(archivo -> archivo.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long agregar() throws IOException {
+        long posicion = diario.agregar(TipoMovimiento.GASTO, ++id, 7, CONCEPTOS[(int) (id % CONCEPTOS.length)],
+                1250, fecha);
+        if (cadaFsync > 0 && posicion % cadaFsync == 0) {
+            diario.forzar();
+        }
+        return posicion;
+    }
+}
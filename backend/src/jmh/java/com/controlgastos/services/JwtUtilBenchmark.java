@@ -0,0 +1,64 @@
+package com.controlgastos.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de emitir y verificar tokens con {@link JwtUtil}, sin la caché de
+ * {@link TokensVerificadosService}.
+ *
+ * <p>
+ * El token inválido tiene la firma alterada: mide el camino de la excepción,
+ * que es el que pagan las peticiones con tokens falsos.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private String tokenInvalido;
+
+    @Setup
+    public void preparar() {
+        // Vigencia larga: el token no debe expirar durante la medición
+        jwtUtil = new JwtUtil("MySecretKey", TimeUnit.HOURS.toMillis(1));
+        token = jwtUtil.generateToken("usuario");
+        // Se altera un carácter a mitad de la firma: los bits bajos del último
+        // carácter son relleno en Base64URL y cambiarlo puede dejar la misma
+        // firma
+        int medio = token.lastIndexOf('.') + (token.length() - token.lastIndexOf('.')) / 2;
+        char original = token.charAt(medio);
+        tokenInvalido = token.substring(0, medio) + (original == 'A' ? 'B' : 'A') + token.substring(medio + 1);
+    }
+
+    @Benchmark
+    public String generarToken() {
+        return jwtUtil.generateToken("usuario");
+    }
+
+    @Benchmark
+    public String validarToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public String validarTokenInvalido() {
+        return jwtUtil.validateToken(tokenInvalido);
+    }
+}
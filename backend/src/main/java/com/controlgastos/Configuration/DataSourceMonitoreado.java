@@ -0,0 +1,132 @@
+package com.controlgastos.Configuration;
+
+import com.controlgastos.services.MonitorSqlService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * {@link DataSource} que mide cada sentencia JDBC y la informa a
+ * {@link MonitorSqlService}.
+ *
+ * <p>
+ * Envuelve las conexiones y sentencias con proxies dinámicos: sólo los
+ * métodos {@code execute*} se miden (desde la llamada hasta que el driver
+ * devuelve el control; en una consulta, antes de recorrer las filas); el
+ * resto se delega sin más. Cubre por igual a Hibernate, a
+ * {@code JdbcTemplate} y a la migración del esquema.
+ * </p>
+ *
+ * <p>
+ * El servicio se obtiene en la primera sentencia: Hibernate usa el pool al
+ * arrancar, antes de que existan todos los beans.
+ * </p>
+ */
+public class DataSourceMonitoreado extends DelegatingDataSource {
+
+    private final ObjectProvider<MonitorSqlService> proveedor;
+    private volatile MonitorSqlService monitor;
+
+    /**
+     * @param destino   pool real.
+     * @param proveedor proveedor del monitor.
+     */
+    public DataSourceMonitoreado(DataSource destino, ObjectProvider<MonitorSqlService> proveedor) {
+        super(destino);
+        this.proveedor = proveedor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conexion(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conexion(super.getConnection(username, password));
+    }
+
+    private Connection conexion(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, metodo, args) -> {
+                    Object resultado = invocar(conexion, metodo, args);
+                    switch (metodo.getName()) {
+                        case "createStatement":
+                            return sentencia((Statement) resultado, Statement.class, null);
+                        case "prepareStatement":
+                            return sentencia((Statement) resultado, PreparedStatement.class, (String) args[0]);
+                        case "prepareCall":
+                            return sentencia((Statement) resultado, CallableStatement.class, (String) args[0]);
+                        default:
+                            return resultado;
+                    }
+                });
+    }
+
+    /**
+     * @param sql sentencia preparada, o {@code null} si es un
+     *            {@link Statement} que recibe el SQL en cada ejecución.
+     */
+    private Statement sentencia(Statement sentencia, Class<? extends Statement> tipo, String sql) {
+        InvocationHandler manejador = new InvocationHandler() {
+            /** Primera sentencia de un lote de {@link Statement#addBatch(String)}. */
+            private String lote;
+
+            @Override
+            public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+                String nombre = metodo.getName();
+                if (!nombre.startsWith("execute")) {
+                    if (sql == null && nombre.equals("addBatch") && lote == null) {
+                        lote = (String) args[0];
+                    } else if (nombre.equals("clearBatch")) {
+                        lote = null;
+                    }
+                    return invocar(sentencia, metodo, args);
+                }
+                String texto = sql;
+                if (texto == null) {
+                    texto = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : lote;
+                    if (nombre.equals("executeBatch") || nombre.equals("executeLargeBatch")) {
+                        lote = null;
+                    }
+                }
+                long inicio = System.nanoTime();
+                try {
+                    return invocar(sentencia, metodo, args);
+                } finally {
+                    if (texto != null) {
+                        monitor().sentencia(texto, System.nanoTime() - inicio);
+                    }
+                }
+            }
+        };
+        return (Statement) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo }, manejador);
+    }
+
+    private MonitorSqlService monitor() {
+        MonitorSqlService actual = monitor;
+        if (actual == null) {
+            actual = proveedor.getObject();
+            monitor = actual;
+        }
+        return actual;
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.controlgastos.Configuration;
+
+import com.controlgastos.services.MonitorSqlService;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint de administración {@code /actuator/sql}: huellas SQL más lentas de
+ * {@link MonitorSqlService}.
+ *
+ * <ul>
+ * <li>{@code GET /actuator/sql?limite=20&orden=maximo}: umbrales, muestreo y
+ * las {@code limite} huellas de mayor {@code maximo}, {@code media} o
+ * {@code total}.</li>
+ * <li>{@code DELETE /actuator/sql}: vacía la tabla de huellas.</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "sql")
+public class EndpointSql {
+
+    private static final int LIMITE_POR_DEFECTO = 20;
+
+    private final MonitorSqlService monitorSqlService;
+
+    /**
+     * @param monitorSqlService monitor de sentencias.
+     */
+    public EndpointSql(MonitorSqlService monitorSqlService) {
+        this.monitorSqlService = monitorSqlService;
+    }
+
+    /**
+     * @param limite cantidad de huellas (por defecto 20).
+     * @param orden  {@code maximo} (por defecto), {@code media} o
+     *               {@code total}.
+     * @return configuración del monitor y huellas ordenadas.
+     * @throws InvalidEndpointRequestException si el orden no es válido
+     *                                         (400).
+     */
+    @ReadOperation
+    public Map<String, Object> lentas(@Nullable Integer limite, @Nullable String orden) {
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("umbralSqlMs", monitorSqlService.getUmbralSqlMs());
+        respuesta.put("umbralPeticionMs", monitorSqlService.getUmbralPeticionMs());
+        respuesta.put("muestreo", monitorSqlService.getMuestreo());
+        try {
+            respuesta.put("huellas", monitorSqlService.top(
+                    limite == null ? LIMITE_POR_DEFECTO : Math.max(1, limite), orden == null ? "maximo" : orden));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        return respuesta;
+    }
+
+    /**
+     * Vacía la tabla de huellas.
+     */
+    @DeleteOperation
+    public void reiniciar() {
+        monitorSqlService.reiniciar();
+    }
+}
@@ -0,0 +1,110 @@
+package com.controlgastos.Configuration;
+
+import com.controlgastos.services.TokensVerificadosService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Filtro que autentica las peticiones con el token JWT de la cabecera
+ * {@code Authorization: Bearer}, o con el token de suscripción del parámetro
+ * {@code token} en {@code GET /api/eventos}.
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>Si la petición no trae un token {@code Bearer}, sigue sin
+ * autenticar.</li>
+ * <li>Si lo trae, lo resuelve con {@link TokensVerificadosService}, que sólo
+ * verifica la firma la primera vez que ve cada token.</li>
+ * <li>La única excepción es {@code GET /api/eventos}: un {@code EventSource}
+ * del navegador no puede enviar cabeceras, así que ahí se acepta en
+ * {@code ?token=} un token de suscripción (de vida corta y con audiencia
+ * {@code eventos}, emitido por {@code POST /api/eventos/token}). Ese token no
+ * vale como {@code Bearer} ni en otra ruta.</li>
+ * <li>Si es válido, fija el usuario en el {@code SecurityContext}, con el
+ * rol {@value #ROL_ADMINISTRADOR} si está en {@code seguridad.administradores};
+ * las reglas de {@link SecurityConfig} deciden después si la ruta exige
+ * autenticación o ese rol.</li>
+ * <li>Si es inválido, alterado o expiró, responde 401 por el punto de
+ * entrada de la cadena y corta la petición: nunca sigue como anónima.</li>
+ * </ol>
+ *
+ * <p>
+ * No es un bean: {@link SecurityConfig} lo agrega a la cadena de seguridad, de
+ * modo que el contenedor no lo registre una segunda vez como filtro
+ * global.
+ * </p>
+ */
+public class FiltroJwt extends OncePerRequestFilter {
+
+    /** Rol de los usuarios que pueden usar {@code /actuator/**}. */
+    static final String ROL_ADMINISTRADOR = "ADMINISTRADOR";
+
+    private static final String BEARER = "Bearer ";
+
+    /** Parámetro con el token de suscripción. */
+    static final String PARAMETRO_TOKEN = "token";
+
+    /** Única ruta que acepta el token en la URL. */
+    private static final RequestMatcher SUSCRIPCION = new AntPathRequestMatcher("/api/eventos", "GET");
+
+    private final TokensVerificadosService tokensVerificadosService;
+    private final AuthenticationEntryPoint puntoEntrada;
+    private final Set<String> administradores;
+
+    /**
+     * @param tokensVerificadosService caché de tokens verificados.
+     * @param puntoEntrada             respuesta a los tokens rechazados.
+     * @param administradores          usuarios con el rol
+     *                                 {@value #ROL_ADMINISTRADOR}.
+     */
+    public FiltroJwt(TokensVerificadosService tokensVerificadosService, AuthenticationEntryPoint puntoEntrada,
+            Set<String> administradores) {
+        this.tokensVerificadosService = tokensVerificadosService;
+        this.puntoEntrada = puntoEntrada;
+        this.administradores = administradores;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String cabecera = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String usuario = null;
+        boolean trajoToken = false;
+        if (cabecera != null && cabecera.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            trajoToken = true;
+            usuario = tokensVerificadosService.autenticar(cabecera.substring(BEARER.length()).trim());
+        } else if (SUSCRIPCION.matches(request) && request.getParameter(PARAMETRO_TOKEN) != null) {
+            trajoToken = true;
+            usuario = tokensVerificadosService.autenticarSuscripcion(request.getParameter(PARAMETRO_TOKEN));
+        }
+        if (trajoToken) {
+            if (usuario == null) {
+                SecurityContextHolder.clearContext();
+                puntoEntrada.commence(request, response, new BadCredentialsException("Token inválido o expirado"));
+                return;
+            }
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(usuario,
+                    null, administradores.contains(usuario)
+                            ? Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + ROL_ADMINISTRADOR))
+                            : Collections.emptyList()));
+        }
+        chain.doFilter(request, response);
+    }
+}
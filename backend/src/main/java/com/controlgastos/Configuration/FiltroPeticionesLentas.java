@@ -0,0 +1,73 @@
+package com.controlgastos.Configuration;
+
+import com.controlgastos.services.MonitorSqlService;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Mide la duración de cada petición y la informa a
+ * {@link MonitorSqlService}, que registra las que superan
+ * {@code monitor.peticiones.umbral-ms}.
+ *
+ * <p>
+ * Si la petición pasa a procesamiento asíncrono (respuestas
+ * {@code CompletableFuture} o en streaming), la duración se toma al
+ * completarse con un {@link AsyncListener}.
+ * </p>
+ */
+public class FiltroPeticionesLentas extends OncePerRequestFilter {
+
+    private final MonitorSqlService monitorSqlService;
+
+    /**
+     * @param monitorSqlService monitor de sentencias y peticiones lentas.
+     */
+    public FiltroPeticionesLentas(MonitorSqlService monitorSqlService) {
+        this.monitorSqlService = monitorSqlService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        terminar(request, response, inicio);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                terminar(request, response, inicio);
+            }
+        }
+    }
+
+    private void terminar(HttpServletRequest request, HttpServletResponse response, long inicio) {
+        long nanos = System.nanoTime() - inicio;
+        monitorSqlService.peticion(request.getMethod() + " " + request.getRequestURI() + " -> " + response.getStatus(),
+                nanos);
+    }
+}
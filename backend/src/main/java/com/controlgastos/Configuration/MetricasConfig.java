@@ -0,0 +1,129 @@
+package com.controlgastos.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.hibernate.boot.Metadata;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+
+/**
+ * Métricas de la API, publicadas en {@code GET /actuator/prometheus}.
+ *
+ * <p>
+ * <strong>Qué se mide:</strong>
+ * </p>
+ * <ul>
+ * <li>Tiempo de cada método de controlador: el timer
+ * {@code http.server.requests} de Spring Boot con las etiquetas
+ * {@code controlador} y {@code metodo}. Se mide en el filtro de Spring Boot,
+ * así que incluye las respuestas asíncronas y en streaming hasta su
+ * fin.</li>
+ * <li>Sentencias y entidades cargadas por petición
+ * ({@link MetricasPeticion}), y las estadísticas globales de Hibernate
+ * ({@code hibernate.*}, con {@code hibernate.generate_statistics}).</li>
+ * <li>Pool de conexiones: Spring Boot registra las métricas de HikariCP
+ * ({@code hikaricp.connections.acquire} para la espera,
+ * {@code hikaricp.connections.usage}, {@code .active}, {@code .pending} y
+ * {@code .timeout}).</li>
+ * <li>Reintentos del capital ({@code capital.reintentos} y
+ * {@code capital.conflictos} en {@code CapitalService}).</li>
+ * </ul>
+ *
+ * <p>
+ * Los timers y contadores de Micrometer registran sin bloqueos; el histograma
+ * de {@code http.server.requests} usa buckets fijos (ver
+ * {@code application.properties}), de modo que su costo no crece con la
+ * carga.
+ * </p>
+ */
+@Configuration
+public class MetricasConfig implements WebMvcConfigurer {
+
+    private final MetricasPeticion metricasPeticion;
+
+    /**
+     * @param registro registro de métricas.
+     */
+    public MetricasConfig(MeterRegistry registro) {
+        this.metricasPeticion = new MetricasPeticion(registro);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(metricasPeticion);
+    }
+
+    /**
+     * Agrega a {@code http.server.requests} el controlador y el método que
+     * atendieron la petición; las peticiones sin controlador usan
+     * {@code ninguno}, porque Prometheus exige las mismas etiquetas en todas
+     * las series.
+     *
+     * @return contribuidor de etiquetas.
+     */
+    @Bean
+    public WebMvcTagsContributor etiquetasControlador() {
+        return new WebMvcTagsContributor() {
+            @Override
+            public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler,
+                    Throwable exception) {
+                if (handler instanceof HandlerMethod) {
+                    HandlerMethod metodo = (HandlerMethod) handler;
+                    return Tags.of("controlador", metodo.getBeanType().getSimpleName(),
+                            "metodo", metodo.getMethod().getName());
+                }
+                return Tags.of("controlador", "ninguno", "metodo", "ninguno");
+            }
+
+            @Override
+            public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+                return Tags.empty();
+            }
+        };
+    }
+
+    /**
+     * Conecta {@link MetricasPeticion} a Hibernate: como inspector de
+     * sentencias y como listener de carga de entidades.
+     *
+     * @return personalización de las propiedades de Hibernate.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer metricasHibernate() {
+        Integrator integrator = new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                    SessionFactoryServiceRegistry serviceRegistry) {
+                serviceRegistry.getService(EventListenerRegistry.class)
+                        .appendListeners(EventType.POST_LOAD, metricasPeticion);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory,
+                    SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+        return propiedades -> {
+            propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, metricasPeticion);
+            propiedades.put("hibernate.integrator_provider",
+                    (IntegratorProvider) () -> Collections.singletonList(integrator));
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package com.controlgastos.Configuration;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cuenta las sentencias SQL y las entidades que Hibernate carga en cada
+ * petición, por método de controlador.
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>Al entrar al controlador ({@link #preHandle}) pone en cero los
+ * contadores del hilo.</li>
+ * <li>Hibernate llama a {@link #inspect} por cada sentencia que prepara y a
+ * {@link #onPostLoad} por cada entidad que carga.</li>
+ * <li>Al terminar la petición, o al pasar a procesamiento asíncrono, registra
+ * los contadores en {@code hibernate.peticion.sentencias} y
+ * {@code hibernate.peticion.entidades} con las etiquetas
+ * {@code controlador} y {@code metodo}.</li>
+ * </ol>
+ *
+ * <p>
+ * Los contadores son campos de un objeto por hilo: no hay sincronización ni
+ * asignaciones por sentencia, y fuera de una petición sólo cuestan una
+ * lectura de {@link ThreadLocal}. Lo que se ejecuta en otros hilos (group
+ * commit, checkpoints, respuestas en streaming) no se atribuye a la petición;
+ * queda en las estadísticas globales de Hibernate
+ * ({@code hibernate.statements}, {@code hibernate.entities.loads}).
+ * </p>
+ */
+public class MetricasPeticion implements AsyncHandlerInterceptor, StatementInspector, PostLoadEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Contadores de la petición en curso del hilo. */
+    private static final class Contadores {
+        boolean activo;
+        int sentencias;
+        int entidades;
+    }
+
+    /** Métricas de un método de controlador. */
+    private static final class Metricas {
+        final DistributionSummary sentencias;
+        final DistributionSummary entidades;
+
+        Metricas(MeterRegistry registro, HandlerMethod handler) {
+            String controlador = handler.getBeanType().getSimpleName();
+            String metodo = handler.getMethod().getName();
+            this.sentencias = DistributionSummary.builder("hibernate.peticion.sentencias")
+                    .description("Sentencias SQL preparadas por Hibernate en cada petición")
+                    .tag("controlador", controlador).tag("metodo", metodo).register(registro);
+            this.entidades = DistributionSummary.builder("hibernate.peticion.entidades")
+                    .description("Entidades cargadas por Hibernate en cada petición")
+                    .tag("controlador", controlador).tag("metodo", metodo).register(registro);
+        }
+    }
+
+    private final transient MeterRegistry registro;
+    private final transient ThreadLocal<Contadores> contadores = ThreadLocal.withInitial(Contadores::new);
+    private final transient Map<Method, Metricas> porMetodo = new ConcurrentHashMap<>();
+
+    /**
+     * @param registro registro de métricas.
+     */
+    public MetricasPeticion(MeterRegistry registro) {
+        this.registro = registro;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // El re-despacho de una petición asíncrona ya se contó al iniciarla
+        if (handler instanceof HandlerMethod && request.getDispatcherType() == DispatcherType.REQUEST) {
+            Contadores actuales = contadores.get();
+            actuales.activo = true;
+            actuales.sentencias = 0;
+            actuales.entidades = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        registrar(handler);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        registrar(handler);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Contadores actuales = contadores.get();
+        if (actuales.activo) {
+            actuales.sentencias++;
+        }
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        Contadores actuales = contadores.get();
+        if (actuales.activo) {
+            actuales.entidades++;
+        }
+    }
+
+    private void registrar(Object handler) {
+        Contadores actuales = contadores.get();
+        if (!actuales.activo || !(handler instanceof HandlerMethod)) {
+            return;
+        }
+        actuales.activo = false;
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        Metricas metricas = porMetodo.computeIfAbsent(handlerMethod.getMethod(),
+                m -> new Metricas(registro, handlerMethod));
+        metricas.sentencias.record(actuales.sentencias);
+        metricas.entidades.record(actuales.entidades);
+    }
+}
@@ -0,0 +1,195 @@
+package com.controlgastos.Configuration;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+
+/**
+ * Migraciones de esquema que {@code spring.jpa.hibernate.ddl-auto=update} no
+ * puede resolver por sí solo.
+ *
+ * <p>
+ * Se ejecuta <strong>antes</strong> de crear el {@code EntityManagerFactory}
+ * (ver {@link DependenciaJpa}), de modo que cuando Hibernate revisa el esquema
+ * ya encuentra las columnas migradas. En una base de datos nueva las tablas
+ * aún no existen y no hace nada.
+ * </p>
+ *
+ * <p>
+ * <strong>Migraciones:</strong>
+ * </p>
+ * <ul>
+ * <li>Montos {@code DOUBLE} a centavos {@code BIGINT}:
+ * {@code gasto.monto}, {@code ingreso.monto} y {@code capital.capital} pasan a
+ * {@code monto_centavos} / {@code capital_centavos} con
+ * {@code ROUND(valor * 100)}.</li>
+ * <li>IDs de {@code IDENTITY} a secuencia: crea {@code gasto_seq} e
+ * {@code ingreso_seq} comenzando después del mayor ID existente, para que los
+ * nuevos IDs no choquen con los ya asignados por la columna identidad.</li>
+ * <li>Separación por usuario: agrega {@code usuario_id} a {@code gasto},
+ * {@code ingreso} y {@code capital} con valor 0 (el usuario global) para las
+ * filas existentes, y elimina el índice {@code idx_gasto_fecha_id}, que pasa a
+ * empezar por {@code usuario_id}. Las claves foráneas hacia {@code users} se
+ * agregan después de que Hibernate crea las tablas (ver
+ * {@link ClavesUsuario}).</li>
+ * </ul>
+ *
+ * <p>
+ * Cada paso es idempotente y se detecta por la presencia de la columna
+ * antigua. Las sentencias usan la sintaxis de H2, la base de datos
+ * configurada.
+ * </p>
+ */
+@Component("migracionEsquema")
+public class MigracionEsquema {
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param dataSource origen de datos de la aplicación.
+     */
+    public MigracionEsquema(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Aplica las migraciones pendientes.
+     */
+    @PostConstruct
+    public void migrar() {
+        migrarACentavos("GASTO", "MONTO", "MONTO_CENTAVOS");
+        migrarACentavos("INGRESO", "MONTO", "MONTO_CENTAVOS");
+        migrarACentavos("CAPITAL", "CAPITAL", "CAPITAL_CENTAVOS");
+        crearSecuencia("GASTO", "GASTO_SEQ", 50);
+        crearSecuencia("INGRESO", "INGRESO_SEQ", 50);
+        agregarUsuario("GASTO");
+        agregarUsuario("INGRESO");
+        agregarUsuario("CAPITAL");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS IDX_GASTO_FECHA_ID");
+    }
+
+    /**
+     * Asigna al usuario global las filas de una tabla anterior a la separación
+     * por usuario.
+     */
+    private void agregarUsuario(String tabla) {
+        if (!existeTabla(tabla) || existeColumna(tabla, "USUARIO_ID")) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + tabla + " ADD COLUMN USUARIO_ID BIGINT DEFAULT 0 NOT NULL");
+    }
+
+    /**
+     * Copia una columna decimal a una columna de centavos y elimina la
+     * original.
+     */
+    private void migrarACentavos(String tabla, String columnaDecimal, String columnaCentavos) {
+        if (!existeColumna(tabla, columnaDecimal)) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + tabla + " ADD COLUMN IF NOT EXISTS " + columnaCentavos + " BIGINT");
+        jdbcTemplate.execute("UPDATE " + tabla + " SET " + columnaCentavos + " = ROUND(" + columnaDecimal + " * 100)");
+        jdbcTemplate.execute("ALTER TABLE " + tabla + " ALTER COLUMN " + columnaCentavos + " SET NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE " + tabla + " DROP COLUMN " + columnaDecimal);
+    }
+
+    /**
+     * Crea la secuencia de IDs de una tabla existente continuando desde su
+     * mayor ID. Con el optimizador <em>pooled</em>, Hibernate usa el valor
+     * leído como límite superior del bloque, por eso se suma el incremento.
+     */
+    private void crearSecuencia(String tabla, String secuencia, int incremento) {
+        if (!existeTabla(tabla) || existeSecuencia(secuencia)) {
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(ID), 0) FROM " + tabla, Long.class);
+        jdbcTemplate.execute("CREATE SEQUENCE " + secuencia + " START WITH " + (maxId + incremento + 1)
+                + " INCREMENT BY " + incremento);
+    }
+
+    /**
+     * Indica si existe la tabla (nombre en mayúsculas, como lo guarda H2).
+     */
+    boolean existeTabla(String tabla) {
+        return existeColumna(tabla, "ID");
+    }
+
+    /**
+     * Indica si existe la secuencia en el esquema actual.
+     */
+    boolean existeSecuencia(String secuencia) {
+        Integer total = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?", Integer.class,
+                secuencia);
+        return total != null && total > 0;
+    }
+
+    /**
+     * Indica si existe la columna en la tabla (nombres en mayúsculas, como los
+     * guarda H2).
+     */
+    boolean existeColumna(String tabla, String columna) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(dataSource, metaData -> {
+                try (ResultSet columnas = metaData.getColumns(null, null, tabla, columna)) {
+                    return columnas.next();
+                }
+            });
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("No se pudo leer el esquema de " + tabla, e);
+        }
+    }
+
+    /**
+     * Crea la fila del usuario global (ID 0, sin nombre ni contraseña, por lo
+     * que no puede iniciar sesión) y las claves foráneas de {@code usuario_id}
+     * hacia {@code users}.
+     *
+     * <p>
+     * Depende del {@code EntityManagerFactory} para ejecutarse cuando
+     * Hibernate ya creó las tablas. H2 crea para cada clave su propio índice
+     * sobre {@code usuario_id}; no puede reutilizar los índices compuestos de
+     * las entidades.
+     * </p>
+     */
+    @Component
+    static class ClavesUsuario {
+
+        private final MigracionEsquema migracion;
+
+        ClavesUsuario(MigracionEsquema migracion, EntityManagerFactory entityManagerFactory) {
+            this.migracion = migracion;
+        }
+
+        @PostConstruct
+        void crear() {
+            migracion.jdbcTemplate.update("MERGE INTO USERS (ID, USERNAME, PASSWORD) KEY (ID) VALUES (0, NULL, NULL)");
+            for (String tabla : new String[] { "GASTO", "INGRESO", "CAPITAL" }) {
+                migracion.jdbcTemplate.execute("ALTER TABLE " + tabla + " ADD CONSTRAINT IF NOT EXISTS FK_" + tabla
+                        + "_USUARIO FOREIGN KEY (USUARIO_ID) REFERENCES USERS (ID)");
+            }
+        }
+    }
+
+    /**
+     * Hace que el {@code EntityManagerFactory} (y con él la actualización de
+     * esquema de Hibernate) espere a {@link MigracionEsquema}.
+     */
+    @Component
+    static class DependenciaJpa extends EntityManagerFactoryDependsOnPostProcessor {
+        DependenciaJpa() {
+            super("migracionEsquema");
+        }
+    }
+}
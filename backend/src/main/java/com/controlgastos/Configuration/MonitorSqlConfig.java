@@ -0,0 +1,71 @@
+package com.controlgastos.Configuration;
+
+import com.controlgastos.services.MonitorSqlService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Conecta {@link MonitorSqlService} al pool de conexiones y a la cadena de
+ * filtros.
+ *
+ * <p>
+ * <strong>Propiedades:</strong>
+ * </p>
+ * <ul>
+ * <li>{@code monitor.sql.umbral-ms}: sentencias que se registran como lentas
+ * (por defecto 100 ms).</li>
+ * <li>{@code monitor.peticiones.umbral-ms}: ídem para peticiones (por defecto
+ * 1000 ms).</li>
+ * <li>{@code monitor.sql.muestreo}: fracción de sentencias que alimentan las
+ * huellas (por defecto 0.01).</li>
+ * <li>{@code monitor.sql.huellas}: huellas distintas que se conservan (por
+ * defecto 1000).</li>
+ * <li>{@code monitor.cola}: observaciones pendientes de registrar (por
+ * defecto 1024).</li>
+ * </ul>
+ */
+@Configuration
+public class MonitorSqlConfig {
+
+    /**
+     * Envuelve el {@link DataSource} en un {@link DataSourceMonitoreado}. Es
+     * estático para registrarse antes de crear el pool.
+     *
+     * @param monitor proveedor del monitor, resuelto en la primera sentencia.
+     * @return post-procesador de beans.
+     */
+    @Bean
+    public static BeanPostProcessor monitorearDataSource(ObjectProvider<MonitorSqlService> monitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof DataSourceMonitoreado)) {
+                    return new DataSourceMonitoreado((DataSource) bean, monitor);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Registra {@link FiltroPeticionesLentas} antes que cualquier otro filtro,
+     * para que la medición incluya la seguridad.
+     *
+     * @param monitorSqlService monitor de peticiones lentas.
+     * @return registro del filtro.
+     */
+    @Bean
+    public FilterRegistrationBean<FiltroPeticionesLentas> filtroPeticionesLentas(
+            MonitorSqlService monitorSqlService) {
+        FilterRegistrationBean<FiltroPeticionesLentas> registro = new FilterRegistrationBean<>(
+                new FiltroPeticionesLentas(monitorSqlService));
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+}
@@ -0,0 +1,53 @@
+package com.controlgastos.Configuration;
+
+import com.controlgastos.clasesCalculos.IndiceFechas;
+import com.controlgastos.clasesCalculos.MotorSaldos;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuración del motor de saldos en memoria.
+ *
+ * <p>
+ * Registra {@link MotorSaldos} e {@link IndiceFechas} como beans únicos y
+ * habilita las tareas programadas que guardan los checkpoints del motor en la
+ * base de datos.
+ * </p>
+ *
+ * <p>
+ * <strong>Propiedades:</strong>
+ * </p>
+ * <ul>
+ * <li>{@code saldos.checkpoint.cada-n}: actualizaciones tras las que se fuerza
+ * un checkpoint (por defecto 100).</li>
+ * <li>{@code saldos.checkpoint.intervalo-ms}: intervalo del checkpoint
+ * periódico (por defecto 5000 ms).</li>
+ * </ul>
+ */
+@Configuration
+@EnableScheduling
+public class SaldosConfig {
+
+    /**
+     * Crea el motor de saldos.
+     *
+     * @param cadaN actualizaciones por checkpoint.
+     * @return motor de saldos compartido por toda la aplicación.
+     */
+    @Bean
+    public MotorSaldos motorSaldos(@Value("${saldos.checkpoint.cada-n:100}") int cadaN) {
+        return new MotorSaldos(cadaN);
+    }
+
+    /**
+     * Crea el índice de totales por rango de fechas.
+     *
+     * @return índice compartido por toda la aplicación.
+     */
+    @Bean
+    public IndiceFechas indiceFechas() {
+        return new IndiceFechas();
+    }
+}
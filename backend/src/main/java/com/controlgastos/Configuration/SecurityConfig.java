@@ -1,9 +1,22 @@
 package com.controlgastos.Configuration;
 
+import com.controlgastos.services.TokensVerificadosService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Configuración global de seguridad HTTP para la aplicación.
@@ -15,29 +28,68 @@ import org.springframework.security.web.SecurityFilterChain;
  * <li>Spring detecta esta clase por la anotación {@code @Configuration}.</li>
  * <li>Se invoca el método {@code securityFilterChain} para construir la
  * cadena de filtros de seguridad.</li>
- * <li>Se aplican las reglas definidas (permitir todas las solicitudes,
- * desactivar CSRF, permitir iframes).</li>
+ * <li>Se agrega {@link FiltroJwt}, que autentica las peticiones que traen
+ * {@code Authorization: Bearer} (o el token de suscripción en
+ * {@code GET /api/eventos?token=}) y rechaza con 401 las que traen un token
+ * inválido.</li>
+ * <li>Se aplican las reglas definidas (exigir token en {@code /api/**},
+ * exigir el rol de administrador en {@code /actuator/**} salvo
+ * {@code health} y en {@code POST /api/resumen/reconstruir}, desactivar
+ * CSRF, permitir iframes).</li>
  * <li>La cadena de filtros resultante se registra como bean y se aplica a
  * todas las peticiones HTTP.</li>
  * </ol>
  *
  * <p>
- * <strong>Advertencia:</strong> Esta configuración es insegura para entornos
- * de producción, ya que no requiere autenticación ni protege contra ataques
- * CSRF.
- * Úsese únicamente en desarrollo o pruebas.
+ * <strong>Advertencia:</strong> La protección CSRF está desactivada: la API
+ * se autentica sólo por la cabecera {@code Authorization}, que el navegador
+ * no envía por su cuenta, y no usa cookies de sesión.
+ * </p>
+ *
+ * <p>
+ * Sólo se carga en aplicaciones web; {@code ImportacionCli} arranca el
+ * contexto sin servidor y no necesita filtros HTTP.
  * </p>
  */
 @Configuration
+@ConditionalOnWebApplication
 public class SecurityConfig {
 
+    /** Caché de tokens verificados que usa {@link FiltroJwt}. */
+    private final TokensVerificadosService tokensVerificadosService;
+
+    /** Usuarios que pueden usar {@code /actuator/**}. */
+    private final Set<String> administradores;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param tokensVerificadosService caché de tokens verificados.
+     * @param administradores          usuarios con acceso a
+     *                                 {@code /actuator/**}.
+     */
+    public SecurityConfig(TokensVerificadosService tokensVerificadosService,
+            @Value("${seguridad.administradores:}") List<String> administradores) {
+        this.tokensVerificadosService = tokensVerificadosService;
+        this.administradores = new HashSet<>(administradores);
+    }
+
     /**
      * Define la configuración de seguridad HTTP mediante un
      * {@link SecurityFilterChain}.
      * <p>
      * Esta implementación:
      * <ul>
-     * <li>Permite el acceso a cualquier ruta sin autenticación.</li>
+     * <li>Autentica con {@link FiltroJwt} las peticiones con token, sin
+     * sesión HTTP; un token inválido o expirado recibe 401.</li>
+     * <li>Exige autenticación en {@code /api/**} (401 sin token válido); el
+     * resto de rutas, como {@code /auth/**}, y las peticiones CORS previas, no
+     * la requieren.</li>
+     * <li>Exige el token de un usuario de {@code seguridad.administradores}
+     * en {@code /actuator/**} (métricas, Prometheus y huellas SQL); sólo
+     * {@code /actuator/health} es público.</li>
+     * <li>Exige también ese rol en {@code POST /api/resumen/reconstruir}, que
+     * recalcula los resúmenes de todos los usuarios.</li>
      * <li>Desactiva la protección CSRF (Cross-Site Request Forgery).</li>
      * <li>Deshabilita las restricciones para cargar la aplicación en iframes.</li>
      * </ul>
@@ -50,18 +102,34 @@ public class SecurityConfig {
      */
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        // 1. Configura autorización: cualquier request está permitida
-        http.authorizeRequests(auth -> auth
-                .anyRequest().permitAll())
+        AuthenticationEntryPoint noAutorizado = new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED);
+
+        // 1. Autentica el token JWT antes de las reglas de autorización
+        http.addFilterBefore(new FiltroJwt(tokensVerificadosService, noAutorizado, administradores),
+                UsernamePasswordAuthenticationFilter.class)
+                .sessionManagement(sesion -> sesion.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(errores -> errores.authenticationEntryPoint(noAutorizado))
+
+                // 2. Configura autorización: /api/** exige un token válido y
+                // /actuator/** (salvo health) y la reconstrucción de
+                // resúmenes, el de un administrador
+                .authorizeRequests(auth -> auth
+                        .antMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        .antMatchers(HttpMethod.POST, "/api/resumen/reconstruir")
+                        .hasRole(FiltroJwt.ROL_ADMINISTRADOR)
+                        .antMatchers("/api/**").authenticated()
+                        .antMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .antMatchers("/actuator/**").hasRole(FiltroJwt.ROL_ADMINISTRADOR)
+                        .anyRequest().permitAll())
 
-                // 2. Desactiva protección CSRF (no recomendado en producción)
+                // 3. Desactiva protección CSRF (no recomendado en producción)
                 .csrf(csrf -> csrf.disable())
 
-                // 3. Permite que la aplicación se embeba en iframes
+                // 4. Permite que la aplicación se embeba en iframes
                 // Útil en desarrollo para herramientas como H2 Console
                 .headers(headers -> headers.frameOptions().disable());
 
-        // 4. Construye y devuelve la configuración final
+        // 5. Construye y devuelve la configuración final
         return http.build();
     }
 }
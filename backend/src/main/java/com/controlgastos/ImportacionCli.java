@@ -0,0 +1,85 @@
+package com.controlgastos;
+
+import com.controlgastos.dto.ResultadoImportacion;
+import com.controlgastos.model.TipoMovimiento;
+import com.controlgastos.model.User;
+import com.controlgastos.services.ImportacionService;
+import com.controlgastos.services.UsuariosService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Paths;
+
+/**
+ * Punto de entrada de línea de comandos para importar movimientos históricos
+ * desde CSV sin levantar el servidor web.
+ *
+ * <p>
+ * <strong>Uso</strong> (con el jar empaquetado):
+ * </p>
+ *
+ * <pre>
+ * java -cp cruduno-0.0.1-SNAPSHOT.jar -Dloader.main=com.controlgastos.ImportacionCli \
+ *      org.springframework.boot.loader.PropertiesLauncher gasto historial.csv --importacion.usuario=ana
+ * </pre>
+ *
+ * <p>
+ * Usa la misma configuración que {@link DemoApplication} (base de datos,
+ * tamaño de lote). Al cerrar el contexto se guarda el checkpoint del capital.
+ * </p>
+ *
+ * <p>
+ * Los movimientos quedan a nombre del usuario de
+ * {@code --importacion.usuario=<nombre>}, que es obligatorio: el usuario
+ * global no es visible por la API, así que importar a su nombre dejaría los
+ * movimientos ocultos.
+ * </p>
+ */
+public class ImportacionCli {
+
+    private static final String OPCION_USUARIO = "--importacion.usuario=";
+
+    /**
+     * Importa el archivo indicado.
+     *
+     * @param args {@code <gasto|ingreso> <archivo.csv> --importacion.usuario=<nombre>},
+     *             seguidos opcionalmente de otras propiedades de Spring
+     *             ({@code --clave=valor}).
+     * @throws Exception si la importación falla.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || !indicaUsuario(args)) {
+            System.err.println("Uso: ImportacionCli <gasto|ingreso> <archivo.csv> --importacion.usuario=<nombre>"
+                    + " [--propiedad=valor ...]");
+            System.exit(2);
+        }
+        TipoMovimiento tipo = TipoMovimiento.valueOf(args[0].toUpperCase());
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            String nombre = contexto.getEnvironment().getProperty("importacion.usuario");
+            long usuario = contexto.getBean(UsuariosService.class).buscar(nombre).map(User::getId)
+                    .orElseThrow(() -> new IllegalArgumentException("No existe el usuario " + nombre));
+            ResultadoImportacion resultado = contexto.getBean(ImportacionService.class)
+                    .importar(tipo, usuario, Paths.get(args[1]));
+            System.out.println("Filas: " + resultado.getFilas()
+                    + ", importadas: " + resultado.getImportadas()
+                    + ", rechazadas: " + resultado.getRechazadas()
+                    + ", " + resultado.getMilisegundos() + " ms ("
+                    + resultado.getFilasPorSegundo() + " filas/s)");
+            for (String error : resultado.getErrores()) {
+                System.out.println(error);
+            }
+        }
+    }
+
+    private static boolean indicaUsuario(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(OPCION_USUARIO) && arg.length() > OPCION_USUARIO.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,148 @@
+package com.controlgastos.clasesCalculos;
+
+/**
+ * Árbol de Fenwick (<em>binary indexed tree</em>) de sumas por día sobre un
+ * arreglo de {@code long}.
+ *
+ * <p>
+ * Cada posición corresponde a un día (número de día desde 1970, como
+ * {@link java.time.LocalDate#toEpochDay()}). Sumar a un día y obtener la suma
+ * de un rango de días cuestan O(log n), donde n es la cantidad de días
+ * cubiertos.
+ * </p>
+ *
+ * <p>
+ * El rango cubierto crece solo: si llega un día fuera de él, se duplica la
+ * capacidad hasta incluirlo y el árbol se reconstruye en O(n). Como los
+ * movimientos suelen llegar en fechas cercanas, esto ocurre pocas veces.
+ * </p>
+ *
+ * <p>
+ * No es seguro para uso concurrente; ver {@link IndiceFechas}.
+ * </p>
+ */
+public class ArbolFenwick {
+
+    /** Capacidad inicial en días. */
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    /** Día que ocupa la posición 1 del árbol. */
+    private long base;
+
+    /** Árbol con índices desde 1; {@code arbol.length - 1} es la capacidad. */
+    private long[] arbol = new long[0];
+
+    /**
+     * Suma {@code delta} al día indicado.
+     *
+     * @param dia   número de día desde 1970.
+     * @param delta valor a sumar.
+     */
+    public void sumar(long dia, long delta) {
+        if (arbol.length == 0) {
+            base = dia - CAPACIDAD_INICIAL / 2;
+            arbol = new long[CAPACIDAD_INICIAL + 1];
+        } else if (dia < base || dia >= base + capacidad()) {
+            crecer(dia);
+        }
+        for (int i = (int) (dia - base) + 1; i < arbol.length; i += i & -i) {
+            arbol[i] = Math.addExact(arbol[i], delta);
+        }
+    }
+
+    /**
+     * Devuelve la suma de los días entre {@code desde} y {@code hasta},
+     * ambos incluidos. Los días fuera del rango cubierto suman 0.
+     *
+     * @param desde primer día.
+     * @param hasta último día.
+     * @return suma del rango, o 0 si {@code desde > hasta}.
+     */
+    public long suma(long desde, long hasta) {
+        if (desde > hasta) {
+            return 0;
+        }
+        return sumaHasta(hasta) - sumaHasta(desde - 1);
+    }
+
+    /**
+     * Devuelve la suma de todos los días hasta {@code dia}, incluido.
+     *
+     * @param dia último día.
+     * @return suma acumulada.
+     */
+    public long sumaHasta(long dia) {
+        if (arbol.length == 0 || dia < base) {
+            return 0;
+        }
+        int i = (int) Math.min(dia - base + 1, capacidad());
+        long suma = 0;
+        for (; i > 0; i -= i & -i) {
+            suma += arbol[i];
+        }
+        return suma;
+    }
+
+    /**
+     * @return primer día cubierto, o {@link Long#MAX_VALUE} si el árbol está
+     *         vacío.
+     */
+    public long primerDia() {
+        return arbol.length == 0 ? Long.MAX_VALUE : base;
+    }
+
+    /**
+     * @return último día cubierto, o {@link Long#MIN_VALUE} si el árbol está
+     *         vacío.
+     */
+    public long ultimoDia() {
+        return arbol.length == 0 ? Long.MIN_VALUE : base + capacidad() - 1;
+    }
+
+    private int capacidad() {
+        return arbol.length - 1;
+    }
+
+    /**
+     * Amplía el rango cubierto para incluir {@code dia}: recupera los valores
+     * de cada día deshaciendo el árbol, los copia a la nueva posición y
+     * reconstruye; todo en O(n).
+     */
+    private void crecer(long dia) {
+        int capacidad = capacidad();
+        long[] valores = new long[capacidad + 1];
+        System.arraycopy(arbol, 0, valores, 0, arbol.length);
+        for (int i = capacidad; i > 0; i--) {
+            int padre = i + (i & -i);
+            if (padre <= capacidad) {
+                valores[padre] -= valores[i];
+            }
+        }
+
+        long inicio = Math.min(base, dia);
+        long fin = Math.max(base + capacidad, dia + 1);
+        long nuevaCapacidad = capacidad;
+        while (nuevaCapacidad < fin - inicio) {
+            nuevaCapacidad *= 2;
+        }
+        if (nuevaCapacidad > Integer.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("Rango de fechas demasiado amplio");
+        }
+        // Deja espacio libre hacia el lado en que se creció
+        long nuevaBase = dia < base ? fin - nuevaCapacidad : inicio;
+
+        long[] nuevo = new long[(int) nuevaCapacidad + 1];
+        int desplazamiento = (int) (base - nuevaBase);
+        for (int i = 1; i <= capacidad; i++) {
+            nuevo[i + desplazamiento] = valores[i];
+        }
+        for (int i = 1; i < nuevo.length; i++) {
+            int padre = i + (i & -i);
+            if (padre < nuevo.length) {
+                nuevo[padre] += nuevo[i];
+            }
+        }
+        base = nuevaBase;
+        arbol = nuevo;
+    }
+}
@@ -0,0 +1,92 @@
+package com.controlgastos.clasesCalculos;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché de tamaño fijo que descarta el elemento usado hace más tiempo
+ * (<em>least recently used</em>).
+ *
+ * <p>
+ * Usa un {@link LinkedHashMap} en orden de acceso; cada operación es O(1) y
+ * se sincroniza sobre la caché. Cuenta aciertos y fallos de
+ * {@link #obtener}.
+ * </p>
+ *
+ * @param <K> tipo de la clave.
+ * @param <V> tipo del valor.
+ */
+public class CacheLru<K, V> {
+
+    private final Map<K, V> elementos;
+    private long aciertos;
+    private long fallos;
+
+    /**
+     * @param capacidad cantidad máxima de elementos.
+     */
+    public CacheLru(int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva");
+        }
+        this.elementos = new LinkedHashMap<K, V>(capacidad * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> mayor) {
+                return size() > capacidad;
+            }
+        };
+    }
+
+    /**
+     * @param clave clave a buscar.
+     * @return valor en caché, o {@code null} si no está.
+     */
+    public synchronized V obtener(K clave) {
+        V valor = elementos.get(clave);
+        if (valor == null) {
+            fallos++;
+        } else {
+            aciertos++;
+        }
+        return valor;
+    }
+
+    /**
+     * Guarda o reemplaza un valor; si la caché está llena, descarta el usado
+     * hace más tiempo.
+     *
+     * @param clave clave.
+     * @param valor valor (no nulo).
+     */
+    public synchronized void guardar(K clave, V valor) {
+        elementos.put(clave, valor);
+    }
+
+    /**
+     * @param clave clave a descartar.
+     */
+    public synchronized void invalidar(K clave) {
+        elementos.remove(clave);
+    }
+
+    /** @return cantidad de elementos en caché. */
+    public synchronized int tamano() {
+        return elementos.size();
+    }
+
+    /** @return aciertos de {@link #obtener}. */
+    public synchronized long aciertos() {
+        return aciertos;
+    }
+
+    /** @return fallos de {@link #obtener}. */
+    public synchronized long fallos() {
+        return fallos;
+    }
+
+    /** @return fracción de aciertos de {@link #obtener}, o 0 sin consultas. */
+    public synchronized double tasaAciertos() {
+        long total = aciertos + fallos;
+        return total == 0 ? 0 : (double) aciertos / total;
+    }
+}
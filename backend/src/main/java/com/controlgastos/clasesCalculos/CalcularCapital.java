@@ -5,45 +5,52 @@ package com.controlgastos.clasesCalculos;
  * y mantiene el último resultado en memoria.
  *
  * <p>
- * Nota: Para operaciones monetarias se recomienda considerar BigDecimal
- * para evitar problemas de precisión con double.
+ * Todos los montos se expresan en centavos y se operan con aritmética
+ * entera exacta; un desbordamiento lanza {@link ArithmeticException}.
+ * </p>
+ *
+ * <p>
+ * El último resultado es {@code volatile}, por lo que otros hilos siempre ven
+ * un valor completo. Para saldos compartidos entre peticiones use
+ * {@link MotorSaldos}.
  * </p>
  */
 public class CalcularCapital {
 
     /** Último capital calculado y almacenado en esta instancia. */
-    private double capitalActual;
+    private volatile long capitalActual;
 
     /**
      * Suma un ingreso a un capital base y guarda el resultado en
      * {@code capitalActual}.
      *
-     * @param capital capital base sobre el que se realizará la suma
-     * @param ingreso monto a sumar (puede ser negativo si se desea permitir
-     *                ajustes)
+     * @param capital capital base en centavos sobre el que se realizará la suma
+     * @param ingreso monto en centavos a sumar (puede ser negativo si se desea
+     *                permitir ajustes)
      */
-    public void sumarCapital(double capital, double ingreso) {
-        this.capitalActual = capital + ingreso;
+    public void sumarCapital(long capital, long ingreso) {
+        this.capitalActual = Math.addExact(capital, ingreso);
     }
 
     /**
      * Resta un gasto de un capital base y guarda el resultado en
      * {@code capitalActual}.
      *
-     * @param capital capital base sobre el que se realizará la resta
-     * @param gasto   monto a restar (puede ser negativo si se desea permitir
-     *                ajustes)
+     * @param capital capital base en centavos sobre el que se realizará la
+     *                resta
+     * @param gasto   monto en centavos a restar (puede ser negativo si se desea
+     *                permitir ajustes)
      */
-    public void restarCapital(double capital, double gasto) {
-        this.capitalActual = capital - gasto;
+    public void restarCapital(long capital, long gasto) {
+        this.capitalActual = Math.subtractExact(capital, gasto);
     }
 
     /**
      * Devuelve el último valor de capital calculado y almacenado.
      *
-     * @return el valor actual de {@code capitalActual}
+     * @return el valor actual de {@code capitalActual}, en centavos
      */
-    public double regresarCapital() {
+    public long regresarCapital() {
         return capitalActual;
     }
 }
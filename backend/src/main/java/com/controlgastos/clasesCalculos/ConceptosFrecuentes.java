@@ -0,0 +1,210 @@
+package com.controlgastos.clasesCalculos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conceptos con mayor monto acumulado, estimados con el algoritmo
+ * <em>Space-Saving</em> (Metwally, Agrawal y El Abbadi, 2005) en su variante
+ * con pesos.
+ *
+ * <p>
+ * Guarda como máximo {@code capacidad} contadores, sin importar cuántos
+ * conceptos distintos lleguen. Si llega un concepto nuevo con todos los
+ * contadores ocupados, reemplaza al de menor monto y hereda ese monto como
+ * error.
+ * </p>
+ *
+ * <p>
+ * <strong>Cotas de error</strong> (W es el monto total sumado y m la
+ * capacidad):
+ * </p>
+ * <ul>
+ * <li>El monto de cada contador nunca subestima el real y lo sobreestima a
+ * lo sumo en su {@code error}, que es como máximo W / m.</li>
+ * <li>Todo concepto con monto real mayor que W / m tiene contador.</li>
+ * </ul>
+ *
+ * <p>
+ * Los contadores forman un montículo de mínimos, así que sumar cuesta
+ * O(log m). No es seguro para uso concurrente.
+ * </p>
+ */
+public class ConceptosFrecuentes {
+
+    private final String[] conceptos;
+    private final long[] montos;
+    private final long[] errores;
+
+    /** Posición de cada concepto en el montículo. */
+    private final Map<String, Integer> posiciones;
+
+    private int tamano;
+
+    /**
+     * @param capacidad cantidad máxima de contadores.
+     */
+    public ConceptosFrecuentes(int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva");
+        }
+        conceptos = new String[capacidad];
+        montos = new long[capacidad];
+        errores = new long[capacidad];
+        posiciones = new HashMap<>(capacidad * 2);
+    }
+
+    /**
+     * Suma un monto al concepto.
+     *
+     * @param concepto concepto del movimiento.
+     * @param monto    monto en centavos (no negativo).
+     */
+    public void sumar(String concepto, long monto) {
+        Integer posicion = posiciones.get(concepto);
+        if (posicion != null) {
+            montos[posicion] = Math.addExact(montos[posicion], monto);
+            bajar(posicion);
+        } else if (tamano < conceptos.length) {
+            agregar(concepto, monto, 0);
+        } else {
+            // Reemplaza al mínimo: su monto pasa a ser la cota de error
+            posiciones.remove(conceptos[0]);
+            errores[0] = montos[0];
+            montos[0] = Math.addExact(montos[0], monto);
+            conceptos[0] = concepto;
+            posiciones.put(concepto, 0);
+            bajar(0);
+        }
+    }
+
+    /**
+     * Restaura un contador guardado. Si ya no hay lugar, se trata como
+     * {@link #sumar} conservando el error mayor.
+     *
+     * @param concepto concepto.
+     * @param monto    monto estimado en centavos.
+     * @param error    sobreestimación máxima en centavos.
+     */
+    public void restaurar(String concepto, long monto, long error) {
+        if (tamano < conceptos.length && !posiciones.containsKey(concepto)) {
+            agregar(concepto, monto, error);
+            return;
+        }
+        sumar(concepto, monto);
+        int posicion = posiciones.get(concepto);
+        errores[posicion] = Math.max(errores[posicion], error);
+    }
+
+    /**
+     * Devuelve los {@code k} conceptos de mayor monto estimado.
+     *
+     * @param k cantidad de conceptos.
+     * @return contadores ordenados de mayor a menor monto.
+     */
+    public List<Contador> top(int k) {
+        Integer[] orden = new Integer[tamano];
+        for (int i = 0; i < tamano; i++) {
+            orden[i] = i;
+        }
+        Arrays.sort(orden, (a, b) -> Long.compare(montos[b], montos[a]));
+        int cantidad = Math.min(k, tamano);
+        List<Contador> top = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            int j = orden[i];
+            top.add(new Contador(conceptos[j], montos[j], errores[j]));
+        }
+        return top;
+    }
+
+    /** @return cantidad máxima de contadores. */
+    public int capacidad() {
+        return conceptos.length;
+    }
+
+    private void agregar(String concepto, long monto, long error) {
+        int posicion = tamano++;
+        conceptos[posicion] = concepto;
+        montos[posicion] = monto;
+        errores[posicion] = error;
+        posiciones.put(concepto, posicion);
+        subir(posicion);
+    }
+
+    private void subir(int i) {
+        while (i > 0) {
+            int padre = (i - 1) / 2;
+            if (montos[padre] <= montos[i]) {
+                return;
+            }
+            intercambiar(i, padre);
+            i = padre;
+        }
+    }
+
+    private void bajar(int i) {
+        while (true) {
+            int menor = i;
+            int izquierdo = 2 * i + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < tamano && montos[izquierdo] < montos[menor]) {
+                menor = izquierdo;
+            }
+            if (derecho < tamano && montos[derecho] < montos[menor]) {
+                menor = derecho;
+            }
+            if (menor == i) {
+                return;
+            }
+            intercambiar(i, menor);
+            i = menor;
+        }
+    }
+
+    private void intercambiar(int a, int b) {
+        String concepto = conceptos[a];
+        conceptos[a] = conceptos[b];
+        conceptos[b] = concepto;
+        long monto = montos[a];
+        montos[a] = montos[b];
+        montos[b] = monto;
+        long error = errores[a];
+        errores[a] = errores[b];
+        errores[b] = error;
+        posiciones.put(conceptos[a], a);
+        posiciones.put(conceptos[b], b);
+    }
+
+    /**
+     * Monto estimado de un concepto y su sobreestimación máxima.
+     */
+    public static final class Contador {
+        private final String concepto;
+        private final long monto;
+        private final long error;
+
+        Contador(String concepto, long monto, long error) {
+            this.concepto = concepto;
+            this.monto = monto;
+            this.error = error;
+        }
+
+        /** @return concepto. */
+        public String getConcepto() {
+            return concepto;
+        }
+
+        /** @return monto estimado en centavos. */
+        public long getMonto() {
+            return monto;
+        }
+
+        /** @return sobreestimación máxima en centavos. */
+        public long getError() {
+            return error;
+        }
+    }
+}
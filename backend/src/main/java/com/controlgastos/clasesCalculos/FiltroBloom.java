@@ -0,0 +1,145 @@
+package com.controlgastos.clasesCalculos;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de cadenas: responde "seguro que no está" o "puede estar".
+ *
+ * <p>
+ * Se dimensiona para {@code esperados} elementos con una probabilidad de
+ * falso positivo {@code fpp}: m = -n·ln(p) / ln(2)² bits y k = (m / n)·ln(2)
+ * funciones hash, obtenidas por doble hash (Kirsch y Mitzenmacher, 2006) a
+ * partir de un hash de 64 bits de la cadena.
+ * </p>
+ *
+ * <p>
+ * No admite borrados. Si se agregan más de {@code esperados} elementos la
+ * probabilidad de falso positivo crece; {@link #lleno()} indica cuándo
+ * conviene reconstruirlo más grande.
+ * </p>
+ *
+ * <p>
+ * Es seguro para uso concurrente: los bits se fijan con CAS y las consultas
+ * no bloquean.
+ * </p>
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long cantidadBits;
+    private final int funciones;
+    private final long esperados;
+    private final AtomicLong agregados = new AtomicLong();
+
+    /**
+     * @param esperados cantidad de elementos prevista.
+     * @param fpp       probabilidad de falso positivo buscada (entre 0 y 1).
+     */
+    public FiltroBloom(long esperados, double fpp) {
+        if (esperados < 1) {
+            throw new IllegalArgumentException("Los elementos esperados deben ser positivos");
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("La probabilidad de falso positivo debe estar entre 0 y 1");
+        }
+        long m = (long) Math.ceil(-esperados * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.max(1, (m + 63) / 64));
+        this.cantidadBits = bits.length() * 64L;
+        this.funciones = Math.max(1, (int) Math.round((double) cantidadBits / esperados * Math.log(2)));
+        this.esperados = esperados;
+    }
+
+    /**
+     * Agrega una cadena.
+     *
+     * @param valor cadena a agregar.
+     */
+    public void agregar(String valor) {
+        long hash = hash(valor);
+        long h1 = mezclar(hash);
+        long h2 = mezclar(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < funciones; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, cantidadBits);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual = bits.get(palabra);
+            while ((actual & mascara) == 0 && !bits.compareAndSet(palabra, actual, actual | mascara)) {
+                actual = bits.get(palabra);
+            }
+        }
+        agregados.incrementAndGet();
+    }
+
+    /**
+     * @param valor cadena a consultar.
+     * @return {@code false} si la cadena seguro no se agregó; {@code true} si
+     *         puede haberse agregado.
+     */
+    public boolean puedeContener(String valor) {
+        long hash = hash(valor);
+        long h1 = mezclar(hash);
+        long h2 = mezclar(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < funciones; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, cantidadBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estima la probabilidad actual de falso positivo como (bits en 1 / m)^k.
+     * Recorre todos los bits.
+     *
+     * @return probabilidad estimada.
+     */
+    public double fppEstimada() {
+        long unos = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            unos += Long.bitCount(bits.get(i));
+        }
+        return Math.pow((double) unos / cantidadBits, funciones);
+    }
+
+    /** @return {@code true} si ya se agregaron más elementos que los previstos. */
+    public boolean lleno() {
+        return agregados.get() > esperados;
+    }
+
+    /** @return cantidad de elementos agregados (con repeticiones). */
+    public long agregados() {
+        return agregados.get();
+    }
+
+    /** @return tamaño del filtro en bits. */
+    public long cantidadBits() {
+        return cantidadBits;
+    }
+
+    /** @return cantidad de funciones hash. */
+    public int funciones() {
+        return funciones;
+    }
+
+    /** FNV-1a de 64 bits sobre los caracteres UTF-16. */
+    private static long hash(String valor) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            hash ^= valor.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /** Finalizador de MurmurHash3 ({@code fmix64}). */
+    private static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,158 @@
+package com.controlgastos.clasesCalculos;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice en memoria de ingresos y gastos por día, por usuario, para calcular
+ * totales de cualquier rango de fechas sin consultar la base de datos.
+ *
+ * <p>
+ * Cada usuario tiene dos {@link ArbolFenwick} (ingresos y gastos) en
+ * centavos; registrar un movimiento o consultar un rango cuesta O(log n),
+ * con n la cantidad de días cubiertos.
+ * </p>
+ *
+ * <p>
+ * Es seguro para uso concurrente: las operaciones de un usuario se
+ * sincronizan sobre su propio índice, así que ingresos, gastos y neto de una
+ * consulta son coherentes entre sí. Usuarios distintos no compiten.
+ * </p>
+ */
+public class IndiceFechas {
+
+    /** Índice por usuario. */
+    private final Map<Long, Indice> indices = new ConcurrentHashMap<>();
+
+    /**
+     * Registra un ingreso.
+     *
+     * @param usuario  identificador del usuario.
+     * @param dia      día del ingreso.
+     * @param centavos monto en centavos.
+     */
+    public void registrarIngreso(long usuario, LocalDate dia, long centavos) {
+        Indice indice = indice(usuario);
+        synchronized (indice) {
+            indice.ingresos.sumar(dia.toEpochDay(), centavos);
+        }
+    }
+
+    /**
+     * Registra un gasto.
+     *
+     * @param usuario  identificador del usuario.
+     * @param dia      día del gasto.
+     * @param centavos monto en centavos.
+     */
+    public void registrarGasto(long usuario, LocalDate dia, long centavos) {
+        Indice indice = indice(usuario);
+        synchronized (indice) {
+            indice.gastos.sumar(dia.toEpochDay(), centavos);
+        }
+    }
+
+    /**
+     * Calcula ingresos y gastos de un rango de días, ambos incluidos.
+     *
+     * @param usuario identificador del usuario.
+     * @param desde   primer día.
+     * @param hasta   último día.
+     * @return {@code {ingresos, gastos}} en centavos.
+     */
+    public long[] totales(long usuario, LocalDate desde, LocalDate hasta) {
+        Indice indice = indices.get(usuario);
+        if (indice == null) {
+            return new long[] { 0, 0 };
+        }
+        synchronized (indice) {
+            return new long[] {
+                    indice.ingresos.suma(desde.toEpochDay(), hasta.toEpochDay()),
+                    indice.gastos.suma(desde.toEpochDay(), hasta.toEpochDay()) };
+        }
+    }
+
+    /**
+     * Calcula el saldo (ingresos menos gastos acumulados) al cierre de cada día
+     * con movimientos del rango.
+     *
+     * <p>
+     * Los días sin movimientos se omiten: el saldo no cambia en ellos. El
+     * recorrido se limita a los días cubiertos por el índice, así que un rango
+     * abierto no recorre siglos vacíos.
+     * </p>
+     *
+     * @param usuario identificador del usuario.
+     * @param desde   primer día.
+     * @param hasta   último día.
+     * @return serie de saldos, en orden de fecha.
+     */
+    public SerieSaldos saldosDiarios(long usuario, LocalDate desde, LocalDate hasta) {
+        Indice indice = indices.get(usuario);
+        if (indice == null) {
+            return new SerieSaldos(new long[0], new long[0]);
+        }
+        synchronized (indice) {
+            long inicio = Math.max(desde.toEpochDay(),
+                    Math.min(indice.ingresos.primerDia(), indice.gastos.primerDia()));
+            long fin = Math.min(hasta.toEpochDay(),
+                    Math.max(indice.ingresos.ultimoDia(), indice.gastos.ultimoDia()));
+            if (inicio > fin) {
+                return new SerieSaldos(new long[0], new long[0]);
+            }
+            long saldo = indice.ingresos.sumaHasta(inicio - 1) - indice.gastos.sumaHasta(inicio - 1);
+            long[] dias = new long[(int) (fin - inicio + 1)];
+            long[] saldos = new long[dias.length];
+            int tamano = 0;
+            for (long dia = inicio; dia <= fin; dia++) {
+                long ingresos = indice.ingresos.suma(dia, dia);
+                long gastos = indice.gastos.suma(dia, dia);
+                if (ingresos == 0 && gastos == 0) {
+                    continue;
+                }
+                saldo += ingresos - gastos;
+                dias[tamano] = dia;
+                saldos[tamano++] = saldo;
+            }
+            return new SerieSaldos(Arrays.copyOf(dias, tamano), Arrays.copyOf(saldos, tamano));
+        }
+    }
+
+    private Indice indice(long usuario) {
+        return indices.computeIfAbsent(usuario, u -> new Indice());
+    }
+
+    /**
+     * Árboles de un usuario.
+     */
+    private static final class Indice {
+        private final ArbolFenwick ingresos = new ArbolFenwick();
+        private final ArbolFenwick gastos = new ArbolFenwick();
+    }
+
+    /**
+     * Saldos al cierre de cada día: {@code saldos[i]} es el saldo del día
+     * {@code dias[i]} (número de día desde 1970).
+     */
+    public static final class SerieSaldos {
+        private final long[] dias;
+        private final long[] saldos;
+
+        SerieSaldos(long[] dias, long[] saldos) {
+            this.dias = dias;
+            this.saldos = saldos;
+        }
+
+        /** @return días con movimientos, en orden. */
+        public long[] getDias() {
+            return dias;
+        }
+
+        /** @return saldo en centavos al cierre de cada día. */
+        public long[] getSaldos() {
+            return saldos;
+        }
+    }
+}
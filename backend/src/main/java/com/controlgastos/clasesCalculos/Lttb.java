@@ -0,0 +1,79 @@
+package com.controlgastos.clasesCalculos;
+
+/**
+ * Reducción de series para gráficas con el algoritmo
+ * <em>Largest-Triangle-Three-Buckets</em> (Steinarsson, 2013).
+ *
+ * <p>
+ * Conserva el primer y el último punto y divide el resto en cubetas
+ * iguales. De cada cubeta elige el punto que forma el triángulo de mayor
+ * área con el punto elegido en la cubeta anterior y el promedio de la
+ * siguiente, así que picos y caídas sobreviven aunque la serie se reduzca a
+ * unos cientos de puntos.
+ * </p>
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Elige como máximo {@code puntos} índices de la serie.
+     *
+     * @param x      abscisas, en orden creciente.
+     * @param y      ordenadas.
+     * @param puntos cantidad máxima de puntos (al menos 2).
+     * @return índices elegidos, en orden creciente.
+     */
+    public static int[] seleccionar(long[] x, long[] y, int puntos) {
+        int n = x.length;
+        if (puntos >= n) {
+            int[] todos = new int[n];
+            for (int i = 0; i < n; i++) {
+                todos[i] = i;
+            }
+            return todos;
+        }
+        if (puntos < 2) {
+            throw new IllegalArgumentException("Se necesitan al menos 2 puntos");
+        }
+        int[] elegidos = new int[puntos];
+        int cantidad = 0;
+        elegidos[cantidad++] = 0;
+        // Los extremos no entran en las cubetas
+        double cubeta = (double) (n - 2) / (puntos - 2);
+        int anterior = 0;
+        for (int c = 0; c < puntos - 2; c++) {
+            // Promedio de la cubeta siguiente (o el último punto)
+            int inicioSiguiente = (int) ((c + 1) * cubeta) + 1;
+            int finSiguiente = Math.min((int) ((c + 2) * cubeta) + 1, n);
+            double promedioX = 0;
+            double promedioY = 0;
+            for (int i = inicioSiguiente; i < finSiguiente; i++) {
+                promedioX += x[i];
+                promedioY += y[i];
+            }
+            promedioX /= finSiguiente - inicioSiguiente;
+            promedioY /= finSiguiente - inicioSiguiente;
+
+            int inicio = (int) (c * cubeta) + 1;
+            int fin = (int) ((c + 1) * cubeta) + 1;
+            double ax = x[anterior];
+            double ay = y[anterior];
+            double mayorArea = -1;
+            int elegido = inicio;
+            for (int i = inicio; i < fin; i++) {
+                // Doble del área; basta para comparar
+                double area = Math.abs((ax - promedioX) * (y[i] - ay) - (ax - x[i]) * (promedioY - ay));
+                if (area > mayorArea) {
+                    mayorArea = area;
+                    elegido = i;
+                }
+            }
+            elegidos[cantidad++] = elegido;
+            anterior = elegido;
+        }
+        elegidos[cantidad] = n - 1;
+        return elegidos;
+    }
+}
@@ -0,0 +1,177 @@
+package com.controlgastos.clasesCalculos;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Motor en memoria de saldos por usuario.
+ *
+ * <p>
+ * Mantiene, para cada usuario, el total de ingresos y de gastos en
+ * <strong>centavos</strong> usando {@link LongAdder}: cada hilo suma sobre su
+ * propia celda, por lo que las escrituras concurrentes no compiten por un
+ * mismo contador y el resultado es exacto (aritmética entera, sin
+ * redondeos de {@code double}).
+ * </p>
+ *
+ * <p>
+ * <strong>Checkpoint (write-behind):</strong> el motor recuerda el último
+ * capital persistido de cada usuario. {@link #pendiente(long)} devuelve la
+ * diferencia aún no guardada y {@link #confirmarCheckpoint(long, long)} la
+ * marca como persistida. Quien persiste es
+ * {@link com.controlgastos.services.CheckpointSaldosService}.
+ * </p>
+ *
+ * <p>
+ * Esta clase no accede a la base de datos; es segura para uso concurrente.
+ * </p>
+ */
+public class MotorSaldos {
+
+    /**
+     * Clave usada mientras los movimientos no tienen usuario propietario:
+     * todos comparten un único saldo global.
+     */
+    public static final long USUARIO_GLOBAL = 0L;
+
+    /** Saldos por usuario. */
+    private final Map<Long, Saldo> saldos = new ConcurrentHashMap<>();
+
+    /** Número de actualizaciones tras las que se solicita un checkpoint. */
+    private final int actualizacionesPorCheckpoint;
+
+    /**
+     * Crea el motor.
+     *
+     * @param actualizacionesPorCheckpoint cada cuántas actualizaciones
+     *                                     pendientes se solicita un checkpoint.
+     */
+    public MotorSaldos(int actualizacionesPorCheckpoint) {
+        if (actualizacionesPorCheckpoint < 1) {
+            throw new IllegalArgumentException("actualizacionesPorCheckpoint debe ser mayor a 0");
+        }
+        this.actualizacionesPorCheckpoint = actualizacionesPorCheckpoint;
+    }
+
+    /**
+     * Carga el estado inicial de un usuario (normalmente al arrancar).
+     *
+     * @param usuario            identificador del usuario.
+     * @param ingresosCentavos   total de ingresos registrados.
+     * @param gastosCentavos     total de gastos registrados.
+     * @param capitalPersistido  capital guardado actualmente en base de datos.
+     */
+    public void cargar(long usuario, long ingresosCentavos, long gastosCentavos, long capitalPersistido) {
+        Saldo saldo = new Saldo();
+        saldo.ingresos.add(ingresosCentavos);
+        saldo.gastos.add(gastosCentavos);
+        saldo.checkpoint = capitalPersistido;
+        saldos.put(usuario, saldo);
+    }
+
+    /**
+     * Registra un ingreso.
+     *
+     * @param usuario  identificador del usuario.
+     * @param centavos monto del ingreso en centavos.
+     * @return {@code true} si con esta actualización se alcanzó el umbral de
+     *         checkpoint.
+     */
+    public boolean registrarIngreso(long usuario, long centavos) {
+        Saldo saldo = saldo(usuario);
+        saldo.ingresos.add(centavos);
+        return saldo.actualizaciones.incrementAndGet() == actualizacionesPorCheckpoint;
+    }
+
+    /**
+     * Registra un gasto.
+     *
+     * @param usuario  identificador del usuario.
+     * @param centavos monto del gasto en centavos.
+     * @return {@code true} si con esta actualización se alcanzó el umbral de
+     *         checkpoint.
+     */
+    public boolean registrarGasto(long usuario, long centavos) {
+        Saldo saldo = saldo(usuario);
+        saldo.gastos.add(centavos);
+        return saldo.actualizaciones.incrementAndGet() == actualizacionesPorCheckpoint;
+    }
+
+    /**
+     * @param usuario identificador del usuario.
+     * @return total de ingresos en centavos.
+     */
+    public long ingresos(long usuario) {
+        return saldo(usuario).ingresos.sum();
+    }
+
+    /**
+     * @param usuario identificador del usuario.
+     * @return total de gastos en centavos.
+     */
+    public long gastos(long usuario) {
+        return saldo(usuario).gastos.sum();
+    }
+
+    /**
+     * @param usuario identificador del usuario.
+     * @return capital actual (ingresos - gastos) en centavos.
+     */
+    public long capital(long usuario) {
+        Saldo saldo = saldo(usuario);
+        return saldo.ingresos.sum() - saldo.gastos.sum();
+    }
+
+    /**
+     * Calcula el capital que aún no se ha persistido.
+     *
+     * @param usuario identificador del usuario.
+     * @return diferencia en centavos entre el capital actual y el último
+     *         checkpoint.
+     */
+    public long pendiente(long usuario) {
+        Saldo saldo = saldo(usuario);
+        return saldo.ingresos.sum() - saldo.gastos.sum() - saldo.checkpoint;
+    }
+
+    /**
+     * @param usuario identificador del usuario.
+     * @return último capital (centavos) marcado como persistido.
+     */
+    public long ultimoCheckpoint(long usuario) {
+        return saldo(usuario).checkpoint;
+    }
+
+    /**
+     * Marca como persistido el capital indicado y reinicia el contador de
+     * actualizaciones del usuario.
+     *
+     * @param usuario        identificador del usuario.
+     * @param capitalGuardado capital (centavos) que quedó en base de datos.
+     */
+    public void confirmarCheckpoint(long usuario, long capitalGuardado) {
+        Saldo saldo = saldo(usuario);
+        saldo.checkpoint = capitalGuardado;
+        saldo.actualizaciones.set(0);
+    }
+
+    /** @return identificadores de los usuarios con saldo en memoria. */
+    public Iterable<Long> usuarios() {
+        return saldos.keySet();
+    }
+
+    private Saldo saldo(long usuario) {
+        return saldos.computeIfAbsent(usuario, u -> new Saldo());
+    }
+
+    /** Estado en memoria de un usuario. */
+    private static final class Saldo {
+        private final LongAdder ingresos = new LongAdder();
+        private final LongAdder gastos = new LongAdder();
+        private final AtomicInteger actualizaciones = new AtomicInteger();
+        /** Último capital persistido; solo lo escribe el hilo de checkpoint. */
+        private volatile long checkpoint;
+    }
+}
@@ -0,0 +1,113 @@
+package com.controlgastos.clasesCalculos;
+
+/**
+ * Reduce una sentencia SQL a su huella: la misma consulta con distintos
+ * valores produce siempre el mismo texto.
+ *
+ * <p>
+ * <strong>Reglas:</strong>
+ * </p>
+ * <ol>
+ * <li>Las cadenas ({@code '...'}) y los números literales se reemplazan por
+ * {@code ?}, así que la huella no contiene datos.</li>
+ * <li>Las listas de parámetros ({@code IN (?, ?, ?)}) se reducen a uno solo:
+ * {@code in (?)}.</li>
+ * <li>Los espacios se colapsan y todo se pasa a minúsculas.</li>
+ * </ol>
+ *
+ * <p>
+ * Recorre la sentencia una vez, sin expresiones regulares.
+ * </p>
+ */
+public final class NormalizadorSql {
+
+    private NormalizadorSql() {
+    }
+
+    /**
+     * @param sql sentencia original.
+     * @return huella normalizada.
+     */
+    public static String normalizar(String sql) {
+        StringBuilder huella = new StringBuilder(sql.length());
+        int i = 0;
+        int n = sql.length();
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // Cadena literal; '' es una comilla escapada
+                i++;
+                while (i < n) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < n && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                agregarParametro(huella);
+            } else if (Character.isDigit(c) && !parteDeIdentificador(huella)) {
+                while (i < n && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                agregarParametro(huella);
+            } else if (c == '?') {
+                i++;
+                agregarParametro(huella);
+            } else if (Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (huella.length() > 0 && i < n) {
+                    huella.append(' ');
+                }
+            } else {
+                huella.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+        return huella.toString();
+    }
+
+    /**
+     * @param sql sentencia original.
+     * @return cantidad de parámetros {@code ?} fuera de cadenas literales.
+     */
+    public static int parametros(String sql) {
+        int parametros = 0;
+        boolean enCadena = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                enCadena = !enCadena;
+            } else if (c == '?' && !enCadena) {
+                parametros++;
+            }
+        }
+        return parametros;
+    }
+
+    /** Agrega {@code ?}, o nada si continúa una lista {@code ?, ?}. */
+    private static void agregarParametro(StringBuilder huella) {
+        int fin = huella.length();
+        if (fin > 0 && huella.charAt(fin - 1) == ' ') {
+            fin--;
+        }
+        if (fin > 1 && huella.charAt(fin - 1) == ',' && huella.charAt(fin - 2) == '?') {
+            huella.setLength(fin - 1);
+            return;
+        }
+        huella.append('?');
+    }
+
+    private static boolean parteDeIdentificador(StringBuilder huella) {
+        if (huella.length() == 0) {
+            return false;
+        }
+        char anterior = huella.charAt(huella.length() - 1);
+        return Character.isLetterOrDigit(anterior) || anterior == '_';
+    }
+}
@@ -1,35 +1,39 @@
 package com.controlgastos.clasesCalculos;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Acumula el total de gastos registrados.
  * 
  * <p>
  * Esta clase permite sumar nuevos gastos al total actual
- * y obtener el monto acumulado. No realiza validación de entrada
- * ni control de precisión monetaria.
+ * y obtener el monto acumulado. Los montos se expresan en centavos
+ * ({@link com.controlgastos.model.Dinero#centavos()}) y se acumulan en un
+ * {@link LongAdder}, por lo que la suma es exacta y segura para uso
+ * concurrente.
  * </p>
  */
 public class SumaGasto {
 
-    /** Monto total de gastos acumulados. */
-    private double sumaGastos = 0;
+    /** Monto total de gastos acumulados, en centavos. */
+    private final LongAdder sumaGastos = new LongAdder();
 
     /**
      * Suma un gasto al acumulador.
      *
-     * @param gasto monto a añadir al total (puede ser negativo si se permiten
-     *              ajustes)
+     * @param gasto monto en centavos a añadir al total (puede ser negativo si
+     *              se permiten ajustes)
      */
-    public void sumarGastos(double gasto) {
-        this.sumaGastos += gasto;
+    public void sumarGastos(long gasto) {
+        this.sumaGastos.add(gasto);
     }
 
     /**
      * Devuelve el total acumulado de gastos.
      *
-     * @return suma total de gastos registrados
+     * @return suma total de gastos registrados, en centavos
      */
-    public double obtenerSumaGastos() {
-        return sumaGastos;
+    public long obtenerSumaGastos() {
+        return sumaGastos.sum();
     }
 }
@@ -0,0 +1,238 @@
+package com.controlgastos.clasesCalculos;
+
+import com.controlgastos.model.TipoMovimiento;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Índice en memoria de los conceptos de un usuario para búsqueda por prefijo
+ * (autocompletado).
+ *
+ * <p>
+ * Cada concepto distinto se guarda una sola vez, con la cantidad de
+ * movimientos que lo usan y sus IDs de gasto e ingreso. Se indexa en un trie
+ * por su forma normalizada (minúsculas y sin acentos) desde el inicio de
+ * cada palabra, así que {@code "ami"} encuentra {@code "Cena, amigos"}.
+ * </p>
+ *
+ * <p>
+ * Cada nodo guarda los {@link #MAX_RESULTADOS} conceptos más usados bajo él.
+ * Como las cantidades solo crecen, basta actualizar esas listas en el camino
+ * de cada concepto al registrar (a lo sumo 25 nodos por palabra), y buscar
+ * cuesta lo que mide el prefijo, sin recorrer el subárbol.
+ * </p>
+ *
+ * <p>
+ * No es seguro para uso concurrente.
+ * </p>
+ */
+public class TrieConceptos {
+
+    /** Máximo de conceptos que devuelve una búsqueda. */
+    public static final int MAX_RESULTADOS = 20;
+
+    private final Nodo raiz = new Nodo();
+
+    /** Concepto original a su entrada; también sirve para internarlos. */
+    private final Map<String, Concepto> conceptos = new HashMap<>();
+
+    /**
+     * Registra un movimiento.
+     *
+     * @param tipo     gasto o ingreso.
+     * @param concepto concepto del movimiento.
+     * @param id       identificador del movimiento.
+     */
+    public void registrar(TipoMovimiento tipo, String concepto, long id) {
+        Concepto entrada = conceptos.get(concepto);
+        if (entrada == null) {
+            entrada = new Concepto(concepto, normalizar(concepto));
+            conceptos.put(concepto, entrada);
+        }
+        entrada.agregar(tipo, id);
+        String normalizado = entrada.normalizado;
+        for (int inicio = 0; inicio < normalizado.length(); inicio++) {
+            if (inicio == 0 || !Character.isLetterOrDigit(normalizado.charAt(inicio - 1))
+                    && Character.isLetterOrDigit(normalizado.charAt(inicio))) {
+                indexar(normalizado, inicio, entrada);
+            }
+        }
+    }
+
+    /**
+     * Busca los conceptos que tienen una palabra que empieza con
+     * {@code prefijo}.
+     *
+     * @param prefijo texto buscado (sin distinguir mayúsculas ni acentos).
+     * @param limite  cantidad máxima de conceptos (hasta
+     *                {@link #MAX_RESULTADOS}).
+     * @return conceptos de más a menos usados.
+     */
+    public List<Concepto> buscar(String prefijo, int limite) {
+        String normalizado = normalizar(prefijo);
+        Nodo nodo = raiz;
+        for (int i = 0; i < normalizado.length() && nodo != null; i++) {
+            nodo = nodo.hijo(normalizado.charAt(i));
+        }
+        List<Concepto> encontrados = new ArrayList<>();
+        if (nodo == null) {
+            return encontrados;
+        }
+        for (int i = 0; i < Math.min(limite, nodo.cantidad); i++) {
+            encontrados.add(nodo.mejores[i]);
+        }
+        return encontrados;
+    }
+
+    /**
+     * Pasa a minúsculas y quita los acentos.
+     *
+     * @param texto texto original.
+     * @return texto normalizado.
+     */
+    static String normalizar(String texto) {
+        String sinAcentos = Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinAcentos.toLowerCase(Locale.ROOT);
+    }
+
+    private void indexar(String normalizado, int inicio, Concepto entrada) {
+        Nodo nodo = raiz;
+        for (int i = inicio; i < normalizado.length(); i++) {
+            nodo = nodo.hijoOCrear(normalizado.charAt(i));
+            nodo.actualizar(entrada);
+        }
+    }
+
+    /**
+     * Concepto distinto con sus movimientos.
+     */
+    public static final class Concepto {
+        private final String concepto;
+        private final String normalizado;
+        private long[] gastos = new long[0];
+        private int cantidadGastos;
+        private long[] ingresos = new long[0];
+        private int cantidadIngresos;
+
+        Concepto(String concepto, String normalizado) {
+            this.concepto = concepto;
+            this.normalizado = normalizado;
+        }
+
+        void agregar(TipoMovimiento tipo, long id) {
+            if (tipo == TipoMovimiento.GASTO) {
+                if (cantidadGastos == gastos.length) {
+                    gastos = Arrays.copyOf(gastos, Math.max(4, cantidadGastos * 2));
+                }
+                gastos[cantidadGastos++] = id;
+            } else {
+                if (cantidadIngresos == ingresos.length) {
+                    ingresos = Arrays.copyOf(ingresos, Math.max(4, cantidadIngresos * 2));
+                }
+                ingresos[cantidadIngresos++] = id;
+            }
+        }
+
+        /** @return concepto original. */
+        public String getConcepto() {
+            return concepto;
+        }
+
+        /** @return movimientos que usan el concepto. */
+        public long getCantidad() {
+            return (long) cantidadGastos + cantidadIngresos;
+        }
+
+        /**
+         * Devuelve una página de IDs, de los registrados más recientemente a
+         * los más antiguos.
+         *
+         * @param tipo   gasto o ingreso.
+         * @param pagina número de página, desde 0.
+         * @param tamano IDs por página.
+         * @return IDs de la página; vacío si no hay más.
+         */
+        public long[] ids(TipoMovimiento tipo, int pagina, int tamano) {
+            long[] ids = tipo == TipoMovimiento.GASTO ? gastos : ingresos;
+            int cantidad = tipo == TipoMovimiento.GASTO ? cantidadGastos : cantidadIngresos;
+            long desde = (long) cantidad - (long) pagina * tamano;
+            int fin = (int) Math.max(0, desde);
+            int inicio = (int) Math.max(0, desde - tamano);
+            long[] resultado = new long[fin - inicio];
+            for (int i = 0; i < resultado.length; i++) {
+                resultado[i] = ids[fin - 1 - i];
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Nodo del trie: hijos por carácter (pocos, en arreglos) y los conceptos
+     * más usados del subárbol.
+     */
+    private static final class Nodo {
+        private char[] caracteres = new char[0];
+        private Nodo[] hijos = new Nodo[0];
+        private Concepto[] mejores = new Concepto[0];
+        private int cantidad;
+
+        Nodo hijo(char caracter) {
+            for (int i = 0; i < caracteres.length; i++) {
+                if (caracteres[i] == caracter) {
+                    return hijos[i];
+                }
+            }
+            return null;
+        }
+
+        Nodo hijoOCrear(char caracter) {
+            Nodo hijo = hijo(caracter);
+            if (hijo == null) {
+                hijo = new Nodo();
+                caracteres = Arrays.copyOf(caracteres, caracteres.length + 1);
+                hijos = Arrays.copyOf(hijos, hijos.length + 1);
+                caracteres[caracteres.length - 1] = caracter;
+                hijos[hijos.length - 1] = hijo;
+            }
+            return hijo;
+        }
+
+        /**
+         * Coloca el concepto, cuya cantidad acaba de crecer, en su lugar entre
+         * los mejores del nodo.
+         */
+        void actualizar(Concepto entrada) {
+            int posicion = -1;
+            for (int i = 0; i < cantidad; i++) {
+                if (mejores[i] == entrada) {
+                    posicion = i;
+                    break;
+                }
+            }
+            if (posicion < 0) {
+                if (cantidad < MAX_RESULTADOS) {
+                    if (cantidad == mejores.length) {
+                        mejores = Arrays.copyOf(mejores, Math.min(MAX_RESULTADOS, Math.max(2, cantidad * 2)));
+                    }
+                    posicion = cantidad++;
+                } else if (entrada.getCantidad() > mejores[cantidad - 1].getCantidad()) {
+                    posicion = cantidad - 1;
+                } else {
+                    return;
+                }
+                mejores[posicion] = entrada;
+            }
+            // Sube mientras supere al anterior
+            while (posicion > 0 && mejores[posicion - 1].getCantidad() < entrada.getCantidad()) {
+                mejores[posicion] = mejores[posicion - 1];
+                mejores[--posicion] = entrada;
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.controlgastos.controller;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -8,6 +9,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.controlgastos.model.User;
 import com.controlgastos.services.AuthService;
@@ -38,6 +40,12 @@ import com.controlgastos.services.JwtUtil;
  * </ol>
  *
  * <p>
+ * El hash de contraseñas corre en un pool propio y acotado; el hilo de la
+ * petición queda libre mientras tanto y, si el pool está saturado, se
+ * responde 503 con {@code Retry-After}.
+ * </p>
+ *
+ * <p>
  * Permite solicitudes CORS desde <code>http://localhost:3000</code>, útil para
  * el desarrollo con frontend separado.
  * </p>
@@ -81,15 +89,25 @@ public class AuthController {
      * </ul>
      * </li>
      * <li>Si no son válidas, retorna 401 Unauthorized.</li>
+     * <li>Si hay demasiadas autenticaciones pendientes, retorna 503.</li>
      * </ol>
      *
      * @param loginRequest datos de inicio de sesión (username, password).
      * @return respuesta con token y username o mensaje de error.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody User loginRequest) {
-        // Validar credenciales
-        if (authService.validatUser(loginRequest.getUsername(), loginRequest.getPassword())) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody User loginRequest) {
+        // Validar credenciales en el pool de hash
+        CompletableFuture<Boolean> valido = authService.validatUser(loginRequest.getUsername(),
+                loginRequest.getPassword());
+        if (valido == null) {
+            return CompletableFuture.completedFuture(saturado());
+        }
+        return valido.thenApply(ok -> {
+            if (!ok) {
+                // Credenciales inválidas
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Credenciales Inválias");
+            }
             // Generar token JWT
             String token = jwtUtil.generateToken(loginRequest.getUsername());
 
@@ -99,9 +117,7 @@ public class AuthController {
             response.put("username", loginRequest.getUsername());
 
             return ResponseEntity.ok(response);
-        }
-        // Credenciales inválidas
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Credenciales Inválias");
+        });
     }
 
     /**
@@ -123,19 +139,35 @@ public class AuthController {
      * <li>Devuelve 400 Bad Request con mensaje de error.</li>
      * </ul>
      * </li>
+     * <li>Si hay demasiadas autenticaciones pendientes, devuelve 503.</li>
      * </ol>
      *
      * @param userRequest datos del usuario a registrar.
      * @return mensaje de éxito o error según el caso.
      */
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody User userRequest) {
-        boolean success = authService.register(userRequest.getUsername(), userRequest.getPassword());
-        if (success) {
-            return ResponseEntity.ok("Registro exitoso");
-        } else {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("El nombre de usuario ya existe");
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody User userRequest) {
+        CompletableFuture<Boolean> registro = authService.register(userRequest.getUsername(),
+                userRequest.getPassword());
+        if (registro == null) {
+            return CompletableFuture.completedFuture(saturado());
         }
+        return registro.thenApply(success -> {
+            if (success) {
+                return ResponseEntity.ok("Registro exitoso");
+            } else {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("El nombre de usuario ya existe");
+            }
+        });
+    }
+
+    /**
+     * Respuesta cuando el pool de hash de contraseñas está saturado.
+     */
+    private static ResponseEntity<?> saturado() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Demasiadas autenticaciones pendientes, intente de nuevo");
     }
 
 }
@@ -0,0 +1,78 @@
+package com.controlgastos.controller;
+
+import com.controlgastos.clasesCalculos.TrieConceptos;
+import com.controlgastos.services.BusquedaService;
+import com.controlgastos.services.UsuariosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST para el autocompletado y la búsqueda por concepto.
+ *
+ * <p>
+ * Expone <code>GET /api/buscar?q=caf</code>, que devuelve los conceptos de
+ * gastos e ingresos con una palabra que empieza con {@code q} (sin distinguir
+ * mayúsculas ni acentos), de más a menos usados, cada uno con una página de
+ * los IDs de sus movimientos.
+ * </p>
+ *
+ * <p>
+ * <strong>Parámetros:</strong>
+ * </p>
+ * <ul>
+ * <li><strong>q</strong>: texto buscado (obligatorio).</li>
+ * <li><strong>limite</strong>: conceptos a devolver (1 a
+ * {@value TrieConceptos#MAX_RESULTADOS}, 10 por omisión).</li>
+ * <li><strong>pagina, tamano</strong>: página de IDs por concepto, del más
+ * reciente al más antiguo (tamaño 0 a {@value #MAX_TAMANO}; 0 omite los
+ * IDs).</li>
+ * </ul>
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:3000")
+@RequestMapping("/api/buscar")
+public class BusquedaController {
+
+    /** Máximo de IDs por página y concepto. */
+    static final int MAX_TAMANO = 500;
+
+    /** Servicio de búsqueda en memoria. */
+    @Autowired
+    private BusquedaService busquedaService;
+
+    /** Traduce el usuario autenticado al ID dueño de los datos. */
+    @Autowired
+    private UsuariosService usuariosService;
+
+    /**
+     * Busca conceptos por prefijo.
+     *
+     * @param q      texto buscado.
+     * @param limite cantidad máxima de conceptos.
+     * @param pagina página de IDs, desde 0.
+     * @param tamano IDs por página.
+     * @return conceptos encontrados, o 400 si los parámetros no son válidos.
+     */
+    @GetMapping
+    public ResponseEntity<?> buscar(@RequestParam String q,
+            @RequestParam(defaultValue = "10") int limite,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "20") int tamano) {
+        String texto = q.trim();
+        if (texto.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("El texto de búsqueda no puede estar vacío");
+        }
+        if (limite < 1 || limite > TrieConceptos.MAX_RESULTADOS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("El límite debe estar entre 1 y " + TrieConceptos.MAX_RESULTADOS);
+        }
+        if (pagina < 0 || tamano < 0 || tamano > MAX_TAMANO) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("La página no puede ser negativa y el tamaño debe estar entre 0 y " + MAX_TAMANO);
+        }
+        return ResponseEntity.ok(busquedaService.buscar(usuariosService.usuarioActual(), texto, limite, pagina,
+                tamano));
+    }
+}
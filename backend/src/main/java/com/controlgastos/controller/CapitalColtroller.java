@@ -1,11 +1,24 @@
 package com.controlgastos.controller;
 
 import com.controlgastos.model.Capital;
-import com.controlgastos.repository.CapitalRepository;
-import com.controlgastos.clasesCalculos.CalcularCapital;
+import com.controlgastos.model.Dinero;
+import com.controlgastos.clasesCalculos.MotorSaldos;
+import com.controlgastos.services.CacheRespuestasService;
+import com.controlgastos.services.CheckpointSaldosService;
+import com.controlgastos.services.RangoService;
+import com.controlgastos.services.UsuariosService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Controlador REST para gestionar operaciones relacionadas con el capital.
  *
@@ -20,13 +33,20 @@ import org.springframework.web.bind.annotation.*;
  * <ol>
  * <li>El cliente (por ejemplo un frontend en React) hace una petición GET a
  * <code>/api/capital</code>.</li>
- * <li>El controlador delega la consulta en {@link CapitalRepository} para
- * obtener el registro más reciente de capital.</li>
- * <li>Si existe un registro, lo devuelve; si no, retorna
- * <code>null</code>.</li>
+ * <li>El controlador lee el saldo desde {@link MotorSaldos}, en memoria, sin
+ * consultar la base de datos.</li>
+ * <li>Devuelve el capital junto con el ID y la fecha del último registro
+ * persistido, serializado una vez por versión y con su {@code ETag}.</li>
+ * <li>Si el cliente envía {@code If-None-Match} con la versión actual, responde
+ * 304 sin cuerpo.</li>
  * </ol>
  *
  * <p>
+ * <code>GET /api/capital/historia</code> devuelve la evolución del capital,
+ * reducida en el servidor a un número fijo de puntos para la gráfica.
+ * </p>
+ *
+ * <p>
  * Permite solicitudes CORS desde <code>http://localhost:3000</code>, lo que
  * habilita la comunicación directa con el frontend en desarrollo.
  * </p>
@@ -36,36 +56,106 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/capital")
 public class CapitalColtroller {
 
-    /**
-     * Instancia local de la clase de cálculo de capital.
-     * Actualmente no se usa en este controlador, pero está disponible
-     * para futuras operaciones de cálculo antes de persistir o devolver datos.
-     */
-    private final CalcularCapital calculoCapital = new CalcularCapital();
+    /** Máximo de puntos aceptado en {@code /historia}. */
+    static final int MAX_PUNTOS = 5000;
+
+    /** Motor de saldos en memoria. */
+    @Autowired
+    private MotorSaldos motorSaldos;
 
-    /** Repositorio JPA para acceder a datos de capital en la base. */
+    /** Servicio que mantiene sincronizado el capital persistido. */
     @Autowired
-    private CapitalRepository capitalRepository;
+    private CheckpointSaldosService checkpointSaldosService;
+
+    /** Servicio de totales e historia desde el índice en memoria. */
+    @Autowired
+    private RangoService rangoService;
+
+    /** Respuestas serializadas por versión. */
+    @Autowired
+    private CacheRespuestasService cacheRespuestasService;
+
+    /** Traduce el usuario autenticado al ID dueño de los datos. */
+    @Autowired
+    private UsuariosService usuariosService;
 
     /**
-     * Obtiene el último capital registrado.
+     * Obtiene el capital actual.
      *
      * <p>
      * <strong>Flujo:</strong>
      * </p>
      * <ol>
-     * <li>Invoca {@link CapitalRepository#findTopByOrderByIdDesc()} para buscar el
-     * registro más reciente por ID descendente.</li>
-     * <li>Devuelve el objeto {@link Capital} encontrado o <code>null</code> si no
-     * hay registros.</li>
+     * <li>Lee el saldo del usuario en {@link MotorSaldos}.</li>
+     * <li>Lo combina con el ID y la fecha del último {@link Capital}
+     * persistido; si el saldo no cambió desde la última consulta, reutiliza
+     * el JSON ya serializado.</li>
+     * <li>Agrega el {@code ETag} de la versión; Spring responde 304 si coincide
+     * con {@code If-None-Match}.</li>
      * </ol>
      *
-     * @return el capital más reciente o null si no hay datos.
+     * @return el capital actual, o 304 si el cliente ya lo tiene.
      */
     @GetMapping
-    public Capital getCapital() {
-        // Busca el último registro de capital según ID
-        return capitalRepository.findTopByOrderByIdDesc()
-                .orElse(null); // Si no encuentra ninguno, devuelve null
+    public ResponseEntity<byte[]> getCapital() {
+        long usuario = usuariosService.usuarioActual();
+        CacheRespuestasService.Respuesta respuesta = cacheRespuestasService
+                .capital(usuario, () -> checkpointSaldosService.capitalActual(usuario));
+        return ResponseEntity.ok()
+                .eTag(respuesta.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(respuesta.getJson());
+    }
+
+    /**
+     * Obtiene los totales acumulados de ingresos, gastos y capital.
+     *
+     * @return mapa JSON con las claves {@code ingresos}, {@code gastos} y
+     *         {@code capital}.
+     */
+    @GetMapping("/totales")
+    public Map<String, Dinero> getTotales() {
+        long usuario = usuariosService.usuarioActual();
+        Map<String, Dinero> totales = new LinkedHashMap<>();
+        totales.put("ingresos", Dinero.deCentavos(motorSaldos.ingresos(usuario)));
+        totales.put("gastos", Dinero.deCentavos(motorSaldos.gastos(usuario)));
+        totales.put("capital", Dinero.deCentavos(motorSaldos.capital(usuario)));
+        return totales;
+    }
+
+    /**
+     * Obtiene la historia del capital, reducida a un máximo de puntos.
+     *
+     * <p>
+     * <strong>Flujo:</strong>
+     * </p>
+     * <ol>
+     * <li>Arma el capital al cierre de cada día con movimientos del rango,
+     * desde el índice en memoria.</li>
+     * <li>Lo reduce a {@code puntos} con LTTB, conservando picos y
+     * caídas.</li>
+     * </ol>
+     *
+     * @param desde  primer día ({@code yyyy-MM-dd}); opcional.
+     * @param hasta  último día ({@code yyyy-MM-dd}); opcional.
+     * @param puntos cantidad máxima de puntos (2 a {@value #MAX_PUNTOS}).
+     * @return lista de puntos {@code {fecha, capital}} en orden de fecha, o 400
+     *         si los parámetros no son válidos.
+     */
+    @GetMapping("/historia")
+    public ResponseEntity<?> getHistoria(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "500") int puntos) {
+        if (puntos < 2 || puntos > MAX_PUNTOS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Los puntos deben estar entre 2 y " + MAX_PUNTOS);
+        }
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("La fecha inicial es posterior a la final");
+        }
+        return ResponseEntity.ok(rangoService.historiaCapital(usuariosService.usuarioActual(), desde, hasta,
+                puntos));
     }
 }
@@ -0,0 +1,103 @@
+package com.controlgastos.controller;
+
+import com.controlgastos.services.EventosService;
+import com.controlgastos.services.JwtUtil;
+import com.controlgastos.services.UsuariosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Controlador REST para recibir cambios en tiempo real por Server-Sent
+ * Events.
+ *
+ * <p>
+ * <code>GET /api/eventos</code> mantiene la conexión abierta y envía:
+ * </p>
+ * <ul>
+ * <li><strong>capital</strong>: {@code {capital, delta}} al suscribirse y en
+ * cada cambio confirmado (combinados si el cliente se atrasa).</li>
+ * <li><strong>gasto</strong> / <strong>ingreso</strong>: cada movimiento
+ * nuevo, con el mismo JSON que la API.</li>
+ * <li><strong>importacion</strong>: {@code {tipo, monto}} al terminar una
+ * importación de históricos.</li>
+ * <li><strong>perdidos</strong>: {@code {cantidad}} si se descartaron
+ * movimientos por atraso; el cliente debe volver a consultar la API.</li>
+ * </ul>
+ *
+ * <p>
+ * {@code EventSource} no puede enviar la cabecera {@code Authorization}, así
+ * que la suscripción se autentica con un token propio en la URL:
+ * </p>
+ * <ol>
+ * <li>Con el token de sesión, {@code POST /api/eventos/token} devuelve
+ * {@code {token}}: un JWT con audiencia {@code eventos} que vence a los
+ * {@code eventos.token.expiracion-ms} (un minuto por defecto).</li>
+ * <li>El navegador se suscribe con
+ * {@code new EventSource("http://localhost:8080/api/eventos?token=" + token)}.
+ * Al reconectar debe pedir un token nuevo.</li>
+ * </ol>
+ *
+ * <p>
+ * Ese token sólo vale en {@code GET /api/eventos}, no como {@code Bearer}, y
+ * su vida corta acota el daño si queda en el registro de un proxy. Responde
+ * 503 si se alcanzó {@code eventos.max-clientes}.
+ * </p>
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:3000")
+@RequestMapping("/api/eventos")
+public class EventosController {
+
+    /** Servicio que reparte los eventos. */
+    @Autowired
+    private EventosService eventosService;
+
+    /** Traduce el usuario autenticado al ID dueño de los datos. */
+    @Autowired
+    private UsuariosService usuariosService;
+
+    /** Emite los tokens de suscripción. */
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    /** Vigencia de los tokens de suscripción, en milisegundos. */
+    @Value("${eventos.token.expiracion-ms:60000}")
+    private long expiracionTokenMs;
+
+    /**
+     * Emite un token de suscripción para el usuario autenticado.
+     *
+     * @return {@code {token}} para {@code GET /api/eventos?token=}.
+     */
+    @PostMapping("/token")
+    public Map<String, String> token() {
+        String usuario = SecurityContextHolder.getContext().getAuthentication().getName();
+        return Collections.singletonMap("token",
+                jwtUtil.generateToken(usuario, JwtUtil.AUDIENCIA_EVENTOS, expiracionTokenMs));
+    }
+
+    /**
+     * Suscribe al cliente a los eventos.
+     *
+     * @return flujo de eventos, o 503 si hay demasiados clientes.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> suscribir() {
+        SseEmitter emisor = eventosService.suscribir(usuariosService.usuarioActual());
+        if (emisor == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        // Evita que un proxy acumule los eventos en su búfer
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emisor);
+    }
+}
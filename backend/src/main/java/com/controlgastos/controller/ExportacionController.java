@@ -0,0 +1,119 @@
+package com.controlgastos.controller;
+
+import com.controlgastos.model.TipoMovimiento;
+import com.controlgastos.services.ExportacionService;
+import com.controlgastos.services.FormatoColumnar;
+import com.controlgastos.services.UsuariosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Controlador REST para exportar gastos o ingresos completos.
+ *
+ * <p>
+ * Expone <code>GET /api/exportacion/{gasto|ingreso}?formato=csv|columnar</code>.
+ * </p>
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>Recorre los movimientos con el cursor JDBC de
+ * {@link ExportacionService}; la memoria no depende del número de filas.</li>
+ * <li>Escribe cada fila en cuanto se lee, con transferencia por bloques
+ * (<em>chunked</em>), en CSV o en el formato de {@link FormatoColumnar}.</li>
+ * <li>Si el cliente envía {@code Accept-Encoding: gzip}, comprime la salida y
+ * responde con {@code Content-Encoding: gzip}.</li>
+ * </ol>
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:3000")
+@RequestMapping("/api/exportacion")
+public class ExportacionController {
+
+    /** Tamaño del búfer del compresor. */
+    private static final int BUFER_GZIP = 64 * 1024;
+
+    /** Servicio que escribe los movimientos en streaming. */
+    @Autowired
+    private ExportacionService exportacionService;
+
+    /** Traduce el usuario autenticado al ID dueño de los datos. */
+    @Autowired
+    private UsuariosService usuariosService;
+
+    /**
+     * Exporta todos los movimientos de un tipo.
+     *
+     * @param tipo           {@code gasto} o {@code ingreso}.
+     * @param formato        {@code csv} (por defecto) o {@code columnar}.
+     * @param acceptEncoding codificaciones aceptadas por el cliente.
+     * @return cuerpo en streaming, o mensaje de error (404 si el tipo no
+     *         existe, 400 si el formato no existe).
+     */
+    @GetMapping("/{tipo}")
+    public ResponseEntity<StreamingResponseBody> exportar(@PathVariable String tipo,
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        TipoMovimiento tipoMovimiento = TipoMovimiento.deNombre(tipo);
+        if (tipoMovimiento == null) {
+            return error(HttpStatus.NOT_FOUND, "Tipo de movimiento desconocido: " + tipo + " (use gasto o ingreso)");
+        }
+        boolean columnar;
+        if ("csv".equalsIgnoreCase(formato)) {
+            columnar = false;
+        } else if ("columnar".equalsIgnoreCase(formato)) {
+            columnar = true;
+        } else {
+            return error(HttpStatus.BAD_REQUEST, "Formato desconocido: " + formato + " (use csv o columnar)");
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        TipoMovimiento exportado = tipoMovimiento;
+        // El cuerpo se escribe en otro hilo, sin el contexto de seguridad
+        long usuario = usuariosService.usuarioActual();
+        StreamingResponseBody cuerpo = salida -> {
+            // Sin try-with-resources: no se cierra ni se vacía una respuesta
+            // abortada; GZIP sólo se termina si todo se escribió.
+            GZIPOutputStream comprimida = gzip ? new GZIPOutputStream(salida, BUFER_GZIP) : null;
+            if (columnar) {
+                exportacionService.escribirColumnar(exportado, usuario, gzip ? comprimida : salida);
+            } else {
+                exportacionService.escribirCsv(exportado, usuario, gzip ? comprimida : salida);
+            }
+            if (gzip) {
+                comprimida.finish();
+            }
+        };
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(columnar ? FormatoColumnar.TIPO_CONTENIDO
+                        : ExportacionService.CSV + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportado.getTabla()
+                        + (columnar ? ".mcol" : ".csv") + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(cuerpo);
+    }
+
+    /**
+     * Respuesta de error en texto plano. Spring sólo acepta
+     * {@link StreamingResponseBody} si es el tipo declarado de la respuesta,
+     * así que el mensaje también se escribe como cuerpo en streaming.
+     */
+    private static ResponseEntity<StreamingResponseBody> error(HttpStatus estado, String mensaje) {
+        return ResponseEntity.status(estado)
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(salida -> salida.write(mensaje.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -1,15 +1,27 @@
 package com.controlgastos.controller;
 
+import com.controlgastos.dto.CursorMovimiento;
+import com.controlgastos.dto.Pagina;
 import com.controlgastos.model.Gasto;
-import com.controlgastos.model.Capital;
-import com.controlgastos.repository.CapitalRepository;
+import com.controlgastos.model.TipoMovimiento;
 import com.controlgastos.repository.GastoRepository;
+import com.controlgastos.services.ConceptosService;
+import com.controlgastos.services.ExportacionService;
+import com.controlgastos.services.AlmacenMovimientos;
+import com.controlgastos.services.UsuariosService;
+import com.controlgastos.dto.ResultadoLote;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
-import com.controlgastos.clasesCalculos.SumaGasto;
 
 /**
  * Controlador REST para la gestión de gastos.
@@ -17,8 +29,14 @@ import com.controlgastos.clasesCalculos.SumaGasto;
  * <p>
  * Expone endpoints bajo <code>/api/gasto</code> para:
  * <ul>
- * <li>Consultar todos los gastos registrados.</li>
+ * <li>Consultar todos los gastos registrados (en streaming, como arreglo JSON
+ * o NDJSON).</li>
+ * <li>Consultar los gastos por páginas con cursor.</li>
+ * <li>Consultar los conceptos con mayor monto gastado
+ * (<code>GET /api/gasto/top</code>).</li>
  * <li>Registrar un nuevo gasto y actualizar el capital.</li>
+ * <li>Registrar una lista de gastos en una sola petición
+ * (<code>POST /api/gasto/batch</code>).</li>
  * </ul>
  *
  * <p>
@@ -27,16 +45,23 @@ import com.controlgastos.clasesCalculos.SumaGasto;
  * <ol>
  * <li>En <strong>GET /api/gasto</strong>:
  * <ul>
- * <li>Consulta todos los registros de gasto en la base de datos.</li>
- * <li>Devuelve la lista completa.</li>
+ * <li>Recorre los gastos con un cursor JDBC de solo lectura.</li>
+ * <li>Escribe cada fila en la respuesta en cuanto se lee, como arreglo JSON o,
+ * con {@code Accept: application/x-ndjson}, como NDJSON.</li>
+ * </ul>
+ * </li>
+ * <li>En <strong>GET /api/gasto?limite=N&amp;cursor=C</strong>:
+ * <ul>
+ * <li>Devuelve hasta N gastos, del más reciente al más antiguo, y el cursor
+ * de la página siguiente.</li>
  * </ul>
  * </li>
  * <li>En <strong>POST /api/gasto</strong>:
  * <ul>
- * <li>Valida y guarda el nuevo gasto.</li>
- * <li>Obtiene el capital más reciente o crea uno nuevo si no existe.</li>
- * <li>Resta el monto del gasto al capital actual y lo guarda.</li>
- * <li>Actualiza el acumulador en memoria usando {@link SumaGasto}.</li>
+ * <li>Valida el nuevo gasto y lo guarda junto con otras peticiones
+ * concurrentes, en una sola transacción.</li>
+ * <li>Al confirmarse, resta el monto del saldo en memoria; el capital
+ * persistido se actualiza por checkpoint.</li>
  * <li>Devuelve el gasto recién registrado en la respuesta.</li>
  * </ul>
  * </li>
@@ -52,71 +77,211 @@ import com.controlgastos.clasesCalculos.SumaGasto;
 @RequestMapping("/api/gasto")
 public class GastoController {
 
-    /** Acumulador en memoria para el total de gastos. */
-    private final SumaGasto sumaGastos = new SumaGasto();
+    /** Tamaño máximo de página aceptado. */
+    static final int MAX_LIMITE = 500;
 
     /** Repositorio JPA para operaciones sobre la entidad Gasto. */
     @Autowired
     private GastoRepository gastoRepository;
 
-    /** Repositorio JPA para operaciones sobre la entidad Capital. */
+    /** Servicio que escribe gastos en streaming desde un cursor JDBC. */
+    @Autowired
+    private ExportacionService exportacionService;
+
+    /** Máximo de elementos aceptados por {@code POST /batch}. */
+    @Value("${movimientos.lote.max-elementos:10000}")
+    private int maxElementosLote;
+
+    /** Camino de escritura: base de datos o diario, según {@code movimientos.almacen}. */
+    @Autowired
+    private AlmacenMovimientos almacenMovimientos;
+
+    /** Servicio de conceptos de gasto más frecuentes. */
+    @Autowired
+    private ConceptosService conceptosService;
+
+    /** Traduce el usuario autenticado al ID dueño de los datos. */
     @Autowired
-    private CapitalRepository capitalRepository;
+    private UsuariosService usuariosService;
 
     /**
-     * Obtiene todos los gastos registrados.
+     * Obtiene todos los gastos del usuario como arreglo JSON.
      *
-     * @return lista completa de objetos {@link Gasto}.
+     * <p>
+     * El arreglo se escribe en streaming, en orden de ID, sin cargar los gastos
+     * en memoria.
+     * </p>
+     *
+     * @return cuerpo en streaming con el arreglo de gastos.
      */
-    @GetMapping
-    public List<Gasto> getAllGastos() {
-        // Consulta todos los gastos desde la base de datos
-        return gastoRepository.findAll();
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAllGastos() {
+        // El cuerpo se escribe en otro hilo, sin el contexto de seguridad
+        long usuario = usuariosService.usuarioActual();
+        // Escribe los gastos conforme se leen del cursor
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(salida -> exportacionService.escribirJson(TipoMovimiento.GASTO, usuario, salida, false));
     }
 
     /**
-     * Registra un nuevo gasto y actualiza el capital en base de datos.
+     * Obtiene todos los gastos del usuario como NDJSON (un gasto por línea).
+     *
+     * @return cuerpo en streaming con un objeto JSON por línea.
+     */
+    @GetMapping(produces = ExportacionService.NDJSON)
+    public ResponseEntity<StreamingResponseBody> getAllGastosNdjson() {
+        long usuario = usuariosService.usuarioActual();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportacionService.NDJSON))
+                .body(salida -> exportacionService.escribirJson(TipoMovimiento.GASTO, usuario, salida, true));
+    }
+
+    /**
+     * Obtiene una página de gastos del usuario, del más reciente al más
+     * antiguo.
      *
      * <p>
      * <strong>Flujo:</strong>
      * </p>
      * <ol>
-     * <li>Guarda el gasto recibido en la base de datos.</li>
-     * <li>Recupera el capital más reciente; si no existe, crea uno nuevo.</li>
-     * <li>Resta el monto del gasto al capital actual.</li>
-     * <li>Guarda la nueva cifra de capital.</li>
-     * <li>Suma el gasto al acumulador en memoria {@link SumaGasto}.</li>
-     * <li>Imprime en consola el total acumulado (solo a modo de depuración).</li>
-     * <li>Devuelve el gasto registrado en la respuesta HTTP con código 200 OK.</li>
+     * <li>Sin {@code cursor}, devuelve los {@code limite} gastos más
+     * recientes.</li>
+     * <li>Con {@code cursor}, devuelve los que siguen a la posición
+     * {@code (fechaRegistro, id)} codificada, usando el índice
+     * {@code (usuario_id, fecha_registro, id)} en lugar de un
+     * {@code OFFSET}.</li>
+     * <li>Si la página está completa, incluye el cursor de la siguiente.</li>
      * </ol>
      *
-     * @param gasto objeto {@link Gasto} recibido en la solicitud (validado por
-     *              anotaciones).
-     * @return respuesta HTTP con el gasto registrado.
+     * @param limite cantidad de gastos por página (1 a {@value #MAX_LIMITE}).
+     * @param cursor cursor de {@link Pagina#getSiguienteCursor()} o vacío.
+     * @return página de gastos, o 400 si los parámetros no son válidos.
      */
-    @PostMapping
-    public ResponseEntity<Gasto> createGasto(@Valid @RequestBody Gasto gasto) {
-        // Guardar gasto en la base de datos
-        Gasto savedGasto = gastoRepository.save(gasto);
-
-        // Obtener último capital registrado o crear uno nuevo si no existe
-        Capital capital = capitalRepository.findTopByOrderByIdDesc().orElse(null);
-        if (capital == null) {
-            capital = new Capital();
+    @GetMapping(params = "limite")
+    public ResponseEntity<?> getPaginaGastos(@RequestParam int limite,
+            @RequestParam(required = false) String cursor) {
+        if (limite < 1 || limite > MAX_LIMITE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("El límite debe estar entre 1 y " + MAX_LIMITE);
+        }
+        long usuario = usuariosService.usuarioActual();
+        List<Gasto> gastos;
+        if (cursor == null || cursor.isEmpty()) {
+            gastos = gastoRepository.findByUsuarioIdOrderByFechaRegistroDescIdDesc(usuario,
+                    PageRequest.of(0, limite));
+        } else {
+            CursorMovimiento posicion;
+            try {
+                posicion = CursorMovimiento.decodificar(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            }
+            gastos = gastoRepository.findPaginaDespuesDe(usuario, posicion.getFechaRegistro(), posicion.getId(),
+                    PageRequest.of(0, limite));
         }
+        String siguiente = gastos.size() == limite ? CursorMovimiento.codificar(gastos.get(limite - 1)) : null;
+        return ResponseEntity.ok(new Pagina<>(gastos, siguiente));
+    }
 
-        // Actualizar capital restando el monto del gasto
-        capital.setCapital(capital.getCapital() - gasto.getMonto());
-        capitalRepository.save(capital);
+    /**
+     * Obtiene los conceptos con mayor monto gastado.
+     *
+     * <p>
+     * Responde desde contadores en memoria de tamaño fijo
+     * ({@link ConceptosService}), sin recorrer los gastos. Cada {@code total}
+     * es una estimación que nunca queda por debajo del real y lo supera a lo
+     * sumo en su {@code error}.
+     * </p>
+     *
+     * @param k cantidad de conceptos (1 a {@code conceptos.top.capacidad}).
+     * @return lista {@code {concepto, total, error}} de mayor a menor total, o
+     *         400 si {@code k} no es válido.
+     */
+    @GetMapping("/top")
+    public ResponseEntity<?> getTopConceptos(@RequestParam(defaultValue = "10") int k) {
+        if (k < 1 || k > conceptosService.getCapacidad()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("k debe estar entre 1 y " + conceptosService.getCapacidad());
+        }
+        return ResponseEntity.ok(conceptosService.top(usuariosService.usuarioActual(), k));
+    }
 
-        // Actualizar acumulador en memoria
-        sumaGastos.sumarGastos(savedGasto.getMonto());
-        sumaGastos.obtenerSumaGastos();
+    /**
+     * Registra un nuevo gasto y actualiza el capital en base de datos.
+     *
+     * <p>
+     * <strong>Flujo:</strong>
+     * </p>
+     * <ol>
+     * <li>Lo entrega a {@link AlmacenMovimientos}: por omisión lo guarda
+     * junto con otras peticiones concurrentes en una sola transacción y, al
+     * confirmarla, lo resta del saldo en memoria; con el diario, lo anexa y
+     * responde tras el fsync de su grupo.</li>
+     * <li>Libera el hilo de la petición; la respuesta se completa cuando el
+     * grupo se confirma.</li>
+     * <li>Devuelve el gasto registrado con código 200 OK, o 503 si hay
+     * demasiadas escrituras pendientes o si venció su espera en la cola (no se
+     * guardó y puede reintentarse).</li>
+     * </ol>
+     *
+     * @param gasto objeto {@link Gasto} recibido en la solicitud (validado).
+     * @return respuesta HTTP con el gasto registrado, al confirmarse.
+     */
+    @PostMapping
+    public CompletableFuture<ResponseEntity<?>> createGasto(@Valid @RequestBody Gasto gasto) {
+        gasto.setUsuarioId(usuariosService.usuarioActual());
+        // Encolar el gasto; se guarda con su grupo
+        CompletableFuture<Gasto> savedGasto = almacenMovimientos.registrarGasto(gasto);
+        if (savedGasto == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Demasiadas escrituras pendientes, intente de nuevo"));
+        }
 
-        // Imprimir total acumulado en consola (para depuración)
-        System.out.println(sumaGastos.obtenerSumaGastos());
+        // Devolver gasto registrado al confirmarse
+        return savedGasto.thenApply(ResponseEntity::ok);
+    }
 
-        // Devolver gasto registrado
-        return ResponseEntity.ok(savedGasto);
+    /**
+     * Registra una lista de gastos en una sola petición.
+     *
+     * <p>
+     * <strong>Flujo:</strong>
+     * </p>
+     * <ol>
+     * <li>Rechaza la petición con 413 si supera
+     * {@code movimientos.lote.max-elementos}.</li>
+     * <li>Valida cada gasto; los inválidos se reportan sin detener el lote.</li>
+     * <li>Inserta los válidos en una transacción, en lotes JDBC (o los anexa
+     * al diario).</li>
+     * <li>Aplica al saldo un único delta con el total del lote.</li>
+     * <li>Devuelve el resultado por elemento ({@link ResultadoLote}), o 503 si
+     * hay demasiadas escrituras pendientes.</li>
+     * </ol>
+     *
+     * @param gastos lista de gastos a registrar.
+     * @return resultado por elemento, o mensaje de error si el lote es
+     *         demasiado grande.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> createGastos(@RequestBody List<Gasto> gastos) {
+        if (gastos.size() > maxElementosLote) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body("El lote no puede tener más de " + maxElementosLote + " elementos");
+        }
+        long usuario = usuariosService.usuarioActual();
+        for (Gasto gasto : gastos) {
+            if (gasto != null) {
+                gasto.setUsuarioId(usuario);
+            }
+        }
+        ResultadoLote resultado = almacenMovimientos.registrarGastos(gastos);
+        if (resultado == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Demasiadas escrituras pendientes, intente de nuevo");
+        }
+        return ResponseEntity.ok(resultado);
     }
 }
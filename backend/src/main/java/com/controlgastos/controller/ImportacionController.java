@@ -0,0 +1,109 @@
+package com.controlgastos.controller;
+
+import com.controlgastos.model.TipoMovimiento;
+import com.controlgastos.services.ImportacionService;
+import com.controlgastos.services.UsuariosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Controlador REST para importar movimientos históricos desde CSV.
+ *
+ * <p>
+ * Expone endpoints bajo <code>/api/importacion</code>:
+ * <ul>
+ * <li><code>POST /api/importacion/gasto</code></li>
+ * <li><code>POST /api/importacion/ingreso</code></li>
+ * </ul>
+ *
+ * <p>
+ * El archivo ({@code concepto,monto,fecha}) se recibe como
+ * {@code multipart/form-data} en el campo {@code archivo}, o directamente como
+ * cuerpo {@code text/csv}.
+ * </p>
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>Guarda el archivo recibido en un temporal.</li>
+ * <li>Lo importa con {@link ImportacionService}, que lo mapea en memoria.</li>
+ * <li>Borra el temporal y devuelve filas importadas, rechazadas y
+ * filas/s.</li>
+ * </ol>
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:3000")
+@RequestMapping("/api/importacion")
+public class ImportacionController {
+
+    /** Servicio que interpreta e inserta el CSV. */
+    @Autowired
+    private ImportacionService importacionService;
+
+    /** Traduce el usuario autenticado al ID dueño de los datos. */
+    @Autowired
+    private UsuariosService usuariosService;
+
+    /**
+     * Importa un CSV enviado como archivo de formulario.
+     *
+     * @param tipo    {@code gasto} o {@code ingreso}.
+     * @param archivo archivo CSV.
+     * @return resultado de la importación, o mensaje de error.
+     * @throws IOException si el archivo no puede guardarse o leerse.
+     */
+    @PostMapping(value = "/{tipo}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importarArchivo(@PathVariable String tipo,
+            @RequestParam("archivo") MultipartFile archivo) throws IOException {
+        TipoMovimiento tipoMovimiento = TipoMovimiento.deNombre(tipo);
+        if (tipoMovimiento == null) {
+            return tipoInvalido(tipo);
+        }
+        Path temporal = Files.createTempFile("importacion-", ".csv");
+        try {
+            archivo.transferTo(temporal);
+            return ResponseEntity.ok(importacionService.importar(tipoMovimiento, usuariosService.usuarioActual(), temporal));
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Importa un CSV enviado como cuerpo de la petición.
+     *
+     * @param tipo   {@code gasto} o {@code ingreso}.
+     * @param cuerpo contenido CSV.
+     * @return resultado de la importación, o mensaje de error.
+     * @throws IOException si el archivo no puede guardarse o leerse.
+     */
+    @PostMapping(value = "/{tipo}", consumes = "text/csv")
+    public ResponseEntity<?> importarCuerpo(@PathVariable String tipo, InputStream cuerpo) throws IOException {
+        TipoMovimiento tipoMovimiento = TipoMovimiento.deNombre(tipo);
+        if (tipoMovimiento == null) {
+            return tipoInvalido(tipo);
+        }
+        Path temporal = Files.createTempFile("importacion-", ".csv");
+        try {
+            Files.copy(cuerpo, temporal, StandardCopyOption.REPLACE_EXISTING);
+            return ResponseEntity.ok(importacionService.importar(tipoMovimiento, usuariosService.usuarioActual(), temporal));
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private static ResponseEntity<String> tipoInvalido(String tipo) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body("Tipo de movimiento desconocido: " + tipo + " (use gasto o ingreso)");
+    }
+}
@@ -1,13 +1,21 @@
 package com.controlgastos.controller;
 
 import com.controlgastos.model.Ingreso;
-import com.controlgastos.model.Capital;
-import com.controlgastos.repository.CapitalRepository;
-import com.controlgastos.repository.IngresoRepository;
+import com.controlgastos.services.CacheRespuestasService;
+import com.controlgastos.services.AlmacenMovimientos;
+import com.controlgastos.services.UsuariosService;
+import com.controlgastos.dto.ResultadoLote;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import javax.validation.Valid;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controlador REST para la gestión de ingresos.
@@ -17,6 +25,8 @@ import javax.validation.Valid;
  * <ul>
  * <li>Consultar el último ingreso registrado.</li>
  * <li>Registrar un nuevo ingreso y actualizar el capital.</li>
+ * <li>Registrar una lista de ingresos en una sola petición
+ * (<code>POST /api/ingreso/batch</code>).</li>
  * </ul>
  *
  * <p>
@@ -25,17 +35,18 @@ import javax.validation.Valid;
  * <ol>
  * <li>En <strong>GET /api/ingreso</strong>:
  * <ul>
- * <li>Consulta el ingreso más reciente en la base de datos.</li>
- * <li>Devuelve el objeto {@link Ingreso} o <code>null</code> si no hay
- * registros.</li>
+ * <li>Lee el ingreso más reciente de la caché, ya serializado.</li>
+ * <li>Devuelve el objeto {@link Ingreso}, o un cuerpo vacío si no hay
+ * registros, con su {@code ETag}; responde 304 si el cliente ya lo
+ * tiene.</li>
  * </ul>
  * </li>
  * <li>En <strong>POST /api/ingreso</strong>:
  * <ul>
- * <li>Valida y guarda el nuevo ingreso.</li>
- * <li>Obtiene el capital más reciente o crea uno nuevo si no existe.</li>
- * <li>Suma el monto del ingreso al capital actual.</li>
- * <li>Guarda el nuevo capital actualizado.</li>
+ * <li>Valida el nuevo ingreso y lo guarda junto con otras peticiones
+ * concurrentes, en una sola transacción.</li>
+ * <li>Al confirmarse, suma el monto al saldo en memoria; el capital
+ * persistido se actualiza por checkpoint.</li>
  * <li>Devuelve el ingreso registrado en la respuesta.</li>
  * </ul>
  * </li>
@@ -51,24 +62,43 @@ import javax.validation.Valid;
 @RequestMapping("/api/ingreso")
 public class IngresoController {
 
-    /** Repositorio JPA para operaciones sobre la entidad Ingreso. */
+    /** Máximo de elementos aceptados por {@code POST /batch}. */
+    @Value("${movimientos.lote.max-elementos:10000}")
+    private int maxElementosLote;
+
+    /** Caché del último ingreso. */
+    @Autowired
+    private CacheRespuestasService cacheRespuestasService;
+
+    /** Camino de escritura: base de datos o diario, según {@code movimientos.almacen}. */
     @Autowired
-    private IngresoRepository ingresoRepository;
+    private AlmacenMovimientos almacenMovimientos;
 
-    /** Repositorio JPA para operaciones sobre la entidad Capital. */
+    /** Traduce el usuario autenticado al ID dueño de los datos. */
     @Autowired
-    private CapitalRepository capitalRepository;
+    private UsuariosService usuariosService;
 
     /**
-     * Obtiene el último ingreso registrado.
+     * Obtiene el último ingreso registrado por el usuario.
+     *
+     * <p>
+     * Se lee de {@link CacheRespuestasService}, que lo recibe al confirmarse
+     * cada ingreso, sin consultar la base de datos. Lleva un {@code ETag} por
+     * versión: si coincide con {@code If-None-Match}, Spring responde 304.
+     * </p>
      *
-     * @return objeto {@link Ingreso} más reciente o <code>null</code> si no hay
-     *         registros.
+     * @return JSON del {@link Ingreso} más reciente, cuerpo vacío si no hay
+     *         registros, o 304 si el cliente ya lo tiene.
      */
     @GetMapping
-    public Ingreso getIngreso() {
-        // Busca el ingreso más reciente por ID descendente
-        return ingresoRepository.findTopByOrderByIdDesc().orElse(null);
+    public ResponseEntity<byte[]> getIngreso() {
+        CacheRespuestasService.Respuesta respuesta = cacheRespuestasService
+                .ultimoIngreso(usuariosService.usuarioActual());
+        return ResponseEntity.ok()
+                .eTag(respuesta.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(respuesta.getJson());
     }
 
     /**
@@ -78,32 +108,74 @@ public class IngresoController {
      * <strong>Flujo:</strong>
      * </p>
      * <ol>
-     * <li>Guarda el ingreso recibido en la base de datos.</li>
-     * <li>Recupera el capital más reciente; si no existe, crea uno nuevo.</li>
-     * <li>Suma el monto del ingreso al capital actual.</li>
-     * <li>Guarda el nuevo valor de capital.</li>
-     * <li>Devuelve el ingreso registrado en la respuesta HTTP.</li>
+     * <li>Lo entrega a {@link AlmacenMovimientos}: por omisión lo guarda
+     * junto con otras peticiones concurrentes en una sola transacción y, al
+     * confirmarla, lo suma al saldo en memoria; con el diario, lo anexa y
+     * responde tras el fsync de su grupo.</li>
+     * <li>Libera el hilo de la petición; la respuesta se completa cuando el
+     * grupo se confirma.</li>
+     * <li>Devuelve el ingreso registrado con código 200 OK, o 503 si hay
+     * demasiadas escrituras pendientes o si venció su espera en la cola (no se
+     * guardó y puede reintentarse).</li>
      * </ol>
      *
      * @param ingreso objeto {@link Ingreso} recibido en la solicitud (validado).
-     * @return respuesta HTTP con el ingreso registrado.
+     * @return respuesta HTTP con el ingreso registrado, al confirmarse.
      */
     @PostMapping
-    public ResponseEntity<Ingreso> createIngreso(@Valid @RequestBody Ingreso ingreso) {
-        // Guardar ingreso en la base de datos
-        Ingreso savedIngreso = ingresoRepository.save(ingreso);
-
-        // Obtener último capital registrado o crear uno nuevo si no existe
-        Capital capital = capitalRepository.findTopByOrderByIdDesc().orElse(null);
-        if (capital == null) {
-            capital = new Capital(); // Capital inicial en 0
+    public CompletableFuture<ResponseEntity<?>> createIngreso(@Valid @RequestBody Ingreso ingreso) {
+        ingreso.setUsuarioId(usuariosService.usuarioActual());
+        // Encolar el ingreso; se guarda con su grupo
+        CompletableFuture<Ingreso> savedIngreso = almacenMovimientos.registrarIngreso(ingreso);
+        if (savedIngreso == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Demasiadas escrituras pendientes, intente de nuevo"));
         }
 
-        // Actualizar capital sumando el monto del ingreso
-        capital.setCapital(capital.getCapital() + ingreso.getMonto());
-        capitalRepository.save(capital);
+        // Devolver ingreso registrado al confirmarse
+        return savedIngreso.thenApply(ResponseEntity::ok);
+    }
 
-        // Devolver ingreso registrado
-        return ResponseEntity.ok(ingreso);
+    /**
+     * Registra una lista de ingresos en una sola petición.
+     *
+     * <p>
+     * <strong>Flujo:</strong>
+     * </p>
+     * <ol>
+     * <li>Rechaza la petición con 413 si supera
+     * {@code movimientos.lote.max-elementos}.</li>
+     * <li>Valida cada ingreso; los inválidos se reportan sin detener el lote.</li>
+     * <li>Inserta los válidos en una transacción, en lotes JDBC (o los anexa
+     * al diario).</li>
+     * <li>Aplica al saldo un único delta con el total del lote.</li>
+     * <li>Devuelve el resultado por elemento ({@link ResultadoLote}), o 503 si
+     * hay demasiadas escrituras pendientes.</li>
+     * </ol>
+     *
+     * @param ingresos lista de ingresos a registrar.
+     * @return resultado por elemento, o mensaje de error si el lote es
+     *         demasiado grande.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> createIngresos(@RequestBody List<Ingreso> ingresos) {
+        if (ingresos.size() > maxElementosLote) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body("El lote no puede tener más de " + maxElementosLote + " elementos");
+        }
+        long usuario = usuariosService.usuarioActual();
+        for (Ingreso ingreso : ingresos) {
+            if (ingreso != null) {
+                ingreso.setUsuarioId(usuario);
+            }
+        }
+        ResultadoLote resultado = almacenMovimientos.registrarIngresos(ingresos);
+        if (resultado == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Demasiadas escrituras pendientes, intente de nuevo");
+        }
+        return ResponseEntity.ok(resultado);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package com.controlgastos.controller;
+
+import com.controlgastos.services.RangoService;
+import com.controlgastos.services.UsuariosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+/**
+ * Controlador REST para totales de un rango de fechas arbitrario.
+ *
+ * <p>
+ * Expone <code>GET /api/rango?desde=2024-01-15&amp;hasta=2024-03-10</code>,
+ * que devuelve ingresos, gastos y neto del rango (ambos días incluidos).
+ * </p>
+ *
+ * <p>
+ * La respuesta se calcula desde el índice en memoria de
+ * {@link RangoService}, en O(log n) y sin consultar la base de datos, por lo
+ * que el panel puede moverse entre rangos libremente.
+ * </p>
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:3000")
+@RequestMapping("/api/rango")
+public class RangoController {
+
+    /** Servicio de totales por rango. */
+    @Autowired
+    private RangoService rangoService;
+
+    /** Traduce el usuario autenticado al ID dueño de los datos. */
+    @Autowired
+    private UsuariosService usuariosService;
+
+    /**
+     * Obtiene ingresos, gastos y neto de un rango de fechas.
+     *
+     * @param desde primer día ({@code yyyy-MM-dd}); opcional.
+     * @param hasta último día ({@code yyyy-MM-dd}); opcional.
+     * @return totales del rango, o 400 si {@code desde} es posterior a
+     *         {@code hasta}.
+     */
+    @GetMapping
+    public ResponseEntity<?> getRango(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("La fecha inicial es posterior a la final");
+        }
+        return ResponseEntity.ok(rangoService.consultar(usuariosService.usuarioActual(), desde, hasta));
+    }
+}
@@ -0,0 +1,90 @@
+package com.controlgastos.controller;
+
+import com.controlgastos.model.PeriodoResumen;
+import com.controlgastos.model.TipoMovimiento;
+import com.controlgastos.services.ResumenService;
+import com.controlgastos.services.UsuariosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+/**
+ * Controlador REST para consultar totales por periodo.
+ *
+ * <p>
+ * Expone endpoints bajo <code>/api/resumen</code>:
+ * <ul>
+ * <li><code>GET /api/resumen?tipo=gasto&amp;periodo=mes&amp;desde=2024-01-01&amp;hasta=2024-12-31</code>:
+ * total, cantidad, mínimo y máximo del rango y de cada periodo.</li>
+ * <li><code>POST /api/resumen/reconstruir</code>: recalcula los resúmenes
+ * de todos los usuarios desde los movimientos. Sólo para los usuarios de
+ * {@code seguridad.administradores} (403 para el resto).</li>
+ * </ul>
+ *
+ * <p>
+ * Las consultas leen los resúmenes precalculados por {@link ResumenService};
+ * su costo depende del número de periodos del rango, no del número de
+ * movimientos.
+ * </p>
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:3000")
+@RequestMapping("/api/resumen")
+public class ResumenController {
+
+    /** Servicio de resúmenes diarios y mensuales. */
+    @Autowired
+    private ResumenService resumenService;
+
+    /** Traduce el usuario autenticado al ID dueño de los datos. */
+    @Autowired
+    private UsuariosService usuariosService;
+
+    /**
+     * Obtiene los totales de un rango de fechas.
+     *
+     * @param tipo    {@code gasto} (por defecto) o {@code ingreso}.
+     * @param periodo {@code mes} (por defecto) o {@code dia}.
+     * @param desde   fecha inicial opcional ({@code yyyy-MM-dd}).
+     * @param hasta   fecha final opcional ({@code yyyy-MM-dd}).
+     * @return totales del rango y de cada periodo, o 400 si los parámetros no
+     *         son válidos.
+     */
+    @GetMapping
+    public ResponseEntity<?> getResumen(@RequestParam(defaultValue = "gasto") String tipo,
+            @RequestParam(defaultValue = "mes") String periodo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        TipoMovimiento tipoMovimiento = TipoMovimiento.deNombre(tipo);
+        if (tipoMovimiento == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Tipo de movimiento desconocido: " + tipo + " (use gasto o ingreso)");
+        }
+        PeriodoResumen periodoResumen = PeriodoResumen.deNombre(periodo);
+        if (periodoResumen == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Periodo desconocido: " + periodo + " (use dia o mes)");
+        }
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("La fecha inicial es posterior a la final");
+        }
+        return ResponseEntity.ok(resumenService.consultar(tipoMovimiento, periodoResumen,
+                usuariosService.usuarioActual(), desde, hasta));
+    }
+
+    /**
+     * Recalcula todos los resúmenes desde los movimientos. Recorre los
+     * movimientos de todos los usuarios, así que {@code SecurityConfig} lo
+     * reserva a los administradores.
+     *
+     * @return número de días con movimientos, por tipo.
+     */
+    @PostMapping("/reconstruir")
+    public ResponseEntity<?> reconstruir() {
+        return ResponseEntity.ok(resumenService.reconstruir());
+    }
+}
@@ -0,0 +1,53 @@
+package com.controlgastos.dto;
+
+/**
+ * Concepto encontrado por {@code GET /api/buscar}, con una página de los
+ * movimientos que lo usan.
+ */
+public class ConceptoEncontrado {
+
+    /** Concepto tal como se registró. */
+    private final String concepto;
+
+    /** Movimientos (gastos e ingresos) que usan el concepto. */
+    private final long cantidad;
+
+    /** IDs de gastos de la página, del más reciente al más antiguo. */
+    private final long[] gastos;
+
+    /** IDs de ingresos de la página, del más reciente al más antiguo. */
+    private final long[] ingresos;
+
+    /**
+     * @param concepto concepto.
+     * @param cantidad movimientos que lo usan.
+     * @param gastos   IDs de gastos de la página.
+     * @param ingresos IDs de ingresos de la página.
+     */
+    public ConceptoEncontrado(String concepto, long cantidad, long[] gastos, long[] ingresos) {
+        this.concepto = concepto;
+        this.cantidad = cantidad;
+        this.gastos = gastos;
+        this.ingresos = ingresos;
+    }
+
+    /** @return concepto. */
+    public String getConcepto() {
+        return concepto;
+    }
+
+    /** @return movimientos que usan el concepto. */
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /** @return IDs de gastos de la página. */
+    public long[] getGastos() {
+        return gastos;
+    }
+
+    /** @return IDs de ingresos de la página. */
+    public long[] getIngresos() {
+        return ingresos;
+    }
+}
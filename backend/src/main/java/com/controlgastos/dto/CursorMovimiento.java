@@ -0,0 +1,66 @@
+package com.controlgastos.dto;
+
+import com.controlgastos.model.Movimiento;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición de un movimiento en el orden {@code (fechaRegistro, id)}, usada
+ * como cursor de paginación.
+ *
+ * <p>
+ * Se codifica como texto Base64 URL-safe opaco para el cliente. La siguiente
+ * página se obtiene con {@code WHERE (fecha, id) < (:fecha, :id)} dentro de
+ * los movimientos del usuario, que usa el índice
+ * {@code (usuario_id, fechaRegistro, id)} sin recorrer las filas anteriores
+ * como haría un {@code OFFSET}.
+ * </p>
+ */
+public final class CursorMovimiento {
+
+    private final LocalDateTime fechaRegistro;
+    private final long id;
+
+    private CursorMovimiento(LocalDateTime fechaRegistro, long id) {
+        this.fechaRegistro = fechaRegistro;
+        this.id = id;
+    }
+
+    /**
+     * @param movimiento último movimiento de la página actual.
+     * @return cursor codificado que apunta justo después de {@code movimiento}.
+     */
+    public static String codificar(Movimiento movimiento) {
+        String valor = movimiento.getFechaRegistro() + "|" + movimiento.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor cursor recibido del cliente.
+     * @return posición decodificada.
+     * @throws IllegalArgumentException si el cursor no es válido.
+     */
+    public static CursorMovimiento decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf('|');
+            return new CursorMovimiento(LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+    /** @return fecha de registro del último elemento visto. */
+    public LocalDateTime getFechaRegistro() {
+        return fechaRegistro;
+    }
+
+    /** @return ID del último elemento visto. */
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,83 @@
+package com.controlgastos.dto;
+
+/**
+ * Estadísticas de una huella de sentencia SQL, para {@code GET /actuator/sql}.
+ */
+public class HuellaSql {
+
+    /** Sentencia normalizada, sin valores literales. */
+    private final String sql;
+
+    /** Parámetros {@code ?} de la sentencia original. */
+    private final int parametros;
+
+    /** Ejecuciones muestreadas. */
+    private final long muestras;
+
+    /** Ejecuciones estimadas a partir de las muestras. */
+    private final long ejecucionesEstimadas;
+
+    /** Tiempo medio de las ejecuciones muestreadas, en milisegundos. */
+    private final double mediaMs;
+
+    /** Tiempo máximo observado, en milisegundos. */
+    private final double maximoMs;
+
+    /** Ejecuciones que superaron el umbral. */
+    private final long lentas;
+
+    /**
+     * @param sql                  sentencia normalizada.
+     * @param parametros           parámetros de la sentencia.
+     * @param muestras             ejecuciones muestreadas.
+     * @param ejecucionesEstimadas ejecuciones estimadas.
+     * @param mediaMs              tiempo medio en ms.
+     * @param maximoMs             tiempo máximo en ms.
+     * @param lentas               ejecuciones sobre el umbral.
+     */
+    public HuellaSql(String sql, int parametros, long muestras, long ejecucionesEstimadas, double mediaMs,
+            double maximoMs, long lentas) {
+        this.sql = sql;
+        this.parametros = parametros;
+        this.muestras = muestras;
+        this.ejecucionesEstimadas = ejecucionesEstimadas;
+        this.mediaMs = mediaMs;
+        this.maximoMs = maximoMs;
+        this.lentas = lentas;
+    }
+
+    /** @return sentencia normalizada. */
+    public String getSql() {
+        return sql;
+    }
+
+    /** @return parámetros de la sentencia. */
+    public int getParametros() {
+        return parametros;
+    }
+
+    /** @return ejecuciones muestreadas. */
+    public long getMuestras() {
+        return muestras;
+    }
+
+    /** @return ejecuciones estimadas a partir de las muestras. */
+    public long getEjecucionesEstimadas() {
+        return ejecucionesEstimadas;
+    }
+
+    /** @return tiempo medio de las muestras, en ms. */
+    public double getMediaMs() {
+        return mediaMs;
+    }
+
+    /** @return tiempo máximo observado, en ms. */
+    public double getMaximoMs() {
+        return maximoMs;
+    }
+
+    /** @return ejecuciones sobre el umbral. */
+    public long getLentas() {
+        return lentas;
+    }
+}
@@ -0,0 +1,41 @@
+package com.controlgastos.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados obtenida por cursor (keyset).
+ *
+ * <p>
+ * Para pedir la página siguiente se envía {@code siguienteCursor} como
+ * parámetro {@code cursor}; es {@code null} cuando no hay más resultados.
+ * </p>
+ *
+ * @param <T> tipo de los elementos.
+ */
+public class Pagina<T> {
+
+    /** Elementos de la página. */
+    private final List<T> items;
+
+    /** Cursor de la página siguiente, o {@code null} si es la última. */
+    private final String siguienteCursor;
+
+    /**
+     * @param items           elementos de la página.
+     * @param siguienteCursor cursor de la página siguiente o {@code null}.
+     */
+    public Pagina(List<T> items, String siguienteCursor) {
+        this.items = items;
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    /** @return elementos de la página. */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /** @return cursor de la página siguiente o {@code null}. */
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+}
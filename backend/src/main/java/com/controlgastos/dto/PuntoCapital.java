@@ -0,0 +1,36 @@
+package com.controlgastos.dto;
+
+import com.controlgastos.model.Dinero;
+
+import java.time.LocalDate;
+
+/**
+ * Capital al cierre de un día, para la gráfica de historia del capital.
+ */
+public class PuntoCapital {
+
+    /** Día del punto. */
+    private final LocalDate fecha;
+
+    /** Capital al cierre del día. */
+    private final Dinero capital;
+
+    /**
+     * @param fecha   día del punto.
+     * @param capital capital al cierre del día.
+     */
+    public PuntoCapital(LocalDate fecha, Dinero capital) {
+        this.fecha = fecha;
+        this.capital = capital;
+    }
+
+    /** @return día del punto. */
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    /** @return capital al cierre del día. */
+    public Dinero getCapital() {
+        return capital;
+    }
+}
@@ -0,0 +1,76 @@
+package com.controlgastos.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación de movimientos desde CSV.
+ *
+ * <p>
+ * Las filas válidas se guardan aunque otras sean rechazadas. Los errores se
+ * reportan como {@code "Línea N: mensaje"}, hasta un máximo configurable,
+ * para no devolver millones de mensajes si el archivo entero es inválido.
+ * </p>
+ */
+public class ResultadoImportacion {
+
+    /** Filas de datos leídas (sin contar encabezado ni líneas vacías). */
+    private final long filas;
+
+    /** Filas guardadas. */
+    private final long importadas;
+
+    /** Filas rechazadas por formato o validación. */
+    private final long rechazadas;
+
+    /** Primeros errores encontrados. */
+    private final List<String> errores;
+
+    /** Duración total de la importación en milisegundos. */
+    private final long milisegundos;
+
+    /**
+     * @param filas        filas de datos leídas.
+     * @param importadas   filas guardadas.
+     * @param rechazadas   filas rechazadas.
+     * @param errores      primeros errores encontrados.
+     * @param milisegundos duración de la importación.
+     */
+    public ResultadoImportacion(long filas, long importadas, long rechazadas, List<String> errores,
+            long milisegundos) {
+        this.filas = filas;
+        this.importadas = importadas;
+        this.rechazadas = rechazadas;
+        this.errores = errores;
+        this.milisegundos = milisegundos;
+    }
+
+    /** @return filas de datos leídas. */
+    public long getFilas() {
+        return filas;
+    }
+
+    /** @return filas guardadas. */
+    public long getImportadas() {
+        return importadas;
+    }
+
+    /** @return filas rechazadas. */
+    public long getRechazadas() {
+        return rechazadas;
+    }
+
+    /** @return primeros errores encontrados. */
+    public List<String> getErrores() {
+        return errores;
+    }
+
+    /** @return duración de la importación en milisegundos. */
+    public long getMilisegundos() {
+        return milisegundos;
+    }
+
+    /** @return filas leídas por segundo. */
+    public long getFilasPorSegundo() {
+        return milisegundos == 0 ? filas : filas * 1000 / milisegundos;
+    }
+}
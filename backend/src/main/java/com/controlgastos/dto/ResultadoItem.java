@@ -0,0 +1,50 @@
+package com.controlgastos.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de un elemento dentro de una carga por lotes.
+ *
+ * <p>
+ * Si el elemento se guardó, {@code id} contiene su identificador y
+ * {@code errores} está vacío; si fue rechazado, {@code id} es {@code null} y
+ * {@code errores} contiene los mensajes de validación.
+ * </p>
+ */
+public class ResultadoItem {
+
+    /** Posición del elemento en la lista recibida (desde 0). */
+    private final int indice;
+
+    /** ID asignado, o {@code null} si el elemento fue rechazado. */
+    private final Long id;
+
+    /** Mensajes de validación; vacío si el elemento se guardó. */
+    private final List<String> errores;
+
+    /**
+     * @param indice  posición del elemento en la lista recibida.
+     * @param id      ID asignado o {@code null}.
+     * @param errores mensajes de validación.
+     */
+    public ResultadoItem(int indice, Long id, List<String> errores) {
+        this.indice = indice;
+        this.id = id;
+        this.errores = errores;
+    }
+
+    /** @return posición del elemento en la lista recibida. */
+    public int getIndice() {
+        return indice;
+    }
+
+    /** @return ID asignado o {@code null} si fue rechazado. */
+    public Long getId() {
+        return id;
+    }
+
+    /** @return mensajes de validación. */
+    public List<String> getErrores() {
+        return errores;
+    }
+}
@@ -0,0 +1,49 @@
+package com.controlgastos.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una carga por lotes de gastos o ingresos.
+ *
+ * <p>
+ * Los elementos válidos se guardan aunque otros sean rechazados; cada uno
+ * tiene su {@link ResultadoItem} en el mismo orden en que se recibió.
+ * </p>
+ */
+public class ResultadoLote {
+
+    /** Cantidad de elementos recibidos. */
+    private final int recibidos;
+
+    /** Cantidad de elementos guardados. */
+    private final int guardados;
+
+    /** Resultado por elemento, en el orden recibido. */
+    private final List<ResultadoItem> resultados;
+
+    /**
+     * @param recibidos  cantidad de elementos recibidos.
+     * @param guardados  cantidad de elementos guardados.
+     * @param resultados resultado por elemento.
+     */
+    public ResultadoLote(int recibidos, int guardados, List<ResultadoItem> resultados) {
+        this.recibidos = recibidos;
+        this.guardados = guardados;
+        this.resultados = resultados;
+    }
+
+    /** @return cantidad de elementos recibidos. */
+    public int getRecibidos() {
+        return recibidos;
+    }
+
+    /** @return cantidad de elementos guardados. */
+    public int getGuardados() {
+        return guardados;
+    }
+
+    /** @return resultado por elemento. */
+    public List<ResultadoItem> getResultados() {
+        return resultados;
+    }
+}
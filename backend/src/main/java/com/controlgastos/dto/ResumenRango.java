@@ -0,0 +1,96 @@
+package com.controlgastos.dto;
+
+import com.controlgastos.model.Dinero;
+import com.controlgastos.model.ResumenMovimiento;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Totales de gastos o ingresos en un rango de fechas, por periodo y en
+ * conjunto.
+ *
+ * <p>
+ * Se calcula sumando los {@link ResumenMovimiento} del rango, sin leer los
+ * movimientos. {@code minimo} y {@code maximo} son {@code null} si no hay
+ * movimientos.
+ * </p>
+ */
+public class ResumenRango {
+
+    /** Primer periodo incluido. */
+    private final LocalDate desde;
+
+    /** Último periodo incluido. */
+    private final LocalDate hasta;
+
+    /** Suma de los montos del rango. */
+    private final Dinero total;
+
+    /** Número de movimientos del rango. */
+    private final long cantidad;
+
+    /** Monto mínimo del rango. */
+    private final Dinero minimo;
+
+    /** Monto máximo del rango. */
+    private final Dinero maximo;
+
+    /** Resumen de cada periodo con movimientos, en orden de fecha. */
+    private final List<ResumenMovimiento> periodos;
+
+    /**
+     * @param desde    primer periodo incluido.
+     * @param hasta    último periodo incluido.
+     * @param total    suma de los montos.
+     * @param cantidad número de movimientos.
+     * @param minimo   monto mínimo o {@code null}.
+     * @param maximo   monto máximo o {@code null}.
+     * @param periodos resumen de cada periodo.
+     */
+    public ResumenRango(LocalDate desde, LocalDate hasta, Dinero total, long cantidad, Dinero minimo,
+            Dinero maximo, List<ResumenMovimiento> periodos) {
+        this.desde = desde;
+        this.hasta = hasta;
+        this.total = total;
+        this.cantidad = cantidad;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.periodos = periodos;
+    }
+
+    /** @return primer periodo incluido. */
+    public LocalDate getDesde() {
+        return desde;
+    }
+
+    /** @return último periodo incluido. */
+    public LocalDate getHasta() {
+        return hasta;
+    }
+
+    /** @return suma de los montos. */
+    public Dinero getTotal() {
+        return total;
+    }
+
+    /** @return número de movimientos. */
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /** @return monto mínimo o {@code null}. */
+    public Dinero getMinimo() {
+        return minimo;
+    }
+
+    /** @return monto máximo o {@code null}. */
+    public Dinero getMaximo() {
+        return maximo;
+    }
+
+    /** @return resumen de cada periodo. */
+    public List<ResumenMovimiento> getPeriodos() {
+        return periodos;
+    }
+}
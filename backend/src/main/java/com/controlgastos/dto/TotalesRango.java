@@ -0,0 +1,61 @@
+package com.controlgastos.dto;
+
+import com.controlgastos.model.Dinero;
+
+import java.time.LocalDate;
+
+/**
+ * Ingresos, gastos y neto de un rango de fechas.
+ */
+public class TotalesRango {
+
+    /** Primer día incluido. */
+    private final LocalDate desde;
+
+    /** Último día incluido. */
+    private final LocalDate hasta;
+
+    /** Suma de ingresos del rango. */
+    private final Dinero ingresos;
+
+    /** Suma de gastos del rango. */
+    private final Dinero gastos;
+
+    /**
+     * @param desde    primer día incluido.
+     * @param hasta    último día incluido.
+     * @param ingresos suma de ingresos.
+     * @param gastos   suma de gastos.
+     */
+    public TotalesRango(LocalDate desde, LocalDate hasta, Dinero ingresos, Dinero gastos) {
+        this.desde = desde;
+        this.hasta = hasta;
+        this.ingresos = ingresos;
+        this.gastos = gastos;
+    }
+
+    /** @return primer día incluido. */
+    public LocalDate getDesde() {
+        return desde;
+    }
+
+    /** @return último día incluido. */
+    public LocalDate getHasta() {
+        return hasta;
+    }
+
+    /** @return suma de ingresos. */
+    public Dinero getIngresos() {
+        return ingresos;
+    }
+
+    /** @return suma de gastos. */
+    public Dinero getGastos() {
+        return gastos;
+    }
+
+    /** @return ingresos menos gastos. */
+    public Dinero getNeto() {
+        return ingresos.menos(gastos);
+    }
+}
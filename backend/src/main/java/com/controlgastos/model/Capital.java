@@ -1,6 +1,11 @@
 package com.controlgastos.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 /**
@@ -16,7 +21,11 @@ import java.time.LocalDateTime;
  * </p>
  * <ul>
  * <li><strong>id</strong>: Identificador único autogenerado.</li>
- * <li><strong>capital</strong>: Monto total acumulado.</li>
+ * <li><strong>usuarioId</strong>: Usuario dueño del capital (0 para los datos
+ * sin dueño; ver {@link Movimiento#getUsuarioId()}).</li>
+ * <li><strong>capital</strong>: Monto total acumulado, en centavos (columna
+ * {@code capital_centavos}).</li>
+ * <li><strong>version</strong>: Versión para bloqueo optimista.</li>
  * <li><strong>fechaRegistro</strong>: Fecha y hora en que se registró el
  * capital (no modificable).</li>
  * </ul>
@@ -25,8 +34,17 @@ import java.time.LocalDateTime;
  * <strong>Uso típico:</strong> Se actualiza cada vez que se registra un nuevo
  * ingreso.
  * </p>
+ *
+ * <p>
+ * <strong>Caché de segundo nivel:</strong> región {@code capital}
+ * (read-write). El {@code UPDATE} masivo de
+ * {@link com.controlgastos.repository.CapitalRepository#sumarDelta} vacía la
+ * región y las consultas en caché sobre la tabla.
+ * </p>
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "capital")
+@Table(indexes = @Index(name = "idx_capital_usuario_id", columnList = "usuario_id, id"))
 public class Capital {
 
     /** Identificador único del registro de capital. */
@@ -34,8 +52,26 @@ public class Capital {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    /** Monto total de capital acumulado. */
-    private double capital;
+    /** Usuario dueño del capital; clave foránea a {@code users.id}. */
+    @Column(name = "usuario_id", nullable = false)
+    private long usuarioId;
+
+    /** Monto total de capital acumulado, en centavos. */
+    @Column(name = "capital_centavos", nullable = false)
+    private long capital;
+
+    /**
+     * Versión del registro para bloqueo optimista.
+     * <p>
+     * La incrementan tanto Hibernate como
+     * {@link com.controlgastos.repository.CapitalRepository#sumarDelta}; las
+     * filas existentes antes de agregar la columna quedan en 0.
+     * </p>
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
 
     /**
      * Fecha y hora en que se registró el capital.
@@ -70,9 +106,21 @@ public class Capital {
         this.id = id;
     }
 
+    /** @return usuario dueño del capital. */
+    @JsonIgnore
+    public long getUsuarioId() {
+        return usuarioId;
+    }
+
+    /** @param usuarioId usuario dueño del capital. */
+    @JsonIgnore
+    public void setUsuarioId(long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
     /** @return monto actual de capital. */
-    public double getCapital() {
-        return capital;
+    public Dinero getCapital() {
+        return Dinero.deCentavos(capital);
     }
 
     /**
@@ -80,8 +128,14 @@ public class Capital {
      * 
      * @param capital nuevo valor de capital acumulado.
      */
-    public void setCapital(Double capital) {
-        this.capital = capital;
+    public void setCapital(Dinero capital) {
+        this.capital = capital == null ? 0 : capital.centavos();
+    }
+
+    /** @return monto actual de capital en centavos. */
+    @JsonIgnore
+    public long getCapitalCentavos() {
+        return capital;
     }
 
     /** @return fecha en que se registró el capital. */
@@ -0,0 +1,135 @@
+package com.controlgastos.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Concepto de gasto con mayor monto acumulado de un usuario.
+ *
+ * <p>
+ * Cada fila es un contador de
+ * {@link com.controlgastos.clasesCalculos.ConceptosFrecuentes}; la tabla es
+ * la última copia guardada por
+ * {@link com.controlgastos.services.ConceptosService} y se lee solo al
+ * arrancar.
+ * </p>
+ *
+ * <p>
+ * <strong>Campos:</strong>
+ * </p>
+ * <ul>
+ * <li><strong>usuarioId, concepto</strong>: clave.</li>
+ * <li><strong>total</strong>: monto estimado en centavos; nunca menor que el
+ * real.</li>
+ * <li><strong>error</strong>: cuánto puede sobreestimar {@code total}, en
+ * centavos.</li>
+ * </ul>
+ */
+@Entity
+@Table(name = "concepto_frecuente")
+@IdClass(ConceptoFrecuente.Clave.class)
+public class ConceptoFrecuente {
+
+    /** Usuario dueño de los gastos. */
+    @Id
+    private long usuarioId;
+
+    /** Concepto del gasto. */
+    @Id
+    private String concepto;
+
+    /** Monto estimado, en centavos. */
+    @Column(nullable = false)
+    private long total;
+
+    /** Sobreestimación máxima de {@code total}, en centavos. */
+    @Column(nullable = false)
+    private long error;
+
+    /** Constructor requerido por JPA. */
+    protected ConceptoFrecuente() {
+    }
+
+    /**
+     * @param usuarioId usuario dueño de los gastos.
+     * @param concepto  concepto del gasto.
+     * @param total     monto estimado en centavos.
+     * @param error     sobreestimación máxima en centavos.
+     */
+    public ConceptoFrecuente(long usuarioId, String concepto, long total, long error) {
+        this.usuarioId = usuarioId;
+        this.concepto = concepto;
+        this.total = total;
+        this.error = error;
+    }
+
+    // Getters
+
+    /** @return usuario dueño de los gastos. */
+    @JsonIgnore
+    public long getUsuarioId() {
+        return usuarioId;
+    }
+
+    /** @return concepto del gasto. */
+    public String getConcepto() {
+        return concepto;
+    }
+
+    /** @return monto estimado. */
+    public Dinero getTotal() {
+        return Dinero.deCentavos(total);
+    }
+
+    /** @return sobreestimación máxima del monto. */
+    public Dinero getError() {
+        return Dinero.deCentavos(error);
+    }
+
+    /** @return monto estimado en centavos. */
+    @JsonIgnore
+    public long getTotalCentavos() {
+        return total;
+    }
+
+    /** @return sobreestimación máxima en centavos. */
+    @JsonIgnore
+    public long getErrorCentavos() {
+        return error;
+    }
+
+    /**
+     * Clave compuesta de {@link ConceptoFrecuente}.
+     */
+    public static class Clave implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long usuarioId;
+        private String concepto;
+
+        /** Constructor requerido por JPA. */
+        public Clave() {
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            if (this == otro) {
+                return true;
+            }
+            if (!(otro instanceof Clave)) {
+                return false;
+            }
+            Clave clave = (Clave) otro;
+            return usuarioId == clave.usuarioId && Objects.equals(concepto, clave.concepto);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(usuarioId, concepto);
+        }
+    }
+}
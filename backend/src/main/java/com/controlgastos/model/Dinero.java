@@ -0,0 +1,127 @@
+package com.controlgastos.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Monto de dinero en punto fijo, almacenado como un {@code long} de
+ * centavos.
+ *
+ * <p>
+ * Sustituye a {@code double} en montos y capital: la suma y la comparación de
+ * centavos son aritmética entera exacta, sin errores de redondeo acumulados.
+ * Las entidades guardan el {@code long} primitivo directamente (columna
+ * {@code BIGINT}) y usan esta clase solo en su API pública.
+ * </p>
+ *
+ * <p>
+ * <strong>JSON:</strong> se serializa como número decimal con dos decimales
+ * ({@code 12.50}) y se lee desde número o texto ({@code 12.5},
+ * {@code "12.5"}). Un valor con más de dos decimales se rechaza.
+ * </p>
+ *
+ * <p>
+ * Es inmutable y segura para uso concurrente.
+ * </p>
+ */
+public final class Dinero implements Comparable<Dinero> {
+
+    /** Monto cero. */
+    public static final Dinero CERO = new Dinero(0);
+
+    /** Cantidad de centavos por unidad. */
+    public static final int CENTAVOS_POR_UNIDAD = 100;
+
+    /** Monto en centavos. */
+    private final long centavos;
+
+    private Dinero(long centavos) {
+        this.centavos = centavos;
+    }
+
+    /**
+     * Crea un monto a partir de centavos.
+     *
+     * @param centavos monto en centavos.
+     * @return el monto.
+     */
+    public static Dinero deCentavos(long centavos) {
+        return centavos == 0 ? CERO : new Dinero(centavos);
+    }
+
+    /**
+     * Crea un monto a partir de un decimal en unidades.
+     *
+     * @param monto monto en unidades (por ejemplo {@code 12.50}).
+     * @return el monto.
+     * @throws ArithmeticException si tiene más de dos decimales o no cabe en un
+     *                             {@code long} de centavos.
+     */
+    @JsonCreator
+    public static Dinero de(BigDecimal monto) {
+        return deCentavos(monto.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Convierte un {@code double} (por ejemplo datos históricos) a centavos,
+     * redondeando al centavo más cercano.
+     *
+     * @param monto monto en unidades.
+     * @return monto en centavos.
+     */
+    public static long aCentavos(double monto) {
+        return Math.round(monto * CENTAVOS_POR_UNIDAD);
+    }
+
+    /** @return monto en centavos. */
+    public long centavos() {
+        return centavos;
+    }
+
+    /** @return monto en unidades con dos decimales. */
+    @JsonValue
+    public BigDecimal aDecimal() {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    /**
+     * @param otro monto a sumar.
+     * @return la suma.
+     * @throws ArithmeticException si el resultado desborda.
+     */
+    public Dinero mas(Dinero otro) {
+        return deCentavos(Math.addExact(centavos, otro.centavos));
+    }
+
+    /**
+     * @param otro monto a restar.
+     * @return la diferencia.
+     * @throws ArithmeticException si el resultado desborda.
+     */
+    public Dinero menos(Dinero otro) {
+        return deCentavos(Math.subtractExact(centavos, otro.centavos));
+    }
+
+    @Override
+    public int compareTo(Dinero otro) {
+        return Long.compare(centavos, otro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Dinero && ((Dinero) o).centavos == centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    @Override
+    public String toString() {
+        return aDecimal().toPlainString();
+    }
+}
@@ -1,5 +1,11 @@
 package com.controlgastos.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Size;
@@ -20,62 +26,112 @@ import java.time.LocalDateTime;
  * <ul>
  * <li><strong>concepto</strong>: no puede estar vacío y tiene un máximo de 25
  * caracteres.</li>
- * <li><strong>monto</strong>: debe ser mayor a 0.</li>
+ * <li><strong>monto</strong>: debe ser mayor a 0. Se guarda en centavos
+ * (columna {@code monto_centavos}); ver {@link Dinero}.</li>
  * </ul>
  *
  * <p>
  * <strong>Uso típico:</strong> Se registra desde el frontend y se suma al
  * capital disponible.
  * </p>
+ *
+ * <p>
+ * <strong>Caché de segundo nivel:</strong> región {@code ingreso}, de solo
+ * lectura. La entidad es {@link Immutable}: un movimiento no se modifica
+ * después de insertarse y Hibernate no lo revisa al hacer flush.
+ * </p>
  */
 @Entity
-public class Ingreso {
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "ingreso")
+@Table(indexes = {
+        @Index(name = "idx_ingreso_usuario_fecha", columnList = "usuario_id, fechaRegistro, id"),
+        @Index(name = "idx_ingreso_usuario_id", columnList = "usuario_id, id") })
+public class Ingreso implements Movimiento {
 
-    /** Identificador único del ingreso (autogenerado). */
+    /**
+     * Identificador único del ingreso (autogenerado).
+     * <p>
+     * Se toma de la secuencia {@code ingreso_seq} en bloques de 50 (optimizador
+     * <em>pooled</em>), lo que permite a Hibernate agrupar los {@code INSERT}
+     * en lotes JDBC; con {@code IDENTITY} cada inserción iría sola.
+     * </p>
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingreso_seq")
+    @SequenceGenerator(name = "ingreso_seq", sequenceName = "ingreso_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Usuario dueño del ingreso; clave foránea a {@code users.id}. Lo asigna el
+     * controlador a partir del usuario autenticado, nunca el JSON recibido.
+     */
+    @Column(name = "usuario_id", nullable = false)
+    private long usuarioId;
+
     /** Descripción del ingreso. No puede estar vacía ni exceder 25 caracteres. */
     @NotEmpty(message = "El campo no puede estar vacío")
     @Size(max = 25, message = "El concepto no puede tener más de 25 caracteres")
     private String concepto;
 
-    /** Monto del ingreso. Debe ser mayor a cero. */
+    /** Monto del ingreso en centavos. Debe ser mayor a cero. */
     @Positive(message = "El ingreso debe ser mayor a 0")
-    private double monto;
+    @Column(name = "monto_centavos", nullable = false)
+    private long monto;
 
     /**
      * Fecha y hora en que se registró el ingreso.
      * <p>
-     * Se asigna automáticamente antes de persistir y no puede modificarse.
+     * Se asigna automáticamente antes de persistir y no puede modificarse. En
+     * JSON es de solo lectura; sólo la importación de históricos la fija antes
+     * de guardar.
      * </p>
      */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     @Column(nullable = false, updatable = false)
     private LocalDateTime fechaRegistro;
 
     /**
      * Asigna automáticamente la fecha de registro antes de guardar en base de
-     * datos.
+     * datos, salvo que ya venga fijada (movimientos históricos importados).
      */
     @PrePersist
     public void prePersist() {
-        this.fechaRegistro = LocalDateTime.now();
+        if (this.fechaRegistro == null) {
+            this.fechaRegistro = LocalDateTime.now();
+        }
     }
 
     // Getters y setters
 
     /** @return identificador único del ingreso. */
+    @Override
     public Long getId() {
         return id;
     }
 
     /** @param id identificador único a asignar. */
+    @Override
     public void setId(Long id) {
         this.id = id;
     }
 
+    /** @return usuario dueño del ingreso. */
+    @Override
+    @JsonIgnore
+    public long getUsuarioId() {
+        return usuarioId;
+    }
+
+    /** @param usuarioId usuario dueño del ingreso. */
+    @Override
+    @JsonIgnore
+    public void setUsuarioId(long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
     /** @return concepto o descripción del ingreso. */
+    @Override
     public String getConcepto() {
         return concepto;
     }
@@ -86,16 +142,24 @@ public class Ingreso {
     }
 
     /** @return monto del ingreso. */
-    public double getMonto() {
-        return monto;
+    public Dinero getMonto() {
+        return Dinero.deCentavos(monto);
     }
 
     /** @param monto valor del ingreso (debe ser positivo). */
-    public void setMonto(double monto) {
-        this.monto = monto;
+    public void setMonto(Dinero monto) {
+        this.monto = monto == null ? 0 : monto.centavos();
+    }
+
+    /** @return monto del ingreso en centavos. */
+    @Override
+    @JsonIgnore
+    public long getMontoCentavos() {
+        return monto;
     }
 
     /** @return fecha en que se registró el ingreso. */
+    @Override
     public LocalDateTime getFechaRegistro() {
         return fechaRegistro;
     }
@@ -104,7 +168,7 @@ public class Ingreso {
      * Asigna manualmente la fecha de registro (no recomendado).
      * <p>
      * Este método existe por compatibilidad, pero <strong>no debe usarse</strong>
-     * fuera de pruebas o migraciones.
+     * fuera de pruebas, migraciones o importaciones de históricos.
      * </p>
      * 
      * @param fechaRegistro fecha a asignar.
@@ -0,0 +1,38 @@
+package com.controlgastos.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Vista común de un movimiento de dinero: {@link Gasto} o {@link Ingreso}.
+ *
+ * <p>
+ * Permite que los servicios de lotes, importación y consultas traten ambos
+ * tipos con el mismo código.
+ * </p>
+ */
+public interface Movimiento {
+
+    /** @return identificador del movimiento. */
+    Long getId();
+
+    /** @param id identificador asignado al insertar. */
+    void setId(Long id);
+
+    /**
+     * @return usuario dueño del movimiento; 0 (el usuario global) para los
+     *         anteriores a la separación por usuario.
+     */
+    long getUsuarioId();
+
+    /** @param usuarioId usuario dueño del movimiento. */
+    void setUsuarioId(long usuarioId);
+
+    /** @return concepto o descripción del movimiento. */
+    String getConcepto();
+
+    /** @return monto del movimiento en centavos. */
+    long getMontoCentavos();
+
+    /** @return fecha en que se registró el movimiento. */
+    LocalDateTime getFechaRegistro();
+}
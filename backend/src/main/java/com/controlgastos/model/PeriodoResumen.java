@@ -0,0 +1,41 @@
+package com.controlgastos.model;
+
+import java.time.LocalDate;
+
+/**
+ * Granularidad de los resúmenes de movimientos.
+ */
+public enum PeriodoResumen {
+
+    /** Un resumen por día. */
+    DIA,
+
+    /** Un resumen por mes; su fecha es el día 1. */
+    MES;
+
+    /**
+     * Devuelve la fecha que identifica el periodo que contiene {@code fecha}.
+     *
+     * @param fecha fecha cualquiera.
+     * @return la misma fecha para {@link #DIA}; el día 1 del mes para
+     *         {@link #MES}.
+     */
+    public LocalDate inicio(LocalDate fecha) {
+        return this == MES ? fecha.withDayOfMonth(1) : fecha;
+    }
+
+    /**
+     * Busca el periodo por nombre, sin distinguir mayúsculas.
+     *
+     * @param nombre {@code dia} o {@code mes}.
+     * @return el periodo, o {@code null} si no existe.
+     */
+    public static PeriodoResumen deNombre(String nombre) {
+        for (PeriodoResumen periodo : values()) {
+            if (periodo.name().equalsIgnoreCase(nombre)) {
+                return periodo;
+            }
+        }
+        return null;
+    }
+}
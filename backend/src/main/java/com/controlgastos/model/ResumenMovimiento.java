@@ -0,0 +1,169 @@
+package com.controlgastos.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Resumen precalculado de los gastos o ingresos de un usuario en un día o un
+ * mes.
+ *
+ * <p>
+ * Se mantiene de forma incremental en la misma transacción que cada
+ * inserción (ver {@link com.controlgastos.services.ResumenService}), de modo
+ * que consultar el total de un mes lee una fila en lugar de recorrer todos
+ * los movimientos.
+ * </p>
+ *
+ * <p>
+ * <strong>Campos:</strong>
+ * </p>
+ * <ul>
+ * <li><strong>tipo, periodo, usuarioId, fecha</strong>: clave; {@code fecha}
+ * es el día, o el día 1 del mes.</li>
+ * <li><strong>total, minimo, maximo</strong>: montos en centavos.</li>
+ * <li><strong>cantidad</strong>: número de movimientos.</li>
+ * </ul>
+ */
+@Entity
+@Table(name = "resumen_movimiento")
+@IdClass(ResumenMovimiento.Clave.class)
+public class ResumenMovimiento {
+
+    /** Gasto o ingreso. */
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private TipoMovimiento tipo;
+
+    /** Día o mes. */
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private PeriodoResumen periodo;
+
+    /** Usuario dueño de los movimientos. */
+    @Id
+    private long usuarioId;
+
+    /** Día, o día 1 del mes. */
+    @Id
+    private LocalDate fecha;
+
+    /** Suma de los montos, en centavos. */
+    @Column(nullable = false)
+    private long total;
+
+    /** Número de movimientos. */
+    @Column(nullable = false)
+    private long cantidad;
+
+    /** Monto mínimo, en centavos. */
+    @Column(nullable = false)
+    private long minimo;
+
+    /** Monto máximo, en centavos. */
+    @Column(nullable = false)
+    private long maximo;
+
+    // Getters
+
+    /** @return gasto o ingreso. */
+    @JsonIgnore
+    public TipoMovimiento getTipo() {
+        return tipo;
+    }
+
+    /** @return día o mes. */
+    @JsonIgnore
+    public PeriodoResumen getPeriodo() {
+        return periodo;
+    }
+
+    /** @return usuario dueño de los movimientos. */
+    @JsonIgnore
+    public long getUsuarioId() {
+        return usuarioId;
+    }
+
+    /** @return día, o día 1 del mes. */
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    /** @return suma de los montos. */
+    public Dinero getTotal() {
+        return Dinero.deCentavos(total);
+    }
+
+    /** @return número de movimientos. */
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /** @return monto mínimo. */
+    public Dinero getMinimo() {
+        return Dinero.deCentavos(minimo);
+    }
+
+    /** @return monto máximo. */
+    public Dinero getMaximo() {
+        return Dinero.deCentavos(maximo);
+    }
+
+    /** @return suma de los montos en centavos. */
+    @JsonIgnore
+    public long getTotalCentavos() {
+        return total;
+    }
+
+    /** @return monto mínimo en centavos. */
+    @JsonIgnore
+    public long getMinimoCentavos() {
+        return minimo;
+    }
+
+    /** @return monto máximo en centavos. */
+    @JsonIgnore
+    public long getMaximoCentavos() {
+        return maximo;
+    }
+
+    /**
+     * Clave compuesta de {@link ResumenMovimiento}.
+     */
+    public static class Clave implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private TipoMovimiento tipo;
+        private PeriodoResumen periodo;
+        private long usuarioId;
+        private LocalDate fecha;
+
+        /** Constructor requerido por JPA. */
+        public Clave() {
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            if (this == otro) {
+                return true;
+            }
+            if (!(otro instanceof Clave)) {
+                return false;
+            }
+            Clave clave = (Clave) otro;
+            return usuarioId == clave.usuarioId && tipo == clave.tipo && periodo == clave.periodo
+                    && Objects.equals(fecha, clave.fecha);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tipo, periodo, usuarioId, fecha);
+        }
+    }
+}
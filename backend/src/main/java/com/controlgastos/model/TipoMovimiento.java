@@ -0,0 +1,50 @@
+package com.controlgastos.model;
+
+/**
+ * Tipo de movimiento de dinero, la tabla donde se guarda y la secuencia de sus
+ * IDs.
+ */
+public enum TipoMovimiento {
+
+    /** Salida de dinero ({@link Gasto}). */
+    GASTO("gasto", "gasto_seq"),
+
+    /** Entrada de dinero ({@link Ingreso}). */
+    INGRESO("ingreso", "ingreso_seq");
+
+    /** Nombre de la tabla en base de datos. */
+    private final String tabla;
+
+    /** Secuencia de la que se toman los IDs. */
+    private final String secuencia;
+
+    TipoMovimiento(String tabla, String secuencia) {
+        this.tabla = tabla;
+        this.secuencia = secuencia;
+    }
+
+    /** @return nombre de la tabla en base de datos. */
+    public String getTabla() {
+        return tabla;
+    }
+
+    /** @return secuencia de la que se toman los IDs. */
+    public String getSecuencia() {
+        return secuencia;
+    }
+
+    /**
+     * Busca el tipo por su nombre en la URL ({@code gasto} o {@code ingreso}).
+     *
+     * @param nombre nombre sin distinguir mayúsculas.
+     * @return el tipo, o {@code null} si no existe.
+     */
+    public static TipoMovimiento deNombre(String nombre) {
+        for (TipoMovimiento tipo : values()) {
+            if (tipo.tabla.equalsIgnoreCase(nombre)) {
+                return tipo;
+            }
+        }
+        return null;
+    }
+}
@@ -1,5 +1,10 @@
 package com.controlgastos.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import javax.persistence.*;
 
 /**
@@ -13,16 +18,26 @@ import javax.persistence.*;
  * <strong>Notas de seguridad:</strong>
  * </p>
  * <ul>
- * <li>La contraseña debe almacenarse encriptada (no en texto plano).</li>
+ * <li>La contraseña se almacena con hash BCrypt; las filas heredadas en texto
+ * plano se convierten al primer inicio de sesión correcto.</li>
  * <li>El campo <code>username</code> es único para evitar duplicados.</li>
  * </ul>
  *
  * <p>
+ * <strong>Caché de segundo nivel:</strong> región {@code usuarios}
+ * (read-write). {@code username} es el <em>natural id</em>: la resolución
+ * nombre → ID se guarda en {@code usuarios-nombre} y la usa
+ * {@code UserRepository.findByUsername}.
+ * </p>
+ *
+ * <p>
  * <strong>Uso típico:</strong> Autenticación, autorización y asociación con
  * registros financieros.
  * </p>
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios")
+@NaturalIdCache(region = "usuarios-nombre")
 @Table(name = "users")
 public class User {
 
@@ -31,11 +46,15 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    /** Nombre de usuario único para autenticación. */
+    /**
+     * Nombre de usuario único para autenticación; no cambia después del
+     * registro. Es {@code NULL} sólo en el usuario global.
+     */
+    @NaturalId
     @Column(unique = true)
     private String username;
 
-    /** Contraseña del usuario (debe estar encriptada antes de persistir). */
+    /** Hash BCrypt de la contraseña (texto plano sólo en filas heredadas). */
     private String password;
 
     // Getters y setters
@@ -68,11 +87,12 @@ public class User {
     /**
      * Asigna la contraseña del usuario.
      * <p>
-     * <strong>Importante:</strong> debe encriptarse antes de guardar en base de
-     * datos.
+     * <strong>Importante:</strong> {@code AuthService} asigna aquí el hash, no
+     * la contraseña en texto plano.
      * </p>
      * 
-     * @param password contraseña en texto plano (solo para asignación inicial).
+     * @param password hash de la contraseña (en peticiones, la contraseña
+     *                 recibida).
      */
     public void setPassword(String password) {
         this.password = password;
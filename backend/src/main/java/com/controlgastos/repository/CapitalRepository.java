@@ -2,6 +2,13 @@ package com.controlgastos.repository;
 
 import com.controlgastos.model.Capital;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,11 +22,22 @@ import java.util.Optional;
  * <strong>Consultas personalizadas:</strong>
  * </p>
  * <ul>
- * <li>{@code findTopByOrderByIdDesc()}: obtiene el último registro de capital
- * según el ID.</li>
+ * <li>{@code findTopByUsuarioIdOrderByIdDesc(usuario)}: obtiene el último
+ * registro de capital de un usuario según el ID.</li>
+ * <li>{@code findUltimoId(usuario)}: obtiene solo el ID de ese registro.</li>
+ * <li>{@code findUltimosPorUsuario()}: obtiene el último registro de cada
+ * usuario.</li>
+ * <li>{@code sumarDelta(id, delta)}: aplica un incremento atómico en la base
+ * de datos.</li>
  * </ul>
  *
  * <p>
+ * Las dos consultas del último registro de un usuario se guardan en la región
+ * {@code capital-ultimo} de la caché de consultas. Hibernate las invalida con
+ * cualquier escritura en la tabla, incluido {@code sumarDelta}.
+ * </p>
+ *
+ * <p>
  * <strong>Uso típico:</strong> Consultar el capital más reciente para cálculos
  * financieros o visualización en dashboard.
  * </p>
@@ -27,9 +45,53 @@ import java.util.Optional;
 public interface CapitalRepository extends JpaRepository<Capital, Long> {
 
     /**
-     * Obtiene el último registro de capital según el orden descendente del ID.
+     * Obtiene el último registro de capital de un usuario según el orden
+     * descendente del ID. Usa el índice {@code (usuario_id, id)}.
      *
+     * @param usuarioId usuario.
      * @return un {@link Optional} que contiene el capital más reciente, si existe.
      */
-    Optional<Capital> findTopByOrderByIdDesc();
+    @QueryHints({ @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "capital-ultimo") })
+    Optional<Capital> findTopByUsuarioIdOrderByIdDesc(long usuarioId);
+
+    /**
+     * Obtiene el ID del registro de capital más reciente de un usuario sin
+     * cargar la entidad.
+     *
+     * @param usuarioId usuario.
+     * @return un {@link Optional} con el ID, vacío si el usuario aún no tiene
+     *         capital.
+     */
+    @Query("SELECT MAX(c.id) FROM Capital c WHERE c.usuarioId = :usuario")
+    @QueryHints({ @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "capital-ultimo") })
+    Optional<Long> findUltimoId(@Param("usuario") long usuarioId);
+
+    /**
+     * Obtiene el registro de capital más reciente de cada usuario.
+     *
+     * @return un capital por usuario que tenga alguno.
+     */
+    @Query("SELECT c FROM Capital c WHERE c.id IN (SELECT MAX(u.id) FROM Capital u GROUP BY u.usuarioId)")
+    List<Capital> findUltimosPorUsuario();
+
+    /**
+     * Suma {@code delta} al capital indicado con un único {@code UPDATE}
+     * ejecutado en la base de datos.
+     *
+     * <p>
+     * La suma la resuelve el motor SQL, por lo que no existe la ventana de
+     * lectura-modificación-escritura entre peticiones concurrentes. También
+     * incrementa la versión del registro para que cualquier escritura basada
+     * en una entidad obsoleta falle con bloqueo optimista.
+     * </p>
+     *
+     * @param id    identificador del registro de capital.
+     * @param delta monto a sumar en centavos (negativo para gastos).
+     * @return número de filas actualizadas (0 si el registro ya no existe).
+     */
+    @Modifying
+    @Query("UPDATE Capital c SET c.capital = c.capital + :delta, c.version = c.version + 1 WHERE c.id = :id")
+    int sumarDelta(@Param("id") Long id, @Param("delta") long delta);
 }
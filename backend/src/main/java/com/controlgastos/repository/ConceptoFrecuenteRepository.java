@@ -0,0 +1,23 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.ConceptoFrecuente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repositorio de la copia guardada de los conceptos más frecuentes
+ * ({@link ConceptoFrecuente}).
+ */
+public interface ConceptoFrecuenteRepository extends JpaRepository<ConceptoFrecuente, ConceptoFrecuente.Clave> {
+
+    /**
+     * Borra los contadores guardados de un usuario con una sola sentencia.
+     *
+     * @param usuarioId usuario.
+     */
+    @Modifying
+    @Query("DELETE FROM ConceptoFrecuente c WHERE c.usuarioId = :usuarioId")
+    void borrarDeUsuario(@Param("usuarioId") long usuarioId);
+}
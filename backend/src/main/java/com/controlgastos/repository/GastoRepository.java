@@ -1,7 +1,13 @@
 package com.controlgastos.repository;
 
 import com.controlgastos.model.Gasto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Repositorio para la entidad {@link Gasto}.
@@ -27,6 +33,62 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * </ul>
  */
 public interface GastoRepository extends JpaRepository<Gasto, Long> {
-    // Puedes agregar métodos personalizados aquí si necesitas filtros por fecha,
-    // usuario, etc.
+
+    /**
+     * Suma el monto de los gastos de cada usuario.
+     *
+     * @return filas {@code [Long usuarioId, Long centavos]}, una por usuario
+     *         con gastos.
+     */
+    @Query("SELECT g.usuarioId, SUM(g.monto) FROM Gasto g GROUP BY g.usuarioId")
+    List<Object[]> sumarMontosPorUsuario();
+
+    /**
+     * Suma los montos por usuario y día de registro.
+     *
+     * @return filas {@code [Long usuarioId, java.sql.Date dia, Long centavos]},
+     *         una por usuario y día con gastos.
+     */
+    @Query("SELECT g.usuarioId, CAST(g.fechaRegistro AS date), SUM(g.monto) FROM Gasto g"
+            + " GROUP BY g.usuarioId, CAST(g.fechaRegistro AS date)")
+    List<Object[]> sumarMontosPorDia();
+
+    /**
+     * Suma los montos agrupados por concepto.
+     *
+     * <p>
+     * Recorre toda la tabla; solo se usa para llenar
+     * {@link com.controlgastos.services.ConceptosService} la primera vez.
+     * </p>
+     *
+     * @return filas {@code [Long usuarioId, concepto, Long centavos]}.
+     */
+    @Query("SELECT g.usuarioId, g.concepto, SUM(g.monto) FROM Gasto g GROUP BY g.usuarioId, g.concepto")
+    List<Object[]> sumarMontosPorConcepto();
+
+    /**
+     * Obtiene la primera página de gastos de un usuario, del más reciente al
+     * más antiguo. Recorre el índice {@code (usuario_id, fecha_registro, id)}.
+     *
+     * @param usuarioId usuario.
+     * @param pageable  tamaño de página (se ignora el número de página).
+     * @return gastos ordenados por fecha de registro e ID descendentes.
+     */
+    List<Gasto> findByUsuarioIdOrderByFechaRegistroDescIdDesc(long usuarioId, Pageable pageable);
+
+    /**
+     * Obtiene los gastos de un usuario que siguen a la posición
+     * {@code (fecha, id)} en orden descendente (paginación por cursor).
+     *
+     * @param usuarioId usuario.
+     * @param fecha    fecha de registro del último gasto visto.
+     * @param id       ID del último gasto visto.
+     * @param pageable tamaño de página (se ignora el número de página).
+     * @return gastos siguientes, del más reciente al más antiguo.
+     */
+    @Query("SELECT g FROM Gasto g WHERE g.usuarioId = :usuario"
+            + " AND (g.fechaRegistro < :fecha OR (g.fechaRegistro = :fecha AND g.id < :id))"
+            + " ORDER BY g.fechaRegistro DESC, g.id DESC")
+    List<Gasto> findPaginaDespuesDe(@Param("usuario") long usuarioId, @Param("fecha") LocalDateTime fecha,
+            @Param("id") Long id, Pageable pageable);
 }
@@ -2,6 +2,12 @@ package com.controlgastos.repository;
 
 import com.controlgastos.model.Ingreso;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
+
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -35,13 +41,38 @@ import java.util.Optional;
 public interface IngresoRepository extends JpaRepository<Ingreso, Long> {
 
     /**
-     * Obtiene el ingreso más reciente registrado en la base de datos.
+     * Obtiene el ingreso más reciente de un usuario.
      *
      * <p>
-     * Ordena los ingresos por ID en orden descendente y devuelve el primero.
+     * Ordena los ingresos del usuario por ID en orden descendente y devuelve
+     * el primero, usando el índice {@code (usuario_id, id)}. El resultado se
+     * guarda en la región {@code ingreso-ultimo} de la caché de consultas;
+     * cualquier inserción en la tabla lo invalida.
      * </p>
      *
+     * @param usuarioId usuario.
      * @return un {@link Optional} que contiene el ingreso más reciente, si existe.
      */
-    Optional<Ingreso> findTopByOrderByIdDesc();
+    @QueryHints({ @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "ingreso-ultimo") })
+    Optional<Ingreso> findTopByUsuarioIdOrderByIdDesc(long usuarioId);
+
+    /**
+     * Suma el monto de los ingresos de cada usuario.
+     *
+     * @return filas {@code [Long usuarioId, Long centavos]}, una por usuario
+     *         con ingresos.
+     */
+    @Query("SELECT i.usuarioId, SUM(i.monto) FROM Ingreso i GROUP BY i.usuarioId")
+    List<Object[]> sumarMontosPorUsuario();
+
+    /**
+     * Suma los montos por usuario y día de registro.
+     *
+     * @return filas {@code [Long usuarioId, java.sql.Date dia, Long centavos]},
+     *         una por usuario y día con ingresos.
+     */
+    @Query("SELECT i.usuarioId, CAST(i.fechaRegistro AS date), SUM(i.monto) FROM Ingreso i"
+            + " GROUP BY i.usuarioId, CAST(i.fechaRegistro AS date)")
+    List<Object[]> sumarMontosPorDia();
 }
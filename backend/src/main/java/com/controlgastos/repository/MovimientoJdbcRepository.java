@@ -0,0 +1,267 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.Gasto;
+import com.controlgastos.model.Ingreso;
+import com.controlgastos.model.Movimiento;
+import com.controlgastos.model.TipoMovimiento;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Acceso JDBC a gastos e ingresos para recorridos completos e inserciones
+ * masivas.
+ *
+ * <p>
+ * A diferencia de {@code findAll()}, no construye una lista ni entidades
+ * administradas: recorre un cursor {@code TYPE_FORWARD_ONLY} /
+ * {@code CONCUR_READ_ONLY} con {@code fetchSize} acotado y entrega cada fila
+ * como valores primitivos a un {@link LectorFila}. La memoria usada no depende
+ * del número de filas.
+ * </p>
+ *
+ * <p>
+ * <strong>Uso típico:</strong> escribir respuestas en streaming (NDJSON,
+ * exportaciones) directamente mientras se leen las filas, e importar
+ * históricos con {@link #insertar} sin el costo de entidades administradas.
+ * </p>
+ */
+@Repository
+public class MovimientoJdbcRepository {
+
+    /** Filas que el driver trae por viaje. */
+    static final int FETCH_SIZE = 500;
+
+    /**
+     * Incremento de las secuencias de IDs; debe coincidir con el
+     * {@code allocationSize} de {@code Gasto} e {@code Ingreso}.
+     */
+    static final int INCREMENTO_SECUENCIA = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate plantilla JDBC de la aplicación.
+     */
+    public MovimientoJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Recorre los movimientos de un tipo y un usuario en orden de ID dentro de
+     * una transacción de solo lectura. Usa el índice {@code (usuario_id, id)}.
+     *
+     * @param tipo    tipo de movimiento a leer.
+     * @param usuario usuario dueño de los movimientos.
+     * @param lector  receptor de cada fila.
+     */
+    @Transactional(readOnly = true)
+    public void recorrer(TipoMovimiento tipo, long usuario, LectorFila lector) {
+        String sql = "SELECT id, concepto, monto_centavos, fecha_registro FROM " + tipo.getTabla()
+                + " WHERE usuario_id = ? ORDER BY id";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, usuario);
+            return ps;
+        }, (ResultSet rs) -> {
+            lector.leer(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getTimestamp(4));
+        });
+    }
+
+    /**
+     * Recorre los conceptos de todos los movimientos de un tipo, de todos los
+     * usuarios, en orden de ID dentro de una transacción de solo lectura. Para cargar
+     * índices en memoria al arrancar.
+     *
+     * @param tipo   tipo de movimiento a leer.
+     * @param lector receptor de cada fila.
+     */
+    @Transactional(readOnly = true)
+    public void recorrerConceptos(TipoMovimiento tipo, LectorConcepto lector) {
+        String sql = "SELECT usuario_id, id, concepto FROM " + tipo.getTabla() + " ORDER BY id";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (ResultSet rs) -> {
+            lector.leer(rs.getLong(1), rs.getLong(2), rs.getString(3));
+        });
+    }
+
+    /**
+     * Inserta movimientos nuevos en un único lote JDBC, conservando su
+     * {@code fechaRegistro}.
+     *
+     * <p>
+     * Los IDs se reservan de la misma secuencia que usa Hibernate y con la
+     * misma convención del optimizador <em>pooled</em>: cada valor {@code v}
+     * obtenido reserva el bloque {@code (v - 50, v]}. Así no chocan con los IDs
+     * que asigna JPA a las inserciones concurrentes. Cada movimiento queda con
+     * el ID asignado; los que ya traen ID (reservado antes con
+     * {@link #reservarIds}) lo conservan.
+     * </p>
+     *
+     * <p>
+     * Como la inserción no pasa por Hibernate, invalida a mano las consultas
+     * en caché sobre la tabla (p. ej. la del último ingreso), igual que
+     * Hibernate con sus propias escrituras: antes de insertar y otra vez al
+     * terminar la transacción.
+     * </p>
+     *
+     * @param tipo        tipo de los movimientos.
+     * @param movimientos movimientos ya validados.
+     * @return suma de los montos insertados, en centavos.
+     */
+    @Transactional
+    public long insertar(TipoMovimiento tipo, List<? extends Movimiento> movimientos) {
+        invalidarConsultas(tipo);
+        int sinId = 0;
+        for (Movimiento movimiento : movimientos) {
+            if (movimiento.getId() == null) {
+                sinId++;
+            }
+        }
+        long[] reservados = reservarIds(tipo, sinId);
+        long[] ids = new long[movimientos.size()];
+        for (int i = 0, j = 0; i < ids.length; i++) {
+            Long id = movimientos.get(i).getId();
+            ids[i] = id != null ? id : reservados[j++];
+        }
+        String sql = "INSERT INTO " + tipo.getTabla()
+                + " (id, usuario_id, concepto, monto_centavos, fecha_registro) VALUES (?, ?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Movimiento movimiento = movimientos.get(i);
+                ps.setLong(1, ids[i]);
+                ps.setLong(2, movimiento.getUsuarioId());
+                ps.setString(3, movimiento.getConcepto());
+                ps.setLong(4, movimiento.getMontoCentavos());
+                ps.setTimestamp(5, Timestamp.valueOf(movimiento.getFechaRegistro()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return movimientos.size();
+            }
+        });
+        long total = 0;
+        for (int i = 0; i < movimientos.size(); i++) {
+            Movimiento movimiento = movimientos.get(i);
+            movimiento.setId(ids[i]);
+            total = Math.addExact(total, movimiento.getMontoCentavos());
+        }
+        return total;
+    }
+
+    /**
+     * Marca la tabla como modificada en la caché de consultas de Hibernate
+     * durante la transacción actual y al confirmarla o revertirla; mientras
+     * tanto ninguna consulta sobre la tabla se guarda ni se sirve de la caché.
+     */
+    private void invalidarConsultas(TipoMovimiento tipo) {
+        SessionImplementor sesion = entityManager.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor fabrica = sesion.getFactory();
+        Serializable[] espacios = fabrica.getMetamodel()
+                .entityPersister(tipo == TipoMovimiento.GASTO ? Gasto.class : Ingreso.class).getQuerySpaces();
+        String[] tablas = Arrays.copyOf(espacios, espacios.length, String[].class);
+        TimestampsCache timestamps = fabrica.getCache().getTimestampsCache();
+        timestamps.preInvalidate(tablas, sesion);
+        sesion.getActionQueue().registerProcess((exito, s) -> timestamps.invalidate(tablas, s));
+    }
+
+    /**
+     * Devuelve cuáles IDs de un rango ya están insertados. Usa la clave
+     * primaria.
+     *
+     * @param tipo  tipo de movimiento.
+     * @param desde primer ID del rango.
+     * @param hasta último ID del rango, inclusive.
+     * @return IDs existentes en el rango.
+     */
+    public Set<Long> idsExistentes(TipoMovimiento tipo, long desde, long hasta) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM " + tipo.getTabla() + " WHERE id BETWEEN ? AND ?", Long.class, desde, hasta));
+    }
+
+    /**
+     * Reserva {@code cantidad} IDs por bloques de la secuencia, en orden
+     * creciente; dentro de cada bloque son consecutivos.
+     *
+     * @param tipo     tipo de movimiento.
+     * @param cantidad IDs a reservar.
+     * @return IDs reservados.
+     */
+    public long[] reservarIds(TipoMovimiento tipo, int cantidad) {
+        long[] ids = new long[cantidad];
+        int asignados = 0;
+        while (asignados < cantidad) {
+            Long alto = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + tipo.getSecuencia(), Long.class);
+            // Con una secuencia recién creada el primer valor es 1: el bloque no
+            // baja de 1
+            for (long id = Math.max(1, alto - INCREMENTO_SECUENCIA + 1); id <= alto && asignados < cantidad; id++) {
+                ids[asignados++] = id;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Receptor de una fila de movimiento.
+     */
+    @FunctionalInterface
+    public interface LectorFila {
+
+        /**
+         * Procesa una fila. Los errores de escritura deben lanzarse como
+         * {@link java.io.UncheckedIOException} para abortar el recorrido.
+         *
+         * @param id             identificador del movimiento.
+         * @param concepto       concepto del movimiento.
+         * @param montoCentavos  monto en centavos.
+         * @param fechaRegistro  fecha de registro.
+         * @throws SQLException si falla la lectura de la fila.
+         */
+        void leer(long id, String concepto, long montoCentavos, Timestamp fechaRegistro) throws SQLException;
+    }
+
+    /**
+     * Receptor del concepto de un movimiento y su usuario.
+     */
+    @FunctionalInterface
+    public interface LectorConcepto {
+
+        /**
+         * Procesa una fila.
+         *
+         * @param usuarioId usuario dueño del movimiento.
+         * @param id        identificador del movimiento.
+         * @param concepto  concepto del movimiento.
+         */
+        void leer(long usuarioId, long id, String concepto);
+    }
+}
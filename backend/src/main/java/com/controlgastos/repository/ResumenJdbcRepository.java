@@ -0,0 +1,112 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.PeriodoResumen;
+import com.controlgastos.model.TipoMovimiento;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Escrituras atómicas sobre la tabla {@code resumen_movimiento}.
+ *
+ * <p>
+ * Se usa JDBC en lugar de entidades para que la actualización sea un único
+ * {@code UPDATE ... SET total = total + ?} sin lectura previa, y para que un
+ * conflicto de clave al insertar (dos transacciones creando el mismo día a
+ * la vez) no marque como fallida la transacción del movimiento.
+ * </p>
+ */
+@Repository
+public class ResumenJdbcRepository {
+
+    private static final String SUMAR = "UPDATE resumen_movimiento SET total = total + ?, "
+            + "cantidad = cantidad + ?, minimo = LEAST(minimo, ?), maximo = GREATEST(maximo, ?) "
+            + "WHERE tipo = ? AND periodo = ? AND usuario_id = ? AND fecha = ?";
+
+    private static final String INSERTAR = "INSERT INTO resumen_movimiento "
+            + "(tipo, periodo, usuario_id, fecha, total, cantidad, minimo, maximo) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate plantilla JDBC de la aplicación.
+     */
+    public ResumenJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Suma movimientos a un resumen, creándolo si no existe.
+     *
+     * <p>
+     * <strong>Flujo:</strong>
+     * </p>
+     * <ol>
+     * <li>Intenta el {@code UPDATE} atómico.</li>
+     * <li>Si no había fila, la inserta.</li>
+     * <li>Si otra transacción la insertó primero, repite el
+     * {@code UPDATE}.</li>
+     * </ol>
+     *
+     * @param tipo      gasto o ingreso.
+     * @param periodo   día o mes.
+     * @param usuarioId usuario.
+     * @param fecha     inicio del periodo.
+     * @param total     suma de montos a agregar, en centavos.
+     * @param cantidad  número de movimientos a agregar.
+     * @param minimo    monto mínimo de los movimientos agregados.
+     * @param maximo    monto máximo de los movimientos agregados.
+     */
+    public void sumar(TipoMovimiento tipo, PeriodoResumen periodo, long usuarioId, LocalDate fecha, long total,
+            long cantidad, long minimo, long maximo) {
+        Date dia = Date.valueOf(fecha);
+        if (jdbcTemplate.update(SUMAR, total, cantidad, minimo, maximo, tipo.name(), periodo.name(), usuarioId,
+                dia) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERTAR, tipo.name(), periodo.name(), usuarioId, dia, total, cantidad, minimo,
+                    maximo);
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(SUMAR, total, cantidad, minimo, maximo, tipo.name(), periodo.name(), usuarioId,
+                    dia);
+        }
+    }
+
+    /**
+     * Recalcula todos los resúmenes de un tipo desde la tabla de movimientos:
+     * primero los diarios con un {@code GROUP BY} por usuario y día sobre los
+     * movimientos, y luego los mensuales a partir de los diarios.
+     *
+     * <p>
+     * Debe ejecutarse dentro de una transacción para que el borrado y la
+     * recarga se vean a la vez.
+     * </p>
+     *
+     * @param tipo gasto o ingreso.
+     * @return número de resúmenes diarios creados.
+     */
+    public int reconstruir(TipoMovimiento tipo) {
+        jdbcTemplate.update("DELETE FROM resumen_movimiento WHERE tipo = ?", tipo.name());
+        int dias = jdbcTemplate.update("INSERT INTO resumen_movimiento "
+                + "(tipo, periodo, usuario_id, fecha, total, cantidad, minimo, maximo) "
+                + "SELECT ?, ?, usuario_id, CAST(fecha_registro AS DATE), SUM(monto_centavos), COUNT(*), "
+                + "MIN(monto_centavos), MAX(monto_centavos) FROM " + tipo.getTabla()
+                + " GROUP BY usuario_id, CAST(fecha_registro AS DATE)",
+                tipo.name(), PeriodoResumen.DIA.name());
+        jdbcTemplate.update("INSERT INTO resumen_movimiento "
+                + "(tipo, periodo, usuario_id, fecha, total, cantidad, minimo, maximo) "
+                + "SELECT tipo, ?, usuario_id, CAST(DATE_TRUNC('MONTH', fecha) AS DATE), SUM(total), "
+                + "SUM(cantidad), MIN(minimo), MAX(maximo) FROM resumen_movimiento "
+                + "WHERE tipo = ? AND periodo = ? "
+                + "GROUP BY tipo, usuario_id, CAST(DATE_TRUNC('MONTH', fecha) AS DATE)",
+                PeriodoResumen.MES.name(), tipo.name(), PeriodoResumen.DIA.name());
+        return dias;
+    }
+}
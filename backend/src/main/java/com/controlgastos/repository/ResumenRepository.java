@@ -0,0 +1,34 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.PeriodoResumen;
+import com.controlgastos.model.ResumenMovimiento;
+import com.controlgastos.model.TipoMovimiento;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositorio de lectura para {@link ResumenMovimiento}.
+ *
+ * <p>
+ * Las escrituras incrementales y la reconstrucción se hacen con SQL atómico
+ * en {@link ResumenJdbcRepository}.
+ * </p>
+ */
+public interface ResumenRepository extends JpaRepository<ResumenMovimiento, ResumenMovimiento.Clave> {
+
+    /**
+     * Resúmenes de un usuario en un rango de periodos, usando la clave
+     * primaria; el costo depende del número de periodos, no de movimientos.
+     *
+     * @param tipo      gasto o ingreso.
+     * @param periodo   día o mes.
+     * @param usuarioId usuario.
+     * @param desde     primer periodo incluido.
+     * @param hasta     último periodo incluido.
+     * @return resúmenes en orden de fecha.
+     */
+    List<ResumenMovimiento> findByTipoAndPeriodoAndUsuarioIdAndFechaBetweenOrderByFecha(TipoMovimiento tipo,
+            PeriodoResumen periodo, long usuarioId, LocalDate desde, LocalDate hasta);
+}
@@ -1,8 +1,9 @@
 package com.controlgastos.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
-import java.util.Optional;
+import java.util.List;
 import com.controlgastos.model.User;
 
 /**
@@ -13,22 +14,16 @@ import com.controlgastos.model.User;
  *
  * <p><strong>Consultas personalizadas:</strong></p>
  * <ul>
- *   <li>{@code findByUsername(String username)}: busca un usuario por su nombre de usuario.</li>
+ *   <li>{@code findByUsername(String username)}: busca un usuario por su nombre de usuario
+ *       ({@link UserRepositoryCustom}, con la caché de natural id).</li>
  *   <li>{@code existsByUsername(String username)}: verifica si ya existe un usuario con ese nombre.</li>
+ *   <li>{@code findAllUsernames()}: lista sólo los nombres de usuario, para el filtro de Bloom.</li>
  * </ul>
  *
  * <p><strong>Uso típico:</strong> Autenticación, validación de registro, y gestión de usuarios.</p>
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-
-    /**
-     * Busca un usuario por su nombre de usuario.
-     *
-     * @param username nombre de usuario a buscar.
-     * @return un {@link Optional} que contiene el usuario si existe.
-     */
-    Optional<User> findByUsername(String username);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
     /**
      * Verifica si ya existe un usuario con el nombre de usuario especificado.
@@ -37,4 +32,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return {@code true} si el usuario existe, {@code false} en caso contrario.
      */
     boolean existsByUsername(String username);
+
+    /**
+     * Lista todos los nombres de usuario, sin cargar las entidades. Omite el
+     * usuario global, que no tiene nombre.
+     *
+     * @return nombres de usuario registrados.
+     */
+    @Query("select u.username from User u where u.username is not null")
+    List<String> findAllUsernames();
 }
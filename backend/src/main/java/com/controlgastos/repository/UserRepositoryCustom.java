@@ -0,0 +1,20 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.User;
+
+import java.util.Optional;
+
+/**
+ * Consultas de {@link UserRepository} implementadas a mano en
+ * {@link UserRepositoryImpl}.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Busca un usuario por su nombre de usuario.
+     *
+     * @param username nombre de usuario a buscar.
+     * @return un {@link Optional} que contiene el usuario si existe.
+     */
+    Optional<User> findByUsername(String username);
+}
@@ -0,0 +1,31 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.User;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Optional;
+
+/**
+ * Búsqueda de usuarios por natural id.
+ *
+ * <p>
+ * A diferencia de una consulta derivada, {@code bySimpleNaturalId} resuelve
+ * el nombre con la región {@code usuarios-nombre} y carga la entidad desde
+ * {@code usuarios}; sólo consulta la base de datos si alguna de las dos no lo
+ * tiene.
+ * </p>
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(username);
+    }
+}
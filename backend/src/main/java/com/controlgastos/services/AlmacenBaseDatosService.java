@@ -0,0 +1,59 @@
+package com.controlgastos.services;
+
+import com.controlgastos.dto.ResultadoLote;
+import com.controlgastos.model.Gasto;
+import com.controlgastos.model.Ingreso;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Almacén de movimientos en la base de datos, por JPA.
+ *
+ * <p>
+ * Los movimientos individuales pasan por {@link EscrituraAgrupadaService}
+ * (una transacción por grupo de peticiones concurrentes) y las listas por
+ * {@link MovimientoService} (una transacción por lista).
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = "movimientos.almacen", havingValue = "base-datos", matchIfMissing = true)
+public class AlmacenBaseDatosService implements AlmacenMovimientos {
+
+    private final EscrituraAgrupadaService escrituraAgrupadaService;
+    private final MovimientoService movimientoService;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param escrituraAgrupadaService etapa de group commit.
+     * @param movimientoService        servicio de registro por lotes.
+     */
+    public AlmacenBaseDatosService(EscrituraAgrupadaService escrituraAgrupadaService,
+            MovimientoService movimientoService) {
+        this.escrituraAgrupadaService = escrituraAgrupadaService;
+        this.movimientoService = movimientoService;
+    }
+
+    @Override
+    public CompletableFuture<Gasto> registrarGasto(Gasto gasto) {
+        return escrituraAgrupadaService.registrarGasto(gasto);
+    }
+
+    @Override
+    public CompletableFuture<Ingreso> registrarIngreso(Ingreso ingreso) {
+        return escrituraAgrupadaService.registrarIngreso(ingreso);
+    }
+
+    @Override
+    public ResultadoLote registrarGastos(List<Gasto> gastos) {
+        return movimientoService.registrarGastos(gastos);
+    }
+
+    @Override
+    public ResultadoLote registrarIngresos(List<Ingreso> ingresos) {
+        return movimientoService.registrarIngresos(ingresos);
+    }
+}
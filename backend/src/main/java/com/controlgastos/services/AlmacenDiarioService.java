@@ -0,0 +1,531 @@
+package com.controlgastos.services;
+
+import com.controlgastos.dto.ResultadoItem;
+import com.controlgastos.dto.ResultadoLote;
+import com.controlgastos.model.Dinero;
+import com.controlgastos.model.Gasto;
+import com.controlgastos.model.Ingreso;
+import com.controlgastos.model.Movimiento;
+import com.controlgastos.model.TipoMovimiento;
+import com.controlgastos.repository.MovimientoJdbcRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Almacén de movimientos que escribe en un {@link DiarioMovimientos} en lugar
+ * de pasar por JPA; se activa con {@code movimientos.almacen=diario}.
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>El controlador entrega el movimiento validado. Se le asigna un ID de la
+ * secuencia de su tabla (reservados de a {@code diario.ids.bloque}, fuera del
+ * monitor del diario) y se anexa al diario como un registro binario de tamaño
+ * fijo. Una lista se anexa como un lote atómico: o quedan todos sus
+ * movimientos o ninguno.</li>
+ * <li>Un hilo sincronizador vuelca el diario al disco con un único fsync por
+ * grupo: espera a lo sumo {@code diario.fsync.max-espera-ms} desde el primer
+ * registro pendiente, o menos si se juntan
+ * {@code diario.fsync.max-registros}. Entonces completa las respuestas del
+ * grupo. Con {@code diario.fsync.esperar=false} se responde sin esperar al
+ * fsync.</li>
+ * <li>Un hilo proyector copia los registros ya durables a la base de datos
+ * con {@link MovimientoService#registrarDiario}, de a
+ * {@code diario.proyeccion.max-lote} por transacción, y recién entonces se
+ * aplican al saldo, los resúmenes y los índices.</li>
+ * <li>Cada {@code diario.compactacion.intervalo-ms} se borran los segmentos
+ * que ya estaban completos en la base de datos en la compactación
+ * anterior.</li>
+ * </ol>
+ *
+ * <p>
+ * Al arrancar, el diario recupera su fin y el proyector vuelve a copiar desde
+ * el segmento más antiguo conservado, omitiendo los IDs que ya están en la
+ * base de datos: así se recuperan también las confirmaciones recientes que la
+ * base de datos haya perdido en una caída. Si hay más de
+ * {@code diario.max-pendientes} movimientos sin copiar, o si falló un fsync,
+ * se rechazan las escrituras y el controlador responde 503.
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = "movimientos.almacen", havingValue = "diario")
+public class AlmacenDiarioService implements AlmacenMovimientos {
+
+    private static final Logger log = LoggerFactory.getLogger(AlmacenDiarioService.class);
+
+    /** Espera de los hilos cuando no hay nada pendiente. */
+    private static final long ESPERA_INACTIVO_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** Espera antes de reintentar una copia fallida. */
+    private static final long ESPERA_REINTENTO_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MovimientoService movimientoService;
+    private final MovimientoJdbcRepository movimientoJdbcRepository;
+    private final MeterRegistry registro;
+    private final String directorio;
+    private final int registrosPorSegmento;
+    private final long ventanaNanos;
+    private final long maxSinSincronizar;
+    private final boolean esperarFsync;
+    private final long maxPendientes;
+    private final int maxLoteProyeccion;
+    private final int bloqueIds;
+
+    /** Respuestas que esperan un fsync, en orden de posición. */
+    private final Queue<Espera> esperas = new ConcurrentLinkedQueue<>();
+
+    /** IDs reservados por tipo. */
+    private final ReservaIds[] reservas = new ReservaIds[TipoMovimiento.values().length];
+
+    private DiarioMovimientos diario;
+    private Timer fsync;
+
+    /** Fin del diario al arrancar: hasta ahí puede haber registros ya insertados. */
+    private long finRecuperacion;
+
+    private Thread sincronizador;
+    private Thread proyector;
+    private volatile boolean activo = true;
+    private volatile boolean averiado;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param movimientoService        servicio que copia los registros a la
+     *                                 base de datos.
+     * @param movimientoJdbcRepository reserva de IDs y consulta de IDs ya
+     *                                 insertados.
+     * @param registro                 registro de métricas.
+     * @param directorio               directorio del diario.
+     * @param registrosPorSegmento     registros por archivo de segmento.
+     * @param maxEsperaMs              espera máxima para agrupar un fsync.
+     * @param maxSinSincronizar        registros que adelantan el fsync.
+     * @param esperarFsync             {@code false} para responder antes del
+     *                                 fsync.
+     * @param maxPendientes            movimientos sin copiar antes de rechazar
+     *                                 escrituras.
+     * @param maxLoteProyeccion        movimientos por transacción de copia.
+     * @param bloqueIds                IDs reservados de la secuencia por vez.
+     */
+    public AlmacenDiarioService(MovimientoService movimientoService,
+            MovimientoJdbcRepository movimientoJdbcRepository, MeterRegistry registro,
+            @Value("${diario.directorio:${user.home}/control-diario}") String directorio,
+            @Value("${diario.segmento.registros:1048576}") int registrosPorSegmento,
+            @Value("${diario.fsync.max-espera-ms:2}") long maxEsperaMs,
+            @Value("${diario.fsync.max-registros:65536}") long maxSinSincronizar,
+            @Value("${diario.fsync.esperar:true}") boolean esperarFsync,
+            @Value("${diario.max-pendientes:1000000}") long maxPendientes,
+            @Value("${diario.proyeccion.max-lote:5000}") int maxLoteProyeccion,
+            @Value("${diario.ids.bloque:1000}") int bloqueIds) {
+        this.movimientoService = movimientoService;
+        this.movimientoJdbcRepository = movimientoJdbcRepository;
+        this.registro = registro;
+        this.directorio = directorio;
+        this.registrosPorSegmento = registrosPorSegmento;
+        this.ventanaNanos = TimeUnit.MILLISECONDS.toNanos(maxEsperaMs);
+        this.maxSinSincronizar = maxSinSincronizar;
+        this.esperarFsync = esperarFsync;
+        this.maxPendientes = maxPendientes;
+        this.maxLoteProyeccion = maxLoteProyeccion;
+        this.bloqueIds = bloqueIds;
+        for (int i = 0; i < reservas.length; i++) {
+            reservas[i] = new ReservaIds();
+        }
+    }
+
+    /**
+     * Abre el diario, recupera su fin y arranca los hilos sincronizador y
+     * proyector.
+     *
+     * @throws IOException si no se puede abrir el diario.
+     */
+    @PostConstruct
+    public void iniciar() throws IOException {
+        diario = new DiarioMovimientos(Paths.get(directorio), registrosPorSegmento);
+        finRecuperacion = diario.fin();
+        if (finRecuperacion > diario.proyectado()) {
+            log.info("Diario {}: {} movimientos por copiar a la base de datos", directorio,
+                    finRecuperacion - diario.proyectado());
+        }
+        diario.marcarProyectado(diario.inicio());
+
+        fsync = Timer.builder("diario.fsync").description("Duración de cada volcado del diario al disco")
+                .register(registro);
+        FunctionCounter.builder("diario.registros", diario, DiarioMovimientos::fin)
+                .description("Movimientos anexados al diario").register(registro);
+        Gauge.builder("diario.pendientes", diario, d -> d.fin() - d.proyectado())
+                .description("Movimientos del diario aún no copiados a la base de datos").register(registro);
+        Gauge.builder("diario.segmentos", diario, DiarioMovimientos::cantidadSegmentos)
+                .description("Archivos de segmento del diario").register(registro);
+
+        sincronizador = new Thread(this::sincronizar, "diario-sincronizador");
+        sincronizador.start();
+        proyector = new Thread(this::proyectar, "diario-proyector");
+        proyector.start();
+    }
+
+    /**
+     * Deja de aceptar movimientos, vuelca los pendientes, intenta copiarlos a
+     * la base de datos y cierra el diario. Lo que no se copie queda para el
+     * siguiente arranque.
+     *
+     * @throws InterruptedException si se interrumpe la espera.
+     * @throws IOException          si falla el cierre del diario.
+     */
+    @PreDestroy
+    public void cerrar() throws InterruptedException, IOException {
+        activo = false;
+        LockSupport.unpark(sincronizador);
+        sincronizador.join();
+        LockSupport.unpark(proyector);
+        proyector.join();
+        diario.close();
+    }
+
+    @Override
+    public CompletableFuture<Gasto> registrarGasto(Gasto gasto) {
+        CompletableFuture<Void> durable = anexar(TipoMovimiento.GASTO, Collections.singletonList(gasto));
+        return durable == null ? null : durable.thenApply(v -> gasto);
+    }
+
+    @Override
+    public CompletableFuture<Ingreso> registrarIngreso(Ingreso ingreso) {
+        CompletableFuture<Void> durable = anexar(TipoMovimiento.INGRESO, Collections.singletonList(ingreso));
+        return durable == null ? null : durable.thenApply(v -> ingreso);
+    }
+
+    @Override
+    public ResultadoLote registrarGastos(List<Gasto> gastos) {
+        return registrarLote(TipoMovimiento.GASTO, gastos);
+    }
+
+    @Override
+    public ResultadoLote registrarIngresos(List<Ingreso> ingresos) {
+        return registrarLote(TipoMovimiento.INGRESO, ingresos);
+    }
+
+    /**
+     * Borra los segmentos que ya estaban completos en la base de datos en la
+     * compactación anterior.
+     */
+    @Scheduled(fixedDelayString = "${diario.compactacion.intervalo-ms:60000}")
+    public void compactar() {
+        try {
+            int borrados = diario.compactar();
+            if (borrados > 0) {
+                log.debug("Diario: {} segmentos borrados", borrados);
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo compactar el diario", e);
+        }
+    }
+
+    /**
+     * Valida cada elemento, anexa los válidos y espera a que sean durables.
+     */
+    private <T extends Movimiento> ResultadoLote registrarLote(TipoMovimiento tipo, List<T> movimientos) {
+        ResultadoItem[] resultados = new ResultadoItem[movimientos.size()];
+        List<T> validos = new ArrayList<>(movimientos.size());
+        List<Integer> indices = new ArrayList<>(movimientos.size());
+        for (int i = 0; i < movimientos.size(); i++) {
+            List<String> errores = movimientoService.validar(movimientos.get(i));
+            if (errores.isEmpty()) {
+                validos.add(movimientos.get(i));
+                indices.add(i);
+            } else {
+                resultados[i] = new ResultadoItem(i, null, errores);
+            }
+        }
+        if (!validos.isEmpty()) {
+            CompletableFuture<Void> durable = anexar(tipo, validos);
+            if (durable == null) {
+                return null;
+            }
+            try {
+                durable.join();
+            } catch (CompletionException e) {
+                throw new UncheckedIOException((IOException) e.getCause());
+            }
+        }
+        for (int i = 0; i < validos.size(); i++) {
+            resultados[indices.get(i)] = new ResultadoItem(indices.get(i), validos.get(i).getId(),
+                    Collections.<String>emptyList());
+        }
+        return new ResultadoLote(movimientos.size(), validos.size(), Arrays.asList(resultados));
+    }
+
+    /**
+     * Asigna ID y fecha a cada movimiento y los anexa al diario como un lote
+     * atómico.
+     *
+     * @return futuro que se completa cuando los movimientos son durables, o
+     *         {@code null} si se rechazan.
+     * @throws UncheckedIOException si falla la escritura; en ese caso no se
+     *                              anexó ninguno.
+     */
+    private CompletableFuture<Void> anexar(TipoMovimiento tipo, List<? extends Movimiento> movimientos) {
+        if (!activo || diario.fin() - diario.proyectado() + movimientos.size() > maxPendientes) {
+            return null;
+        }
+        // Fuera del monitor: reservar un bloque nuevo va a la base de datos
+        long[] nuevos = tomarIds(tipo, movimientos.size());
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        boolean despertar;
+        synchronized (this) {
+            if (averiado) {
+                return null;
+            }
+            long previo = diario.fin();
+            for (int i = 0; i < movimientos.size(); i++) {
+                Movimiento movimiento = movimientos.get(i);
+                movimiento.setId(nuevos[i]);
+                fijarFecha(movimiento, (movimiento.getFechaRegistro() == null ? LocalDateTime.now()
+                        : movimiento.getFechaRegistro()).truncatedTo(ChronoUnit.MILLIS));
+            }
+            try {
+                diario.agregar(tipo, movimientos);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            long fin = diario.fin();
+            long durables = diario.durable();
+            // El sincronizador espera hasta que hay algo pendiente o se junta un
+            // grupo completo
+            despertar = previo == durables || fin - durables >= maxSinSincronizar;
+            if (esperarFsync) {
+                esperas.add(new Espera(fin, durable));
+            } else {
+                durable.complete(null);
+            }
+        }
+        if (despertar) {
+            LockSupport.unpark(sincronizador);
+        }
+        return durable;
+    }
+
+    /**
+     * Toma {@code cantidad} IDs reservados del tipo. Si no alcanzan, reserva
+     * otro bloque sin tener tomado ningún monitor: sólo espera a la base de
+     * datos quien se quedó sin IDs.
+     */
+    private long[] tomarIds(TipoMovimiento tipo, int cantidad) {
+        ReservaIds reserva = reservas[tipo.ordinal()];
+        long[] tomados = new long[cantidad];
+        int cuantos = reserva.tomar(tomados, 0);
+        while (cuantos < cantidad) {
+            reserva.agregar(movimientoJdbcRepository.reservarIds(tipo, Math.max(bloqueIds, cantidad - cuantos)));
+            cuantos = reserva.tomar(tomados, cuantos);
+        }
+        return tomados;
+    }
+
+    private static void fijarFecha(Movimiento movimiento, LocalDateTime fecha) {
+        if (movimiento instanceof Gasto) {
+            ((Gasto) movimiento).setFechaRegistro(fecha);
+        } else {
+            ((Ingreso) movimiento).setFechaRegistro(fecha);
+        }
+    }
+
+    /**
+     * Bucle del hilo sincronizador; termina cuando se cierra y no quedan
+     * registros sin volcar, o si falla un fsync.
+     */
+    private void sincronizar() {
+        while (activo || diario.durable() < diario.fin()) {
+            if (diario.durable() == diario.fin()) {
+                LockSupport.parkNanos(ESPERA_INACTIVO_NANOS);
+                continue;
+            }
+            long limite = System.nanoTime() + ventanaNanos;
+            long restante;
+            while (activo && diario.fin() - diario.durable() < maxSinSincronizar
+                    && (restante = limite - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(restante);
+            }
+            long inicio = System.nanoTime();
+            long durable;
+            try {
+                durable = diario.forzar();
+            } catch (IOException e) {
+                // Tras un fsync fallido no se sabe qué llegó al disco: no se
+                // reintenta
+                log.error("No se pudo volcar el diario; se rechazan las escrituras", e);
+                synchronized (this) {
+                    averiado = true;
+                    Espera espera;
+                    while ((espera = esperas.poll()) != null) {
+                        espera.futuro.completeExceptionally(e);
+                    }
+                }
+                return;
+            }
+            fsync.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            Espera espera;
+            while ((espera = esperas.peek()) != null && espera.posicion <= durable) {
+                esperas.poll();
+                espera.futuro.complete(null);
+            }
+            LockSupport.unpark(proyector);
+        }
+    }
+
+    /**
+     * Bucle del hilo proyector; al cerrar, termina cuando copió todo lo
+     * durable o si falla la copia.
+     */
+    private void proyectar() {
+        while (true) {
+            long desde = diario.proyectado();
+            long hasta = Math.min(diario.durable(), desde + maxLoteProyeccion);
+            if (desde == hasta) {
+                if (!activo && !sincronizador.isAlive()) {
+                    return;
+                }
+                LockSupport.parkNanos(ESPERA_INACTIVO_NANOS);
+                continue;
+            }
+            try {
+                proyectarLote(desde, hasta);
+            } catch (IOException | RuntimeException e) {
+                if (!activo) {
+                    log.warn("Quedan {} movimientos del diario por copiar a la base de datos",
+                            diario.fin() - diario.proyectado(), e);
+                    return;
+                }
+                log.warn("Falló la copia del diario a la base de datos; se reintenta", e);
+                LockSupport.parkNanos(ESPERA_REINTENTO_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Copia los registros de {@code [desde, hasta)} en una transacción y marca
+     * la nueva posición proyectada.
+     */
+    private void proyectarLote(long desde, long hasta) throws IOException {
+        List<Gasto> gastos = new ArrayList<>();
+        List<Ingreso> ingresos = new ArrayList<>();
+        diario.leer(desde, hasta, (tipo, id, usuario, concepto, centavos, fecha) -> {
+            if (tipo == TipoMovimiento.GASTO) {
+                Gasto gasto = new Gasto();
+                gasto.setId(id);
+                gasto.setUsuarioId(usuario);
+                gasto.setConcepto(concepto);
+                gasto.setMonto(Dinero.deCentavos(centavos));
+                gasto.setFechaRegistro(fecha);
+                gastos.add(gasto);
+            } else {
+                Ingreso ingreso = new Ingreso();
+                ingreso.setId(id);
+                ingreso.setUsuarioId(usuario);
+                ingreso.setConcepto(concepto);
+                ingreso.setMonto(Dinero.deCentavos(centavos));
+                ingreso.setFechaRegistro(fecha);
+                ingresos.add(ingreso);
+            }
+        });
+        if (desde < finRecuperacion) {
+            omitirInsertados(TipoMovimiento.GASTO, gastos);
+            omitirInsertados(TipoMovimiento.INGRESO, ingresos);
+        }
+        movimientoService.registrarDiario(gastos, ingresos);
+        diario.marcarProyectado(hasta);
+    }
+
+    /**
+     * Quita los movimientos que la ejecución anterior ya insertó sin llegar a
+     * marcarlos como proyectados.
+     */
+    private void omitirInsertados(TipoMovimiento tipo, List<? extends Movimiento> movimientos) {
+        if (movimientos.isEmpty()) {
+            return;
+        }
+        long minimo = Long.MAX_VALUE;
+        long maximo = Long.MIN_VALUE;
+        for (Movimiento movimiento : movimientos) {
+            minimo = Math.min(minimo, movimiento.getId());
+            maximo = Math.max(maximo, movimiento.getId());
+        }
+        Set<Long> insertados = movimientoJdbcRepository.idsExistentes(tipo, minimo, maximo);
+        movimientos.removeIf(movimiento -> insertados.contains(movimiento.getId()));
+    }
+
+    /**
+     * Bloques de IDs reservados de un tipo, con su propio monitor. Si dos
+     * hilos reservan a la vez, el bloque sobrante queda para los siguientes.
+     */
+    private static final class ReservaIds {
+        private final ArrayDeque<long[]> bloques = new ArrayDeque<>();
+        private int usados;
+
+        /**
+         * Copia IDs en {@code destino} desde la posición {@code desde}.
+         *
+         * @return posición siguiente al último ID copiado.
+         */
+        synchronized int tomar(long[] destino, int desde) {
+            int cuantos = desde;
+            while (cuantos < destino.length && !bloques.isEmpty()) {
+                long[] bloque = bloques.peek();
+                int copiar = Math.min(destino.length - cuantos, bloque.length - usados);
+                System.arraycopy(bloque, usados, destino, cuantos, copiar);
+                cuantos += copiar;
+                usados += copiar;
+                if (usados == bloque.length) {
+                    bloques.poll();
+                    usados = 0;
+                }
+            }
+            return cuantos;
+        }
+
+        synchronized void agregar(long[] bloque) {
+            bloques.add(bloque);
+        }
+    }
+
+    /**
+     * Respuesta que se completa cuando el diario es durable hasta
+     * {@code posicion}.
+     */
+    private static final class Espera {
+        private final long posicion;
+        private final CompletableFuture<Void> futuro;
+
+        Espera(long posicion, CompletableFuture<Void> futuro) {
+            this.posicion = posicion;
+            this.futuro = futuro;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.controlgastos.services;
+
+import com.controlgastos.dto.ResultadoLote;
+import com.controlgastos.model.Gasto;
+import com.controlgastos.model.Ingreso;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Camino de escritura de gastos e ingresos que usan {@code GastoController} e
+ * {@code IngresoController}.
+ *
+ * <p>
+ * La implementación se elige con {@code movimientos.almacen}:
+ * </p>
+ * <ul>
+ * <li>{@code base-datos} (por omisión): {@link AlmacenBaseDatosService}, con
+ * JPA y <em>group commit</em>.</li>
+ * <li>{@code diario}: {@link AlmacenDiarioService}, que anexa los movimientos
+ * a un diario en disco y los copia después a la base de datos.</li>
+ * </ul>
+ *
+ * <p>
+ * En ambos casos el movimiento es durable cuando se completa la respuesta,
+ * y las consultas, el saldo y los índices lo reflejan cuando llega a la base
+ * de datos.
+ * </p>
+ */
+public interface AlmacenMovimientos {
+
+    /**
+     * Registra un gasto ya validado, con su usuario asignado.
+     *
+     * @param gasto gasto a registrar.
+     * @return futuro que se completa con el gasto registrado, o {@code null} si
+     *         hay demasiadas escrituras pendientes.
+     */
+    CompletableFuture<Gasto> registrarGasto(Gasto gasto);
+
+    /**
+     * Registra un ingreso ya validado, con su usuario asignado.
+     *
+     * @param ingreso ingreso a registrar.
+     * @return futuro que se completa con el ingreso registrado, o {@code null}
+     *         si hay demasiadas escrituras pendientes.
+     */
+    CompletableFuture<Ingreso> registrarIngreso(Ingreso ingreso);
+
+    /**
+     * Registra una lista de gastos con su usuario asignado; los inválidos se
+     * rechazan uno a uno.
+     *
+     * @param gastos gastos a registrar.
+     * @return resultado por elemento, o {@code null} si hay demasiadas
+     *         escrituras pendientes.
+     */
+    ResultadoLote registrarGastos(List<Gasto> gastos);
+
+    /**
+     * Registra una lista de ingresos con su usuario asignado; los inválidos se
+     * rechazan uno a uno.
+     *
+     * @param ingresos ingresos a registrar.
+     * @return resultado por elemento, o {@code null} si hay demasiadas
+     *         escrituras pendientes.
+     */
+    ResultadoLote registrarIngresos(List<Ingreso> ingresos);
+}
@@ -1,10 +1,12 @@
 package com.controlgastos.services;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import com.controlgastos.model.User;
 import com.controlgastos.repository.UserRepository;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Servicio de autenticación y registro de usuarios.
@@ -12,50 +14,96 @@ import java.util.Optional;
  * <p>Proporciona lógica para validar credenciales y registrar nuevos usuarios
  * en el sistema de control de gastos.</p>
  *
- * <p><strong>Advertencia:</strong> Esta implementación compara contraseñas en texto plano.
- * Se recomienda aplicar cifrado (e.g., BCrypt) para producción.</p>
+ * <p>Las contraseñas se guardan con hash BCrypt. Todo el trabajo (consulta,
+ * hash y guardado) corre en el pool acotado de {@link HashContrasenasService},
+ * no en el hilo de la petición; si el pool está saturado, los métodos
+ * devuelven {@code null} y el controlador responde 503.</p>
+ *
+ * <p>Los usuarios se buscan con {@link UsuariosService}, que descarta los
+ * nombres inexistentes sin consultar la base de datos. Aun así, el rechazo
+ * de un usuario inexistente paga un hash ficticio en el mismo pool, para que
+ * el tiempo de respuesta no revele qué nombres existen.</p>
+ *
+ * <p>Las contraseñas heredadas en texto plano se siguen aceptando y se
+ * reemplazan por su hash en el primer inicio de sesión correcto.</p>
  */
 @Service
 public class AuthService {
 
     private final UserRepository userRepository;
+    private final UsuariosService usuariosService;
+    private final HashContrasenasService hashContrasenasService;
 
     /**
      * Constructor con inyección de dependencias.
      *
-     * @param userRepository repositorio de usuarios.
+     * @param userRepository         repositorio de usuarios.
+     * @param usuariosService        búsqueda de usuarios con filtro de Bloom y
+     *                               caché.
+     * @param hashContrasenasService hash de contraseñas en un pool propio.
      */
-    public AuthService(UserRepository userRepository) {
+    public AuthService(UserRepository userRepository, UsuariosService usuariosService,
+            HashContrasenasService hashContrasenasService) {
         this.userRepository = userRepository;
+        this.usuariosService = usuariosService;
+        this.hashContrasenasService = hashContrasenasService;
     }
 
     /**
      * Valida si el usuario existe y si la contraseña coincide.
      *
+     * <p>Si coincide y la contraseña guardada está en texto plano (o con un
+     * costo menor al configurado), guarda su nuevo hash.</p>
+     *
      * @param username nombre de usuario.
      * @param password contraseña en texto plano.
-     * @return {@code true} si las credenciales son válidas, {@code false} en caso contrario.
+     * @return futuro con {@code true} si las credenciales son válidas, o
+     *         {@code null} si hay demasiadas autenticaciones pendientes.
      */
-    public boolean validatUser(String username, String password) {
-        Optional<User> userOptional = userRepository.findByUsername(username);
-        return userOptional.map(user -> user.getPassword().equals(password)).orElse(false);
+    public CompletableFuture<Boolean> validatUser(String username, String password) {
+        return hashContrasenasService.ejecutar(() -> {
+            // Un nombre que el filtro de Bloom descarta no consulta la base de
+            // datos, pero paga el mismo hash que una contraseña incorrecta
+            Optional<User> userOptional = usuariosService.buscar(username);
+            if (!userOptional.isPresent()) {
+                return hashContrasenasService.simular(password);
+            }
+            if (!hashContrasenasService.coincide(password, userOptional.get().getPassword())) {
+                return false;
+            }
+            User user = userOptional.get();
+            if (hashContrasenasService.requiereRehash(user.getPassword())) {
+                user.setPassword(hashContrasenasService.hashear(password));
+                usuariosService.actualizado(userRepository.save(user));
+            }
+            return true;
+        });
     }
 
     /**
      * Registra un nuevo usuario si el nombre de usuario no está en uso.
      *
      * @param username nombre de usuario deseado.
-     * @param password contraseña en texto plano.
-     * @return {@code true} si el registro fue exitoso, {@code false} si el usuario ya existe.
+     * @param password contraseña en texto plano; se guarda su hash.
+     * @return futuro con {@code true} si el registro fue exitoso y
+     *         {@code false} si el usuario ya existe, o {@code null} si hay
+     *         demasiadas autenticaciones pendientes.
      */
-    public boolean register(String username, String password) {
-        if (userRepository.existsByUsername(username)) {
-            return false;
-        }
-        User user = new User();
-        user.setUsername(username);
-        user.setPassword(password); // ⚠️ Recomendado: aplicar hash antes de guardar
-        userRepository.save(user);
-        return true;
+    public CompletableFuture<Boolean> register(String username, String password) {
+        return hashContrasenasService.ejecutar(() -> {
+            if (usuariosService.existe(username)) {
+                return false;
+            }
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword(hashContrasenasService.hashear(password));
+            try {
+                usuariosService.registrado(userRepository.save(user));
+            } catch (DataIntegrityViolationException e) {
+                // Otro registro simultáneo tomó el mismo nombre
+                return false;
+            }
+            return true;
+        });
     }
 }
@@ -0,0 +1,115 @@
+package com.controlgastos.services;
+
+import com.controlgastos.clasesCalculos.TrieConceptos;
+import com.controlgastos.dto.ConceptoEncontrado;
+import com.controlgastos.model.TipoMovimiento;
+import com.controlgastos.repository.MovimientoJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio de búsqueda por prefijo sobre los conceptos de gastos e ingresos.
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>Al arrancar, recorre ambas tablas con el cursor de
+ * {@link MovimientoJdbcRepository} y carga un {@link TrieConceptos} por
+ * usuario.</li>
+ * <li>Cada movimiento confirmado se registra desde
+ * {@link MovimientoService}.</li>
+ * <li>{@link #buscar} responde desde memoria; no usa {@code LIKE} ni consulta
+ * la base de datos.</li>
+ * </ol>
+ */
+@Service
+public class BusquedaService {
+
+    private static final Logger log = LoggerFactory.getLogger(BusquedaService.class);
+
+    private final MovimientoJdbcRepository movimientoJdbcRepository;
+
+    /** Índice por usuario. */
+    private final Map<Long, TrieConceptos> indices = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param movimientoJdbcRepository acceso por cursor a los movimientos.
+     */
+    public BusquedaService(MovimientoJdbcRepository movimientoJdbcRepository) {
+        this.movimientoJdbcRepository = movimientoJdbcRepository;
+    }
+
+    /**
+     * Carga los índices desde la base de datos al arrancar.
+     */
+    @PostConstruct
+    public void cargar() {
+        long inicio = System.nanoTime();
+        long[] filas = new long[1];
+        for (TipoMovimiento tipo : TipoMovimiento.values()) {
+            movimientoJdbcRepository.recorrerConceptos(tipo, (usuario, id, concepto) -> {
+                indice(usuario).registrar(tipo, concepto, id);
+                filas[0]++;
+            });
+        }
+        log.info("Índice de conceptos cargado: {} movimientos en {} ms", filas[0],
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Registra movimientos confirmados.
+     *
+     * @param usuario   identificador del usuario.
+     * @param tipo      gasto o ingreso.
+     * @param conceptos concepto de cada movimiento.
+     * @param ids       ID de cada movimiento, en el mismo orden.
+     */
+    public void registrar(long usuario, TipoMovimiento tipo, String[] conceptos, long[] ids) {
+        TrieConceptos indice = indice(usuario);
+        synchronized (indice) {
+            for (int i = 0; i < ids.length; i++) {
+                indice.registrar(tipo, conceptos[i], ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Busca conceptos con una palabra que empiece con {@code prefijo}.
+     *
+     * @param usuario identificador del usuario.
+     * @param prefijo texto buscado.
+     * @param limite  cantidad máxima de conceptos.
+     * @param pagina  página de IDs de cada concepto, desde 0.
+     * @param tamano  IDs por página.
+     * @return conceptos de más a menos usados, con una página de sus IDs.
+     */
+    public List<ConceptoEncontrado> buscar(long usuario, String prefijo, int limite, int pagina, int tamano) {
+        List<ConceptoEncontrado> encontrados = new ArrayList<>();
+        TrieConceptos indice = indices.get(usuario);
+        if (indice == null) {
+            return encontrados;
+        }
+        synchronized (indice) {
+            for (TrieConceptos.Concepto concepto : indice.buscar(prefijo, limite)) {
+                encontrados.add(new ConceptoEncontrado(concepto.getConcepto(), concepto.getCantidad(),
+                        concepto.ids(TipoMovimiento.GASTO, pagina, tamano),
+                        concepto.ids(TipoMovimiento.INGRESO, pagina, tamano)));
+            }
+        }
+        return encontrados;
+    }
+
+    private TrieConceptos indice(long usuario) {
+        return indices.computeIfAbsent(usuario, u -> new TrieConceptos());
+    }
+}
@@ -0,0 +1,205 @@
+package com.controlgastos.services;
+
+import com.controlgastos.model.Capital;
+import com.controlgastos.model.Ingreso;
+import com.controlgastos.repository.IngresoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Caché de las respuestas de {@code GET /api/capital} y
+ * {@code GET /api/ingreso} de cada usuario, ya serializadas y con una versión
+ * para el {@code ETag}.
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>Cada escritura confirmada avanza la versión: el saldo, desde
+ * {@link MovimientoService} y {@link CheckpointSaldosService}; el último
+ * ingreso se escribe además en la caché (<em>write-through</em>), así que
+ * {@code GET /api/ingreso} no vuelve a consultar la base de datos.</li>
+ * <li>La primera lectura de cada versión serializa la respuesta; las
+ * siguientes reutilizan los mismos bytes.</li>
+ * <li>El {@code ETag} es el usuario y la versión más un identificador del
+ * arranque; si el cliente ya la tiene, el controlador responde 304 sin
+ * cuerpo.</li>
+ * </ol>
+ *
+ * <p>
+ * El último ingreso de cada usuario se lee de la base de datos la primera vez
+ * que se pide y desde entonces sólo se actualiza por escritura.
+ * </p>
+ */
+@Service
+public class CacheRespuestasService {
+
+    private final ObjectMapper objectMapper;
+    private final IngresoRepository ingresoRepository;
+
+    /** Distingue versiones de arranques distintos, que reinician en 0. */
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Long, DelUsuario> usuarios = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param objectMapper      mapper JSON de la aplicación.
+     * @param ingresoRepository repositorio de ingresos.
+     */
+    public CacheRespuestasService(ObjectMapper objectMapper, IngresoRepository ingresoRepository) {
+        this.objectMapper = objectMapper;
+        this.ingresoRepository = ingresoRepository;
+    }
+
+    /**
+     * Devuelve el capital serializado de la versión actual.
+     *
+     * @param usuario usuario dueño del capital.
+     * @param cargar  construye el capital si la versión cambió.
+     * @return respuesta en caché.
+     */
+    public Respuesta capital(long usuario, Supplier<Capital> cargar) {
+        return delUsuario(usuario).capital.obtener(cargar);
+    }
+
+    /**
+     * Devuelve el último ingreso serializado de la versión actual.
+     *
+     * @param usuario usuario dueño del ingreso.
+     * @return respuesta en caché; sin cuerpo si no hay ingresos.
+     */
+    public Respuesta ultimoIngreso(long usuario) {
+        DelUsuario cache = delUsuario(usuario);
+        if (!cache.ingresoCargado) {
+            // Si llega un ingreso a la vez, registrarIngreso conserva el de
+            // mayor ID
+            ingresoRepository.findTopByUsuarioIdOrderByIdDesc(usuario).ifPresent(this::registrarIngreso);
+            cache.ingresoCargado = true;
+        }
+        return cache.ingreso.obtener(cache.ultimoIngreso::get);
+    }
+
+    /**
+     * Avanza la versión del capital de un usuario. Debe llamarse después de
+     * cambiar su saldo o su último capital persistido.
+     *
+     * @param usuario usuario dueño del capital.
+     */
+    public void invalidarCapital(long usuario) {
+        delUsuario(usuario).capital.invalidar();
+    }
+
+    /**
+     * Escribe en la caché de su usuario un ingreso confirmado si es el de
+     * mayor ID.
+     *
+     * @param nuevo ingreso confirmado.
+     */
+    public void registrarIngreso(Ingreso nuevo) {
+        DelUsuario cache = delUsuario(nuevo.getUsuarioId());
+        Ingreso actual;
+        do {
+            actual = cache.ultimoIngreso.get();
+            if (actual != null && actual.getId() >= nuevo.getId()) {
+                return;
+            }
+        } while (!cache.ultimoIngreso.compareAndSet(actual, nuevo));
+        cache.ingreso.invalidar();
+    }
+
+    private DelUsuario delUsuario(long usuario) {
+        return usuarios.computeIfAbsent(usuario, DelUsuario::new);
+    }
+
+    /**
+     * Respuestas en caché de un usuario.
+     */
+    private final class DelUsuario {
+        private final Cacheada capital;
+        private final Cacheada ingreso;
+
+        /** Ingreso de mayor ID confirmado. */
+        private final AtomicReference<Ingreso> ultimoIngreso = new AtomicReference<>();
+
+        /** Si ya se leyó el último ingreso de la base de datos. */
+        private volatile boolean ingresoCargado;
+
+        DelUsuario(long usuario) {
+            this.capital = new Cacheada("capital-" + usuario);
+            this.ingreso = new Cacheada("ingreso-" + usuario);
+        }
+    }
+
+    /**
+     * Respuesta serializada de un recurso, con su versión.
+     */
+    private final class Cacheada {
+        private final String nombre;
+        private final AtomicLong version = new AtomicLong();
+        private final AtomicReference<Respuesta> respuesta = new AtomicReference<>();
+
+        Cacheada(String nombre) {
+            this.nombre = nombre;
+        }
+
+        void invalidar() {
+            version.incrementAndGet();
+        }
+
+        Respuesta obtener(Supplier<?> cargar) {
+            long actual = version.get();
+            Respuesta guardada = respuesta.get();
+            if (guardada != null && guardada.version == actual) {
+                return guardada;
+            }
+            // Se lee después de la versión: el valor es al menos tan nuevo
+            // como ella
+            Object valor = cargar.get();
+            byte[] json;
+            try {
+                json = valor == null ? null : objectMapper.writeValueAsBytes(valor);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            Respuesta nueva = new Respuesta(actual, "\"" + nombre + "-" + arranque + "-" + actual + "\"", json);
+            // No reemplaza una versión más nueva guardada por otro hilo
+            respuesta.accumulateAndGet(nueva, (a, b) -> a != null && a.version >= b.version ? a : b);
+            return nueva;
+        }
+    }
+
+    /**
+     * Respuesta serializada y su {@code ETag}.
+     */
+    public static final class Respuesta {
+        private final long version;
+        private final String etag;
+        private final byte[] json;
+
+        Respuesta(long version, String etag, byte[] json) {
+            this.version = version;
+            this.etag = etag;
+            this.json = json;
+        }
+
+        /** @return {@code ETag} entre comillas. */
+        public String getEtag() {
+            return etag;
+        }
+
+        /** @return cuerpo JSON, o {@code null} si no hay valor. */
+        public byte[] getJson() {
+            return json;
+        }
+    }
+}
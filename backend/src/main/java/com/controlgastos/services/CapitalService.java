@@ -0,0 +1,109 @@
+package com.controlgastos.services;
+
+import com.controlgastos.model.Capital;
+import com.controlgastos.model.Dinero;
+import com.controlgastos.repository.CapitalRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Servicio que aplica cambios al capital de forma atómica.
+ *
+ * <p>
+ * Sustituye el patrón lectura-modificación-escritura
+ * ({@code findTopByUsuarioIdOrderByIdDesc()} + {@code save()}) por un único
+ * {@code UPDATE capital = capital + :delta} ejecutado en la base de datos, de
+ * modo que peticiones concurrentes no pierden actualizaciones.
+ * </p>
+ *
+ * <p>
+ * <strong>Reintentos:</strong> si el registro desaparece entre la consulta del
+ * ID y el {@code UPDATE} (0 filas afectadas) se vuelve a intentar, igual que
+ * se haría ante un conflicto de {@code @Version}.
+ * </p>
+ *
+ * <p>
+ * Cada usuario tiene su propio registro, que se crea con su primer delta.
+ * Todos los deltas llegan desde el checkpoint de
+ * {@link CheckpointSaldosService}, que nunca se ejecuta en paralelo consigo
+ * mismo; así dos escrituras concurrentes no pueden crear cada una su propio
+ * registro para el mismo usuario.
+ * </p>
+ *
+ * <p>
+ * Publica en {@link MeterRegistry} los reintentos ({@code capital.reintentos})
+ * y los deltas que agotaron los intentos ({@code capital.conflictos}).
+ * </p>
+ */
+@Service
+public class CapitalService {
+
+    /** Número máximo de intentos antes de reportar conflicto. */
+    static final int MAX_INTENTOS = 3;
+
+    private final CapitalRepository capitalRepository;
+    private final Counter reintentos;
+    private final Counter conflictos;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param capitalRepository repositorio de capital.
+     * @param registro          registro de métricas.
+     */
+    public CapitalService(CapitalRepository capitalRepository, MeterRegistry registro) {
+        this.capitalRepository = capitalRepository;
+        this.reintentos = Counter.builder("capital.reintentos")
+                .description("UPDATE del capital que no afectaron filas y se reintentaron").register(registro);
+        this.conflictos = Counter.builder("capital.conflictos")
+                .description("Deltas del capital que agotaron los reintentos").register(registro);
+    }
+
+    /**
+     * Suma {@code delta} al capital más reciente del usuario dentro de la
+     * transacción actual (o una nueva si no existe).
+     *
+     * <p>
+     * <strong>Flujo:</strong>
+     * </p>
+     * <ol>
+     * <li>Obtiene solo el ID del último capital del usuario.</li>
+     * <li>Si no hay capital (usuario nuevo o registro borrado), crea uno con
+     * {@code delta}.</li>
+     * <li>Si existe, aplica el {@code UPDATE} atómico.</li>
+     * <li>Si el {@code UPDATE} no afectó filas, reintenta.</li>
+     * </ol>
+     *
+     * @param usuario usuario dueño del capital.
+     * @param delta   monto a sumar en centavos (negativo para gastos).
+     * @throws OptimisticLockingFailureException si se agotan los reintentos.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void aplicarDelta(long usuario, long delta) {
+        for (int intento = 1; intento <= MAX_INTENTOS; intento++) {
+            Optional<Long> ultimoId = capitalRepository.findUltimoId(usuario);
+            if (!ultimoId.isPresent()) {
+                Capital capital = new Capital();
+                capital.setUsuarioId(usuario);
+                capital.setCapital(Dinero.deCentavos(delta));
+                capitalRepository.saveAndFlush(capital);
+                return;
+            }
+            if (capitalRepository.sumarDelta(ultimoId.get(), delta) == 1) {
+                return;
+            }
+            if (intento < MAX_INTENTOS) {
+                reintentos.increment();
+            }
+        }
+        conflictos.increment();
+        throw new OptimisticLockingFailureException(
+                "No se pudo actualizar el capital tras " + MAX_INTENTOS + " intentos");
+    }
+}
@@ -0,0 +1,221 @@
+package com.controlgastos.services;
+
+import com.controlgastos.clasesCalculos.MotorSaldos;
+import com.controlgastos.model.Capital;
+import com.controlgastos.model.Dinero;
+import com.controlgastos.repository.CapitalRepository;
+import com.controlgastos.repository.GastoRepository;
+import com.controlgastos.repository.IngresoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Servicio que conecta {@link MotorSaldos} con la base de datos.
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>Al arrancar, carga el motor con la suma de ingresos y gastos
+ * registrados de cada usuario. Los movimientos son la fuente de verdad: si el capital
+ * guardado difiere, el primer checkpoint lo corrige.</li>
+ * <li>Cada {@code saldos.checkpoint.intervalo-ms}, o cuando un usuario acumula
+ * {@code saldos.checkpoint.cada-n} actualizaciones, aplica el capital
+ * pendiente mediante {@link CapitalService#aplicarDelta}.</li>
+ * <li>Al detener la aplicación, guarda el último checkpoint.</li>
+ * </ol>
+ *
+ * <p>
+ * Si la aplicación se detiene sin checkpoint, no se pierde nada: el capital
+ * se recalcula desde los movimientos en el siguiente arranque. Por eso un
+ * usuario cuyo capital no se puede guardar (p. ej. por conflictos
+ * concurrentes) sólo se registra en el log y queda pendiente para el
+ * siguiente checkpoint, sin detener a los demás ni el cierre.
+ * </p>
+ */
+@Service
+public class CheckpointSaldosService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckpointSaldosService.class);
+
+    private final MotorSaldos motorSaldos;
+    private final CapitalService capitalService;
+    private final CapitalRepository capitalRepository;
+    private final GastoRepository gastoRepository;
+    private final IngresoRepository ingresoRepository;
+    private final TaskExecutor taskExecutor;
+    private final CacheRespuestasService cacheRespuestasService;
+
+    /** Evita checkpoints simultáneos (periódico y por umbral). */
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+
+    /**
+     * Último registro de capital leído o escrito de cada usuario, para servir
+     * consultas.
+     */
+    private final Map<Long, Capital> ultimoCapital = new ConcurrentHashMap<>();
+
+    /** Registro de un usuario que aún no tiene capital guardado. */
+    private static final Capital SIN_CAPITAL = new Capital();
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param motorSaldos       motor de saldos en memoria.
+     * @param capitalService    servicio de actualización atómica de capital.
+     * @param capitalRepository repositorio de capital.
+     * @param gastoRepository   repositorio de gastos.
+     * @param ingresoRepository repositorio de ingresos.
+     * @param taskExecutor      ejecutor para checkpoints solicitados por umbral.
+     * @param cacheRespuestasService caché de la respuesta de capital.
+     */
+    public CheckpointSaldosService(MotorSaldos motorSaldos, CapitalService capitalService,
+            CapitalRepository capitalRepository, GastoRepository gastoRepository,
+            IngresoRepository ingresoRepository, TaskExecutor taskExecutor,
+            CacheRespuestasService cacheRespuestasService) {
+        this.motorSaldos = motorSaldos;
+        this.capitalService = capitalService;
+        this.capitalRepository = capitalRepository;
+        this.gastoRepository = gastoRepository;
+        this.ingresoRepository = ingresoRepository;
+        this.taskExecutor = taskExecutor;
+        this.cacheRespuestasService = cacheRespuestasService;
+    }
+
+    /**
+     * Carga el motor desde la base de datos al arrancar, con una consulta
+     * agrupada por usuario para ingresos, gastos y capital.
+     *
+     * <p>
+     * También carga los usuarios que sólo tienen capital guardado, para que el
+     * primer checkpoint lo corrija contra sus movimientos.
+     * </p>
+     */
+    @PostConstruct
+    public void cargar() {
+        for (Capital capital : capitalRepository.findUltimosPorUsuario()) {
+            ultimoCapital.put(capital.getUsuarioId(), capital);
+        }
+        Map<Long, Long> ingresos = sumasPorUsuario(ingresoRepository.sumarMontosPorUsuario());
+        Map<Long, Long> gastos = sumasPorUsuario(gastoRepository.sumarMontosPorUsuario());
+        Set<Long> usuarios = new HashSet<>(ultimoCapital.keySet());
+        usuarios.addAll(ingresos.keySet());
+        usuarios.addAll(gastos.keySet());
+        for (Long usuario : usuarios) {
+            motorSaldos.cargar(usuario,
+                    ingresos.getOrDefault(usuario, 0L),
+                    gastos.getOrDefault(usuario, 0L),
+                    ultimoCapital.getOrDefault(usuario, SIN_CAPITAL).getCapitalCentavos());
+        }
+    }
+
+    private static Map<Long, Long> sumasPorUsuario(Iterable<Object[]> filas) {
+        Map<Long, Long> sumas = new HashMap<>();
+        for (Object[] fila : filas) {
+            sumas.put(((Number) fila[0]).longValue(), ((Number) fila[1]).longValue());
+        }
+        return sumas;
+    }
+
+    /**
+     * Solicita un checkpoint asíncrono (usado al alcanzar el umbral de
+     * actualizaciones). No bloquea al hilo de la petición.
+     */
+    public void solicitarCheckpoint() {
+        taskExecutor.execute(this::checkpoint);
+    }
+
+    /**
+     * Guarda en {@link Capital} el capital pendiente de cada usuario.
+     *
+     * <p>
+     * Si ya hay un checkpoint en curso, esta invocación no hace nada: el que
+     * está en curso o el siguiente periódico recogerán los cambios.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${saldos.checkpoint.intervalo-ms:5000}")
+    public void checkpoint() {
+        if (!checkpointLock.tryLock()) {
+            return;
+        }
+        try {
+            guardarPendiente();
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * Guarda el capital pendiente antes de cerrar la aplicación.
+     *
+     * <p>
+     * A diferencia de {@link #checkpoint()}, espera a que termine el
+     * checkpoint en curso en vez de omitirse, para no cerrar con capital
+     * pendiente.
+     * </p>
+     */
+    @PreDestroy
+    public void cerrar() {
+        checkpointLock.lock();
+        try {
+            guardarPendiente();
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * Aplica el capital pendiente de cada usuario. Debe llamarse con
+     * {@code checkpointLock} tomado. Si falla el de un usuario, su checkpoint
+     * queda sin confirmar y se sigue con los demás.
+     */
+    private void guardarPendiente() {
+        for (Long usuario : motorSaldos.usuarios()) {
+            long capital = motorSaldos.capital(usuario);
+            long pendiente = capital - motorSaldos.ultimoCheckpoint(usuario);
+            if (pendiente != 0) {
+                try {
+                    capitalService.aplicarDelta(usuario, pendiente);
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo guardar el capital del usuario {}; queda para el siguiente checkpoint",
+                            usuario, e);
+                    continue;
+                }
+                capitalRepository.findTopByUsuarioIdOrderByIdDesc(usuario)
+                        .ifPresent(guardado -> ultimoCapital.put(usuario, guardado));
+                cacheRespuestasService.invalidarCapital(usuario);
+            }
+            // Lo que se sume durante el checkpoint queda en el siguiente
+            motorSaldos.confirmarCheckpoint(usuario, capital);
+        }
+    }
+
+    /**
+     * Construye el capital actual desde memoria, sin consultar la base de
+     * datos.
+     *
+     * @param usuario identificador del usuario.
+     * @return capital con el valor en memoria y los metadatos del último
+     *         registro persistido del usuario.
+     */
+    public Capital capitalActual(long usuario) {
+        Capital persistido = ultimoCapital.getOrDefault(usuario, SIN_CAPITAL);
+        Capital capital = new Capital();
+        capital.setId(persistido.getId());
+        capital.setFechaRegistro(persistido.getFechaRegistro());
+        capital.setCapital(Dinero.deCentavos(motorSaldos.capital(usuario)));
+        return capital;
+    }
+}
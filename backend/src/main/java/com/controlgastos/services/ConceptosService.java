@@ -0,0 +1,204 @@
+package com.controlgastos.services;
+
+import com.controlgastos.clasesCalculos.ConceptosFrecuentes;
+import com.controlgastos.model.ConceptoFrecuente;
+import com.controlgastos.repository.ConceptoFrecuenteRepository;
+import com.controlgastos.repository.GastoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio que mantiene los conceptos de gasto con mayor monto acumulado de
+ * cada usuario, en memoria y con tamaño acotado.
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>Al arrancar, restaura los contadores guardados en
+ * {@link ConceptoFrecuente}. Si no hay ninguno, los llena una única vez con
+ * un {@code GROUP BY concepto} sobre los gastos.</li>
+ * <li>Cada gasto confirmado se suma desde {@link MovimientoService}.</li>
+ * <li>Cada {@code conceptos.snapshot.intervalo-ms}, y al detener la
+ * aplicación, guarda los contadores de los usuarios con cambios.</li>
+ * <li>{@link #top} responde desde memoria, sin consultar la base de
+ * datos.</li>
+ * </ol>
+ *
+ * <p>
+ * Cada usuario guarda como máximo {@code conceptos.top.capacidad} contadores;
+ * las cotas de error están en {@link ConceptosFrecuentes}. Si la aplicación
+ * se detiene sin guardar, se pierden a lo sumo los gastos del último
+ * intervalo: el top es una estimación y no se recalcula desde los gastos.
+ * </p>
+ */
+@Service
+public class ConceptosService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConceptosService.class);
+
+    private final ConceptoFrecuenteRepository conceptoFrecuenteRepository;
+    private final GastoRepository gastoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Contadores por usuario. */
+    private final int capacidad;
+
+    /** Conceptos de cada usuario. */
+    private final Map<Long, Conceptos> conceptos = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param conceptoFrecuenteRepository copia guardada de los contadores.
+     * @param gastoRepository             repositorio de gastos.
+     * @param transactionManager          gestor de transacciones, para
+     *                                    guardar la copia.
+     * @param capacidad                   contadores por usuario.
+     */
+    public ConceptosService(ConceptoFrecuenteRepository conceptoFrecuenteRepository,
+            GastoRepository gastoRepository, PlatformTransactionManager transactionManager,
+            @Value("${conceptos.top.capacidad:1000}") int capacidad) {
+        this.conceptoFrecuenteRepository = conceptoFrecuenteRepository;
+        this.gastoRepository = gastoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Restaura los contadores al arrancar.
+     */
+    @PostConstruct
+    public void cargar() {
+        List<ConceptoFrecuente> guardados = conceptoFrecuenteRepository.findAll();
+        for (ConceptoFrecuente guardado : guardados) {
+            Conceptos actual = conceptos(guardado.getUsuarioId());
+            actual.frecuentes.restaurar(guardado.getConcepto(), guardado.getTotalCentavos(),
+                    guardado.getErrorCentavos());
+        }
+        if (guardados.isEmpty()) {
+            for (Object[] fila : gastoRepository.sumarMontosPorConcepto()) {
+                Conceptos delUsuario = conceptos(((Number) fila[0]).longValue());
+                delUsuario.frecuentes.sumar((String) fila[1], ((Number) fila[2]).longValue());
+                delUsuario.cambios = true;
+            }
+        }
+    }
+
+    /**
+     * Suma montos de gasto por concepto. Debe llamarse después de confirmar
+     * la transacción.
+     *
+     * @param usuario     identificador del usuario.
+     * @param porConcepto centavos por concepto.
+     */
+    public void registrar(long usuario, Map<String, Long> porConcepto) {
+        Conceptos actual = conceptos(usuario);
+        synchronized (actual) {
+            porConcepto.forEach(actual.frecuentes::sumar);
+            actual.cambios = true;
+        }
+    }
+
+    /**
+     * Devuelve los {@code k} conceptos de gasto con mayor monto estimado.
+     *
+     * @param usuario identificador del usuario.
+     * @param k       cantidad de conceptos (como máximo {@link #getCapacidad()}).
+     * @return conceptos de mayor a menor monto, con su cota de error.
+     */
+    public List<ConceptoFrecuente> top(long usuario, int k) {
+        Conceptos actual = conceptos.get(usuario);
+        if (actual == null) {
+            return new ArrayList<>();
+        }
+        List<ConceptosFrecuentes.Contador> contadores;
+        synchronized (actual) {
+            contadores = actual.frecuentes.top(k);
+        }
+        List<ConceptoFrecuente> top = new ArrayList<>(contadores.size());
+        for (ConceptosFrecuentes.Contador contador : contadores) {
+            top.add(new ConceptoFrecuente(usuario, contador.getConcepto(), contador.getMonto(),
+                    contador.getError()));
+        }
+        return top;
+    }
+
+    /** @return contadores por usuario. */
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * Guarda los contadores de los usuarios con cambios desde la última copia,
+     * cada uno en su propia transacción. Si falla la de un usuario, vuelve a
+     * marcarlo con cambios para el siguiente intervalo y sigue con los
+     * demás.
+     */
+    @Scheduled(fixedDelayString = "${conceptos.snapshot.intervalo-ms:60000}",
+            initialDelayString = "${conceptos.snapshot.intervalo-ms:60000}")
+    @PreDestroy
+    public synchronized void guardar() {
+        for (Map.Entry<Long, Conceptos> entrada : conceptos.entrySet()) {
+            long usuario = entrada.getKey();
+            Conceptos actual = entrada.getValue();
+            List<ConceptoFrecuente> copia;
+            synchronized (actual) {
+                if (!actual.cambios) {
+                    continue;
+                }
+                copia = top(usuario, capacidad);
+                // Se limpia antes de guardar: un gasto que llegue durante la
+                // transacción vuelve a marcarlo
+                actual.cambios = false;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(estado -> {
+                    conceptoFrecuenteRepository.borrarDeUsuario(usuario);
+                    // persist en lugar de saveAll: las claves son asignadas y
+                    // saveAll haría un SELECT por fila antes de insertar
+                    copia.forEach(entityManager::persist);
+                });
+            } catch (RuntimeException e) {
+                synchronized (actual) {
+                    actual.cambios = true;
+                }
+                log.warn("No se pudieron guardar los conceptos del usuario {}; se reintenta en el siguiente intervalo",
+                        usuario, e);
+            }
+        }
+    }
+
+    private Conceptos conceptos(long usuario) {
+        return conceptos.computeIfAbsent(usuario, u -> new Conceptos(capacidad));
+    }
+
+    /**
+     * Contadores de un usuario y si cambiaron desde la última copia.
+     */
+    private static final class Conceptos {
+        private final ConceptosFrecuentes frecuentes;
+        private boolean cambios;
+
+        Conceptos(int capacidad) {
+            frecuentes = new ConceptosFrecuentes(capacidad);
+        }
+    }
+}
@@ -0,0 +1,556 @@
+package com.controlgastos.services;
+
+import com.controlgastos.model.Movimiento;
+import com.controlgastos.model.TipoMovimiento;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * Diario de movimientos de solo anexado en segmentos mapeados en memoria.
+ *
+ * <p>
+ * <strong>Estructura del directorio:</strong>
+ * </p>
+ * <ol>
+ * <li>Segmentos {@code NNNNNNNNNNNNNNNNNNNN.seg} de {@code registrosPorSegmento}
+ * registros de {@value #TAMANO_REGISTRO} bytes. El segmento {@code k} guarda
+ * las posiciones {@code [k·R, (k+1)·R)}; la posición de un registro es su
+ * número de orden desde que se creó el diario.</li>
+ * <li>Cada registro: {@code id}, {@code usuario}, {@code centavos} y
+ * {@code milisegundos} desde 1970 (UTC) como {@code long}, el ID del concepto
+ * en el diccionario como {@code int}, el tipo ({@code 1} gasto, {@code 2}
+ * ingreso), una marca {@code 1} si el registro no es el último de su lote,
+ * relleno en cero y un CRC32 de los 44 bytes anteriores.</li>
+ * <li>{@code conceptos.dic}: diccionario de conceptos, de solo anexado; cada
+ * entrada es el largo en UTF-8 ({@code short}), el texto y su CRC32. El ID de
+ * un concepto es su orden en el archivo.</li>
+ * <li>{@code proyectado}: posición hasta la que los registros ya se copiaron
+ * a la base de datos; se reemplaza de forma atómica.</li>
+ * </ol>
+ *
+ * <p>
+ * <strong>Recuperación al abrir:</strong> recorre los registros desde la
+ * posición proyectada y se detiene en el primero con CRC inválido, tipo
+ * desconocido o concepto ausente del diccionario (una escritura incompleta
+ * por una caída). El fin del diario es el último registro que cierra un lote:
+ * un lote sin su último registro se descarta entero. El resto se llena de
+ * ceros y los segmentos posteriores se borran, para que un registro viejo no
+ * reaparezca detrás de uno nuevo.
+ * </p>
+ *
+ * <p>
+ * {@link #agregar} sólo escribe en memoria y publica el lote completo de una
+ * vez: si falla a mitad, no queda ninguno de sus registros. Los registros son
+ * durables cuando {@link #forzar} vuelca al disco el diccionario y los
+ * segmentos.
+ * {@link #compactar} borra los segmentos que ya estaban completos en la base
+ * de datos en la compactación anterior; los más recientes se conservan porque
+ * la base de datos puede confirmar sin volcar al disco de inmediato (H2 lo
+ * hace por omisión). Las escrituras se serializan entre sí; {@link #leer} y
+ * {@link #forzar} pueden ejecutarse en otros hilos a la vez.
+ * </p>
+ */
+public class DiarioMovimientos implements Closeable {
+
+    /** Bytes por registro. */
+    static final int TAMANO_REGISTRO = 48;
+
+    /** Bytes del registro cubiertos por el CRC. */
+    private static final int DATOS_REGISTRO = 44;
+
+    /** Byte con la marca de registro que continúa en el siguiente del lote. */
+    private static final int CONTINUA = 37;
+
+    private static final String EXTENSION = ".seg";
+
+    private final Path directorio;
+    private final int registrosPorSegmento;
+
+    /** Segmentos abiertos por número. */
+    private final NavigableMap<Long, Segmento> segmentos = new ConcurrentSkipListMap<>();
+
+    private final FileChannel canalDiccionario;
+    private final Map<String, Integer> idsConceptos = new HashMap<>();
+    private final List<String> conceptos = new CopyOnWriteArrayList<>();
+    private long finDiccionario;
+
+    /** Registro en armado; sólo se usa con el monitor tomado. */
+    private final byte[] registro = new byte[TAMANO_REGISTRO];
+    private final ByteBuffer bufferRegistro = ByteBuffer.wrap(registro);
+    private final CRC32 crc = new CRC32();
+
+    /** Posición del siguiente registro. */
+    private volatile long fin;
+
+    /** Posición hasta la que los registros ya están en disco. */
+    private volatile long durable;
+
+    /** Posición hasta la que los registros ya están en la base de datos. */
+    private volatile long proyectado;
+
+    /** Posición proyectada en la compactación anterior. */
+    private long proyectadoCompactado;
+
+    /**
+     * Abre o crea el diario y recupera su fin.
+     *
+     * @param directorio           directorio del diario; se crea si no existe.
+     * @param registrosPorSegmento registros por archivo de segmento.
+     * @throws IOException si falla el acceso a los archivos.
+     */
+    public DiarioMovimientos(Path directorio, int registrosPorSegmento) throws IOException {
+        if (registrosPorSegmento < 1) {
+            throw new IllegalArgumentException("Los registros por segmento deben ser positivos");
+        }
+        this.directorio = directorio;
+        this.registrosPorSegmento = registrosPorSegmento;
+        Files.createDirectories(directorio);
+        canalDiccionario = FileChannel.open(directorio.resolve("conceptos.dic"), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        cargarDiccionario();
+        proyectado = leerProyectado();
+        recuperar();
+    }
+
+    /**
+     * Agrega un registro.
+     *
+     * @param tipo     tipo del movimiento.
+     * @param id       identificador ya asignado.
+     * @param usuario  usuario dueño.
+     * @param concepto concepto (hasta 32767 bytes en UTF-8).
+     * @param centavos monto en centavos.
+     * @param fecha    fecha de registro; se guarda con precisión de
+     *                 milisegundos.
+     * @return posición del registro.
+     * @throws IOException si falla la escritura del diccionario o la creación
+     *                     de un segmento.
+     */
+    public synchronized long agregar(TipoMovimiento tipo, long id, long usuario, String concepto, long centavos,
+            LocalDateTime fecha) throws IOException {
+        long posicion = fin;
+        escribir(posicion, tipo, id, usuario, concepto, centavos, fecha, false);
+        fin = posicion + 1;
+        return posicion;
+    }
+
+    /**
+     * Agrega los movimientos como un lote atómico: se publican todos juntos
+     * al final, y si la escritura falla a mitad se borran los ya escritos.
+     * Tras una caída, la recuperación descarta un lote incompleto.
+     *
+     * @param tipo        tipo de los movimientos.
+     * @param movimientos movimientos con ID, usuario y fecha ya asignados.
+     * @return posición del primer registro del lote.
+     * @throws IOException si falla la escritura del diccionario o la creación
+     *                     de un segmento; en ese caso no se agregó ninguno.
+     */
+    public synchronized long agregar(TipoMovimiento tipo, List<? extends Movimiento> movimientos)
+            throws IOException {
+        long primero = fin;
+        long posicion = primero;
+        try {
+            for (int i = 0; i < movimientos.size(); i++) {
+                Movimiento movimiento = movimientos.get(i);
+                escribir(posicion, tipo, movimiento.getId(), movimiento.getUsuarioId(), movimiento.getConcepto(),
+                        movimiento.getMontoCentavos(), movimiento.getFechaRegistro(), i < movimientos.size() - 1);
+                posicion++;
+            }
+        } catch (IOException | RuntimeException e) {
+            for (long escrito = primero; escrito < posicion; escrito++) {
+                borrar(escrito);
+            }
+            throw e;
+        }
+        fin = posicion;
+        return primero;
+    }
+
+    /**
+     * Escribe un registro sin publicarlo. Debe llamarse con el monitor tomado.
+     */
+    private void escribir(long posicion, TipoMovimiento tipo, long id, long usuario, String concepto,
+            long centavos, LocalDateTime fecha, boolean continua) throws IOException {
+        Segmento segmento = segmentos.get(posicion / registrosPorSegmento);
+        if (segmento == null) {
+            segmento = abrirSegmento(posicion / registrosPorSegmento);
+        }
+        bufferRegistro.putLong(0, id);
+        bufferRegistro.putLong(8, usuario);
+        bufferRegistro.putLong(16, centavos);
+        bufferRegistro.putLong(24, fecha.toInstant(ZoneOffset.UTC).toEpochMilli());
+        bufferRegistro.putInt(32, idConcepto(concepto));
+        bufferRegistro.put(36, (byte) (tipo.ordinal() + 1));
+        bufferRegistro.put(CONTINUA, (byte) (continua ? 1 : 0));
+        crc.reset();
+        crc.update(registro, 0, DATOS_REGISTRO);
+        bufferRegistro.putInt(DATOS_REGISTRO, (int) crc.getValue());
+        // Los métodos de posición se llaman por Buffer: compilados en JDK 9+,
+        // las sobrecargas de ByteBuffer no existen en Java 8
+        ((Buffer) segmento.escritura).position(desplazamiento(posicion));
+        segmento.escritura.put(registro);
+    }
+
+    /**
+     * Llena de ceros un registro no publicado.
+     */
+    private void borrar(long posicion) {
+        MappedByteBuffer buffer = segmentos.get(posicion / registrosPorSegmento).buffer;
+        int base = desplazamiento(posicion);
+        for (int i = 0; i < TAMANO_REGISTRO; i++) {
+            buffer.put(base + i, (byte) 0);
+        }
+    }
+
+    /**
+     * Vuelca al disco el diccionario y los segmentos con registros aún no
+     * durables. Debe llamarse desde un único hilo.
+     *
+     * @return posición hasta la que los registros son durables.
+     * @throws IOException si falla el volcado.
+     */
+    public long forzar() throws IOException {
+        long hasta = fin;
+        if (hasta == durable) {
+            return hasta;
+        }
+        canalDiccionario.force(false);
+        for (Segmento segmento : segmentos.subMap(durable / registrosPorSegmento, true,
+                (hasta - 1) / registrosPorSegmento, true).values()) {
+            segmento.buffer.force();
+        }
+        durable = hasta;
+        return hasta;
+    }
+
+    /**
+     * Lee los registros de {@code [desde, hasta)} en orden.
+     *
+     * @param desde  primera posición; no anterior a {@link #inicio()}.
+     * @param hasta  posición siguiente a la última; no posterior al fin.
+     * @param lector receptor de cada registro.
+     */
+    public void leer(long desde, long hasta, LectorRegistro lector) {
+        if (desde < inicio() || hasta > fin) {
+            throw new IllegalArgumentException("Rango fuera del diario: " + desde + " a " + hasta);
+        }
+        for (long posicion = desde; posicion < hasta; posicion++) {
+            MappedByteBuffer buffer = segmentos.get(posicion / registrosPorSegmento).buffer;
+            int base = desplazamiento(posicion);
+            lector.leer(TipoMovimiento.values()[buffer.get(base + 36) - 1], buffer.getLong(base),
+                    buffer.getLong(base + 8), conceptos.get(buffer.getInt(base + 32)), buffer.getLong(base + 16),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong(base + 24)), ZoneOffset.UTC));
+        }
+    }
+
+    /**
+     * Registra que los registros anteriores a {@code posicion} ya están en la
+     * base de datos. Escribe un archivo temporal y lo reemplaza de forma
+     * atómica.
+     *
+     * @param posicion nueva posición proyectada.
+     * @throws IOException si falla la escritura.
+     */
+    public void marcarProyectado(long posicion) throws IOException {
+        Path temporal = directorio.resolve("proyectado.tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                DataOutputStream salida = new DataOutputStream(Channels.newOutputStream(canal))) {
+            salida.writeLong(posicion);
+            salida.flush();
+            canal.force(true);
+        }
+        Files.move(temporal, directorio.resolve("proyectado"), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        proyectado = posicion;
+    }
+
+    /**
+     * Borra los segmentos cuyos registros ya estaban todos en la base de datos
+     * en la compactación anterior.
+     *
+     * <p>
+     * El mapeo de cada segmento borrado se libera cuando el recolector de
+     * basura descarta su buffer.
+     * </p>
+     *
+     * @return cantidad de segmentos borrados.
+     * @throws IOException si falla el borrado.
+     */
+    public synchronized int compactar() throws IOException {
+        long completos = Math.min(proyectadoCompactado, proyectado) / registrosPorSegmento;
+        proyectadoCompactado = proyectado;
+        int borrados = 0;
+        for (Long numero : new ArrayList<>(segmentos.headMap(completos, false).keySet())) {
+            Segmento segmento = segmentos.remove(numero);
+            segmento.canal.close();
+            Files.deleteIfExists(segmento.ruta);
+            borrados++;
+        }
+        return borrados;
+    }
+
+    /** @return posición del siguiente registro. */
+    public long fin() {
+        return fin;
+    }
+
+    /** @return posición hasta la que los registros ya están en disco. */
+    public long durable() {
+        return durable;
+    }
+
+    /** @return posición hasta la que los registros ya están en la base de datos. */
+    public long proyectado() {
+        return proyectado;
+    }
+
+    /** @return cantidad de archivos de segmento. */
+    public int cantidadSegmentos() {
+        return segmentos.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        forzar();
+        for (Segmento segmento : segmentos.values()) {
+            segmento.canal.close();
+        }
+        segmentos.clear();
+        canalDiccionario.close();
+    }
+
+    /**
+     * @return primera posición que aún puede leerse: el comienzo del segmento
+     *         más antiguo conservado.
+     */
+    public long inicio() {
+        Map.Entry<Long, Segmento> primero = segmentos.firstEntry();
+        return primero == null ? fin : Math.min(primero.getKey() * registrosPorSegmento, proyectado);
+    }
+
+    private int desplazamiento(long posicion) {
+        return (int) (posicion % registrosPorSegmento) * TAMANO_REGISTRO;
+    }
+
+    /**
+     * Devuelve el ID de un concepto; si es nuevo, lo agrega al diccionario.
+     * Debe llamarse con el monitor tomado.
+     */
+    private int idConcepto(String concepto) throws IOException {
+        Integer id = idsConceptos.get(concepto);
+        if (id != null) {
+            return id;
+        }
+        byte[] texto = concepto.getBytes(StandardCharsets.UTF_8);
+        if (texto.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Concepto demasiado largo");
+        }
+        ByteBuffer entrada = ByteBuffer.allocate(2 + texto.length + 4);
+        entrada.putShort((short) texto.length).put(texto);
+        crc.reset();
+        crc.update(entrada.array(), 0, entrada.position());
+        entrada.putInt((int) crc.getValue());
+        ((Buffer) entrada).flip();
+        while (entrada.hasRemaining()) {
+            finDiccionario += canalDiccionario.write(entrada, finDiccionario);
+        }
+        id = conceptos.size();
+        conceptos.add(concepto);
+        idsConceptos.put(concepto, id);
+        return id;
+    }
+
+    /**
+     * Lee el diccionario hasta la primera entrada incompleta o con CRC
+     * inválido y trunca el archivo ahí.
+     */
+    private void cargarDiccionario() throws IOException {
+        ByteBuffer contenido = ByteBuffer.allocate((int) canalDiccionario.size());
+        while (contenido.hasRemaining() && canalDiccionario.read(contenido, contenido.position()) >= 0) {
+            // Lee el archivo completo
+        }
+        ((Buffer) contenido).flip();
+        CRC32 verificacion = new CRC32();
+        while (contenido.remaining() >= 2) {
+            int inicioEntrada = contenido.position();
+            int largo = contenido.getShort();
+            if (largo < 0 || contenido.remaining() < largo + 4) {
+                break;
+            }
+            verificacion.reset();
+            verificacion.update(contenido.array(), inicioEntrada, 2 + largo);
+            String concepto = new String(contenido.array(), contenido.position(), largo, StandardCharsets.UTF_8);
+            ((Buffer) contenido).position(contenido.position() + largo);
+            if (contenido.getInt() != (int) verificacion.getValue()) {
+                ((Buffer) contenido).position(inicioEntrada);
+                break;
+            }
+            idsConceptos.put(concepto, conceptos.size());
+            conceptos.add(concepto);
+        }
+        finDiccionario = contenido.position();
+        canalDiccionario.truncate(finDiccionario);
+    }
+
+    private long leerProyectado() throws IOException {
+        Path archivo = directorio.resolve("proyectado");
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+        try (DataInputStream entrada = new DataInputStream(Files.newInputStream(archivo))) {
+            return entrada.readLong();
+        }
+    }
+
+    /**
+     * Abre los segmentos existentes y busca el último registro válido a partir
+     * de la posición proyectada.
+     */
+    private void recuperar() throws IOException {
+        List<Long> numeros = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, "*" + EXTENSION)) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                numeros.add(Long.parseLong(nombre.substring(0, nombre.length() - EXTENSION.length())));
+            }
+        }
+        numeros.sort(null);
+        long posicion = proyectado;
+        // Posición siguiente al último registro que cierra un lote
+        long finLote = proyectado;
+        boolean valido = true;
+        for (Long numero : numeros) {
+            if (numero < proyectado / registrosPorSegmento) {
+                // Ya copiado a la base de datos y verificado al escribirse
+                abrirSegmento(numero);
+                continue;
+            }
+            if (!valido || numero != posicion / registrosPorSegmento) {
+                // Detrás de un registro inválido o de un segmento faltante nada es confiable
+                Files.delete(ruta(numero));
+                continue;
+            }
+            Segmento segmento = abrirSegmento(numero);
+            long finSegmento = (numero + 1) * registrosPorSegmento;
+            while (posicion < finSegmento && registroValido(segmento.buffer, desplazamiento(posicion))) {
+                posicion++;
+                if (bufferRegistro.get(CONTINUA) == 0) {
+                    finLote = posicion;
+                }
+            }
+            if (posicion < finSegmento) {
+                valido = false;
+                for (int i = desplazamiento(posicion); i < segmento.buffer.capacity(); i++) {
+                    segmento.buffer.put(i, (byte) 0);
+                }
+                segmento.buffer.force();
+            }
+        }
+        // Un lote sin su último registro no llegó a publicarse: se descarta
+        // entero
+        for (long incompleto = finLote; incompleto < posicion; incompleto++) {
+            borrar(incompleto);
+        }
+        for (Segmento segmento : segmentos.tailMap(finLote / registrosPorSegmento, true).values()) {
+            segmento.buffer.force();
+        }
+        fin = finLote;
+        durable = finLote;
+    }
+
+    private boolean registroValido(MappedByteBuffer buffer, int base) {
+        for (int i = 0; i < TAMANO_REGISTRO; i++) {
+            registro[i] = buffer.get(base + i);
+        }
+        crc.reset();
+        crc.update(registro, 0, DATOS_REGISTRO);
+        int tipo = bufferRegistro.get(36);
+        int concepto = bufferRegistro.getInt(32);
+        return bufferRegistro.getInt(DATOS_REGISTRO) == (int) crc.getValue() && tipo >= 1
+                && tipo <= TipoMovimiento.values().length && concepto >= 0 && concepto < conceptos.size();
+    }
+
+    private Segmento abrirSegmento(long numero) throws IOException {
+        Path ruta = ruta(numero);
+        long tamano = (long) registrosPorSegmento * TAMANO_REGISTRO;
+        try (RandomAccessFile archivo = new RandomAccessFile(ruta.toFile(), "rw")) {
+            if (archivo.length() != tamano) {
+                archivo.setLength(tamano);
+            }
+        }
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segmento segmento = new Segmento(ruta, canal, canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano));
+        segmentos.put(numero, segmento);
+        return segmento;
+    }
+
+    private Path ruta(long numero) {
+        return directorio.resolve(String.format("%020d", numero) + EXTENSION);
+    }
+
+    /**
+     * Receptor de un registro del diario.
+     */
+    @FunctionalInterface
+    public interface LectorRegistro {
+
+        /**
+         * Procesa un registro.
+         *
+         * @param tipo     tipo del movimiento.
+         * @param id       identificador.
+         * @param usuario  usuario dueño.
+         * @param concepto concepto.
+         * @param centavos monto en centavos.
+         * @param fecha    fecha de registro.
+         */
+        void leer(TipoMovimiento tipo, long id, long usuario, String concepto, long centavos, LocalDateTime fecha);
+    }
+
+    /**
+     * Archivo de segmento mapeado.
+     */
+    private static final class Segmento {
+        private final Path ruta;
+        private final FileChannel canal;
+        private final MappedByteBuffer buffer;
+
+        /** Vista para escribir con posición relativa; sólo con el monitor tomado. */
+        private final ByteBuffer escritura;
+
+        Segmento(Path ruta, FileChannel canal, MappedByteBuffer buffer) {
+            this.ruta = ruta;
+            this.canal = canal;
+            this.buffer = buffer;
+            // Por ByteBuffer: MappedByteBuffer.duplicate() no existe antes de Java 17
+            this.escritura = ((ByteBuffer) buffer).duplicate();
+        }
+    }
+}
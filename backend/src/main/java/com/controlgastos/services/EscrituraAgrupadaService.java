@@ -0,0 +1,324 @@
+package com.controlgastos.services;
+
+import com.controlgastos.model.Gasto;
+import com.controlgastos.model.Ingreso;
+import com.controlgastos.model.Movimiento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Etapa de escritura con <em>group commit</em> para {@code POST /api/gasto} y
+ * {@code POST /api/ingreso}.
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>El controlador encola el movimiento ya validado en una cola circular
+ * acotada ({@code escrituras.grupo.capacidad}) y libera el hilo de la
+ * petición. Si la cola está llena, el movimiento se rechaza y el
+ * controlador responde 503.</li>
+ * <li>Un único hilo escritor toma el primer movimiento pendiente y espera a
+ * lo sumo {@code escrituras.grupo.max-espera-ms} a que lleguen más, hasta
+ * {@code escrituras.grupo.max-lote}.</li>
+ * <li>Guarda el grupo con {@link MovimientoService#registrarGrupo}: una
+ * transacción (un commit en disco) para todo el grupo y un único delta de
+ * saldo por tipo.</li>
+ * <li>Al confirmarse, completa la respuesta de cada petición.</li>
+ * </ol>
+ *
+ * <p>
+ * Si el grupo falla, se reintenta cada movimiento por separado para que uno
+ * defectuoso no haga fallar a los demás. Con
+ * {@code escrituras.grupo.habilitado=false} cada movimiento se guarda en su
+ * propia transacción, en el hilo de la petición.
+ * </p>
+ *
+ * <p>
+ * Un movimiento que sigue en la cola a los {@code escrituras.grupo.timeout-ms}
+ * se retira sin guardarse, y lo mismo los que quedan en la cola al cerrar el
+ * servicio (o si muere el hilo escritor). Su respuesta falla con
+ * {@link EscrituraNoConfirmadaException} (503): el movimiento no se guardó y
+ * el cliente puede reintentarlo sin duplicarlo. Cada movimiento lo decide una
+ * sola vez quien lo toma primero: una vez que el escritor lo toma para su
+ * grupo ya no vence, y su respuesta espera el resultado de la transacción.
+ * </p>
+ */
+@Service
+public class EscrituraAgrupadaService {
+
+    private static final Logger log = LoggerFactory.getLogger(EscrituraAgrupadaService.class);
+
+    private final MovimientoService movimientoService;
+    private final boolean habilitado;
+    private final BlockingQueue<Pendiente<?>> cola;
+    private final int maxLote;
+    private final long maxEsperaNanos;
+    private final long timeoutMs;
+
+    /** Vence las respuestas que no se confirman a tiempo. */
+    private final ScheduledThreadPoolExecutor vencimientos = new ScheduledThreadPoolExecutor(1, tarea -> {
+        Thread hilo = new Thread(tarea, "vencimiento-escrituras");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private Thread escritor;
+    private volatile boolean activo = true;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param movimientoService servicio que guarda los grupos.
+     * @param habilitado        {@code false} para guardar cada movimiento por
+     *                          separado.
+     * @param capacidad         movimientos pendientes como máximo.
+     * @param maxLote           movimientos por transacción como máximo.
+     * @param maxEsperaMs       espera máxima para completar un grupo.
+     * @param timeoutMs         espera máxima de una respuesta por la
+     *                          confirmación de su grupo.
+     */
+    public EscrituraAgrupadaService(MovimientoService movimientoService,
+            @Value("${escrituras.grupo.habilitado:true}") boolean habilitado,
+            @Value("${escrituras.grupo.capacidad:4096}") int capacidad,
+            @Value("${escrituras.grupo.max-lote:256}") int maxLote,
+            @Value("${escrituras.grupo.max-espera-ms:2}") long maxEsperaMs,
+            @Value("${escrituras.grupo.timeout-ms:30000}") long timeoutMs) {
+        this.movimientoService = movimientoService;
+        this.habilitado = habilitado;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.maxLote = maxLote;
+        this.maxEsperaNanos = TimeUnit.MILLISECONDS.toNanos(maxEsperaMs);
+        this.timeoutMs = timeoutMs;
+        this.vencimientos.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Arranca el hilo escritor.
+     */
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        escritor = new Thread(this::escribir, "escritor-movimientos");
+        escritor.start();
+    }
+
+    /**
+     * Deja de aceptar movimientos y espera a que se guarden los pendientes.
+     *
+     * @throws InterruptedException si se interrumpe la espera.
+     */
+    @PreDestroy
+    public void cerrar() throws InterruptedException {
+        activo = false;
+        if (escritor != null) {
+            escritor.join();
+        }
+        vencimientos.shutdownNow();
+    }
+
+    /**
+     * Encola un gasto.
+     *
+     * @param gasto gasto ya validado.
+     * @return futuro que se completa al confirmarse su grupo (o falla con
+     *         {@link EscrituraNoConfirmadaException} si no se guardó), o
+     *         {@code null} si la cola está llena.
+     */
+    public CompletableFuture<Gasto> registrarGasto(Gasto gasto) {
+        if (!habilitado) {
+            return CompletableFuture.completedFuture(movimientoService.registrarGasto(gasto));
+        }
+        return encolar(gasto);
+    }
+
+    /**
+     * Encola un ingreso.
+     *
+     * @param ingreso ingreso ya validado.
+     * @return futuro que se completa al confirmarse su grupo (o falla con
+     *         {@link EscrituraNoConfirmadaException} si no se guardó), o
+     *         {@code null} si la cola está llena.
+     */
+    public CompletableFuture<Ingreso> registrarIngreso(Ingreso ingreso) {
+        if (!habilitado) {
+            return CompletableFuture.completedFuture(movimientoService.registrarIngreso(ingreso));
+        }
+        return encolar(ingreso);
+    }
+
+    private <T extends Movimiento> CompletableFuture<T> encolar(T movimiento) {
+        if (!activo) {
+            return null;
+        }
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        Pendiente<T> pendiente = new Pendiente<>(movimiento, futuro);
+        if (!cola.offer(pendiente)) {
+            return null;
+        }
+        // Si el escritor se detuvo entre la comprobación y el offer, puede que
+        // ya haya vaciado la cola: se retira; si ya no está, la tomó el
+        // escritor y la completará
+        if (!activo && cola.remove(pendiente)) {
+            return null;
+        }
+        ScheduledFuture<?> vencimiento = vencimientos.schedule(() -> {
+            if (pendiente.tomar()) {
+                cola.remove(pendiente);
+                pendiente.fallar(new EscrituraNoConfirmadaException(
+                        "El movimiento no se tomó para guardar en " + timeoutMs + " ms"));
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        futuro.whenComplete((guardado, error) -> vencimiento.cancel(false));
+        return futuro;
+    }
+
+    /**
+     * Bucle del hilo escritor; termina cuando se cierra y la cola queda vacía.
+     * Al salir, por cualquier motivo, hace fallar lo que siga en la cola.
+     */
+    private void escribir() {
+        try {
+            agrupar();
+        } finally {
+            activo = false;
+            List<Pendiente<?>> restantes = new ArrayList<>();
+            cola.drainTo(restantes);
+            for (Pendiente<?> pendiente : restantes) {
+                if (pendiente.tomar()) {
+                    pendiente.fallar(new EscrituraNoConfirmadaException("El servicio de escritura se detuvo"));
+                }
+            }
+        }
+    }
+
+    private void agrupar() {
+        List<Pendiente<?>> grupo = new ArrayList<>(maxLote);
+        while (activo || !cola.isEmpty()) {
+            try {
+                Pendiente<?> primero = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                grupo.add(primero);
+                long limite = System.nanoTime() + maxEsperaNanos;
+                while (grupo.size() < maxLote) {
+                    // Primero lo que ya está en la cola; luego espera hasta el
+                    // límite
+                    if (cola.drainTo(grupo, maxLote - grupo.size()) > 0) {
+                        continue;
+                    }
+                    long restante = limite - System.nanoTime();
+                    Pendiente<?> siguiente = restante > 0 ? cola.poll(restante, TimeUnit.NANOSECONDS) : null;
+                    if (siguiente == null) {
+                        break;
+                    }
+                    grupo.add(siguiente);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                activo = false;
+            }
+            if (!grupo.isEmpty()) {
+                guardar(grupo);
+                grupo.clear();
+            }
+        }
+    }
+
+    /**
+     * Guarda un grupo; si falla, reintenta cada movimiento por separado.
+     * Antes descarta los que ya vencieron, que no deben guardarse. Atrapa
+     * también los {@link Error} para que el hilo escritor no muera con
+     * respuestas pendientes.
+     */
+    private void guardar(List<Pendiente<?>> grupo) {
+        grupo.removeIf(pendiente -> !pendiente.tomar());
+        if (grupo.isEmpty()) {
+            return;
+        }
+        try {
+            guardarJuntos(grupo);
+        } catch (Throwable e) {
+            if (grupo.size() == 1) {
+                grupo.get(0).fallar(e);
+                return;
+            }
+            log.warn("Falló un grupo de {} movimientos; se reintentan uno a uno", grupo.size(), e);
+            for (Pendiente<?> pendiente : grupo) {
+                // El intento anterior ya les asignó ID
+                pendiente.movimiento.setId(null);
+                try {
+                    guardarJuntos(Collections.<Pendiente<?>>singletonList(pendiente));
+                } catch (Throwable error) {
+                    pendiente.fallar(error);
+                }
+            }
+        }
+    }
+
+    private void guardarJuntos(List<Pendiente<?>> grupo) {
+        List<Gasto> gastos = new ArrayList<>();
+        List<Ingreso> ingresos = new ArrayList<>();
+        for (Pendiente<?> pendiente : grupo) {
+            if (pendiente.movimiento instanceof Gasto) {
+                gastos.add((Gasto) pendiente.movimiento);
+            } else {
+                ingresos.add((Ingreso) pendiente.movimiento);
+            }
+        }
+        movimientoService.registrarGrupo(gastos, ingresos);
+        for (Pendiente<?> pendiente : grupo) {
+            pendiente.completar();
+        }
+    }
+
+    /**
+     * Movimiento en espera y la respuesta de su petición.
+     */
+    private static final class Pendiente<T extends Movimiento> {
+        private final T movimiento;
+        private final CompletableFuture<T> futuro;
+
+        /** Lo toma el escritor para guardarlo, o el vencimiento para descartarlo. */
+        private final AtomicBoolean tomado = new AtomicBoolean();
+
+        Pendiente(T movimiento, CompletableFuture<T> futuro) {
+            this.movimiento = movimiento;
+            this.futuro = futuro;
+        }
+
+        /**
+         * @return {@code true} si nadie lo había tomado; sólo quien lo toma
+         *         decide si se guarda.
+         */
+        boolean tomar() {
+            return tomado.compareAndSet(false, true);
+        }
+
+        void completar() {
+            futuro.complete(movimiento);
+        }
+
+        void fallar(Throwable error) {
+            futuro.completeExceptionally(error);
+        }
+    }
+}
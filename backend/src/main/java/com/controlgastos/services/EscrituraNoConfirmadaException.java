@@ -0,0 +1,26 @@
+package com.controlgastos.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Un movimiento encolado en {@link EscrituraAgrupadaService} no se guardó:
+ * venció su espera en la cola o el servicio se detuvo antes de tomarlo.
+ *
+ * <p>
+ * Garantiza que el movimiento no quedó en la base de datos, así que el
+ * cliente puede reintentarlo sin duplicarlo. Se responde 503.
+ * </p>
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "El movimiento no se guardó, intente de nuevo")
+public class EscrituraNoConfirmadaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param mensaje motivo por el que no se guardó.
+     */
+    public EscrituraNoConfirmadaException(String mensaje) {
+        super(mensaje);
+    }
+}
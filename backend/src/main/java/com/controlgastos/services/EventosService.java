@@ -0,0 +1,372 @@
+package com.controlgastos.services;
+
+import com.controlgastos.clasesCalculos.MotorSaldos;
+import com.controlgastos.model.Dinero;
+import com.controlgastos.model.Movimiento;
+import com.controlgastos.model.TipoMovimiento;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servicio que envía por Server-Sent Events los cambios de capital y los
+ * movimientos nuevos a los clientes suscritos a {@code /api/eventos}. Cada
+ * cliente recibe sólo los de su usuario.
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>{@link MovimientoService} publica cada cambio al confirmarse la
+ * transacción. El evento se serializa una sola vez y se encola en cada
+ * cliente del usuario; el hilo que publica nunca escribe en una
+ * conexión.</li>
+ * <li>Un grupo fijo de {@code eventos.hilos} hilos vacía las colas: cada
+ * cliente con eventos pendientes tiene a lo sumo una tarea programada, y
+ * cada tarea envía como máximo {@link #EVENTOS_POR_TURNO} eventos antes de
+ * ceder el hilo a otro cliente.</li>
+ * <li>Si el envío falla (cliente desconectado), el cliente se elimina.</li>
+ * </ol>
+ *
+ * <p>
+ * <strong>Clientes lentos:</strong>
+ * </p>
+ * <ul>
+ * <li><strong>capital</strong>: se combina; un cliente atrasado recibe un
+ * solo evento con el capital más reciente y la suma de los deltas
+ * pendientes.</li>
+ * <li><strong>gasto / ingreso</strong>: cola de
+ * {@code eventos.max-pendientes} eventos; al llenarse se descartan los más
+ * antiguos y el cliente recibe un evento {@code perdidos} con la cantidad,
+ * para que vuelva a consultar la API.</li>
+ * </ul>
+ *
+ * <p>
+ * Los movimientos de una importación de históricos no se envían uno a uno:
+ * solo se publica el cambio de capital y un evento {@code importacion}.
+ * </p>
+ */
+@Service
+public class EventosService {
+
+    /** Eventos enviados por cliente antes de ceder el hilo. */
+    static final int EVENTOS_POR_TURNO = 64;
+
+    private final ObjectMapper objectMapper;
+    private final MotorSaldos motorSaldos;
+    private final int maxPendientes;
+    private final int maxClientes;
+    private final ExecutorService envios;
+
+    /** Clientes de cada usuario. */
+    private final Map<Long, Suscriptores> suscriptores = new ConcurrentHashMap<>();
+
+    /** Clientes conectados de todos los usuarios. */
+    private final AtomicInteger conectados = new AtomicInteger();
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param objectMapper  mapper JSON de la aplicación.
+     * @param motorSaldos   motor de saldos, para el capital inicial.
+     * @param hilos         hilos que escriben en las conexiones.
+     * @param maxPendientes eventos de movimientos encolados por cliente.
+     * @param maxClientes   clientes simultáneos.
+     */
+    public EventosService(ObjectMapper objectMapper, MotorSaldos motorSaldos,
+            @Value("${eventos.hilos:4}") int hilos,
+            @Value("${eventos.max-pendientes:256}") int maxPendientes,
+            @Value("${eventos.max-clientes:10000}") int maxClientes) {
+        this.objectMapper = objectMapper;
+        this.motorSaldos = motorSaldos;
+        this.maxPendientes = maxPendientes;
+        this.maxClientes = maxClientes;
+        AtomicInteger numero = new AtomicInteger();
+        this.envios = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "eventos-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+    }
+
+    /**
+     * Registra un cliente nuevo y le encola el capital actual del usuario.
+     *
+     * @param usuario usuario cuyos eventos recibe el cliente.
+     * @return emisor del cliente, o {@code null} si se alcanzó
+     *         {@code eventos.max-clientes}.
+     */
+    public SseEmitter suscribir(long usuario) {
+        if (conectados.incrementAndGet() > maxClientes) {
+            conectados.decrementAndGet();
+            return null;
+        }
+        SseEmitter emisor = new SseEmitter();
+        Cliente cliente = new Cliente(usuario, emisor);
+        emisor.onCompletion(() -> quitar(cliente));
+        emisor.onTimeout(() -> quitar(cliente));
+        emisor.onError(error -> quitar(cliente));
+        suscriptores.computeIfAbsent(usuario, u -> new Suscriptores()).clientes.add(cliente);
+        encolarCapital(cliente, 0, motorSaldos.capital(usuario));
+        return emisor;
+    }
+
+    /**
+     * Publica un cambio de capital confirmado.
+     *
+     * @param usuario usuario dueño del capital.
+     * @param delta   cambio en centavos (negativo para gastos).
+     * @param capital capital resultante en centavos.
+     */
+    public void publicarCapital(long usuario, long delta, long capital) {
+        Suscriptores delUsuario = suscriptores.get(usuario);
+        if (delUsuario == null) {
+            return;
+        }
+        for (Cliente cliente : delUsuario.clientes) {
+            encolarCapital(cliente, delta, capital);
+        }
+    }
+
+    /**
+     * Publica movimientos confirmados, un evento por movimiento, a los
+     * clientes del usuario de cada uno.
+     *
+     * @param tipo        gasto o ingreso.
+     * @param movimientos movimientos con ID.
+     */
+    public void publicarMovimientos(TipoMovimiento tipo, List<? extends Movimiento> movimientos) {
+        if (conectados.get() == 0) {
+            return;
+        }
+        for (Movimiento movimiento : movimientos) {
+            Suscriptores delUsuario = suscriptores.get(movimiento.getUsuarioId());
+            if (delUsuario != null && !delUsuario.clientes.isEmpty()) {
+                delUsuario.publicar(tipo.getTabla(), json(movimiento));
+            }
+        }
+    }
+
+    /**
+     * Publica el fin de una importación de históricos.
+     *
+     * @param usuario  usuario dueño de los movimientos importados.
+     * @param tipo     gasto o ingreso.
+     * @param centavos total importado.
+     */
+    public void publicarImportacion(long usuario, TipoMovimiento tipo, long centavos) {
+        Suscriptores delUsuario = suscriptores.get(usuario);
+        if (delUsuario == null) {
+            return;
+        }
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("tipo", tipo.getTabla());
+        datos.put("monto", Dinero.deCentavos(centavos));
+        delUsuario.publicar("importacion", json(datos));
+    }
+
+    /**
+     * Envía un comentario a cada cliente para mantener viva la conexión y
+     * detectar las cerradas.
+     */
+    @Scheduled(fixedDelayString = "${eventos.latido-ms:15000}")
+    public void latido() {
+        for (Suscriptores delUsuario : suscriptores.values()) {
+            for (Cliente cliente : delUsuario.clientes) {
+                synchronized (cliente) {
+                    cliente.latido = true;
+                    programar(cliente);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cierra las conexiones abiertas al detener la aplicación.
+     */
+    @PreDestroy
+    public void cerrar() {
+        envios.shutdownNow();
+        for (Suscriptores delUsuario : suscriptores.values()) {
+            for (Cliente cliente : delUsuario.clientes) {
+                cliente.emisor.complete();
+            }
+        }
+        suscriptores.clear();
+        conectados.set(0);
+    }
+
+    private void quitar(Cliente cliente) {
+        Suscriptores delUsuario = suscriptores.get(cliente.usuario);
+        if (delUsuario != null && delUsuario.clientes.remove(cliente)) {
+            conectados.decrementAndGet();
+        }
+    }
+
+    private void encolarCapital(Cliente cliente, long delta, long capital) {
+        synchronized (cliente) {
+            cliente.deltaPendiente += delta;
+            cliente.capitalPendiente = capital;
+            cliente.hayCapital = true;
+            programar(cliente);
+        }
+    }
+
+    /**
+     * Programa el envío del cliente si no lo estaba. Debe llamarse con el
+     * cliente bloqueado.
+     */
+    private void programar(Cliente cliente) {
+        if (!cliente.programado) {
+            cliente.programado = true;
+            envios.execute(() -> enviar(cliente));
+        }
+    }
+
+    /**
+     * Envía hasta {@link #EVENTOS_POR_TURNO} eventos pendientes del cliente;
+     * si quedan más, se vuelve a programar al final de la cola.
+     */
+    private void enviar(Cliente cliente) {
+        try {
+            for (int enviados = 0; enviados < EVENTOS_POR_TURNO; enviados++) {
+                SseEmitter.SseEventBuilder evento;
+                synchronized (cliente) {
+                    evento = siguiente(cliente);
+                    if (evento == null) {
+                        cliente.programado = false;
+                        return;
+                    }
+                }
+                cliente.emisor.send(evento);
+            }
+            synchronized (cliente) {
+                cliente.programado = false;
+                programar(cliente);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Conexión cerrada: no se vuelve a programar
+            quitar(cliente);
+            cliente.emisor.completeWithError(e);
+        }
+    }
+
+    /**
+     * Toma el siguiente evento del cliente: primero el aviso de perdidos,
+     * luego los movimientos en orden y al final el capital combinado. Debe
+     * llamarse con el cliente bloqueado.
+     */
+    private SseEmitter.SseEventBuilder siguiente(Cliente cliente) {
+        if (cliente.perdidos > 0) {
+            long perdidos = cliente.perdidos;
+            cliente.perdidos = 0;
+            return SseEmitter.event().name("perdidos").data("{\"cantidad\":" + perdidos + "}");
+        }
+        Evento movimiento = cliente.movimientos.poll();
+        if (movimiento != null) {
+            return SseEmitter.event().id(Long.toString(movimiento.id)).name(movimiento.nombre)
+                    .data(movimiento.datos);
+        }
+        if (cliente.hayCapital) {
+            Map<String, Dinero> datos = new LinkedHashMap<>();
+            datos.put("capital", Dinero.deCentavos(cliente.capitalPendiente));
+            datos.put("delta", Dinero.deCentavos(cliente.deltaPendiente));
+            cliente.hayCapital = false;
+            cliente.deltaPendiente = 0;
+            return SseEmitter.event().name("capital").data(json(datos));
+        }
+        if (cliente.latido) {
+            cliente.latido = false;
+            return SseEmitter.event().comment("latido");
+        }
+        return null;
+    }
+
+    private String json(Object valor) {
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Clientes de un usuario y la numeración de sus eventos de movimientos,
+     * que no tiene huecos salvo por eventos descartados.
+     */
+    private final class Suscriptores {
+        private final Set<Cliente> clientes = ConcurrentHashMap.newKeySet();
+        private final AtomicLong secuencia = new AtomicLong();
+
+        void publicar(String nombre, String datos) {
+            Evento evento = new Evento(secuencia.incrementAndGet(), nombre, datos);
+            for (Cliente cliente : clientes) {
+                synchronized (cliente) {
+                    if (cliente.movimientos.size() >= maxPendientes) {
+                        // Descarta el más antiguo: el cliente deberá resincronizar
+                        cliente.movimientos.poll();
+                        cliente.perdidos++;
+                    }
+                    cliente.movimientos.add(evento);
+                    programar(cliente);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evento ya serializado, compartido por los clientes del usuario.
+     */
+    private static final class Evento {
+        private final long id;
+        private final String nombre;
+        private final String datos;
+
+        Evento(long id, String nombre, String datos) {
+            this.id = id;
+            this.nombre = nombre;
+            this.datos = datos;
+        }
+    }
+
+    /**
+     * Conexión de un cliente y sus eventos pendientes. Los campos se usan con
+     * el cliente bloqueado.
+     */
+    private static final class Cliente {
+        private final long usuario;
+        private final SseEmitter emisor;
+        private final ArrayDeque<Evento> movimientos = new ArrayDeque<>();
+        private long perdidos;
+        private boolean hayCapital;
+        private long capitalPendiente;
+        private long deltaPendiente;
+        private boolean latido;
+        private boolean programado;
+
+        Cliente(long usuario, SseEmitter emisor) {
+            this.usuario = usuario;
+            this.emisor = emisor;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.controlgastos.services;
+
+import com.controlgastos.model.TipoMovimiento;
+import com.controlgastos.repository.MovimientoJdbcRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Servicio que escribe movimientos en streaming, fila por fila, desde el
+ * cursor de {@link MovimientoJdbcRepository}.
+ *
+ * <p>
+ * Cada fila se escribe en la salida en cuanto se lee; no se construyen
+ * listas ni entidades, por lo que la memoria es constante sin importar el
+ * tamaño de la tabla.
+ * </p>
+ *
+ * <p>
+ * <strong>Formatos:</strong>
+ * </p>
+ * <ul>
+ * <li>Arreglo JSON: mismo formato que la serialización de las entidades.</li>
+ * <li>NDJSON: un objeto JSON por línea.</li>
+ * <li>CSV: {@code id,concepto,monto,fecha}, con encabezado.</li>
+ * <li>Columnar: binario compacto descrito en {@link FormatoColumnar}.</li>
+ * </ul>
+ *
+ * <p>
+ * Si falla la escritura (por ejemplo, el cliente se desconecta), los métodos
+ * no cierran ni vacían la salida: el error se propaga tal cual para que el
+ * contenedor descarte la respuesta.
+ * </p>
+ */
+@Service
+public class ExportacionService {
+
+    /** Tipo de contenido NDJSON. */
+    public static final String NDJSON = "application/x-ndjson";
+
+    /** Tipo de contenido CSV. */
+    public static final String CSV = "text/csv";
+
+    /** Tamaño del búfer de escritura de CSV. */
+    private static final int BUFER_CSV = 64 * 1024;
+
+    private final MovimientoJdbcRepository movimientoJdbcRepository;
+    private final ObjectMapper objectMapper;
+
+    /** Filas por bloque del formato columnar. */
+    private final int filasPorBloque;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param movimientoJdbcRepository acceso por cursor a los movimientos.
+     * @param objectMapper             mapper JSON de la aplicación.
+     * @param filasPorBloque           filas por bloque del formato columnar.
+     */
+    public ExportacionService(MovimientoJdbcRepository movimientoJdbcRepository, ObjectMapper objectMapper,
+            @Value("${exportacion.columnar.filas-por-bloque:65536}") int filasPorBloque) {
+        this.movimientoJdbcRepository = movimientoJdbcRepository;
+        this.objectMapper = objectMapper;
+        this.filasPorBloque = filasPorBloque;
+    }
+
+    /**
+     * Escribe los movimientos de un tipo y un usuario como JSON.
+     *
+     * @param tipo    tipo de movimiento.
+     * @param usuario usuario dueño de los movimientos.
+     * @param salida  flujo de salida de la respuesta.
+     * @param ndjson  {@code true} para un objeto por línea, {@code false} para
+     *                un arreglo JSON.
+     * @throws IOException si falla la escritura.
+     */
+    public void escribirJson(TipoMovimiento tipo, long usuario, OutputStream salida, boolean ndjson)
+            throws IOException {
+        // Sin try-with-resources: si el cliente se desconecta no se debe volver
+        // a escribir (ni vaciar el búfer) en una respuesta ya abortada.
+        JsonGenerator json = objectMapper.getFactory().createGenerator(salida)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT, false);
+        try {
+            if (ndjson) {
+                json.setRootValueSeparator(null);
+            } else {
+                json.writeStartArray();
+            }
+            movimientoJdbcRepository.recorrer(tipo, usuario, (id, concepto, montoCentavos, fechaRegistro) -> {
+                try {
+                    json.writeStartObject();
+                    json.writeNumberField("id", id);
+                    json.writeStringField("concepto", concepto);
+                    json.writeNumberField("monto", BigDecimal.valueOf(montoCentavos, 2));
+                    json.writeStringField("fechaRegistro",
+                            DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(fechaRegistro.toLocalDateTime()));
+                    json.writeEndObject();
+                    if (ndjson) {
+                        json.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!ndjson) {
+                json.writeEndArray();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        json.close();
+    }
+
+    /**
+     * Escribe los movimientos de un tipo y un usuario como CSV
+     * ({@code id,concepto,monto,fecha}).
+     *
+     * <p>
+     * El monto se escribe con dos decimales a partir de los centavos, sin
+     * pasar por {@link BigDecimal}, y la fecha en el mismo formato que
+     * {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} sin crear cadenas
+     * intermedias. Los conceptos con comas, comillas o saltos
+     * de línea van entre comillas.
+     * </p>
+     *
+     * @param tipo    tipo de movimiento.
+     * @param usuario usuario dueño de los movimientos.
+     * @param salida  flujo de salida de la respuesta.
+     * @throws IOException si falla la escritura.
+     */
+    public void escribirCsv(TipoMovimiento tipo, long usuario, OutputStream salida) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), BUFER_CSV);
+        csv.write("id,concepto,monto,fecha\n");
+        // Cada fila se arma en un único StringBuilder reutilizado: una sola
+        // escritura por fila en lugar de una por campo
+        StringBuilder fila = new StringBuilder(64);
+        char[] caracteres = new char[64];
+        try {
+            movimientoJdbcRepository.recorrer(tipo, usuario, (id, concepto, montoCentavos, fechaRegistro) -> {
+                fila.setLength(0);
+                fila.append(id).append(',');
+                escribirCampoCsv(fila, concepto);
+                fila.append(',');
+                escribirCentavos(fila, montoCentavos);
+                fila.append(',');
+                escribirFecha(fila, fechaRegistro.toLocalDateTime());
+                fila.append('\n');
+                int largo = fila.length();
+                char[] destino = largo <= caracteres.length ? caracteres : new char[largo];
+                fila.getChars(0, largo, destino, 0);
+                try {
+                    csv.write(destino, 0, largo);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        csv.flush();
+    }
+
+    /**
+     * Escribe los movimientos de un tipo y un usuario en formato columnar.
+     *
+     * @param tipo    tipo de movimiento.
+     * @param usuario usuario dueño de los movimientos.
+     * @param salida  flujo de salida de la respuesta.
+     * @throws IOException si falla la escritura.
+     */
+    public void escribirColumnar(TipoMovimiento tipo, long usuario, OutputStream salida) throws IOException {
+        FormatoColumnar.Escritor columnar = new FormatoColumnar.Escritor(salida, filasPorBloque);
+        try {
+            movimientoJdbcRepository.recorrer(tipo, usuario, (id, concepto, montoCentavos, fechaRegistro) -> {
+                try {
+                    columnar.escribir(id, concepto, montoCentavos, fechaRegistro.toLocalDateTime());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        columnar.terminar();
+    }
+
+    private static void escribirCampoCsv(StringBuilder fila, String valor) {
+        boolean comillas = false;
+        for (int i = 0; i < valor.length() && !comillas; i++) {
+            char c = valor.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!comillas) {
+            fila.append(valor);
+            return;
+        }
+        fila.append('"');
+        fila.append(valor.replace("\"", "\"\""));
+        fila.append('"');
+    }
+
+    private static void escribirCentavos(StringBuilder fila, long centavos) {
+        if (centavos < 0) {
+            fila.append('-');
+        }
+        long absoluto = Math.abs(centavos);
+        long resto = absoluto % 100;
+        fila.append(absoluto / 100);
+        fila.append('.');
+        fila.append((char) ('0' + resto / 10));
+        fila.append((char) ('0' + resto % 10));
+    }
+
+    /**
+     * Escribe la fecha igual que {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}
+     * (fracción de 3, 6 o 9 dígitos, omitida si es cero).
+     */
+    private static void escribirFecha(StringBuilder fila, LocalDateTime fecha) {
+        if (fecha.getYear() < 0 || fecha.getYear() > 9999) {
+            fila.append(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(fecha));
+            return;
+        }
+        escribirDigitos(fila, fecha.getYear(), 4);
+        fila.append('-');
+        escribirDigitos(fila, fecha.getMonthValue(), 2);
+        fila.append('-');
+        escribirDigitos(fila, fecha.getDayOfMonth(), 2);
+        fila.append('T');
+        escribirDigitos(fila, fecha.getHour(), 2);
+        fila.append(':');
+        escribirDigitos(fila, fecha.getMinute(), 2);
+        fila.append(':');
+        escribirDigitos(fila, fecha.getSecond(), 2);
+        int nano = fecha.getNano();
+        if (nano == 0) {
+            return;
+        }
+        fila.append('.');
+        if (nano % 1_000_000 == 0) {
+            escribirDigitos(fila, nano / 1_000_000, 3);
+        } else if (nano % 1000 == 0) {
+            escribirDigitos(fila, nano / 1000, 6);
+        } else {
+            escribirDigitos(fila, nano, 9);
+        }
+    }
+
+    private static void escribirDigitos(StringBuilder fila, int valor, int digitos) {
+        for (int divisor = (int) Math.pow(10, digitos - 1); divisor > 0; divisor /= 10) {
+            fila.append((char) ('0' + valor / divisor % 10));
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.controlgastos.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Formato binario columnar para exportar movimientos ({@code .mcol}).
+ *
+ * <p>
+ * <strong>Estructura:</strong>
+ * </p>
+ * <ol>
+ * <li>Cabecera: {@code "MCOL"} y un byte de versión ({@value #VERSION}).</li>
+ * <li>Bloques de hasta {@code filasPorBloque} filas, cada uno decodificable
+ * por separado:
+ * <ul>
+ * <li>cantidad de filas;</li>
+ * <li>diccionario de conceptos del bloque (cantidad y cada texto en
+ * UTF-8);</li>
+ * <li>cuatro columnas, cada una precedida por su largo en bytes para poder
+ * saltarla: {@code id} (delta respecto a la fila anterior),
+ * {@code concepto} (índice en el diccionario), {@code monto} (centavos) y
+ * {@code fecha} (microsegundos desde 1970, delta respecto a la fila
+ * anterior).</li>
+ * </ul>
+ * </li>
+ * <li>Un bloque con 0 filas marca el final.</li>
+ * </ol>
+ *
+ * <p>
+ * Todos los enteros son <em>varint</em> (7 bits por byte) con codificación
+ * <em>zigzag</em> para los valores con signo. Como las filas se recorren en
+ * orden de ID, los deltas de ID y de fecha suelen ocupar 1 a 3 bytes, y un
+ * concepto repetido ocupa 1 o 2.
+ * </p>
+ */
+public final class FormatoColumnar {
+
+    /** Tipo de contenido de la exportación columnar. */
+    public static final String TIPO_CONTENIDO = "application/vnd.controlgastos.columnar";
+
+    /** Versión del formato escrita en la cabecera. */
+    static final int VERSION = 1;
+
+    private static final byte[] MAGICO = { 'M', 'C', 'O', 'L' };
+
+    private FormatoColumnar() {
+    }
+
+    /**
+     * Escritor por bloques. La memoria usada depende de
+     * {@code filasPorBloque}, no del total de filas.
+     *
+     * <p>
+     * No es seguro para uso concurrente.
+     * </p>
+     */
+    public static class Escritor {
+
+        private final OutputStream salida;
+        private final int filasPorBloque;
+
+        private final Columna ids = new Columna();
+        private final Columna conceptos = new Columna();
+        private final Columna montos = new Columna();
+        private final Columna fechas = new Columna();
+        private final Columna cabeceraBloque = new Columna();
+
+        /** Diccionario del bloque actual, en orden de aparición. */
+        private final Map<String, Integer> diccionario = new HashMap<>();
+        private final Columna textosDiccionario = new Columna();
+
+        private int filas;
+        private long idAnterior;
+        private long fechaAnterior;
+
+        /**
+         * Crea el escritor y escribe la cabecera.
+         *
+         * @param salida         flujo de destino; no se cierra.
+         * @param filasPorBloque filas máximas por bloque.
+         * @throws IOException si falla la escritura.
+         */
+        public Escritor(OutputStream salida, int filasPorBloque) throws IOException {
+            this.salida = salida;
+            this.filasPorBloque = filasPorBloque;
+            salida.write(MAGICO);
+            salida.write(VERSION);
+        }
+
+        /**
+         * Agrega una fila; escribe el bloque si se llena.
+         *
+         * @param id            identificador.
+         * @param concepto      concepto.
+         * @param montoCentavos monto en centavos.
+         * @param fecha         fecha de registro.
+         * @throws IOException si falla la escritura.
+         */
+        public void escribir(long id, String concepto, long montoCentavos, LocalDateTime fecha)
+                throws IOException {
+            long micros = aMicros(fecha);
+            ids.escribirConSigno(id - idAnterior);
+            fechas.escribirConSigno(micros - fechaAnterior);
+            montos.escribirConSigno(montoCentavos);
+            conceptos.escribir(indiceConcepto(concepto));
+            idAnterior = id;
+            fechaAnterior = micros;
+            if (++filas == filasPorBloque) {
+                escribirBloque();
+            }
+        }
+
+        /**
+         * Escribe el bloque pendiente y la marca de fin. No cierra la salida.
+         *
+         * @throws IOException si falla la escritura.
+         */
+        public void terminar() throws IOException {
+            if (filas > 0) {
+                escribirBloque();
+            }
+            cabeceraBloque.escribir(0);
+            cabeceraBloque.volcar(salida);
+        }
+
+        private int indiceConcepto(String concepto) {
+            Integer indice = diccionario.get(concepto);
+            if (indice == null) {
+                indice = diccionario.size();
+                diccionario.put(concepto, indice);
+                byte[] bytes = concepto.getBytes(StandardCharsets.UTF_8);
+                textosDiccionario.escribir(bytes.length);
+                textosDiccionario.escribir(bytes);
+            }
+            return indice;
+        }
+
+        private void escribirBloque() throws IOException {
+            cabeceraBloque.escribir(filas);
+            cabeceraBloque.escribir(diccionario.size());
+            cabeceraBloque.volcar(salida);
+            textosDiccionario.volcar(salida);
+            for (Columna columna : new Columna[] { ids, conceptos, montos, fechas }) {
+                cabeceraBloque.escribir(columna.largo);
+                cabeceraBloque.volcar(salida);
+                columna.volcar(salida);
+            }
+            diccionario.clear();
+            filas = 0;
+            idAnterior = 0;
+            fechaAnterior = 0;
+        }
+    }
+
+    /**
+     * Receptor de las filas leídas con {@link #leer}.
+     */
+    @FunctionalInterface
+    public interface Receptor {
+
+        /**
+         * @param id            identificador.
+         * @param concepto      concepto.
+         * @param montoCentavos monto en centavos.
+         * @param fecha         fecha de registro.
+         */
+        void fila(long id, String concepto, long montoCentavos, LocalDateTime fecha);
+    }
+
+    /**
+     * Lee un archivo columnar completo.
+     *
+     * @param entrada  flujo con el contenido.
+     * @param receptor receptor de cada fila, en el orden escrito.
+     * @return cantidad de filas leídas.
+     * @throws IOException si el contenido no es válido o falla la lectura.
+     */
+    public static long leer(InputStream entrada, Receptor receptor) throws IOException {
+        DataInputStream datos = new DataInputStream(entrada);
+        byte[] magico = new byte[MAGICO.length];
+        datos.readFully(magico);
+        if (!Arrays.equals(magico, MAGICO) || datos.readUnsignedByte() != VERSION) {
+            throw new IOException("No es un archivo columnar de movimientos (versión " + VERSION + ")");
+        }
+        long total = 0;
+        int filas;
+        while ((filas = (int) leerVarint(datos)) > 0) {
+            String[] diccionario = new String[(int) leerVarint(datos)];
+            for (int i = 0; i < diccionario.length; i++) {
+                byte[] bytes = new byte[(int) leerVarint(datos)];
+                datos.readFully(bytes);
+                diccionario[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            DataInputStream ids = columna(datos);
+            DataInputStream conceptos = columna(datos);
+            DataInputStream montos = columna(datos);
+            DataInputStream fechas = columna(datos);
+            long id = 0;
+            long micros = 0;
+            for (int i = 0; i < filas; i++) {
+                id += zigzag(leerVarint(ids));
+                micros += zigzag(leerVarint(fechas));
+                receptor.fila(id, diccionario[(int) leerVarint(conceptos)], zigzag(leerVarint(montos)),
+                        deMicros(micros));
+            }
+            total += filas;
+        }
+        return total;
+    }
+
+    private static DataInputStream columna(DataInputStream datos) throws IOException {
+        byte[] bytes = new byte[(int) leerVarint(datos)];
+        datos.readFully(bytes);
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    private static long leerVarint(DataInputStream datos) throws IOException {
+        long valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+            int b = datos.read();
+            if (b < 0) {
+                throw new EOFException("Archivo columnar truncado");
+            }
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Varint demasiado largo");
+    }
+
+    private static long zigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    private static long aMicros(LocalDateTime fecha) {
+        return Math.addExact(Math.multiplyExact(fecha.toEpochSecond(ZoneOffset.UTC), 1_000_000L),
+                fecha.getNano() / 1000);
+    }
+
+    private static LocalDateTime deMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Búfer de bytes que crece según se necesita y se reutiliza entre
+     * bloques.
+     */
+    private static final class Columna {
+
+        private byte[] bytes = new byte[1024];
+        private int largo;
+
+        void escribirConSigno(long valor) {
+            escribir((valor << 1) ^ (valor >> 63));
+        }
+
+        void escribir(long valor) {
+            asegurar(10);
+            while ((valor & ~0x7FL) != 0) {
+                bytes[largo++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            bytes[largo++] = (byte) valor;
+        }
+
+        void escribir(byte[] datos) {
+            asegurar(datos.length);
+            System.arraycopy(datos, 0, bytes, largo, datos.length);
+            largo += datos.length;
+        }
+
+        void volcar(OutputStream salida) throws IOException {
+            salida.write(bytes, 0, largo);
+            largo = 0;
+        }
+
+        private void asegurar(int extra) {
+            if (largo + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, largo + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.controlgastos.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Hash de contraseñas con BCrypt en un pool de hilos propio y acotado.
+ *
+ * <p>
+ * Cada hash cuesta decenas de milisegundos de CPU (según
+ * {@code seguridad.hash.costo}). Para que una ráfaga de inicios de sesión no
+ * ocupe los hilos HTTP que atienden {@code /api/*}, el trabajo de
+ * autenticación corre en {@code seguridad.hash.hilos} hilos con una cola de
+ * {@code seguridad.hash.cola} tareas. Si la cola está llena, la tarea se
+ * rechaza de inmediato y el controlador responde 503.
+ * </p>
+ *
+ * <p>
+ * Las contraseñas guardadas antes de usar hash (texto plano) se reconocen
+ * porque no tienen el formato de BCrypt; {@link #coincide} las compara en
+ * tiempo constante y {@link #requiereRehash} indica que deben reemplazarse.
+ * </p>
+ *
+ * <p>
+ * {@link #simular} paga el mismo costo que una comparación real contra un
+ * hash fijo, para que rechazar un usuario inexistente tarde lo mismo que
+ * rechazar una contraseña incorrecta.
+ * </p>
+ */
+@Service
+public class HashContrasenasService {
+
+    /** Formato de un hash BCrypt ({@code $2a$10$...}). */
+    private static final Pattern BCRYPT = Pattern.compile("\\A\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor hashes;
+
+    /** Hash de referencia para {@link #simular}, con el costo configurado. */
+    private final String hashFicticio;
+
+    /**
+     * Constructor con la configuración del pool.
+     *
+     * @param costo logaritmo en base 2 de las rondas de BCrypt (4 a 31).
+     * @param hilos hilos dedicados al hash.
+     * @param cola  tareas en espera como máximo.
+     */
+    public HashContrasenasService(@Value("${seguridad.hash.costo:10}") int costo,
+            @Value("${seguridad.hash.hilos:2}") int hilos,
+            @Value("${seguridad.hash.cola:64}") int cola) {
+        this.encoder = new BCryptPasswordEncoder(costo);
+        this.hashFicticio = encoder.encode("contrasena-ficticia");
+        AtomicInteger numero = new AtomicInteger();
+        this.hashes = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(cola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "hash-contrasenas-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Ejecuta una tarea de autenticación en el pool de hash.
+     *
+     * @param tarea tarea a ejecutar (consulta, hash y guardado).
+     * @param <T>   tipo del resultado.
+     * @return futuro con el resultado, o {@code null} si la cola está llena.
+     */
+    public <T> CompletableFuture<T> ejecutar(Supplier<T> tarea) {
+        try {
+            return CompletableFuture.supplyAsync(tarea, hashes);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Calcula el hash de una contraseña.
+     *
+     * @param contrasena contraseña en texto plano.
+     * @return hash BCrypt, con sal y costo incluidos.
+     */
+    public String hashear(String contrasena) {
+        return encoder.encode(contrasena);
+    }
+
+    /**
+     * Compara una contraseña con la guardada, sea hash o texto plano heredado.
+     *
+     * @param contrasena contraseña recibida.
+     * @param guardada   valor guardado en {@code users.password}.
+     * @return {@code true} si coinciden.
+     */
+    public boolean coincide(String contrasena, String guardada) {
+        if (contrasena == null || guardada == null) {
+            return false;
+        }
+        if (esHash(guardada)) {
+            return encoder.matches(contrasena, guardada);
+        }
+        return MessageDigest.isEqual(contrasena.getBytes(StandardCharsets.UTF_8),
+                guardada.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Compara la contraseña con un hash fijo y descarta el resultado; se usa
+     * al rechazar un usuario inexistente para no delatarlo por el tiempo de
+     * respuesta.
+     *
+     * @param contrasena contraseña recibida.
+     * @return siempre {@code false}.
+     */
+    public boolean simular(String contrasena) {
+        encoder.matches(contrasena == null ? "" : contrasena, hashFicticio);
+        return false;
+    }
+
+    /**
+     * Indica si la contraseña guardada debe reemplazarse tras un inicio de
+     * sesión correcto: está en texto plano o su costo es menor al configurado.
+     *
+     * @param guardada valor guardado en {@code users.password}.
+     * @return {@code true} si debe volver a calcularse el hash.
+     */
+    public boolean requiereRehash(String guardada) {
+        return !esHash(guardada) || encoder.upgradeEncoding(guardada);
+    }
+
+    /**
+     * Detiene el pool; las tareas pendientes se descartan.
+     */
+    @PreDestroy
+    public void cerrar() {
+        hashes.shutdownNow();
+    }
+
+    private static boolean esHash(String guardada) {
+        return BCRYPT.matcher(guardada).matches();
+    }
+}
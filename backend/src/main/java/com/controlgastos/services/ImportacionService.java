@@ -0,0 +1,206 @@
+package com.controlgastos.services;
+
+import com.controlgastos.dto.ResultadoImportacion;
+import com.controlgastos.model.Dinero;
+import com.controlgastos.model.Gasto;
+import com.controlgastos.model.Ingreso;
+import com.controlgastos.model.Movimiento;
+import com.controlgastos.model.TipoMovimiento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servicio que importa movimientos históricos desde archivos CSV
+ * {@code concepto,monto,fecha} (ver {@link LectorCsvMovimientos}).
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>Mapea el archivo en memoria por ventanas de hasta 64 MB, sin copiarlo al
+ * heap, y lo interpreta byte a byte.</li>
+ * <li>Valida cada fila con las mismas reglas que los endpoints
+ * ({@code @NotEmpty}, {@code @Size(max = 25)}, {@code @Positive}); las
+ * inválidas se reportan sin detener la importación.</li>
+ * <li>Inserta las válidas en bloques de
+ * {@code importacion.filas-por-transaccion}, cada uno en su transacción y en
+ * un lote JDBC directo ({@link MovimientoService#importarBloque}), sin pasar
+ * por el contexto de persistencia, conservando la fecha del archivo y
+ * actualizando los resúmenes diarios y mensuales.</li>
+ * <li>Al terminar aplica al saldo <strong>un solo</strong> delta con el total
+ * importado, en lugar de uno por fila.</li>
+ * </ol>
+ *
+ * <p>
+ * Si un bloque falla, los anteriores ya están confirmados: su total se aplica
+ * igualmente al saldo antes de propagar el error.
+ * </p>
+ */
+@Service
+public class ImportacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacionService.class);
+
+    /** Tamaño máximo de cada ventana mapeada en memoria. */
+    private static final long VENTANA_BYTES = 64L * 1024 * 1024;
+
+    private final MovimientoService movimientoService;
+
+    /** Filas insertadas en cada transacción. */
+    private final int filasPorTransaccion;
+
+    /** Errores que se incluyen en el resultado. */
+    private final int maxErrores;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param movimientoService   servicio que valida, inserta los bloques y
+     *                            aplica el total al saldo.
+     * @param filasPorTransaccion filas insertadas en cada transacción.
+     * @param maxErrores          errores que se incluyen en el resultado.
+     */
+    public ImportacionService(MovimientoService movimientoService,
+            @Value("${importacion.filas-por-transaccion:5000}") int filasPorTransaccion,
+            @Value("${importacion.max-errores:100}") int maxErrores) {
+        this.movimientoService = movimientoService;
+        this.filasPorTransaccion = filasPorTransaccion;
+        this.maxErrores = maxErrores;
+    }
+
+    /**
+     * Importa un archivo CSV de gastos o ingresos.
+     *
+     * @param tipo    tipo de los movimientos del archivo.
+     * @param usuario usuario dueño de los movimientos importados.
+     * @param archivo ruta del archivo CSV.
+     * @return filas leídas, importadas, rechazadas y velocidad.
+     * @throws IOException si el archivo no puede leerse.
+     */
+    public ResultadoImportacion importar(TipoMovimiento tipo, long usuario, Path archivo) throws IOException {
+        long inicio = System.nanoTime();
+        Importacion importacion = new Importacion(tipo, usuario);
+        LectorCsvMovimientos lector = new LectorCsvMovimientos();
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            long posicion = 0;
+            while (posicion < tamano) {
+                long largo = Math.min(VENTANA_BYTES, tamano - posicion);
+                boolean ultimo = posicion + largo == tamano;
+                MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, posicion, largo);
+                if (posicion == 0 && tieneBom(buffer)) {
+                    // Por Buffer: compilado en JDK 9+, MappedByteBuffer.position(int) no
+                    // existe en Java 8
+                    ((Buffer) buffer).position(3);
+                    posicion = 3;
+                }
+                int consumidos = lector.leer(buffer, ultimo, importacion);
+                if (consumidos == 0 && !ultimo) {
+                    throw new IOException("Línea demasiado larga cerca del byte " + posicion);
+                }
+                posicion += consumidos;
+            }
+            importacion.guardarBloque();
+        } finally {
+            // Lo confirmado se aplica al saldo aunque la importación falle
+            movimientoService.registrarImportado(tipo, usuario, importacion.total);
+        }
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+        ResultadoImportacion resultado = new ResultadoImportacion(importacion.filas, importacion.importadas,
+                importacion.filas - importacion.importadas, importacion.errores, milisegundos);
+        log.info("Importación de {} desde {}: {} filas, {} importadas, {} rechazadas en {} ms ({} filas/s)",
+                tipo.getTabla(), archivo.getFileName(), resultado.getFilas(), resultado.getImportadas(),
+                resultado.getRechazadas(), milisegundos, resultado.getFilasPorSegundo());
+        return resultado;
+    }
+
+    private static boolean tieneBom(MappedByteBuffer buffer) {
+        return buffer.limit() >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB
+                && buffer.get(2) == (byte) 0xBF;
+    }
+
+    /**
+     * Estado de una importación: recibe las filas del lector, las valida y las
+     * inserta por bloques.
+     */
+    private class Importacion implements LectorCsvMovimientos.Receptor {
+
+        private final TipoMovimiento tipo;
+        private final long usuario;
+        private final List<Movimiento> bloque = new ArrayList<>(filasPorTransaccion);
+        private final List<String> errores = new ArrayList<>();
+        private long filas;
+        private long importadas;
+        private long total;
+
+        Importacion(TipoMovimiento tipo, long usuario) {
+            this.tipo = tipo;
+            this.usuario = usuario;
+        }
+
+        @Override
+        public void fila(long linea, String concepto, long montoCentavos, LocalDateTime fecha) {
+            filas++;
+            Movimiento movimiento = crear(concepto, montoCentavos, fecha);
+            List<String> mensajes = movimientoService.validar(movimiento);
+            if (!mensajes.isEmpty()) {
+                agregarError(linea, String.join("; ", mensajes));
+                return;
+            }
+            bloque.add(movimiento);
+            if (bloque.size() == filasPorTransaccion) {
+                guardarBloque();
+            }
+        }
+
+        @Override
+        public void error(long linea, String mensaje) {
+            filas++;
+            agregarError(linea, mensaje);
+        }
+
+        private void agregarError(long linea, String mensaje) {
+            if (errores.size() < maxErrores) {
+                errores.add("Línea " + linea + ": " + mensaje);
+            }
+        }
+
+        private Movimiento crear(String concepto, long montoCentavos, LocalDateTime fecha) {
+            if (tipo == TipoMovimiento.GASTO) {
+                Gasto gasto = new Gasto();
+                gasto.setUsuarioId(usuario);
+                gasto.setConcepto(concepto);
+                gasto.setMonto(Dinero.deCentavos(montoCentavos));
+                gasto.setFechaRegistro(fecha);
+                return gasto;
+            }
+            Ingreso ingreso = new Ingreso();
+            ingreso.setUsuarioId(usuario);
+            ingreso.setConcepto(concepto);
+            ingreso.setMonto(Dinero.deCentavos(montoCentavos));
+            ingreso.setFechaRegistro(fecha);
+            return ingreso;
+        }
+
+        void guardarBloque() {
+            if (bloque.isEmpty()) {
+                return;
+            }
+            total = Math.addExact(total, movimientoService.importarBloque(tipo, usuario, bloque));
+            importadas += bloque.size();
+            bloque.clear();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.controlgastos.services;
 
 import io.jsonwebtoken.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.util.Date;
 
@@ -11,15 +12,34 @@ import java.util.Date;
  *
  * <p><strong>Advertencias:</strong></p>
  * <ul>
- *   <li>La clave secreta debe almacenarse de forma segura (e.g., en variables de entorno).</li>
- *   <li>La expiración actual es de 3600 ms (~3.6 segundos), lo cual es inusualmente corta.</li>
+ *   <li>La clave secreta debe almacenarse de forma segura (e.g., en variables de entorno,
+ *   propiedad {@code jwt.secreto}).</li>
+ *   <li>La expiración se configura con {@code jwt.expiracion-ms} (una hora por defecto).</li>
  *   <li>En producción, se recomienda usar {@link io.jsonwebtoken.security.Keys} y {@code HS512}.</li>
  * </ul>
  */
 @Service
 public class JwtUtil {
 
-    private String secretKey = "MySecretKey"; // ⚠️ Reemplazar por variable de entorno en producción
+    /** Audiencia de los tokens que sólo sirven para suscribirse a {@code /api/eventos}. */
+    public static final String AUDIENCIA_EVENTOS = "eventos";
+
+    private final String secretKey; // ⚠️ Reemplazar por variable de entorno en producción
+
+    /** Vigencia de los tokens emitidos, en milisegundos. */
+    private final long expiracionMs;
+
+    /**
+     * Constructor con la configuración del token.
+     *
+     * @param secretKey    clave secreta de la firma.
+     * @param expiracionMs vigencia de los tokens emitidos, en milisegundos.
+     */
+    public JwtUtil(@Value("${jwt.secreto:MySecretKey}") String secretKey,
+            @Value("${jwt.expiracion-ms:3600000}") long expiracionMs) {
+        this.secretKey = secretKey;
+        this.expiracionMs = expiracionMs;
+    }
 
     /**
      * Genera un token JWT para el usuario especificado.
@@ -31,7 +51,27 @@ public class JwtUtil {
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 3600)) // ⚠️ Solo 3.6 segundos
+                .setExpiration(new Date(System.currentTimeMillis() + expiracionMs))
+                .signWith(SignatureAlgorithm.HS256, secretKey)
+                .compact();
+    }
+
+    /**
+     * Genera un token JWT de uso restringido: lleva una audiencia y no sirve
+     * como token de sesión.
+     *
+     * @param username   nombre de usuario que se incluirá como sujeto del token.
+     * @param audiencia  único uso aceptado del token, p. ej.
+     *                   {@link #AUDIENCIA_EVENTOS}.
+     * @param vigenciaMs vigencia del token, en milisegundos.
+     * @return token JWT firmado.
+     */
+    public String generateToken(String username, String audiencia, long vigenciaMs) {
+        return Jwts.builder()
+                .setSubject(username)
+                .setAudience(audiencia)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + vigenciaMs))
                 .signWith(SignatureAlgorithm.HS256, secretKey)
                 .compact();
     }
@@ -43,12 +83,22 @@ public class JwtUtil {
      * @return nombre de usuario si el token es válido, {@code null} si es inválido o expirado.
      */
     public String validateToken(String token) {
+        Claims claims = validateClaims(token);
+        return claims == null ? null : claims.getSubject();
+    }
+
+    /**
+     * Valida un token JWT (firma y expiración) y devuelve sus claims.
+     *
+     * @param token JWT a validar.
+     * @return claims del token si es válido, {@code null} si es inválido o expirado.
+     */
+    public Claims validateClaims(String token) {
         try {
-            Claims claims = Jwts.parser()
+            return Jwts.parser()
                     .setSigningKey(secretKey)
                     .parseClaimsJws(token)
                     .getBody();
-            return claims.getSubject();
         } catch (Exception e) {
             return null;
         }
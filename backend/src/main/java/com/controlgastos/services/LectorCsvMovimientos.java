@@ -0,0 +1,349 @@
+package com.controlgastos.services;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+/**
+ * Lector de archivos CSV {@code concepto,monto,fecha} que trabaja
+ * directamente sobre los bytes de un {@link ByteBuffer} (normalmente un
+ * archivo mapeado en memoria).
+ *
+ * <p>
+ * <strong>Formato:</strong>
+ * </p>
+ * <ul>
+ * <li>Separador {@code ,}; fin de línea {@code \n} o {@code \r\n}; UTF-8.</li>
+ * <li>{@code concepto}: texto, opcionalmente entre comillas dobles (con
+ * {@code ""} como comilla escapada) si contiene comas.</li>
+ * <li>{@code monto}: decimal con punto y hasta dos decimales
+ * ({@code 1234.5}).</li>
+ * <li>{@code fecha}: {@code yyyy-MM-dd} o {@code yyyy-MM-dd[T| ]HH:mm[:ss]}.</li>
+ * <li>La primera línea se omite si su primer campo es {@code concepto}.</li>
+ * </ul>
+ *
+ * <p>
+ * El monto y la fecha se interpretan byte a byte, sin crear {@code String}.
+ * Los conceptos se reutilizan desde una caché de tamaño fijo, porque en un
+ * historial bancario se repiten mucho.
+ * </p>
+ *
+ * <p>
+ * No es seguro para uso concurrente: cada importación usa su propia
+ * instancia.
+ * </p>
+ */
+public class LectorCsvMovimientos {
+
+    /** Entradas de la caché de conceptos (potencia de 2). */
+    private static final int TAMANO_CACHE = 4096;
+
+    private final byte[][] cacheBytes = new byte[TAMANO_CACHE][];
+    private final String[] cacheConceptos = new String[TAMANO_CACHE];
+
+    /** Número de la última línea leída (desde 1). */
+    private long linea;
+
+    /** Campos de la línea actual: inicio y fin (exclusivo) de cada uno. */
+    private final int[] inicios = new int[3];
+    private final int[] fines = new int[3];
+
+    /**
+     * Receptor de las filas leídas.
+     */
+    public interface Receptor {
+
+        /**
+         * Fila interpretada correctamente (aún sin validar reglas de negocio).
+         *
+         * @param linea         número de línea en el archivo.
+         * @param concepto      concepto.
+         * @param montoCentavos monto en centavos.
+         * @param fecha         fecha del movimiento.
+         */
+        void fila(long linea, String concepto, long montoCentavos, LocalDateTime fecha);
+
+        /**
+         * Fila con formato inválido.
+         *
+         * @param linea   número de línea en el archivo.
+         * @param mensaje descripción del error.
+         */
+        void error(long linea, String mensaje);
+    }
+
+    /**
+     * Lee las líneas completas de {@code buffer}, desde su posición actual.
+     *
+     * @param buffer   bytes del archivo.
+     * @param ultimo   {@code true} si el buffer llega al final del archivo; en
+     *                 ese caso la última línea no necesita salto de línea.
+     * @param receptor receptor de filas y errores.
+     * @return cantidad de bytes consumidos; lo que quede (una línea incompleta)
+     *         debe volver a leerse con el siguiente bloque.
+     */
+    public int leer(ByteBuffer buffer, boolean ultimo, Receptor receptor) {
+        int inicio = buffer.position();
+        int limite = buffer.limit();
+        int cursor = inicio;
+        while (cursor < limite) {
+            int finLinea = buscarFinLinea(buffer, cursor, limite);
+            if (finLinea == limite && !ultimo) {
+                break;
+            }
+            linea++;
+            procesarLinea(buffer, cursor, finLinea, receptor);
+            cursor = finLinea + 1;
+        }
+        int consumidos = Math.min(cursor, limite) - inicio;
+        // Por Buffer: compilado en JDK 9+, ByteBuffer.position(int) no existe en Java 8
+        ((Buffer) buffer).position(inicio + consumidos);
+        return consumidos;
+    }
+
+    private static int buscarFinLinea(ByteBuffer buffer, int desde, int limite) {
+        boolean entreComillas = false;
+        for (int i = desde; i < limite; i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                entreComillas = !entreComillas;
+            } else if (b == '\n' && !entreComillas) {
+                return i;
+            }
+        }
+        return limite;
+    }
+
+    private void procesarLinea(ByteBuffer buffer, int desde, int hasta, Receptor receptor) {
+        if (hasta > desde && buffer.get(hasta - 1) == '\r') {
+            hasta--;
+        }
+        if (hasta == desde) {
+            return;
+        }
+        if (!separarCampos(buffer, desde, hasta)) {
+            receptor.error(linea, "Se esperaban 3 campos: concepto,monto,fecha");
+            return;
+        }
+        if (linea == 1 && esEncabezado(buffer)) {
+            return;
+        }
+        long monto;
+        LocalDateTime fecha;
+        try {
+            monto = leerCentavos(buffer, inicios[1], fines[1]);
+            fecha = leerFecha(buffer, inicios[2], fines[2]);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            receptor.error(linea, e.getMessage());
+            return;
+        }
+        receptor.fila(linea, concepto(buffer, inicios[0], fines[0]), monto, fecha);
+    }
+
+    /**
+     * Ubica los tres campos de la línea. Respeta comillas en el concepto.
+     *
+     * @return {@code false} si la línea no tiene exactamente tres campos.
+     */
+    private boolean separarCampos(ByteBuffer buffer, int desde, int hasta) {
+        int campo = 0;
+        int inicioCampo = desde;
+        boolean entreComillas = false;
+        for (int i = desde; i < hasta; i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                entreComillas = !entreComillas;
+            } else if (b == ',' && !entreComillas) {
+                if (campo == 2) {
+                    return false;
+                }
+                inicios[campo] = inicioCampo;
+                fines[campo] = i;
+                campo++;
+                inicioCampo = i + 1;
+            }
+        }
+        if (campo != 2) {
+            return false;
+        }
+        inicios[2] = inicioCampo;
+        fines[2] = hasta;
+        return true;
+    }
+
+    private boolean esEncabezado(ByteBuffer buffer) {
+        byte[] encabezado = { 'c', 'o', 'n', 'c', 'e', 'p', 't', 'o' };
+        int desde = recortarInicio(buffer, inicios[0], fines[0]);
+        int hasta = recortarFin(buffer, desde, fines[0]);
+        if (hasta - desde != encabezado.length) {
+            return false;
+        }
+        for (int i = 0; i < encabezado.length; i++) {
+            if (Character.toLowerCase(buffer.get(desde + i)) != encabezado[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Interpreta un monto decimal como centavos sin crear objetos.
+     */
+    static long leerCentavos(ByteBuffer buffer, int desde, int hasta) {
+        desde = recortarInicio(buffer, desde, hasta);
+        hasta = recortarFin(buffer, desde, hasta);
+        if (desde == hasta) {
+            throw new IllegalArgumentException("El monto está vacío");
+        }
+        boolean negativo = buffer.get(desde) == '-';
+        if (negativo || buffer.get(desde) == '+') {
+            desde++;
+        }
+        long centavos = 0;
+        int decimales = -1;
+        boolean hayDigitos = false;
+        for (int i = desde; i < hasta; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && decimales < 0) {
+                decimales = 0;
+            } else if (b >= '0' && b <= '9') {
+                if (decimales >= 0 && ++decimales > 2) {
+                    throw new IllegalArgumentException("El monto tiene más de dos decimales");
+                }
+                centavos = Math.addExact(Math.multiplyExact(centavos, 10L), b - '0');
+                hayDigitos = true;
+            } else {
+                throw new IllegalArgumentException("Monto inválido");
+            }
+        }
+        if (!hayDigitos) {
+            throw new IllegalArgumentException("Monto inválido");
+        }
+        for (int d = Math.max(decimales, 0); d < 2; d++) {
+            centavos = Math.multiplyExact(centavos, 10L);
+        }
+        return negativo ? -centavos : centavos;
+    }
+
+    /**
+     * Interpreta {@code yyyy-MM-dd} con hora opcional {@code HH:mm[:ss]}.
+     */
+    static LocalDateTime leerFecha(ByteBuffer buffer, int desde, int hasta) {
+        desde = recortarInicio(buffer, desde, hasta);
+        hasta = recortarFin(buffer, desde, hasta);
+        int largo = hasta - desde;
+        if (largo != 10 && largo != 16 && largo != 19) {
+            throw new IllegalArgumentException("Fecha inválida, se espera yyyy-MM-dd[THH:mm[:ss]]");
+        }
+        int anio = digitos(buffer, desde, 4);
+        esperar(buffer, desde + 4, '-');
+        int mes = digitos(buffer, desde + 5, 2);
+        esperar(buffer, desde + 7, '-');
+        int dia = digitos(buffer, desde + 8, 2);
+        int hora = 0;
+        int minuto = 0;
+        int segundo = 0;
+        if (largo > 10) {
+            byte separador = buffer.get(desde + 10);
+            if (separador != 'T' && separador != ' ') {
+                throw new IllegalArgumentException("Fecha inválida, se espera yyyy-MM-dd[THH:mm[:ss]]");
+            }
+            hora = digitos(buffer, desde + 11, 2);
+            esperar(buffer, desde + 13, ':');
+            minuto = digitos(buffer, desde + 14, 2);
+            if (largo == 19) {
+                esperar(buffer, desde + 16, ':');
+                segundo = digitos(buffer, desde + 17, 2);
+            }
+        }
+        return LocalDateTime.of(anio, mes, dia, hora, minuto, segundo);
+    }
+
+    private static int digitos(ByteBuffer buffer, int desde, int cantidad) {
+        int valor = 0;
+        for (int i = desde; i < desde + cantidad; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                throw new IllegalArgumentException("Fecha inválida, se espera yyyy-MM-dd[THH:mm[:ss]]");
+            }
+            valor = valor * 10 + (b - '0');
+        }
+        return valor;
+    }
+
+    private static void esperar(ByteBuffer buffer, int posicion, char caracter) {
+        if (buffer.get(posicion) != caracter) {
+            throw new IllegalArgumentException("Fecha inválida, se espera yyyy-MM-dd[THH:mm[:ss]]");
+        }
+    }
+
+    /**
+     * Devuelve el concepto, reutilizando el {@code String} de la caché si los
+     * bytes coinciden con uno ya visto.
+     */
+    private String concepto(ByteBuffer buffer, int desde, int hasta) {
+        desde = recortarInicio(buffer, desde, hasta);
+        hasta = recortarFin(buffer, desde, hasta);
+        if (hasta - desde >= 2 && buffer.get(desde) == '"' && buffer.get(hasta - 1) == '"') {
+            return conceptoEntreComillas(buffer, desde + 1, hasta - 1);
+        }
+        int hash = 1;
+        for (int i = desde; i < hasta; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        int indice = (hash ^ (hash >>> 16)) & (TAMANO_CACHE - 1);
+        byte[] guardado = cacheBytes[indice];
+        if (guardado != null && iguales(guardado, buffer, desde, hasta)) {
+            return cacheConceptos[indice];
+        }
+        byte[] bytes = new byte[hasta - desde];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(desde + i);
+        }
+        String concepto = new String(bytes, StandardCharsets.UTF_8);
+        cacheBytes[indice] = bytes;
+        cacheConceptos[indice] = concepto;
+        return concepto;
+    }
+
+    private static String conceptoEntreComillas(ByteBuffer buffer, int desde, int hasta) {
+        byte[] bytes = new byte[hasta - desde];
+        int largo = 0;
+        for (int i = desde; i < hasta; i++) {
+            byte b = buffer.get(i);
+            bytes[largo++] = b;
+            if (b == '"' && i + 1 < hasta && buffer.get(i + 1) == '"') {
+                i++;
+            }
+        }
+        return new String(bytes, 0, largo, StandardCharsets.UTF_8);
+    }
+
+    private static boolean iguales(byte[] guardado, ByteBuffer buffer, int desde, int hasta) {
+        if (guardado.length != hasta - desde) {
+            return false;
+        }
+        for (int i = 0; i < guardado.length; i++) {
+            if (guardado[i] != buffer.get(desde + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int recortarInicio(ByteBuffer buffer, int desde, int hasta) {
+        while (desde < hasta && buffer.get(desde) == ' ') {
+            desde++;
+        }
+        return desde;
+    }
+
+    private static int recortarFin(ByteBuffer buffer, int desde, int hasta) {
+        while (hasta > desde && buffer.get(hasta - 1) == ' ') {
+            hasta--;
+        }
+        return hasta;
+    }
+}
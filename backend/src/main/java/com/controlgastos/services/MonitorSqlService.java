@@ -0,0 +1,311 @@
+package com.controlgastos.services;
+
+import com.controlgastos.clasesCalculos.NormalizadorSql;
+import com.controlgastos.dto.HuellaSql;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detector de sentencias SQL y peticiones lentas; reemplaza a
+ * {@code spring.jpa.show-sql}.
+ *
+ * <p>
+ * <strong>Flujo de {@link #sentencia}</strong> (en el hilo de la petición):
+ * </p>
+ * <ol>
+ * <li>Si la sentencia no superó {@code monitor.sql.umbral-ms} y no sale
+ * sorteada con probabilidad {@code monitor.sql.muestreo}, termina: el costo es
+ * una comparación y un número aleatorio.</li>
+ * <li>Si no, encola la observación sin bloquear; si la cola está llena la
+ * descarta y lo cuenta en {@code monitor.descartadas}.</li>
+ * </ol>
+ *
+ * <p>
+ * Un único hilo ({@code monitor-lentas}) consume la cola: normaliza la
+ * sentencia con {@link NormalizadorSql}, actualiza su huella y registra en el
+ * log las que superaron el umbral. Las peticiones lentas
+ * ({@link #peticion}) siguen el mismo camino.
+ * </p>
+ *
+ * <p>
+ * La tabla de huellas tiene a lo sumo {@code monitor.sql.huellas} entradas;
+ * al llenarse se descarta la de menor tiempo máximo. La media sólo usa las
+ * ejecuciones muestreadas, para no quedar sesgada por las lentas, que se
+ * registran siempre.
+ * </p>
+ */
+@Service
+public class MonitorSqlService {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorSqlService.class);
+
+    /** Observación pendiente de procesar. */
+    private static final class Observacion {
+        final String texto;
+        final long nanos;
+        final boolean muestra;
+        final boolean lenta;
+        final String hilo;
+        final boolean esPeticion;
+
+        Observacion(String texto, long nanos, boolean muestra, boolean lenta, String hilo, boolean esPeticion) {
+            this.texto = texto;
+            this.nanos = nanos;
+            this.muestra = muestra;
+            this.lenta = lenta;
+            this.hilo = hilo;
+            this.esPeticion = esPeticion;
+        }
+    }
+
+    /** Huella en la tabla; sólo la modifica el hilo consumidor. */
+    private static final class Huella {
+        final String sql;
+        final int parametros;
+        volatile long muestras;
+        volatile long nanosMuestras;
+        volatile long maximo;
+        volatile long lentas;
+
+        Huella(String sql, int parametros) {
+            this.sql = sql;
+            this.parametros = parametros;
+        }
+    }
+
+    private final long umbralSql;
+    private final long umbralPeticion;
+    private final double muestreo;
+    private final int maxHuellas;
+    private final BlockingQueue<Observacion> cola;
+    private final Map<String, Huella> huellas = new ConcurrentHashMap<>();
+
+    private final Counter sqlLentas;
+    private final Counter peticionesLentas;
+    private final Counter descartadas;
+
+    private Thread consumidor;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param registro        registro de métricas.
+     * @param umbralSqlMs     duración desde la que una sentencia es lenta.
+     * @param umbralPeticionMs duración desde la que una petición es lenta.
+     * @param muestreo        fracción de sentencias que se muestrean (0 a 1).
+     * @param maxHuellas      huellas distintas que se conservan.
+     * @param capacidadCola   observaciones pendientes como máximo.
+     */
+    public MonitorSqlService(MeterRegistry registro,
+            @Value("${monitor.sql.umbral-ms:100}") long umbralSqlMs,
+            @Value("${monitor.peticiones.umbral-ms:1000}") long umbralPeticionMs,
+            @Value("${monitor.sql.muestreo:0.01}") double muestreo,
+            @Value("${monitor.sql.huellas:1000}") int maxHuellas,
+            @Value("${monitor.cola:1024}") int capacidadCola) {
+        this.umbralSql = TimeUnit.MILLISECONDS.toNanos(umbralSqlMs);
+        this.umbralPeticion = TimeUnit.MILLISECONDS.toNanos(umbralPeticionMs);
+        this.muestreo = muestreo;
+        this.maxHuellas = maxHuellas;
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.sqlLentas = Counter.builder("monitor.lentas").tag("tipo", "sql")
+                .description("Sentencias SQL sobre el umbral").register(registro);
+        this.peticionesLentas = Counter.builder("monitor.lentas").tag("tipo", "peticion")
+                .description("Peticiones HTTP sobre el umbral").register(registro);
+        this.descartadas = Counter.builder("monitor.descartadas")
+                .description("Observaciones descartadas con la cola llena").register(registro);
+        Gauge.builder("monitor.sql.huellas", huellas, Map::size)
+                .description("Huellas SQL en la tabla").register(registro);
+    }
+
+    /**
+     * Arranca el hilo consumidor.
+     */
+    @PostConstruct
+    public void iniciar() {
+        consumidor = new Thread(this::consumir, "monitor-lentas");
+        consumidor.setDaemon(true);
+        consumidor.start();
+    }
+
+    /**
+     * Detiene el hilo consumidor; lo pendiente se descarta.
+     */
+    @PreDestroy
+    public void cerrar() {
+        if (consumidor != null) {
+            consumidor.interrupt();
+        }
+    }
+
+    /**
+     * Registra una ejecución de sentencia.
+     *
+     * @param sql   sentencia tal como se preparó.
+     * @param nanos duración de la ejecución.
+     */
+    public void sentencia(String sql, long nanos) {
+        boolean lenta = nanos >= umbralSql;
+        boolean muestra = ThreadLocalRandom.current().nextDouble() < muestreo;
+        if (lenta || muestra) {
+            encolar(new Observacion(sql, nanos, muestra, lenta, Thread.currentThread().getName(), false));
+        }
+    }
+
+    /**
+     * Registra una petición HTTP terminada.
+     *
+     * @param descripcion método, URI y estado.
+     * @param nanos       duración de la petición.
+     */
+    public void peticion(String descripcion, long nanos) {
+        if (nanos >= umbralPeticion) {
+            encolar(new Observacion(descripcion, nanos, false, true, Thread.currentThread().getName(), true));
+        }
+    }
+
+    /**
+     * Obtiene las huellas más lentas.
+     *
+     * @param limite cantidad de huellas.
+     * @param orden  {@code maximo} (tiempo máximo), {@code media} (tiempo
+     *               medio) o {@code total} (tiempo total estimado).
+     * @return huellas ordenadas de mayor a menor.
+     * @throws IllegalArgumentException si el orden no es válido.
+     */
+    public List<HuellaSql> top(int limite, String orden) {
+        Comparator<HuellaSql> criterio;
+        switch (orden) {
+            case "maximo":
+                criterio = Comparator.comparingDouble(HuellaSql::getMaximoMs);
+                break;
+            case "media":
+                criterio = Comparator.comparingDouble(HuellaSql::getMediaMs);
+                break;
+            case "total":
+                criterio = Comparator.comparingDouble(h -> h.getMediaMs() * h.getEjecucionesEstimadas());
+                break;
+            default:
+                throw new IllegalArgumentException("Orden desconocido: " + orden);
+        }
+        List<HuellaSql> resultado = new ArrayList<>(huellas.size());
+        for (Huella huella : huellas.values()) {
+            long muestras = huella.muestras;
+            resultado.add(new HuellaSql(huella.sql, huella.parametros, muestras,
+                    muestreo > 0 ? Math.round(muestras / muestreo) : 0,
+                    muestras == 0 ? 0 : ms(huella.nanosMuestras / muestras), ms(huella.maximo), huella.lentas));
+        }
+        resultado.sort(criterio.reversed());
+        return resultado.size() > limite ? new ArrayList<>(resultado.subList(0, limite)) : resultado;
+    }
+
+    /**
+     * Vacía la tabla de huellas.
+     */
+    public void reiniciar() {
+        huellas.clear();
+    }
+
+    /** @return umbral de sentencias lentas, en ms. */
+    public long getUmbralSqlMs() {
+        return TimeUnit.NANOSECONDS.toMillis(umbralSql);
+    }
+
+    /** @return umbral de peticiones lentas, en ms. */
+    public long getUmbralPeticionMs() {
+        return TimeUnit.NANOSECONDS.toMillis(umbralPeticion);
+    }
+
+    /** @return fracción de sentencias muestreadas. */
+    public double getMuestreo() {
+        return muestreo;
+    }
+
+    private void encolar(Observacion observacion) {
+        if (!cola.offer(observacion)) {
+            descartadas.increment();
+        }
+    }
+
+    private void consumir() {
+        try {
+            while (true) {
+                Observacion observacion = cola.take();
+                try {
+                    procesar(observacion);
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo procesar la observación", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void procesar(Observacion observacion) {
+        if (observacion.esPeticion) {
+            peticionesLentas.increment();
+            log.warn("Petición lenta ({} ms, {}): {}", ms(observacion.nanos), observacion.hilo, observacion.texto);
+            return;
+        }
+        String sql = NormalizadorSql.normalizar(observacion.texto);
+        int parametros = NormalizadorSql.parametros(observacion.texto);
+        String clave = parametros + ":" + sql;
+        Huella huella = huellas.get(clave);
+        if (huella == null) {
+            if (huellas.size() >= maxHuellas) {
+                descartarMenor();
+            }
+            huella = new Huella(sql, parametros);
+            huellas.put(clave, huella);
+        }
+        if (observacion.muestra) {
+            huella.muestras++;
+            huella.nanosMuestras += observacion.nanos;
+        }
+        if (observacion.nanos > huella.maximo) {
+            huella.maximo = observacion.nanos;
+        }
+        if (observacion.lenta) {
+            huella.lentas++;
+            sqlLentas.increment();
+            log.warn("SQL lenta ({} ms, {}, {} parámetros): {}", ms(observacion.nanos), observacion.hilo,
+                    parametros, sql);
+        }
+    }
+
+    /** Descarta la huella de menor tiempo máximo. */
+    private void descartarMenor() {
+        String menor = null;
+        long minimo = Long.MAX_VALUE;
+        for (Map.Entry<String, Huella> entrada : huellas.entrySet()) {
+            if (entrada.getValue().maximo < minimo) {
+                minimo = entrada.getValue().maximo;
+                menor = entrada.getKey();
+            }
+        }
+        if (menor != null) {
+            huellas.remove(menor);
+        }
+    }
+
+    private static double ms(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,465 @@
+package com.controlgastos.services;
+
+import com.controlgastos.clasesCalculos.IndiceFechas;
+import com.controlgastos.clasesCalculos.MotorSaldos;
+import com.controlgastos.dto.ResultadoItem;
+import com.controlgastos.dto.ResultadoLote;
+import com.controlgastos.model.Gasto;
+import com.controlgastos.model.Ingreso;
+import com.controlgastos.model.Movimiento;
+import com.controlgastos.model.TipoMovimiento;
+import com.controlgastos.repository.GastoRepository;
+import com.controlgastos.repository.IngresoRepository;
+import com.controlgastos.repository.MovimientoJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Servicio que registra gastos e ingresos junto con su efecto en el capital.
+ *
+ * <p>
+ * Cada método guarda el movimiento y actualiza sus resúmenes diarios y
+ * mensuales ({@link ResumenService}) en la misma transacción y,
+ * <strong>solo cuando ésta se confirma</strong>, lo suma al
+ * {@link MotorSaldos}, al {@link IndiceFechas}, a {@link BusquedaService}
+ * y, si son gastos, a {@link ConceptosService}, en memoria, y lo publica a
+ * los clientes de {@link EventosService}. El capital
+ * persistido se actualiza después, por lotes, mediante
+ * {@link CheckpointSaldosService}.
+ * </p>
+ *
+ * <p>
+ * Todos los efectos se aplican al usuario dueño de cada movimiento
+ * ({@link Movimiento#getUsuarioId()}), que asigna el controlador. Un mismo
+ * grupo o lote puede mezclar movimientos de varios usuarios.
+ * </p>
+ */
+@Service
+public class MovimientoService {
+
+    private final GastoRepository gastoRepository;
+    private final IngresoRepository ingresoRepository;
+    private final MovimientoJdbcRepository movimientoJdbcRepository;
+    private final ResumenService resumenService;
+    private final MotorSaldos motorSaldos;
+    private final IndiceFechas indiceFechas;
+    private final ConceptosService conceptosService;
+    private final BusquedaService busquedaService;
+    private final CacheRespuestasService cacheRespuestasService;
+    private final EventosService eventosService;
+    private final CheckpointSaldosService checkpointSaldosService;
+    private final Validator validator;
+
+    /** Elementos tras los que se vacía el contexto de persistencia en lotes. */
+    private final int tamanoLoteJdbc;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param gastoRepository          repositorio de gastos.
+     * @param ingresoRepository        repositorio de ingresos.
+     * @param movimientoJdbcRepository inserciones JDBC masivas.
+     * @param resumenService           resúmenes diarios y mensuales.
+     * @param motorSaldos              motor de saldos en memoria.
+     * @param indiceFechas             índice de totales por rango de fechas.
+     * @param conceptosService         conceptos de gasto más frecuentes.
+     * @param busquedaService          búsqueda por concepto.
+     * @param cacheRespuestasService   respuestas en caché de capital e
+     *                                 ingreso.
+     * @param eventosService           eventos SSE para los clientes.
+     * @param checkpointSaldosService  servicio que persiste los saldos.
+     * @param validator                validador de Bean Validation.
+     * @param tamanoLoteJdbc           tamaño de lote JDBC configurado.
+     */
+    public MovimientoService(GastoRepository gastoRepository, IngresoRepository ingresoRepository,
+            MovimientoJdbcRepository movimientoJdbcRepository, ResumenService resumenService,
+            MotorSaldos motorSaldos, IndiceFechas indiceFechas, ConceptosService conceptosService,
+            BusquedaService busquedaService, CacheRespuestasService cacheRespuestasService,
+            EventosService eventosService, CheckpointSaldosService checkpointSaldosService, Validator validator,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int tamanoLoteJdbc) {
+        this.gastoRepository = gastoRepository;
+        this.ingresoRepository = ingresoRepository;
+        this.movimientoJdbcRepository = movimientoJdbcRepository;
+        this.resumenService = resumenService;
+        this.motorSaldos = motorSaldos;
+        this.indiceFechas = indiceFechas;
+        this.conceptosService = conceptosService;
+        this.busquedaService = busquedaService;
+        this.cacheRespuestasService = cacheRespuestasService;
+        this.eventosService = eventosService;
+        this.checkpointSaldosService = checkpointSaldosService;
+        this.validator = validator;
+        this.tamanoLoteJdbc = tamanoLoteJdbc;
+    }
+
+    /**
+     * Guarda un gasto y, al confirmarse, lo descuenta del saldo en memoria.
+     *
+     * @param gasto gasto ya validado.
+     * @return el gasto persistido.
+     */
+    @Transactional
+    public Gasto registrarGasto(Gasto gasto) {
+        Gasto savedGasto = gastoRepository.save(gasto);
+        long usuario = savedGasto.getUsuarioId();
+        resumenService.registrar(TipoMovimiento.GASTO, usuario, Collections.singletonList(savedGasto));
+        indexarAlConfirmar(TipoMovimiento.GASTO, usuario, Collections.singletonList(savedGasto));
+        long centavos = savedGasto.getMontoCentavos();
+        alConfirmar(() -> eventosService.publicarMovimientos(TipoMovimiento.GASTO,
+                Collections.singletonList(savedGasto)));
+        alConfirmar(() -> aplicarAlSaldo(TipoMovimiento.GASTO, usuario, centavos));
+        return savedGasto;
+    }
+
+    /**
+     * Guarda un ingreso y, al confirmarse, lo suma al saldo en memoria.
+     *
+     * @param ingreso ingreso ya validado.
+     * @return el ingreso persistido.
+     */
+    @Transactional
+    public Ingreso registrarIngreso(Ingreso ingreso) {
+        Ingreso savedIngreso = ingresoRepository.save(ingreso);
+        long usuario = savedIngreso.getUsuarioId();
+        resumenService.registrar(TipoMovimiento.INGRESO, usuario, Collections.singletonList(savedIngreso));
+        indexarAlConfirmar(TipoMovimiento.INGRESO, usuario, Collections.singletonList(savedIngreso));
+        long centavos = savedIngreso.getMontoCentavos();
+        alConfirmar(() -> eventosService.publicarMovimientos(TipoMovimiento.INGRESO,
+                Collections.singletonList(savedIngreso)));
+        alConfirmar(() -> aplicarAlSaldo(TipoMovimiento.INGRESO, usuario, centavos));
+        return savedIngreso;
+    }
+
+    /**
+     * Guarda una lista de gastos y descuenta su total del saldo.
+     *
+     * @param gastos gastos a registrar; los inválidos se rechazan uno a uno.
+     * @return resultado por elemento.
+     */
+    @Transactional
+    public ResultadoLote registrarGastos(List<Gasto> gastos) {
+        return registrarLote(TipoMovimiento.GASTO, gastos);
+    }
+
+    /**
+     * Guarda una lista de ingresos y suma su total al saldo.
+     *
+     * @param ingresos ingresos a registrar; los inválidos se rechazan uno a uno.
+     * @return resultado por elemento.
+     */
+    @Transactional
+    public ResultadoLote registrarIngresos(List<Ingreso> ingresos) {
+        return registrarLote(TipoMovimiento.INGRESO, ingresos);
+    }
+
+    /**
+     * Guarda en una sola transacción los movimientos acumulados por
+     * {@link EscrituraAgrupadaService}.
+     *
+     * <p>
+     * Las inserciones van en lotes JDBC, los resúmenes se actualizan una vez
+     * por usuario, día y mes afectados y, al confirmarse, el saldo de cada
+     * usuario recibe un único delta por tipo en lugar de uno por movimiento.
+     * </p>
+     *
+     * @param gastos   gastos ya validados.
+     * @param ingresos ingresos ya validados.
+     */
+    @Transactional
+    public void registrarGrupo(List<Gasto> gastos, List<Ingreso> ingresos) {
+        insertarValidos(TipoMovimiento.GASTO, gastos);
+        insertarValidos(TipoMovimiento.INGRESO, ingresos);
+    }
+
+    /**
+     * Valida e inserta los elementos en la transacción actual.
+     *
+     * <p>
+     * Los inválidos se reportan sin detener el lote; los válidos se insertan
+     * con {@link #insertarValidos}.
+     * </p>
+     */
+    private <T extends Movimiento> ResultadoLote registrarLote(TipoMovimiento tipo, List<T> movimientos) {
+        ResultadoItem[] resultados = new ResultadoItem[movimientos.size()];
+        List<T> validos = new ArrayList<>(movimientos.size());
+        List<Integer> indices = new ArrayList<>(movimientos.size());
+        for (int i = 0; i < movimientos.size(); i++) {
+            T movimiento = movimientos.get(i);
+            List<String> errores = validar(movimiento);
+            if (errores.isEmpty()) {
+                validos.add(movimiento);
+                indices.add(i);
+            } else {
+                resultados[i] = new ResultadoItem(i, null, errores);
+            }
+        }
+        insertarValidos(tipo, validos);
+        for (int i = 0; i < validos.size(); i++) {
+            resultados[indices.get(i)] = new ResultadoItem(indices.get(i), validos.get(i).getId(),
+                    Collections.<String>emptyList());
+        }
+        return new ResultadoLote(movimientos.size(), validos.size(), Arrays.asList(resultados));
+    }
+
+    /**
+     * Inserta movimientos ya validados en la transacción actual.
+     *
+     * <p>
+     * Cada {@code tamanoLoteJdbc} inserciones vacía el contexto de persistencia
+     * para enviar el lote JDBC y no retener miles de entidades en memoria.
+     * Luego aplica {@link #registrarEfectos}.
+     * </p>
+     */
+    private <T extends Movimiento> void insertarValidos(TipoMovimiento tipo, List<T> validos) {
+        if (validos.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < validos.size(); i++) {
+            entityManager.persist(validos.get(i));
+            if ((i + 1) % tamanoLoteJdbc == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        registrarEfectos(tipo, validos);
+    }
+
+    /**
+     * Copia a la base de datos, en una sola transacción, movimientos ya
+     * guardados en el diario ({@link AlmacenDiarioService}).
+     *
+     * <p>
+     * Los inserta por JDBC conservando el ID que se les asignó al anexarlos y
+     * aplica los mismos efectos que {@link #registrarGrupo}: resúmenes y, al
+     * confirmarse, saldo, índices y eventos.
+     * </p>
+     *
+     * @param gastos   gastos leídos del diario.
+     * @param ingresos ingresos leídos del diario.
+     */
+    @Transactional
+    public void registrarDiario(List<Gasto> gastos, List<Ingreso> ingresos) {
+        if (!gastos.isEmpty()) {
+            movimientoJdbcRepository.insertar(TipoMovimiento.GASTO, gastos);
+            registrarEfectos(TipoMovimiento.GASTO, gastos);
+        }
+        if (!ingresos.isEmpty()) {
+            movimientoJdbcRepository.insertar(TipoMovimiento.INGRESO, ingresos);
+            registrarEfectos(TipoMovimiento.INGRESO, ingresos);
+        }
+    }
+
+    /**
+     * Actualiza los resúmenes una vez por usuario, día y mes afectados y, al
+     * confirmarse, aplica el total de cada usuario a su saldo y publica los
+     * movimientos.
+     */
+    private <T extends Movimiento> void registrarEfectos(TipoMovimiento tipo, List<T> validos) {
+        porUsuario(validos).forEach((usuario, delUsuario) -> {
+            resumenService.registrar(tipo, usuario, delUsuario);
+            indexarAlConfirmar(tipo, usuario, delUsuario);
+            long total = 0;
+            for (T movimiento : delUsuario) {
+                total = Math.addExact(total, movimiento.getMontoCentavos());
+            }
+            long totalUsuario = total;
+            alConfirmar(() -> aplicarAlSaldo(tipo, usuario, totalUsuario));
+        });
+        alConfirmar(() -> eventosService.publicarMovimientos(tipo, validos));
+    }
+
+    /**
+     * Separa los movimientos por usuario, conservando el orden. Sin copiar la
+     * lista en el caso habitual de un solo usuario.
+     */
+    private static <T extends Movimiento> Map<Long, List<T>> porUsuario(List<T> movimientos) {
+        long primero = movimientos.get(0).getUsuarioId();
+        boolean unico = true;
+        for (T movimiento : movimientos) {
+            if (movimiento.getUsuarioId() != primero) {
+                unico = false;
+                break;
+            }
+        }
+        if (unico) {
+            return Collections.singletonMap(primero, movimientos);
+        }
+        Map<Long, List<T>> grupos = new LinkedHashMap<>();
+        for (T movimiento : movimientos) {
+            grupos.computeIfAbsent(movimiento.getUsuarioId(), u -> new ArrayList<>()).add(movimiento);
+        }
+        return grupos;
+    }
+
+    /**
+     * Inserta un bloque de movimientos importados, ya validados, con sus
+     * resúmenes, sin tocar el saldo.
+     *
+     * @param tipo        tipo de los movimientos.
+     * @param usuario     usuario dueño de todos los movimientos.
+     * @param movimientos movimientos sin ID, con fecha de registro y usuario.
+     * @return suma de los montos insertados, en centavos.
+     */
+    @Transactional
+    public long importarBloque(TipoMovimiento tipo, long usuario, List<? extends Movimiento> movimientos) {
+        long total = movimientoJdbcRepository.insertar(tipo, movimientos);
+        resumenService.registrar(tipo, usuario, movimientos);
+        indexarAlConfirmar(tipo, usuario, movimientos);
+        return total;
+    }
+
+    /**
+     * Aplica al saldo en memoria el total de una importación ya confirmada y
+     * solicita un checkpoint.
+     *
+     * <p>
+     * La importación de históricos inserta con {@link #importarBloque} y
+     * llama a este método una sola vez al final, en lugar de actualizar el
+     * saldo por cada fila.
+     * </p>
+     *
+     * @param tipo     tipo de los movimientos importados.
+     * @param usuario  usuario dueño de los movimientos.
+     * @param centavos total importado, en centavos.
+     */
+    public void registrarImportado(TipoMovimiento tipo, long usuario, long centavos) {
+        if (centavos == 0) {
+            return;
+        }
+        if (tipo == TipoMovimiento.GASTO) {
+            motorSaldos.registrarGasto(usuario, centavos);
+        } else {
+            motorSaldos.registrarIngreso(usuario, centavos);
+        }
+        cacheRespuestasService.invalidarCapital(usuario);
+        eventosService.publicarCapital(usuario, tipo == TipoMovimiento.GASTO ? -centavos : centavos,
+                motorSaldos.capital(usuario));
+        eventosService.publicarImportacion(usuario, tipo, centavos);
+        checkpointSaldosService.checkpoint();
+    }
+
+    /**
+     * Suma o resta un monto confirmado del saldo en memoria, invalida el
+     * capital en caché, publica el cambio a los clientes SSE y, si se alcanzó
+     * el umbral, solicita un checkpoint.
+     */
+    private void aplicarAlSaldo(TipoMovimiento tipo, long usuario, long centavos) {
+        boolean umbral = tipo == TipoMovimiento.GASTO
+                ? motorSaldos.registrarGasto(usuario, centavos)
+                : motorSaldos.registrarIngreso(usuario, centavos);
+        // Después de cambiar el saldo: una lectura concurrente no puede dejar
+        // en caché el valor anterior con la versión nueva
+        cacheRespuestasService.invalidarCapital(usuario);
+        eventosService.publicarCapital(usuario, tipo == TipoMovimiento.GASTO ? -centavos : centavos,
+                motorSaldos.capital(usuario));
+        if (umbral) {
+            checkpointSaldosService.solicitarCheckpoint();
+        }
+    }
+
+    /**
+     * Aplica las mismas validaciones que {@code @Valid} en los endpoints
+     * individuales.
+     *
+     * @return mensajes de error; vacío si el movimiento es válido.
+     */
+    List<String> validar(Movimiento movimiento) {
+        if (movimiento == null) {
+            return Collections.singletonList("El elemento no puede ser nulo");
+        }
+        List<String> errores = new ArrayList<>();
+        if (movimiento.getId() != null) {
+            errores.add("El id lo asigna el servidor");
+        }
+        for (ConstraintViolation<Movimiento> violacion : validator.validate(movimiento)) {
+            errores.add(violacion.getMessage());
+        }
+        return errores;
+    }
+
+    /**
+     * Agrega los movimientos de un usuario por día (y los gastos por
+     * concepto) y, al
+     * confirmarse la transacción, los suma al {@link IndiceFechas}, a
+     * {@link ConceptosService} y a {@link BusquedaService}; el ingreso de
+     * mayor ID pasa a {@link CacheRespuestasService}.
+     *
+     * <p>
+     * Los totales se calculan antes de confirmar para no retener la lista,
+     * que la importación reutiliza entre bloques.
+     * </p>
+     */
+    private void indexarAlConfirmar(TipoMovimiento tipo, long usuario, List<? extends Movimiento> movimientos) {
+        Map<LocalDate, Long> porDia = new TreeMap<>();
+        Map<String, Long> porConcepto = new HashMap<>();
+        String[] conceptos = new String[movimientos.size()];
+        long[] ids = new long[movimientos.size()];
+        Movimiento ultimo = null;
+        for (int i = 0; i < movimientos.size(); i++) {
+            Movimiento movimiento = movimientos.get(i);
+            conceptos[i] = movimiento.getConcepto();
+            ids[i] = movimiento.getId();
+            if (ultimo == null || movimiento.getId() > ultimo.getId()) {
+                ultimo = movimiento;
+            }
+            porDia.merge(movimiento.getFechaRegistro().toLocalDate(), movimiento.getMontoCentavos(), Long::sum);
+            if (tipo == TipoMovimiento.GASTO) {
+                porConcepto.merge(movimiento.getConcepto(), movimiento.getMontoCentavos(), Long::sum);
+            }
+        }
+        Ingreso ultimoIngreso = tipo == TipoMovimiento.INGRESO ? (Ingreso) ultimo : null;
+        alConfirmar(() -> {
+            porDia.forEach((dia, centavos) -> {
+                if (tipo == TipoMovimiento.GASTO) {
+                    indiceFechas.registrarGasto(usuario, dia, centavos);
+                } else {
+                    indiceFechas.registrarIngreso(usuario, dia, centavos);
+                }
+            });
+            if (!porConcepto.isEmpty()) {
+                conceptosService.registrar(usuario, porConcepto);
+            }
+            busquedaService.registrar(usuario, tipo, conceptos, ids);
+            if (ultimoIngreso != null) {
+                cacheRespuestasService.registrarIngreso(ultimoIngreso);
+            }
+        });
+    }
+
+    /**
+     * Ejecuta {@code accion} cuando la transacción actual se confirme, o de
+     * inmediato si no hay transacción activa.
+     */
+    private static void alConfirmar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package com.controlgastos.services;
+
+import com.controlgastos.clasesCalculos.IndiceFechas;
+import com.controlgastos.clasesCalculos.Lttb;
+import com.controlgastos.dto.PuntoCapital;
+import com.controlgastos.dto.TotalesRango;
+import com.controlgastos.model.Dinero;
+import com.controlgastos.repository.GastoRepository;
+import com.controlgastos.repository.IngresoRepository;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servicio que carga {@link IndiceFechas} y responde totales por rango de
+ * fechas y la historia del capital desde memoria.
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>Al arrancar, carga el índice con la suma por día de ingresos y gastos
+ * (una consulta agrupada por tipo).</li>
+ * <li>Cada movimiento confirmado se agrega al índice desde
+ * {@link MovimientoService}.</li>
+ * <li>{@link #consultar} calcula ingresos, gastos y neto de cualquier rango
+ * en O(log n) sin consultar la base de datos.</li>
+ * <li>{@link #historiaCapital} arma el capital al cierre de cada día con
+ * movimientos y lo reduce con {@link Lttb} a los puntos pedidos.</li>
+ * </ol>
+ */
+@Service
+public class RangoService {
+
+    /** Límites usados cuando la consulta no indica fechas. */
+    private static final LocalDate PRIMERA_FECHA = LocalDate.of(1, 1, 1);
+    private static final LocalDate ULTIMA_FECHA = LocalDate.of(9999, 12, 31);
+
+    private final IndiceFechas indiceFechas;
+    private final GastoRepository gastoRepository;
+    private final IngresoRepository ingresoRepository;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param indiceFechas      índice en memoria.
+     * @param gastoRepository   repositorio de gastos.
+     * @param ingresoRepository repositorio de ingresos.
+     */
+    public RangoService(IndiceFechas indiceFechas, GastoRepository gastoRepository,
+            IngresoRepository ingresoRepository) {
+        this.indiceFechas = indiceFechas;
+        this.gastoRepository = gastoRepository;
+        this.ingresoRepository = ingresoRepository;
+    }
+
+    /**
+     * Carga el índice desde la base de datos al arrancar.
+     */
+    @PostConstruct
+    public void cargar() {
+        for (Object[] fila : ingresoRepository.sumarMontosPorDia()) {
+            indiceFechas.registrarIngreso(((Number) fila[0]).longValue(), ((Date) fila[1]).toLocalDate(),
+                    ((Number) fila[2]).longValue());
+        }
+        for (Object[] fila : gastoRepository.sumarMontosPorDia()) {
+            indiceFechas.registrarGasto(((Number) fila[0]).longValue(), ((Date) fila[1]).toLocalDate(),
+                    ((Number) fila[2]).longValue());
+        }
+    }
+
+    /**
+     * Calcula ingresos, gastos y neto de un rango de días.
+     *
+     * @param usuario identificador del usuario.
+     * @param desde   primer día incluido, o {@code null} para no limitar.
+     * @param hasta   último día incluido, o {@code null} para no limitar.
+     * @return totales del rango.
+     */
+    public TotalesRango consultar(long usuario, LocalDate desde, LocalDate hasta) {
+        LocalDate inicio = desde == null ? PRIMERA_FECHA : desde;
+        LocalDate fin = hasta == null ? ULTIMA_FECHA : hasta;
+        long[] totales = indiceFechas.totales(usuario, inicio, fin);
+        return new TotalesRango(inicio, fin, Dinero.deCentavos(totales[0]), Dinero.deCentavos(totales[1]));
+    }
+
+    /**
+     * Obtiene la historia del capital de un rango, reducida a un máximo de
+     * puntos.
+     *
+     * <p>
+     * El capital de cada día es la suma de ingresos menos gastos hasta su
+     * cierre. La serie diaria se reduce con {@link Lttb}, que conserva la
+     * forma (picos, caídas, primer y último día), así que la respuesta tiene
+     * tamaño fijo sin importar cuántos años de movimientos existan.
+     * </p>
+     *
+     * @param usuario identificador del usuario.
+     * @param desde   primer día incluido, o {@code null} para no limitar.
+     * @param hasta   último día incluido, o {@code null} para no limitar.
+     * @param puntos  cantidad máxima de puntos (al menos 2).
+     * @return puntos en orden de fecha.
+     */
+    public List<PuntoCapital> historiaCapital(long usuario, LocalDate desde, LocalDate hasta, int puntos) {
+        IndiceFechas.SerieSaldos serie = indiceFechas.saldosDiarios(usuario,
+                desde == null ? PRIMERA_FECHA : desde, hasta == null ? ULTIMA_FECHA : hasta);
+        long[] dias = serie.getDias();
+        long[] saldos = serie.getSaldos();
+        int[] elegidos = Lttb.seleccionar(dias, saldos, puntos);
+        List<PuntoCapital> historia = new ArrayList<>(elegidos.length);
+        for (int i : elegidos) {
+            historia.add(new PuntoCapital(LocalDate.ofEpochDay(dias[i]), Dinero.deCentavos(saldos[i])));
+        }
+        return historia;
+    }
+}
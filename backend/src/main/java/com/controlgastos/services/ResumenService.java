@@ -0,0 +1,182 @@
+package com.controlgastos.services;
+
+import com.controlgastos.dto.ResumenRango;
+import com.controlgastos.model.Dinero;
+import com.controlgastos.model.Movimiento;
+import com.controlgastos.model.PeriodoResumen;
+import com.controlgastos.model.ResumenMovimiento;
+import com.controlgastos.model.TipoMovimiento;
+import com.controlgastos.repository.ResumenJdbcRepository;
+import com.controlgastos.repository.ResumenRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Servicio que mantiene y consulta los resúmenes diarios y mensuales de
+ * movimientos ({@link ResumenMovimiento}).
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>Cada inserción de gastos o ingresos llama a {@link #registrar} dentro
+ * de su transacción: los montos se agrupan por día y por mes y se aplica un
+ * {@code UPDATE} atómico por resumen afectado, siempre en el mismo orden
+ * (días y luego meses, por fecha) para que dos transacciones no se bloqueen
+ * mutuamente.</li>
+ * <li>Al arrancar, si la tabla de resúmenes está vacía (base de datos
+ * anterior a esta función), se reconstruye desde los movimientos.</li>
+ * <li>{@link #consultar} suma los resúmenes del rango: el costo depende del
+ * número de periodos, no del de movimientos.</li>
+ * </ol>
+ */
+@Service
+public class ResumenService {
+
+    /** Límites de rango usados cuando la consulta no indica fechas. */
+    private static final LocalDate PRIMERA_FECHA = LocalDate.of(1, 1, 1);
+    private static final LocalDate ULTIMA_FECHA = LocalDate.of(9999, 12, 31);
+
+    private final ResumenJdbcRepository resumenJdbcRepository;
+    private final ResumenRepository resumenRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param resumenJdbcRepository escrituras atómicas de resúmenes.
+     * @param resumenRepository     lectura de resúmenes.
+     * @param transactionManager    gestor de transacciones, para la
+     *                              reconstrucción.
+     */
+    public ResumenService(ResumenJdbcRepository resumenJdbcRepository, ResumenRepository resumenRepository,
+            PlatformTransactionManager transactionManager) {
+        this.resumenJdbcRepository = resumenJdbcRepository;
+        this.resumenRepository = resumenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Reconstruye los resúmenes al arrancar si aún no existen.
+     */
+    @PostConstruct
+    public void reconstruirSiVacio() {
+        if (resumenRepository.count() == 0) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Suma movimientos recién insertados a sus resúmenes diarios y mensuales.
+     * Debe llamarse en la misma transacción que la inserción.
+     *
+     * @param tipo        gasto o ingreso.
+     * @param usuarioId   usuario dueño de los movimientos.
+     * @param movimientos movimientos persistidos (con fecha de registro).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(TipoMovimiento tipo, long usuarioId, Collection<? extends Movimiento> movimientos) {
+        Map<PeriodoResumen, TreeMap<LocalDate, Acumulado>> porPeriodo = new EnumMap<>(PeriodoResumen.class);
+        for (PeriodoResumen periodo : PeriodoResumen.values()) {
+            porPeriodo.put(periodo, new TreeMap<>());
+        }
+        for (Movimiento movimiento : movimientos) {
+            LocalDate dia = movimiento.getFechaRegistro().toLocalDate();
+            for (PeriodoResumen periodo : PeriodoResumen.values()) {
+                porPeriodo.get(periodo).computeIfAbsent(periodo.inicio(dia), fecha -> new Acumulado())
+                        .sumar(movimiento.getMontoCentavos());
+            }
+        }
+        // EnumMap y TreeMap recorren en orden fijo: DIA antes que MES, fechas
+        // ascendentes
+        for (Map.Entry<PeriodoResumen, TreeMap<LocalDate, Acumulado>> periodo : porPeriodo.entrySet()) {
+            for (Map.Entry<LocalDate, Acumulado> resumen : periodo.getValue().entrySet()) {
+                Acumulado acumulado = resumen.getValue();
+                resumenJdbcRepository.sumar(tipo, periodo.getKey(), usuarioId, resumen.getKey(), acumulado.total,
+                        acumulado.cantidad, acumulado.minimo, acumulado.maximo);
+            }
+        }
+    }
+
+    /**
+     * Recalcula los resúmenes de todos los usuarios desde los movimientos, en
+     * una sola transacción.
+     *
+     * @return número de días con movimientos (sumando los de cada usuario),
+     *         por tipo.
+     */
+    public Map<TipoMovimiento, Integer> reconstruir() {
+        return transactionTemplate.execute(estado -> {
+            Map<TipoMovimiento, Integer> dias = new EnumMap<>(TipoMovimiento.class);
+            for (TipoMovimiento tipo : TipoMovimiento.values()) {
+                dias.put(tipo, resumenJdbcRepository.reconstruir(tipo));
+            }
+            return dias;
+        });
+    }
+
+    /**
+     * Calcula los totales de un rango a partir de los resúmenes.
+     *
+     * @param tipo      gasto o ingreso.
+     * @param periodo   día o mes.
+     * @param usuarioId usuario.
+     * @param desde     fecha inicial o {@code null}; se ajusta al inicio de su
+     *                  periodo.
+     * @param hasta     fecha final o {@code null}; se ajusta al inicio de su
+     *                  periodo.
+     * @return totales del rango y de cada periodo.
+     */
+    @Transactional(readOnly = true)
+    public ResumenRango consultar(TipoMovimiento tipo, PeriodoResumen periodo, long usuarioId, LocalDate desde,
+            LocalDate hasta) {
+        LocalDate inicio = periodo.inicio(desde == null ? PRIMERA_FECHA : desde);
+        LocalDate fin = periodo.inicio(hasta == null ? ULTIMA_FECHA : hasta);
+        List<ResumenMovimiento> periodos = resumenRepository
+                .findByTipoAndPeriodoAndUsuarioIdAndFechaBetweenOrderByFecha(tipo, periodo, usuarioId, inicio, fin);
+        Acumulado rango = new Acumulado();
+        for (ResumenMovimiento resumen : periodos) {
+            rango.agregar(resumen);
+        }
+        boolean hayMovimientos = rango.cantidad > 0;
+        return new ResumenRango(inicio, fin, Dinero.deCentavos(rango.total), rango.cantidad,
+                hayMovimientos ? Dinero.deCentavos(rango.minimo) : null,
+                hayMovimientos ? Dinero.deCentavos(rango.maximo) : null, periodos);
+    }
+
+    /**
+     * Total, cantidad, mínimo y máximo acumulados en memoria.
+     */
+    private static final class Acumulado {
+
+        private long total;
+        private long cantidad;
+        private long minimo = Long.MAX_VALUE;
+        private long maximo = Long.MIN_VALUE;
+
+        void sumar(long centavos) {
+            total = Math.addExact(total, centavos);
+            cantidad++;
+            minimo = Math.min(minimo, centavos);
+            maximo = Math.max(maximo, centavos);
+        }
+
+        void agregar(ResumenMovimiento resumen) {
+            total = Math.addExact(total, resumen.getTotalCentavos());
+            cantidad += resumen.getCantidad();
+            minimo = Math.min(minimo, resumen.getMinimoCentavos());
+            maximo = Math.max(maximo, resumen.getMaximoCentavos());
+        }
+    }
+}
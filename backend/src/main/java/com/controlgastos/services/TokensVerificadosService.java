@@ -0,0 +1,209 @@
+package com.controlgastos.services;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché acotada de tokens JWT ya verificados.
+ *
+ * <p>
+ * Verificar un token con {@link JwtUtil} decodifica el token, recalcula la
+ * firma HMAC y parsea los claims en cada petición. Como una sesión repite el
+ * mismo token en todas sus peticiones, el resultado de la primera
+ * verificación se guarda hasta la expiración del token.
+ * </p>
+ *
+ * <p>
+ * <strong>Flujo:</strong>
+ * </p>
+ * <ol>
+ * <li>Calcula el SHA-256 del token; la caché se indexa por ese resumen, así
+ * que no retiene los tokens en memoria.</li>
+ * <li>Si hay una entrada vigente, devuelve su usuario sin verificar la
+ * firma.</li>
+ * <li>Si no, verifica el token con {@link JwtUtil#validateClaims} y, si es
+ * válido, guarda el usuario con la expiración del token.</li>
+ * <li>Los tokens inválidos no se guardan: un cliente que envía tokens al azar
+ * no puede desplazar a los válidos.</li>
+ * </ol>
+ *
+ * <p>
+ * Al llenarse, se descartan primero las entradas expiradas y, si no alcanza,
+ * una octava parte de las restantes.
+ * </p>
+ *
+ * <p>
+ * Publica en {@link MeterRegistry} los aciertos y fallos
+ * ({@code seguridad.tokens.cache}), la tasa de aciertos, el tamaño y el tiempo
+ * de cada verificación de firma ({@code seguridad.tokens.verificacion}).
+ * </p>
+ */
+@Service
+public class TokensVerificadosService {
+
+    private final JwtUtil jwtUtil;
+
+    /** Máximo de tokens en caché. */
+    private final int capacidad;
+
+    /** Usuario y expiración por resumen SHA-256 del token. */
+    private final Map<ByteBuffer, Verificado> verificados = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(TokensVerificadosService::nuevoSha256);
+
+    private final Counter aciertos;
+    private final Counter fallos;
+    private final Timer verificacion;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jwtUtil   utilidad de verificación de tokens.
+     * @param registro  registro de métricas.
+     * @param capacidad máximo de tokens en caché.
+     */
+    public TokensVerificadosService(JwtUtil jwtUtil, MeterRegistry registro,
+            @Value("${seguridad.tokens.cache.capacidad:10000}") int capacidad) {
+        this.jwtUtil = jwtUtil;
+        this.capacidad = capacidad;
+        this.aciertos = Counter.builder("seguridad.tokens.cache").tag("resultado", "acierto")
+                .description("Tokens resueltos desde la caché").register(registro);
+        this.fallos = Counter.builder("seguridad.tokens.cache").tag("resultado", "fallo")
+                .description("Tokens que requirieron verificar la firma").register(registro);
+        this.verificacion = Timer.builder("seguridad.tokens.verificacion")
+                .description("Tiempo de verificación de firma y claims").register(registro);
+        Gauge.builder("seguridad.tokens.cache.tasa-aciertos", this, TokensVerificadosService::tasaAciertos)
+                .description("Fracción de tokens resueltos desde la caché").register(registro);
+        Gauge.builder("seguridad.tokens.cache.tamano", verificados, Map::size)
+                .description("Tokens en caché").register(registro);
+    }
+
+    /**
+     * Devuelve el usuario de un token válido y vigente.
+     *
+     * @param token JWT recibido en {@code Authorization: Bearer}.
+     * @return nombre de usuario, o {@code null} si el token es inválido o
+     *         expiró.
+     */
+    public String autenticar(String token) {
+        ByteBuffer clave = resumen(token);
+        long ahora = System.currentTimeMillis();
+        Verificado verificado = verificados.get(clave);
+        if (verificado != null) {
+            if (ahora < verificado.expira) {
+                aciertos.increment();
+                return verificado.usuario;
+            }
+            verificados.remove(clave, verificado);
+        }
+
+        fallos.increment();
+        long inicio = System.nanoTime();
+        Claims claims = jwtUtil.validateClaims(token);
+        verificacion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        if (claims == null || claims.getSubject() == null || claims.getAudience() != null) {
+            // Un token con audiencia (p. ej. el de /api/eventos) no es de sesión
+            return null;
+        }
+
+        Date expiracion = claims.getExpiration();
+        long expira = expiracion == null ? Long.MAX_VALUE : expiracion.getTime();
+        if (ahora < expira) {
+            if (verificados.size() >= capacidad) {
+                liberar(ahora);
+            }
+            verificados.put(clave, new Verificado(claims.getSubject(), expira));
+        }
+        return claims.getSubject();
+    }
+
+    /**
+     * Devuelve el usuario de un token de suscripción a {@code /api/eventos}.
+     *
+     * <p>
+     * Estos tokens viajan en la URL, porque {@code EventSource} no envía
+     * cabeceras; se emiten con {@link JwtUtil#AUDIENCIA_EVENTOS} y una
+     * vigencia corta. Se usan una vez por conexión, así que no pasan por la
+     * caché.
+     * </p>
+     *
+     * @param token JWT recibido en el parámetro {@code token}.
+     * @return nombre de usuario, o {@code null} si el token es inválido,
+     *         expiró o no es de suscripción.
+     */
+    public String autenticarSuscripcion(String token) {
+        Claims claims = jwtUtil.validateClaims(token);
+        if (claims == null || claims.getSubject() == null
+                || !JwtUtil.AUDIENCIA_EVENTOS.equals(claims.getAudience())) {
+            return null;
+        }
+        return claims.getSubject();
+    }
+
+    /**
+     * @return fracción de autenticaciones resueltas desde la caché.
+     */
+    public double tasaAciertos() {
+        double total = aciertos.count() + fallos.count();
+        return total == 0 ? 0 : aciertos.count() / total;
+    }
+
+    /**
+     * Descarta las entradas expiradas y, si la caché sigue llena, una octava
+     * parte de las restantes. Un solo hilo limpia a la vez; los que esperaban
+     * encuentran la caché ya liberada y no vuelven a recorrerla.
+     */
+    private synchronized void liberar(long ahora) {
+        if (verificados.size() < capacidad) {
+            return;
+        }
+        verificados.values().removeIf(v -> v.expira <= ahora);
+        int sobrantes = verificados.size() - capacidad + Math.max(1, capacidad / 8);
+        Iterator<ByteBuffer> claves = verificados.keySet().iterator();
+        while (sobrantes-- > 0 && claves.hasNext()) {
+            claves.next();
+            claves.remove();
+        }
+    }
+
+    private ByteBuffer resumen(String token) {
+        return ByteBuffer.wrap(sha256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest nuevoSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Resultado de una verificación válida. */
+    private static final class Verificado {
+
+        final String usuario;
+
+        /** Expiración del token, en milisegundos desde la época. */
+        final long expira;
+
+        Verificado(String usuario, long expira) {
+            this.usuario = usuario;
+            this.expira = expira;
+        }
+    }
+}
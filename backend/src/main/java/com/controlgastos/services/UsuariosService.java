@@ -0,0 +1,253 @@
+package com.controlgastos.services;
+
+import com.controlgastos.clasesCalculos.CacheLru;
+import com.controlgastos.clasesCalculos.FiltroBloom;
+import com.controlgastos.clasesCalculos.MotorSaldos;
+import com.controlgastos.model.User;
+import com.controlgastos.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Búsqueda de usuarios por nombre con un filtro de Bloom y una caché LRU
+ * delante de {@link UserRepository}.
+ *
+ * <p>
+ * <strong>Flujo de {@link #buscar}:</strong>
+ * </p>
+ * <ol>
+ * <li>Si el filtro de Bloom dice que el nombre no existe, responde vacío sin
+ * consultar la base de datos (el caso de los bots que prueban nombres al
+ * azar).</li>
+ * <li>Si el usuario está en la caché LRU, lo devuelve.</li>
+ * <li>Si no, lo busca en la base de datos y lo guarda en la caché. Si no
+ * existe, fue un falso positivo del filtro.</li>
+ * </ol>
+ *
+ * <p>
+ * El filtro se construye al arrancar con todos los nombres y se actualiza en
+ * cada registro. Como no admite borrados, al superar
+ * {@code usuarios.bloom.esperados} se reconstruye desde la base de datos con
+ * el doble de capacidad. Toda escritura de usuarios debe pasar por
+ * {@link #registrado} o {@link #actualizado}; en otro caso la caché queda
+ * desactualizada.
+ * </p>
+ *
+ * <p>
+ * Publica en {@link MeterRegistry} las consultas por resultado
+ * ({@code usuarios.bloom.consultas}), la tasa de falsos positivos observada
+ * entre los nombres inexistentes, la estimada por ocupación del filtro y los
+ * aciertos de la caché ({@code usuarios.cache}).
+ * </p>
+ *
+ * <p>
+ * {@link #usuarioActual()} traduce el usuario autenticado de la petición al
+ * ID con que se separan gastos, ingresos y capital.
+ * </p>
+ *
+ * <p>
+ * Los datos anteriores a la separación quedan a nombre del usuario global
+ * ({@link MotorSaldos#USUARIO_GLOBAL}), que nadie ve salvo que
+ * {@code usuarios.global.propietario} nombre explícitamente a un usuario
+ * registrado: ese usuario trabaja entonces sobre los datos globales.
+ * </p>
+ */
+@Service
+public class UsuariosService {
+
+    private final UserRepository userRepository;
+    private final String propietarioGlobal;
+    private final double fpp;
+    private final CacheLru<String, User> cache;
+
+    /** Elementos previstos del filtro actual. */
+    private long esperados;
+
+    private volatile FiltroBloom filtro;
+
+    private final Counter descartadas;
+    private final Counter falsosPositivos;
+    private final Counter presentes;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param userRepository   repositorio de usuarios.
+     * @param registro         registro de métricas.
+     * @param esperados        usuarios previstos al dimensionar el filtro.
+     * @param fpp              probabilidad de falso positivo del filtro.
+     * @param capacidadCache   usuarios en la caché LRU.
+     * @param propietarioGlobal usuario que accede a los datos globales, o
+     *                          vacío si ninguno.
+     */
+    public UsuariosService(UserRepository userRepository, MeterRegistry registro,
+            @Value("${usuarios.bloom.esperados:100000}") long esperados,
+            @Value("${usuarios.bloom.fpp:0.01}") double fpp,
+            @Value("${usuarios.cache.capacidad:1000}") int capacidadCache,
+            @Value("${usuarios.global.propietario:}") String propietarioGlobal) {
+        this.userRepository = userRepository;
+        this.propietarioGlobal = propietarioGlobal;
+        this.esperados = esperados;
+        this.fpp = fpp;
+        this.cache = new CacheLru<>(capacidadCache);
+
+        this.descartadas = consultas(registro, "descartada");
+        this.falsosPositivos = consultas(registro, "falso-positivo");
+        this.presentes = consultas(registro, "presente");
+        Gauge.builder("usuarios.bloom.tasa-falsos-positivos", this, UsuariosService::tasaFalsosPositivos)
+                .description("Fracción de nombres inexistentes que el filtro no descartó").register(registro);
+        Gauge.builder("usuarios.bloom.fpp-estimada", this, s -> s.filtro.fppEstimada())
+                .description("Probabilidad de falso positivo según la ocupación del filtro").register(registro);
+        FunctionCounter.builder("usuarios.cache", cache, CacheLru::aciertos).tag("resultado", "acierto")
+                .register(registro);
+        FunctionCounter.builder("usuarios.cache", cache, CacheLru::fallos).tag("resultado", "fallo")
+                .register(registro);
+        Gauge.builder("usuarios.cache.tasa-aciertos", cache, CacheLru::tasaAciertos)
+                .description("Fracción de búsquedas resueltas desde la caché").register(registro);
+    }
+
+    /**
+     * Construye el filtro con los nombres registrados.
+     */
+    @PostConstruct
+    public synchronized void cargar() {
+        List<String> nombres = userRepository.findAllUsernames();
+        while (nombres.size() > esperados) {
+            esperados *= 2;
+        }
+        FiltroBloom nuevo = new FiltroBloom(esperados, fpp);
+        for (String nombre : nombres) {
+            nuevo.agregar(nombre);
+        }
+        filtro = nuevo;
+    }
+
+    /**
+     * Busca un usuario por nombre.
+     *
+     * @param username nombre de usuario.
+     * @return el usuario, o vacío si no existe.
+     */
+    public Optional<User> buscar(String username) {
+        if (!puedeExistir(username)) {
+            return Optional.empty();
+        }
+        User user = cache.obtener(username);
+        if (user != null) {
+            presentes.increment();
+            return Optional.of(user);
+        }
+        Optional<User> encontrado = userRepository.findByUsername(username);
+        if (encontrado.isPresent()) {
+            presentes.increment();
+            cache.guardar(username, encontrado.get());
+        } else {
+            falsosPositivos.increment();
+        }
+        return encontrado;
+    }
+
+    /**
+     * Obtiene el ID del usuario autenticado en la petición actual.
+     *
+     * <p>
+     * Una petición anónima nunca cae en el usuario global: se rechaza. Sólo el
+     * usuario de {@code usuarios.global.propietario} obtiene
+     * {@link MotorSaldos#USUARIO_GLOBAL}. La búsqueda suele resolverse en la
+     * caché LRU.
+     * </p>
+     *
+     * @return ID del usuario autenticado.
+     * @throws AuthenticationCredentialsNotFoundException si la petición es
+     *                                                    anónima (Spring
+     *                                                    Security responde
+     *                                                    401).
+     * @throws AccessDeniedException                      si el usuario del
+     *                                                    token ya no existe
+     *                                                    (Spring Security
+     *                                                    responde 403).
+     */
+    public long usuarioActual() {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacion == null || autenticacion instanceof AnonymousAuthenticationToken) {
+            throw new AuthenticationCredentialsNotFoundException("La petición no está autenticada");
+        }
+        if (!propietarioGlobal.isEmpty() && propietarioGlobal.equals(autenticacion.getName())) {
+            return MotorSaldos.USUARIO_GLOBAL;
+        }
+        return buscar(autenticacion.getName()).map(User::getId)
+                .orElseThrow(() -> new AccessDeniedException("El usuario del token no existe"));
+    }
+
+    /**
+     * Consulta sólo el filtro de Bloom, sin acceder a la base de datos.
+     *
+     * @param username nombre de usuario.
+     * @return {@code false} si el nombre seguro no está registrado.
+     */
+    public boolean puedeExistir(String username) {
+        if (username == null || !filtro.puedeContener(username)) {
+            descartadas.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param username nombre de usuario.
+     * @return {@code true} si el nombre ya está registrado.
+     */
+    public boolean existe(String username) {
+        return buscar(username).isPresent();
+    }
+
+    /**
+     * Agrega al filtro y a la caché un usuario recién guardado; si el filtro
+     * superó su capacidad prevista, lo reconstruye más grande.
+     *
+     * @param user usuario guardado.
+     */
+    public synchronized void registrado(User user) {
+        filtro.agregar(user.getUsername());
+        cache.guardar(user.getUsername(), user);
+        if (filtro.lleno()) {
+            esperados *= 2;
+            cargar();
+        }
+    }
+
+    /**
+     * Reemplaza en la caché un usuario modificado.
+     *
+     * @param user usuario guardado.
+     */
+    public void actualizado(User user) {
+        cache.guardar(user.getUsername(), user);
+    }
+
+    /**
+     * @return fracción de nombres inexistentes que el filtro no descartó.
+     */
+    public double tasaFalsosPositivos() {
+        double inexistentes = descartadas.count() + falsosPositivos.count();
+        return inexistentes == 0 ? 0 : falsosPositivos.count() / inexistentes;
+    }
+
+    private static Counter consultas(MeterRegistry registro, String resultado) {
+        return Counter.builder("usuarios.bloom.consultas").tag("resultado", resultado)
+                .description("Búsquedas de usuario por resultado del filtro de Bloom").register(registro);
+    }
+}
@@ -0,0 +1,44 @@
+package com.controlgastos.Configuration;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MigracionEsquemaTest {
+
+    @Test
+    void AsignaLasFilasAnterioresAlUsuarioGlobal() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migracion;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        // Esquema anterior: montos DOUBLE, IDs por identidad y sin usuario
+        jdbc.execute("CREATE TABLE GASTO (ID BIGINT AUTO_INCREMENT PRIMARY KEY, CONCEPTO VARCHAR(255),"
+                + " MONTO DOUBLE, FECHA_REGISTRO TIMESTAMP)");
+        jdbc.execute("CREATE TABLE INGRESO (ID BIGINT AUTO_INCREMENT PRIMARY KEY, CONCEPTO VARCHAR(255),"
+                + " MONTO DOUBLE, FECHA_REGISTRO TIMESTAMP)");
+        jdbc.execute("CREATE TABLE CAPITAL (ID BIGINT AUTO_INCREMENT PRIMARY KEY, CAPITAL DOUBLE,"
+                + " FECHA_REGISTRO TIMESTAMP)");
+        jdbc.update("INSERT INTO GASTO (CONCEPTO, MONTO, FECHA_REGISTRO) VALUES ('Renta', 12.5, CURRENT_TIMESTAMP)");
+        jdbc.update("INSERT INTO INGRESO (CONCEPTO, MONTO, FECHA_REGISTRO) VALUES ('Sueldo', 100.1, CURRENT_TIMESTAMP)");
+        jdbc.update("INSERT INTO CAPITAL (CAPITAL, FECHA_REGISTRO) VALUES (87.6, CURRENT_TIMESTAMP)");
+
+        MigracionEsquema migracion = new MigracionEsquema(dataSource);
+        migracion.migrar();
+        // Idempotente: una segunda vez no hace nada
+        migracion.migrar();
+
+        assertEquals(0L, jdbc.queryForObject("SELECT USUARIO_ID FROM GASTO", Long.class));
+        assertEquals(1250L, jdbc.queryForObject("SELECT MONTO_CENTAVOS FROM GASTO", Long.class));
+        assertEquals(0L, jdbc.queryForObject("SELECT USUARIO_ID FROM INGRESO", Long.class));
+        assertEquals(10010L, jdbc.queryForObject("SELECT MONTO_CENTAVOS FROM INGRESO", Long.class));
+        assertEquals(0L, jdbc.queryForObject("SELECT USUARIO_ID FROM CAPITAL", Long.class));
+        assertEquals(8760L, jdbc.queryForObject("SELECT CAPITAL_CENTAVOS FROM CAPITAL", Long.class));
+        assertFalse(migracion.existeColumna("GASTO", "MONTO"));
+        assertTrue(migracion.existeSecuencia("GASTO_SEQ"));
+        assertTrue(jdbc.queryForObject("SELECT NEXT VALUE FOR GASTO_SEQ", Long.class) > 1);
+    }
+}
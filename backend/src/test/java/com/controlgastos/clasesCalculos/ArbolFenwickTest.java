@@ -0,0 +1,35 @@
+package com.controlgastos.clasesCalculos;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ArbolFenwickTest {
+    @Test
+    void SumaRangosIgualQueRecorrerLosDias() {
+        Random random = new Random(7);
+        ArbolFenwick arbol = new ArbolFenwick();
+        long[] dias = new long[20000];
+        long primerDia = 10000;
+        // Empieza a la mitad para forzar crecimiento hacia ambos lados
+        for (int i = 0; i < 50000; i++) {
+            int dia = i < 100 ? 10000 + random.nextInt(100) : random.nextInt(dias.length);
+            long monto = random.nextInt(100000);
+            dias[dia] += monto;
+            arbol.sumar(primerDia + dia, monto);
+        }
+        for (int i = 0; i < 1000; i++) {
+            int desde = random.nextInt(dias.length);
+            int hasta = desde + random.nextInt(dias.length - desde);
+            long esperado = 0;
+            for (int d = desde; d <= hasta; d++) {
+                esperado += dias[d];
+            }
+            assertEquals(esperado, arbol.suma(primerDia + desde, primerDia + hasta));
+        }
+        assertEquals(0, arbol.suma(0, primerDia - 1));
+        assertEquals(0, arbol.suma(5, 4));
+    }
+}
@@ -0,0 +1,55 @@
+package com.controlgastos.clasesCalculos;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConceptosFrecuentesTest {
+    @Test
+    void RespetaLasCotasDeError() {
+        Random random = new Random(11);
+        ConceptosFrecuentes frecuentes = new ConceptosFrecuentes(50);
+        Map<String, Long> reales = new HashMap<>();
+        long total = 0;
+        for (int i = 0; i < 200000; i++) {
+            // Tres conceptos frecuentes entre miles de ruido
+            String concepto = i % 4 == 0 ? "renta" + (i % 3) : "c" + random.nextInt(5000);
+            long monto = 1 + random.nextInt(1000);
+            frecuentes.sumar(concepto, monto);
+            reales.merge(concepto, monto, Long::sum);
+            total += monto;
+        }
+
+        List<ConceptosFrecuentes.Contador> top = frecuentes.top(50);
+        assertEquals(50, top.size());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(top.get(i).getConcepto().startsWith("renta"));
+        }
+        for (ConceptosFrecuentes.Contador contador : top) {
+            long real = reales.get(contador.getConcepto());
+            assertTrue(contador.getMonto() >= real);
+            assertTrue(contador.getMonto() - contador.getError() <= real);
+            assertTrue(contador.getError() <= total / 50);
+        }
+    }
+
+    @Test
+    void EsExactoSiCabenTodos() {
+        ConceptosFrecuentes frecuentes = new ConceptosFrecuentes(10);
+        frecuentes.sumar("a", 5);
+        frecuentes.sumar("b", 7);
+        frecuentes.sumar("a", 4);
+        List<ConceptosFrecuentes.Contador> top = frecuentes.top(5);
+        assertEquals(2, top.size());
+        assertEquals("a", top.get(0).getConcepto());
+        assertEquals(9, top.get(0).getMonto());
+        assertEquals(0, top.get(0).getError());
+        assertEquals("b", top.get(1).getConcepto());
+    }
+}
@@ -0,0 +1,31 @@
+package com.controlgastos.clasesCalculos;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FiltroBloomTest {
+    @Test
+    void NoTieneFalsosNegativosYRespetaLaTasaDeFalsosPositivos() {
+        FiltroBloom filtro = new FiltroBloom(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filtro.agregar("usuario" + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filtro.puedeContener("usuario" + i));
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filtro.puedeContener("otro" + i)) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(falsosPositivos < 2000, "falsos positivos: " + falsosPositivos);
+        assertTrue(filtro.fppEstimada() < 0.02);
+        assertFalse(filtro.lleno());
+        filtro.agregar("uno-mas");
+        assertTrue(filtro.lleno());
+    }
+}
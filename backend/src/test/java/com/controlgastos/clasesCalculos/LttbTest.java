@@ -0,0 +1,39 @@
+package com.controlgastos.clasesCalculos;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LttbTest {
+    @Test
+    void ReduceConservandoExtremosYPicos() {
+        int n = 10000;
+        long[] x = new long[n];
+        long[] y = new long[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = i;
+            y[i] = i % 7;
+        }
+        y[4321] = 1_000_000;
+
+        int[] elegidos = Lttb.seleccionar(x, y, 100);
+        assertEquals(100, elegidos.length);
+        assertEquals(0, elegidos[0]);
+        assertEquals(n - 1, elegidos[99]);
+        boolean pico = false;
+        for (int i = 1; i < elegidos.length; i++) {
+            assertTrue(elegidos[i] > elegidos[i - 1]);
+            pico |= elegidos[i] == 4321;
+        }
+        assertTrue(pico);
+    }
+
+    @Test
+    void DevuelveTodoSiCabe() {
+        long[] x = { 1, 2, 3 };
+        assertArrayEquals(new int[] { 0, 1, 2 }, Lttb.seleccionar(x, x, 5));
+        assertArrayEquals(new int[] { 0, 2 }, Lttb.seleccionar(x, x, 2));
+    }
+}
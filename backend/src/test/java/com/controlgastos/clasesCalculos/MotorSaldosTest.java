@@ -0,0 +1,44 @@
+package com.controlgastos.clasesCalculos;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MotorSaldosTest {
+    @Test
+    void SumaExactaConHilosConcurrentes() throws InterruptedException {
+        MotorSaldos motor = new MotorSaldos(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    motor.registrarIngreso(MotorSaldos.USUARIO_GLOBAL, 10);
+                    motor.registrarGasto(MotorSaldos.USUARIO_GLOBAL, 3);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        assertEquals(800000, motor.ingresos(MotorSaldos.USUARIO_GLOBAL));
+        assertEquals(240000, motor.gastos(MotorSaldos.USUARIO_GLOBAL));
+        assertEquals(560000, motor.capital(MotorSaldos.USUARIO_GLOBAL));
+    }
+
+    @Test
+    void CheckpointPorUmbral() {
+        MotorSaldos motor = new MotorSaldos(2);
+        motor.cargar(1L, 500, 200, 250);
+        assertEquals(50, motor.pendiente(1L));
+        assertFalse(motor.registrarIngreso(1L, 100));
+        assertTrue(motor.registrarGasto(1L, 20));
+        motor.confirmarCheckpoint(1L, motor.capital(1L));
+        assertEquals(0, motor.pendiente(1L));
+        assertEquals(380, motor.capital(1L));
+    }
+}
@@ -0,0 +1,18 @@
+package com.controlgastos.clasesCalculos;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class NormalizadorSqlTest {
+    @Test
+    void ReemplazaLiteralesYColapsaListas() {
+        assertEquals("select * from gasto g1_0 where g1_0.usuario_id=? and g1_0.concepto=? limit ?",
+                NormalizadorSql.normalizar("SELECT *  FROM gasto g1_0\n WHERE g1_0.usuario_id=7 AND g1_0.concepto='it''s' LIMIT 50"));
+        assertEquals("delete from ingreso where id in (?)",
+                NormalizadorSql.normalizar("delete from ingreso where id in (?, ?,?)"));
+        assertEquals(NormalizadorSql.normalizar("update capital set capital=capital+? where id=?"),
+                NormalizadorSql.normalizar("update capital set capital=capital+12.5 where id=3"));
+        assertEquals(3, NormalizadorSql.parametros("insert into gasto values (?, '?', ?, ?)"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.controlgastos.clasesCalculos;
+
+import com.controlgastos.model.TipoMovimiento;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TrieConceptosTest {
+    @Test
+    void BuscaPorPrefijoDePalabraOrdenadoPorUso() {
+        TrieConceptos trie = new TrieConceptos();
+        trie.registrar(TipoMovimiento.GASTO, "Café", 1);
+        trie.registrar(TipoMovimiento.GASTO, "Cena, amigos", 2);
+        trie.registrar(TipoMovimiento.GASTO, "Cena, amigos", 3);
+        trie.registrar(TipoMovimiento.INGRESO, "Cena, amigos", 4);
+        trie.registrar(TipoMovimiento.INGRESO, "Salario", 5);
+
+        List<TrieConceptos.Concepto> encontrados = trie.buscar("C", 10);
+        assertEquals(2, encontrados.size());
+        assertEquals("Cena, amigos", encontrados.get(0).getConcepto());
+        assertEquals(3, encontrados.get(0).getCantidad());
+        assertEquals("Café", trie.buscar("cafe", 10).get(0).getConcepto());
+        assertEquals("Cena, amigos", trie.buscar("AMI", 10).get(0).getConcepto());
+        assertTrue(trie.buscar("ena", 10).isEmpty());
+        assertEquals(1, trie.buscar("c", 1).size());
+
+        TrieConceptos.Concepto cena = encontrados.get(0);
+        assertArrayEquals(new long[] { 3 }, cena.ids(TipoMovimiento.GASTO, 0, 1));
+        assertArrayEquals(new long[] { 2 }, cena.ids(TipoMovimiento.GASTO, 1, 1));
+        assertArrayEquals(new long[0], cena.ids(TipoMovimiento.GASTO, 2, 1));
+        assertArrayEquals(new long[] { 4 }, cena.ids(TipoMovimiento.INGRESO, 0, 20));
+    }
+
+    @Test
+    void MantieneLosMasUsadosAunqueHayaMuchos() {
+        TrieConceptos trie = new TrieConceptos();
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j <= i; j++) {
+                trie.registrar(TipoMovimiento.GASTO, "pago " + i, i * 1000 + j);
+            }
+        }
+        List<TrieConceptos.Concepto> top = trie.buscar("pag", TrieConceptos.MAX_RESULTADOS);
+        assertEquals(TrieConceptos.MAX_RESULTADOS, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals("pago " + (99 - i), top.get(i).getConcepto());
+        }
+    }
+}
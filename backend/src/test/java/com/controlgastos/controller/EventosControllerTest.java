@@ -0,0 +1,86 @@
+package com.controlgastos.controller;
+
+import com.controlgastos.model.User;
+import com.controlgastos.repository.UserRepository;
+import com.controlgastos.services.JwtUtil;
+import com.controlgastos.services.UsuariosService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Suscripción a {@code /api/eventos} con el token en la URL, como la hace un
+ * {@code EventSource} del navegador.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:separacion;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "saldos.checkpoint.intervalo-ms=3600000" })
+@AutoConfigureMockMvc
+public class EventosControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UsuariosService usuariosService;
+
+    @BeforeEach
+    void registrarUsuario() {
+        if (!usuariosService.buscar("eva").isPresent()) {
+            User user = new User();
+            user.setUsername("eva");
+            user.setPassword("clave");
+            usuariosService.registrado(userRepository.save(user));
+        }
+    }
+
+    @Test
+    void SeSuscribeConElTokenDeSuscripcionEnLaUrl() throws Exception {
+        String sesion = "Bearer " + jwtUtil.generateToken("eva");
+        MvcResult emitido = mvc.perform(post("/api/eventos/token").header(HttpHeaders.AUTHORIZATION, sesion))
+                .andExpect(status().isOk())
+                .andReturn();
+        String token = JsonPath.read(emitido.getResponse().getContentAsString(), "$.token");
+
+        mvc.perform(get("/api/eventos").param("token", token))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("event:capital")));
+
+        // Sin token, o con el de sesión en la URL, no hay suscripción
+        mvc.perform(get("/api/eventos")).andExpect(status().isUnauthorized());
+        mvc.perform(get("/api/eventos").param("token", jwtUtil.generateToken("eva")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void ElTokenDeSuscripcionNoSirveFueraDeEventos() throws Exception {
+        String token = jwtUtil.generateToken("eva", JwtUtil.AUDIENCIA_EVENTOS, 60000);
+
+        mvc.perform(get("/api/gasto").param("limite", "10").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(get("/api/gasto").param("limite", "10").param("token", token))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(get("/api/eventos").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,120 @@
+package com.controlgastos.controller;
+
+import com.controlgastos.model.User;
+import com.controlgastos.repository.CapitalRepository;
+import com.controlgastos.repository.UserRepository;
+import com.controlgastos.services.CheckpointSaldosService;
+import com.controlgastos.services.JwtUtil;
+import com.controlgastos.services.UsuariosService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Separación de gastos, ingresos y capital por usuario, de punta a punta:
+ * token, controladores, group commit, saldos en memoria y checkpoint.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:separacion;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "saldos.checkpoint.intervalo-ms=3600000" })
+@AutoConfigureMockMvc
+public class SeparacionUsuariosTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UsuariosService usuariosService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private CheckpointSaldosService checkpointSaldosService;
+
+    @Autowired
+    private CapitalRepository capitalRepository;
+
+    private long idAna;
+    private long idBeto;
+
+    @BeforeEach
+    void registrarUsuarios() {
+        idAna = registrar("ana");
+        idBeto = registrar("beto");
+    }
+
+    @Test
+    void CadaUsuarioVeSoloSusMovimientosYSuCapital() throws Exception {
+        registrarMovimiento("ana", "/api/gasto", "{\"concepto\":\"Renta\",\"monto\":30.25}");
+        registrarMovimiento("beto", "/api/ingreso", "{\"concepto\":\"Sueldo\",\"monto\":100.00}");
+        registrarMovimiento("beto", "/api/gasto", "{\"concepto\":\"Luz\",\"monto\":5.50}");
+
+        mvc.perform(get("/api/gasto").param("limite", "10").header(HttpHeaders.AUTHORIZATION, bearer("ana")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].concepto").value("Renta"));
+        mvc.perform(get("/api/gasto").param("limite", "10").header(HttpHeaders.AUTHORIZATION, bearer("beto")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].concepto").value("Luz"));
+
+        // El checkpoint guarda un capital por usuario
+        checkpointSaldosService.checkpoint();
+        assertEquals(-3025L, capitalRepository.findTopByUsuarioIdOrderByIdDesc(idAna).get().getCapitalCentavos());
+        assertEquals(9450L, capitalRepository.findTopByUsuarioIdOrderByIdDesc(idBeto).get().getCapitalCentavos());
+        assertEquals(-3025L, checkpointSaldosService.capitalActual(idAna).getCapitalCentavos());
+    }
+
+    @Test
+    void RechazaPeticionesSinTokenOConTokenInvalido() throws Exception {
+        mvc.perform(get("/api/gasto").param("limite", "10"))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(post("/api/gasto").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"concepto\":\"Renta\",\"monto\":1.00}")
+                .header(HttpHeaders.AUTHORIZATION, bearer("ana") + "x"))
+                .andExpect(status().isUnauthorized());
+        // Reconstruir recorre a todos los usuarios: sólo administradores
+        mvc.perform(post("/api/resumen/reconstruir").header(HttpHeaders.AUTHORIZATION, bearer("ana")))
+                .andExpect(status().isForbidden());
+    }
+
+    private long registrar(String nombre) {
+        return usuariosService.buscar(nombre).map(User::getId).orElseGet(() -> {
+            User user = new User();
+            user.setUsername(nombre);
+            user.setPassword("clave");
+            User guardado = userRepository.save(user);
+            usuariosService.registrado(guardado);
+            return guardado.getId();
+        });
+    }
+
+    private void registrarMovimiento(String usuario, String ruta, String json) throws Exception {
+        MvcResult resultado = mvc.perform(post(ruta).contentType(MediaType.APPLICATION_JSON).content(json)
+                .header(HttpHeaders.AUTHORIZATION, bearer(usuario)))
+                .andReturn();
+        mvc.perform(asyncDispatch(resultado)).andExpect(status().isOk());
+    }
+
+    private String bearer(String usuario) {
+        return "Bearer " + jwtUtil.generateToken(usuario);
+    }
+}
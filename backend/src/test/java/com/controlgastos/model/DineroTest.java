@@ -0,0 +1,26 @@
+package com.controlgastos.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DineroTest {
+    @Test
+    void ConvierteDecimalACentavos() {
+        assertEquals(1250, Dinero.de(new BigDecimal("12.5")).centavos());
+        assertEquals(new BigDecimal("0.30"), Dinero.deCentavos(10).mas(Dinero.deCentavos(20)).aDecimal());
+        assertThrows(ArithmeticException.class, () -> Dinero.de(new BigDecimal("0.125")));
+    }
+
+    @Test
+    void SerializaComoNumeroDecimal() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals("12.50", mapper.writeValueAsString(Dinero.deCentavos(1250)));
+        assertEquals(Dinero.deCentavos(1250), mapper.readValue("\"12.5\"", Dinero.class));
+        assertEquals(Dinero.deCentavos(1), mapper.readValue("0.01", Dinero.class));
+    }
+}
@@ -0,0 +1,71 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.PeriodoResumen;
+import com.controlgastos.model.TipoMovimiento;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:separacion;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "saldos.checkpoint.intervalo-ms=3600000" })
+public class ResumenJdbcRepositoryTest {
+
+    private static final LocalDate DIA = LocalDate.of(2031, 5, 4);
+
+    @Autowired
+    private ResumenJdbcRepository resumenJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void CreaElResumenYLuegoLoAcumula() {
+        resumenJdbcRepository.sumar(TipoMovimiento.GASTO, PeriodoResumen.DIA, 9001, DIA, 500, 2, 100, 400);
+        resumenJdbcRepository.sumar(TipoMovimiento.GASTO, PeriodoResumen.DIA, 9001, DIA, 50, 1, 50, 50);
+        resumenJdbcRepository.sumar(TipoMovimiento.GASTO, PeriodoResumen.DIA, 9002, DIA, 70, 1, 70, 70);
+
+        assertEquals("550|3|50|400", resumen(9001));
+        assertEquals("70|1|70|70", resumen(9002));
+    }
+
+    @Test
+    void SiOtraTransaccionInsertaPrimeroRepiteElUpdate() {
+        // Simula la carrera: entre el UPDATE sin filas y el INSERT, otra
+        // transacción crea la fila del mismo día
+        JdbcTemplate concurrente = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            private boolean primero = true;
+
+            @Override
+            public int update(String sql, Object... args) {
+                if (primero && sql.startsWith("UPDATE")) {
+                    primero = false;
+                    jdbcTemplate.update("INSERT INTO resumen_movimiento "
+                            + "(tipo, periodo, usuario_id, fecha, total, cantidad, minimo, maximo) "
+                            + "VALUES ('GASTO', 'DIA', 9003, ?, 30, 1, 30, 30)", Date.valueOf(DIA));
+                    return 0;
+                }
+                return super.update(sql, args);
+            }
+        };
+
+        new ResumenJdbcRepository(concurrente).sumar(TipoMovimiento.GASTO, PeriodoResumen.DIA, 9003, DIA, 200, 1,
+                200, 200);
+
+        assertEquals("230|2|30|200", resumen(9003));
+    }
+
+    private String resumen(long usuario) {
+        Map<String, Object> fila = jdbcTemplate.queryForMap("SELECT total, cantidad, minimo, maximo "
+                + "FROM resumen_movimiento WHERE tipo = 'GASTO' AND periodo = 'DIA' AND usuario_id = ? "
+                + "AND fecha = ?", usuario, Date.valueOf(DIA));
+        return fila.get("TOTAL") + "|" + fila.get("CANTIDAD") + "|" + fila.get("MINIMO") + "|" + fila.get("MAXIMO");
+    }
+}
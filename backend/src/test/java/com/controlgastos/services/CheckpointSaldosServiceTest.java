@@ -0,0 +1,84 @@
+package com.controlgastos.services;
+
+import com.controlgastos.clasesCalculos.MotorSaldos;
+import com.controlgastos.model.User;
+import com.controlgastos.repository.CapitalRepository;
+import com.controlgastos.repository.GastoRepository;
+import com.controlgastos.repository.IngresoRepository;
+import com.controlgastos.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:separacion;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "saldos.checkpoint.intervalo-ms=3600000" })
+public class CheckpointSaldosServiceTest {
+
+    @Autowired
+    private CapitalRepository capitalRepository;
+
+    @Autowired
+    private GastoRepository gastoRepository;
+
+    @Autowired
+    private IngresoRepository ingresoRepository;
+
+    @Autowired
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private CacheRespuestasService cacheRespuestasService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UsuariosService usuariosService;
+
+    @Test
+    void UnUsuarioEnConflictoNoDetieneAlRestoNiElCierre() {
+        long enConflicto = registrar("conflicto");
+        long sano = registrar("sano");
+        MotorSaldos motor = new MotorSaldos(1000);
+        motor.cargar(enConflicto, 0, 0, 0);
+        motor.cargar(sano, 0, 0, 0);
+        motor.registrarIngreso(enConflicto, 300);
+        motor.registrarIngreso(sano, 500);
+        CapitalService capitalService = new CapitalService(capitalRepository, new SimpleMeterRegistry()) {
+            @Override
+            public void aplicarDelta(long usuario, long delta) {
+                if (usuario == enConflicto) {
+                    throw new OptimisticLockingFailureException("Conflicto simulado");
+                }
+                super.aplicarDelta(usuario, delta);
+            }
+        };
+        CheckpointSaldosService checkpoint = new CheckpointSaldosService(motor, capitalService, capitalRepository,
+                gastoRepository, ingresoRepository, taskExecutor, cacheRespuestasService);
+
+        checkpoint.checkpoint();
+        checkpoint.cerrar();
+
+        assertEquals(500L, capitalRepository.findTopByUsuarioIdOrderByIdDesc(sano).get().getCapitalCentavos());
+        assertEquals(0L, motor.pendiente(sano));
+        // Queda sin confirmar para el siguiente checkpoint
+        assertEquals(300L, motor.pendiente(enConflicto));
+    }
+
+    private long registrar(String nombre) {
+        return usuariosService.buscar(nombre).map(User::getId).orElseGet(() -> {
+            User user = new User();
+            user.setUsername(nombre);
+            user.setPassword("clave");
+            User guardado = userRepository.save(user);
+            usuariosService.registrado(guardado);
+            return guardado.getId();
+        });
+    }
+}
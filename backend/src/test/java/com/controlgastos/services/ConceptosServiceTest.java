@@ -0,0 +1,77 @@
+package com.controlgastos.services;
+
+import com.controlgastos.model.ConceptoFrecuente;
+import com.controlgastos.repository.ConceptoFrecuenteRepository;
+import com.controlgastos.repository.GastoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:separacion;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "saldos.checkpoint.intervalo-ms=3600000" })
+public class ConceptosServiceTest {
+
+    private static final long EN_FALLA = 9201;
+    private static final long SANO = 9202;
+
+    @Autowired
+    private ConceptoFrecuenteRepository conceptoFrecuenteRepository;
+
+    @Autowired
+    private GastoRepository gastoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void UnUsuarioQueFallaNoDetieneAlRestoYSeReintenta() {
+        AtomicBoolean fallar = new AtomicBoolean(true);
+        ConceptoFrecuenteRepository repositorio = (ConceptoFrecuenteRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] { ConceptoFrecuenteRepository.class },
+                (proxy, metodo, args) -> {
+                    if (fallar.get() && metodo.getName().equals("borrarDeUsuario")
+                            && (Long) args[0] == EN_FALLA) {
+                        throw new QueryTimeoutException("Falla simulada");
+                    }
+                    try {
+                        return metodo.invoke(conceptoFrecuenteRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        ConceptosService conceptos = new ConceptosService(repositorio, gastoRepository, transactionManager, 10);
+        ReflectionTestUtils.setField(conceptos, "entityManager", entityManager);
+        conceptos.registrar(EN_FALLA, Collections.singletonMap("Renta", 1000L));
+        conceptos.registrar(SANO, Collections.singletonMap("Luz", 200L));
+
+        conceptos.guardar();
+        assertEquals(0, guardados(EN_FALLA));
+        assertEquals(1, guardados(SANO));
+
+        // Quedó marcado con cambios: el siguiente intervalo lo guarda
+        fallar.set(false);
+        conceptos.guardar();
+        assertEquals(1, guardados(EN_FALLA));
+    }
+
+    private long guardados(long usuario) {
+        return conceptoFrecuenteRepository.findAll().stream().map(ConceptoFrecuente::getUsuarioId)
+                .filter(id -> id == usuario).count();
+    }
+}
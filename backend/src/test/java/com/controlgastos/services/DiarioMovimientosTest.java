@@ -0,0 +1,117 @@
+package com.controlgastos.services;
+
+import com.controlgastos.model.Dinero;
+import com.controlgastos.model.Gasto;
+import com.controlgastos.model.TipoMovimiento;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DiarioMovimientosTest {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 250_000_000);
+
+    @Test
+    void RecuperaLosRegistrosAlReabrirEntreVariosSegmentos(@TempDir Path directorio) throws Exception {
+        try (DiarioMovimientos diario = new DiarioMovimientos(directorio, 4)) {
+            for (int i = 0; i < 10; i++) {
+                diario.agregar(i % 2 == 0 ? TipoMovimiento.GASTO : TipoMovimiento.INGRESO, 100 + i, 7,
+                        i % 3 == 0 ? "Renta" : "Súper", 1250 * i, FECHA.plusDays(i));
+            }
+            assertEquals(10, diario.forzar());
+        }
+
+        try (DiarioMovimientos diario = new DiarioMovimientos(directorio, 4)) {
+            assertEquals(10, diario.fin());
+            assertEquals(3, diario.cantidadSegmentos());
+            List<String> leidos = leer(diario, 0, 10);
+            assertEquals("GASTO|100|7|Renta|0|2024-03-01T09:30:15.250", leidos.get(0));
+            assertEquals("INGRESO|109|7|Renta|11250|2024-03-10T09:30:15.250", leidos.get(9));
+
+            diario.agregar(TipoMovimiento.GASTO, 110, 8, "Nuevo", 5, FECHA);
+            assertEquals("GASTO|110|8|Nuevo|5|2024-03-01T09:30:15.250", leer(diario, 10, 11).get(0));
+        }
+    }
+
+    @Test
+    void DescartaUnRegistroIncompletoYCompactaLoProyectado(@TempDir Path directorio) throws Exception {
+        try (DiarioMovimientos diario = new DiarioMovimientos(directorio, 4)) {
+            for (int i = 0; i < 7; i++) {
+                diario.agregar(TipoMovimiento.GASTO, i + 1, 1, "Luz", 100, FECHA);
+            }
+        }
+        // Escritura a medias del último registro (posición 6, segmento 1)
+        try (RandomAccessFile segmento = new RandomAccessFile(
+                directorio.resolve("00000000000000000001.seg").toFile(), "rw")) {
+            segmento.seek(2 * DiarioMovimientos.TAMANO_REGISTRO + 10);
+            segmento.write(0xFF);
+        }
+
+        try (DiarioMovimientos diario = new DiarioMovimientos(directorio, 4)) {
+            assertEquals(6, diario.fin());
+            diario.marcarProyectado(5);
+            assertEquals(0, diario.compactar());
+            assertEquals(1, diario.compactar());
+            assertEquals(1, diario.cantidadSegmentos());
+        }
+
+        try (DiarioMovimientos diario = new DiarioMovimientos(directorio, 4)) {
+            assertEquals(5, diario.proyectado());
+            assertEquals(4, diario.inicio());
+            assertEquals(6, diario.fin());
+            assertEquals("GASTO|6|1|Luz|100|2024-03-01T09:30:15.250", leer(diario, 5, 6).get(0));
+        }
+    }
+
+    @Test
+    void DescartaEnteroUnLoteIncompleto(@TempDir Path directorio) throws Exception {
+        try (DiarioMovimientos diario = new DiarioMovimientos(directorio, 4)) {
+            diario.agregar(TipoMovimiento.GASTO, 1, 1, "Luz", 100, FECHA);
+            diario.agregar(TipoMovimiento.GASTO, Arrays.asList(gasto(2), gasto(3)));
+            // Lote de las posiciones 3 a 5, entre los segmentos 0 y 1
+            assertEquals(3, diario.agregar(TipoMovimiento.GASTO, Arrays.asList(gasto(4), gasto(5), gasto(6))));
+        }
+        // Escritura a medias del último registro del lote (posición 5, segmento 1)
+        try (RandomAccessFile segmento = new RandomAccessFile(
+                directorio.resolve("00000000000000000001.seg").toFile(), "rw")) {
+            segmento.seek(DiarioMovimientos.TAMANO_REGISTRO + 10);
+            segmento.write(0xFF);
+        }
+
+        try (DiarioMovimientos diario = new DiarioMovimientos(directorio, 4)) {
+            assertEquals(3, diario.fin());
+            assertEquals("GASTO|3|1|Luz|100|2024-03-01T09:30:15.250", leer(diario, 2, 3).get(0));
+            diario.agregar(TipoMovimiento.GASTO, 7, 1, "Agua", 100, FECHA);
+        }
+
+        try (DiarioMovimientos diario = new DiarioMovimientos(directorio, 4)) {
+            assertEquals(4, diario.fin());
+            assertEquals("GASTO|7|1|Agua|100|2024-03-01T09:30:15.250", leer(diario, 3, 4).get(0));
+        }
+    }
+
+    private static Gasto gasto(long id) {
+        Gasto gasto = new Gasto();
+        gasto.setId(id);
+        gasto.setUsuarioId(1);
+        gasto.setConcepto("Luz");
+        gasto.setMonto(Dinero.deCentavos(100));
+        gasto.setFechaRegistro(FECHA);
+        return gasto;
+    }
+
+    private static List<String> leer(DiarioMovimientos diario, long desde, long hasta) {
+        List<String> leidos = new ArrayList<>();
+        diario.leer(desde, hasta, (tipo, id, usuario, concepto, centavos, fecha) -> leidos
+                .add(tipo + "|" + id + "|" + usuario + "|" + concepto + "|" + centavos + "|" + fecha));
+        return leidos;
+    }
+}
@@ -0,0 +1,87 @@
+package com.controlgastos.services;
+
+import com.controlgastos.model.Gasto;
+import com.controlgastos.model.Ingreso;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EscrituraAgrupadaServiceTest {
+
+    @Test
+    void UnErrorAlGuardarNoDetieneAlEscritor() throws Exception {
+        AtomicInteger llamadas = new AtomicInteger();
+        EscrituraAgrupadaService escritura = new EscrituraAgrupadaService(new MovimientoFalso() {
+            @Override
+            public void registrarGrupo(List<Gasto> gastos, List<Ingreso> ingresos) {
+                if (llamadas.incrementAndGet() == 1) {
+                    throw new StackOverflowError();
+                }
+            }
+        }, true, 16, 1, 0, 5000);
+        escritura.iniciar();
+
+        CompletableFuture<Gasto> fallido = escritura.registrarGasto(new Gasto());
+        ExecutionException error = assertThrows(ExecutionException.class, () -> fallido.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof StackOverflowError);
+
+        Gasto gasto = new Gasto();
+        assertSame(gasto, escritura.registrarGasto(gasto).get(5, TimeUnit.SECONDS));
+        escritura.cerrar();
+    }
+
+    @Test
+    void DescartaSinGuardarLoQueVenceEnLaColaYRechazaTrasCerrar() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        AtomicInteger guardados = new AtomicInteger();
+        EscrituraAgrupadaService escritura = new EscrituraAgrupadaService(new MovimientoFalso() {
+            @Override
+            public void registrarGrupo(List<Gasto> gastos, List<Ingreso> ingresos) {
+                ocupado.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                guardados.addAndGet(gastos.size());
+            }
+        }, true, 16, 1, 0, 50);
+        escritura.iniciar();
+
+        CompletableFuture<Gasto> enCurso = escritura.registrarGasto(new Gasto());
+        ocupado.await();
+        CompletableFuture<Gasto> enCola = escritura.registrarGasto(new Gasto());
+        ExecutionException vencido = assertThrows(ExecutionException.class, () -> enCola.get(5, TimeUnit.SECONDS));
+        assertTrue(vencido.getCause() instanceof EscrituraNoConfirmadaException);
+
+        // El que ya tomó el escritor no vence: espera su transacción
+        Thread.sleep(100);
+        assertFalse(enCurso.isDone());
+        liberar.countDown();
+        assertNotNull(enCurso.get(5, TimeUnit.SECONDS));
+        escritura.cerrar();
+        assertEquals(1, guardados.get());
+        assertNull(escritura.registrarGasto(new Gasto()));
+    }
+
+    /** Servicio sin dependencias; cada prueba define el registro del grupo. */
+    private static class MovimientoFalso extends MovimientoService {
+        MovimientoFalso() {
+            super(null, null, null, null, null, null, null, null, null, null, null, null, 50);
+        }
+    }
+}
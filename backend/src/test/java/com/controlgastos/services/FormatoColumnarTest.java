@@ -0,0 +1,33 @@
+package com.controlgastos.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FormatoColumnarTest {
+    @Test
+    void LeeLoMismoQueEscribeEnVariosBloques() throws Exception {
+        LocalDateTime fecha = LocalDateTime.of(2023, 1, 2, 10, 15, 30, 123456000);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        FormatoColumnar.Escritor escritor = new FormatoColumnar.Escritor(salida, 2);
+        escritor.escribir(1, "Super", 1250, fecha);
+        escritor.escribir(2, "Renta", 800000, fecha.plusDays(1));
+        escritor.escribir(50, "Super", 35, fecha.minusYears(60));
+        escritor.terminar();
+
+        List<String> filas = new ArrayList<>();
+        long total = FormatoColumnar.leer(new ByteArrayInputStream(salida.toByteArray()),
+                (id, concepto, monto, f) -> filas.add(id + "|" + concepto + "|" + monto + "|" + f));
+
+        assertEquals(3, total);
+        assertEquals("1|Super|1250|2023-01-02T10:15:30.123456", filas.get(0));
+        assertEquals("2|Renta|800000|2023-01-03T10:15:30.123456", filas.get(1));
+        assertEquals("50|Super|35|1963-01-02T10:15:30.123456", filas.get(2));
+    }
+}
@@ -0,0 +1,57 @@
+package com.controlgastos.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashContrasenasServiceTest {
+    @Test
+    void AceptaHashYTextoPlanoHeredado() {
+        HashContrasenasService hash = new HashContrasenasService(4, 1, 1);
+        String guardada = hash.hashear("clave");
+
+        assertTrue(hash.coincide("clave", guardada));
+        assertFalse(hash.coincide("otra", guardada));
+        assertFalse(hash.requiereRehash(guardada));
+        assertFalse(hash.simular("clave"));
+
+        assertTrue(hash.coincide("clave", "clave"));
+        assertFalse(hash.coincide("clav", "clave"));
+        assertTrue(hash.requiereRehash("clave"));
+        assertTrue(new HashContrasenasService(5, 1, 1).requiereRehash(guardada));
+        hash.cerrar();
+    }
+
+    @Test
+    void RechazaTareasConLaColaLlena() throws Exception {
+        HashContrasenasService hash = new HashContrasenasService(4, 1, 1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch ocupado = new CountDownLatch(1);
+
+        CompletableFuture<Integer> enCurso = hash.ejecutar(() -> {
+            ocupado.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 1;
+        });
+        ocupado.await();
+        CompletableFuture<Integer> enCola = hash.ejecutar(() -> 2);
+
+        assertNotNull(enCola);
+        assertNull(hash.ejecutar(() -> 3));
+        liberar.countDown();
+        assertEquals(1, enCurso.get());
+        assertEquals(2, enCola.get());
+        hash.cerrar();
+    }
+}
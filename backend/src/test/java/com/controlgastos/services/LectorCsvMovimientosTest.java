@@ -0,0 +1,65 @@
+package com.controlgastos.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LectorCsvMovimientosTest {
+
+    private final List<String> filas = new ArrayList<>();
+    private final List<String> errores = new ArrayList<>();
+
+    private final LectorCsvMovimientos.Receptor receptor = new LectorCsvMovimientos.Receptor() {
+        @Override
+        public void fila(long linea, String concepto, long montoCentavos, LocalDateTime fecha) {
+            filas.add(linea + "|" + concepto + "|" + montoCentavos + "|" + fecha);
+        }
+
+        @Override
+        public void error(long linea, String mensaje) {
+            errores.add(linea + "|" + mensaje);
+        }
+    };
+
+    @Test
+    void LeeFilasConEncabezadoYComillas() {
+        String csv = "concepto,monto,fecha\r\n"
+                + "Super,12.5,2023-01-02\r\n"
+                + "\"Renta, depto\",8000,2023-01-03T10:15\n"
+                + "Cafe,0.35,2023-01-04 08:00:30";
+        ByteBuffer buffer = ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8));
+        new LectorCsvMovimientos().leer(buffer, true, receptor);
+
+        assertEquals(3, filas.size());
+        assertEquals("2|Super|1250|2023-01-02T00:00", filas.get(0));
+        assertEquals("3|Renta, depto|800000|2023-01-03T10:15", filas.get(1));
+        assertEquals("4|Cafe|35|2023-01-04T08:00:30", filas.get(2));
+        assertEquals(0, errores.size());
+    }
+
+    @Test
+    void ReportaErroresDeFormato() {
+        String csv = "Super,1.234,2023-01-02\nSuper,abc,2023-01-02\nSuper,5\nSuper,5,2023-13-01\n";
+        new LectorCsvMovimientos().leer(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)), true, receptor);
+
+        assertEquals(0, filas.size());
+        assertEquals(4, errores.size());
+        assertEquals("1|El monto tiene más de dos decimales", errores.get(0));
+    }
+
+    @Test
+    void DejaSinConsumirLaLineaIncompleta() {
+        byte[] bytes = "Super,10,2023-01-02\nCafe,2,2023".getBytes(StandardCharsets.UTF_8);
+        LectorCsvMovimientos lector = new LectorCsvMovimientos();
+
+        int consumidos = lector.leer(ByteBuffer.wrap(bytes), false, receptor);
+        assertEquals("Super,10,2023-01-02\n".length(), consumidos);
+        assertEquals(1, filas.size());
+    }
+}
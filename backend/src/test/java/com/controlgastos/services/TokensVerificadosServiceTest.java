@@ -0,0 +1,45 @@
+package com.controlgastos.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TokensVerificadosServiceTest {
+    @Test
+    void VerificaLaFirmaSoloLaPrimeraVez() {
+        JwtUtil jwtUtil = new JwtUtil("secreto", 60000);
+        TokensVerificadosService tokens = new TokensVerificadosService(jwtUtil, new SimpleMeterRegistry(), 2);
+        String token = jwtUtil.generateToken("ana");
+
+        assertEquals("ana", tokens.autenticar(token));
+        assertEquals("ana", tokens.autenticar(token));
+        assertEquals("ana", tokens.autenticar(token));
+        assertEquals(2.0 / 3, tokens.tasaAciertos(), 1e-9);
+    }
+
+    @Test
+    void RechazaTokensInvalidosYExpirados() throws Exception {
+        JwtUtil otroSecreto = new JwtUtil("otro", 60000);
+        JwtUtil vencido = new JwtUtil("secreto", 1);
+        TokensVerificadosService tokens = new TokensVerificadosService(new JwtUtil("secreto", 60000),
+                new SimpleMeterRegistry(), 2);
+
+        assertNull(tokens.autenticar(otroSecreto.generateToken("ana")));
+        String token = vencido.generateToken("ana");
+        Thread.sleep(5);
+        assertNull(tokens.autenticar(token));
+        assertNull(tokens.autenticar("no-es-un-jwt"));
+    }
+
+    @Test
+    void SigueVerificandoAlLlenarse() {
+        JwtUtil jwtUtil = new JwtUtil("secreto", 60000);
+        TokensVerificadosService tokens = new TokensVerificadosService(jwtUtil, new SimpleMeterRegistry(), 2);
+
+        for (String usuario : new String[] { "ana", "luis", "eva", "juan" }) {
+            assertEquals(usuario, tokens.autenticar(jwtUtil.generateToken(usuario)));
+        }
+    }
+}
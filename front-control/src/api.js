@@ -0,0 +1,27 @@
+import axios from "axios";
+
+/**
+ * api.js
+ *
+ * Cliente HTTP para las rutas protegidas del backend (/api/**).
+ *
+ * <p>Agrega a cada petición el token JWT guardado en localStorage al hacer
+ * login, en la cabecera Authorization. El backend responde 401 a las
+ * peticiones sin token o con un token inválido o expirado.</p>
+ *
+ * <p>Las rutas públicas (/auth/login, /auth/register) usan axios directamente,
+ * sin token.</p>
+ */
+const api = axios.create({
+  baseURL: "http://localhost:8080/api",
+});
+
+api.interceptors.request.use((config) => {
+  const token = localStorage.getItem("token");
+  if (token) {
+    config.headers.Authorization = `Bearer ${token}`; // Autenticación vía JWT
+  }
+  return config;
+});
+
+export default api;
@@ -1,5 +1,5 @@
 import React, { useEffect, useState } from "react";
-import axios from "axios";
+import api from "../../api";
 import CapitalView from "./CapitalView";
 
 /**
@@ -7,23 +7,16 @@ import CapitalView from "./CapitalView";
  * y lo pasa como prop al componente de visualización CapitalView.
  *
  * <p>Al montar el componente, se realiza una petición GET a /api/capital
- * incluyendo el token JWT almacenado en localStorage.</p>
+ * incluyendo el token JWT almacenado en localStorage (ver api.js).</p>
  */
 function CapitalComponent() {
   // Estado local para almacenar el capital recibido
   const [capital, setCapital] = useState(null);
 
   useEffect(() => {
-    // Recupera el token JWT desde localStorage (asumido que se guardó al hacer login)
-    const token = localStorage.getItem("token");
-
     // Realiza la petición al backend con el token en el header Authorization
-    axios
-      .get("http://localhost:8080/api/capital", {
-        headers: {
-          Authorization: `Bearer ${token}`, // Autenticación vía JWT
-        },
-      })
+    api
+      .get("/capital")
       .then((response) => {
         // Actualiza el estado con el capital recibido
         setCapital(response.data);
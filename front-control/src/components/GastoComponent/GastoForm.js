@@ -1,5 +1,5 @@
 import React, { useState } from "react";
-import axios from "axios";
+import api from "../../api";
 import GastoFormView from "./GastoFormView";
 
 /**
@@ -24,8 +24,8 @@ const GastoForm = () => {
         // Construye el objeto de gasto a enviar
         const newGasto = { concepto, monto };
 
-        // Realiza la petición POST al backend
-        axios.post("http://localhost:8080/api/gasto", newGasto)
+        // Realiza la petición POST al backend, con el token del usuario
+        api.post("/gasto", newGasto)
             .then(response => {
                 console.log("Spent registered:", response.data);
                 setConcepto('');
@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from "react";
-import axios from "axios";
+import api from "../../api";
 import GastoListView from "./GastoListView";
 
 /**
@@ -9,7 +9,7 @@ import GastoListView from "./GastoListView";
  * y pasarla como prop al componente de presentación GastoListView.
  *
  * <p>Al montar el componente, realiza una petición GET a /api/gasto
- * para recuperar todos los gastos registrados.</p>
+ * para recuperar todos los gastos del usuario autenticado.</p>
  */
 const GastoList = () => {
     // Estado local para almacenar la lista de gastos
@@ -17,8 +17,8 @@ const GastoList = () => {
 
     useEffect(() => {
         // Realiza la petición al backend para obtener los gastos
-        axios
-            .get("http://localhost:8080/api/gasto")
+        api
+            .get("/gasto")
             .then((response) => {
                 setGastos(response.data); // Actualiza el estado con los datos recibidos
             })
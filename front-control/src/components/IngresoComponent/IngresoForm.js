@@ -1,5 +1,5 @@
 import React, { useState } from "react";
-import axios from "axios";
+import api from "../../api";
 import IngresoFormView from "./IngresoFormView";
 
 /**
@@ -27,7 +27,7 @@ const IngresoForm = () => {
 
     const newIngreso = { concepto, monto };
 
-    axios.post("http://localhost:8080/api/ingreso", newIngreso)
+    api.post("/ingreso", newIngreso)
       .then(response => {
         console.log('Ingreso registrado', response.data);
         setConcepto('');
@@ -47,9 +47,9 @@ const LoginForm = ({ setToken, setShowRegister, showRegister }) => {
         { username, password }
       );
 
-      // Guardar token en estado global y localStorage
-      setToken(data);
-      localStorage.setItem("token", data);
+      // Guardar token en estado global y localStorage (la respuesta es { token, username })
+      setToken(data.token);
+      localStorage.setItem("token", data.token);
 
       alert("Login successful");
     } catch (error) {